@@ -5,17 +5,18 @@ import com.lineage.dto.AssetSummaryDto;
 import com.lineage.dto.LineageDirection;
 import com.lineage.dto.LineageResponseDto;
 import com.lineage.service.LineageApiService;
+import com.lineage.service.TemporalLineageService;
 import com.lineage.repository.AssetRepository;
-import com.lineage.repository.AssetFileRepository;
-import com.lineage.repository.LineageRepository;
 import com.lineage.entity.Asset;
-import com.lineage.entity.AssetFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.*;
 
 @RestController
@@ -26,25 +27,57 @@ public class AssetsController {
     private static final Logger logger = LoggerFactory.getLogger(AssetsController.class);
 
     @Autowired private AssetRepository assetRepository;
-    @Autowired private AssetFileRepository assetFileRepository;
-    @Autowired private LineageRepository lineageRepository;
     @Autowired private LineageApiService lineageApiService;
+    @Autowired private TemporalLineageService temporalLineageService;
 
+    private static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * GET /assets?q=&schema=&role=&runId=&sort=name|criticality&size=20&cursor=...
+     * Keyset-paginated asset listing; filtering happens in the database and degree counts,
+     * first/last-seen values and graph scores are fetched for the whole page in one query. Pass the
+     * returned nextCursor (with the same sort) to get the following page (null when there are no more rows).
+     */
     @GetMapping("")
     public ResponseEntity<Map<String, Object>> listAssets(
-            @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(required = false) String q) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String schema,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) UUID runId,
+            @RequestParam(defaultValue = "name") String sort) {
         try {
-            List<Asset> all = assetRepository.findAll();
-            if (q != null && !q.isBlank()) {
-                String query = q.toLowerCase();
-                all.removeIf(a -> (a.getShortName() == null || !a.getShortName().toLowerCase().contains(query)) &&
-                        (a.getFullName() == null || !a.getFullName().toLowerCase().contains(query)));
+            boolean byCriticality = "criticality".equalsIgnoreCase(sort);
+            if (!byCriticality && !"name".equalsIgnoreCase(sort)) return ResponseEntity.badRequest().build();
+            int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+            String[] after = cursor != null && !cursor.isBlank() ? decodeCursor(cursor) : new String[]{null, null};
+            if (byCriticality && after[0] != null && !isNumber(after[0])) {
+                return ResponseEntity.badRequest().body(Map.of("error",
+                        "cursor was not issued for sort=criticality; restart paging without a cursor"));
+            }
+            String contains = (q != null && !q.isBlank())
+                    ? "%" + AssetRepository.escapeLike(q.trim().toLowerCase()) + "%" : null;
+            String roleFilter = (role != null && !role.isBlank()) ? Asset.Role.valueOf(role.trim().toUpperCase()).name() : null;
+
+            String schemaFilter = (schema != null && !schema.isBlank()) ? schema.trim() : null;
+            String runFilter = runId != null ? runId.toString() : null;
+
+            // Fetch one extra row to know whether another page exists
+            List<Asset> rows = byCriticality
+                    ? assetRepository.findPageByCriticalityAfter(contains, schemaFilter, roleFilter, runFilter,
+                            after[0], after[1], pageSize + 1)
+                    : assetRepository.findPageAfter(contains, schemaFilter, roleFilter, runFilter,
+                            after[0], after[1], pageSize + 1);
+            boolean hasMore = rows.size() > pageSize;
+            List<Asset> pageItems = hasMore ? rows.subList(0, pageSize) : rows;
+
+            Map<UUID, Object[]> stats = new HashMap<>();
+            if (!pageItems.isEmpty()) {
+                List<UUID> ids = new ArrayList<>();
+                for (Asset a : pageItems) ids.add(a.getAssetId());
+                for (Object[] row : assetRepository.findPageStats(ids)) stats.put((UUID) row[0], row);
             }
-            int from = Math.min(page * size, all.size());
-            int to = Math.min(from + size, all.size());
-            List<Asset> pageItems = all.subList(from, to);
 
             List<AssetSummaryDto> items = new ArrayList<>();
             for (Asset a : pageItems) {
@@ -54,24 +87,32 @@ public class AssetsController {
                 dto.setFullName(a.getFullName());
                 dto.setSchemaName(a.getSchemaName());
                 dto.setRole(a.getRole() != null ? a.getRole().name() : null);
-                dto.setUpstreamCount(lineageRepository.findByToAssetAssetId(a.getAssetId()).size());
-                dto.setDownstreamCount(lineageRepository.findByFromAssetAssetId(a.getAssetId()).size());
-                // best-effort first/last seen via AssetFile
-                List<AssetFile> links = assetFileRepository.findByAssetAssetId(a.getAssetId());
-                if (!links.isEmpty()) {
-                    links.sort(Comparator.comparing(af -> af.getCreatedAt()));
-                    dto.setFirstSeenAt(links.get(0).getCreatedAt());
-                    dto.setLastSeenAt(links.get(links.size()-1).getCreatedAt());
+                Object[] st = stats.get(a.getAssetId());
+                if (st != null) {
+                    dto.setUpstreamCount(((Number) st[1]).intValue());
+                    dto.setDownstreamCount(((Number) st[2]).intValue());
+                    // best-effort first/last seen via AssetFile
+                    dto.setFirstSeenAt(toLocalDateTime(st[3]));
+                    dto.setLastSeenAt(toLocalDateTime(st[4]));
+                    dto.setCriticality(st[5] != null ? ((Number) st[5]).doubleValue() : null);
+                    dto.setDownstreamClosure(st[6] != null ? ((Number) st[6]).intValue() : null);
+                    dto.setFanIn(st[7] != null ? ((Number) st[7]).intValue() : null);
+                    dto.setFanOut(st[8] != null ? ((Number) st[8]).intValue() : null);
                 }
                 items.add(dto);
             }
 
             Map<String, Object> resp = new HashMap<>();
             resp.put("items", items);
-            resp.put("totalElements", all.size());
-            resp.put("totalPages", (int) Math.ceil((double) all.size() / size));
-            resp.put("currentPage", page);
-            resp.put("pageSize", size);
+            resp.put("pageSize", pageSize);
+            resp.put("hasMore", hasMore);
+            Asset last = pageItems.isEmpty() ? null : pageItems.get(pageItems.size() - 1);
+            String lastKey = null;
+            if (hasMore) {
+                Double score = items.get(items.size() - 1).getCriticality();
+                lastKey = byCriticality ? String.valueOf(score != null ? score : 0.0) : last.getShortName().toLowerCase();
+            }
+            resp.put("nextCursor", hasMore ? encodeCursor(lastKey, last) : null);
             return ResponseEntity.ok(resp);
         } catch (Exception e) {
             logger.error("Failed to list assets: {}", e.getMessage(), e);
@@ -108,15 +149,49 @@ public class AssetsController {
     @GetMapping("/{assetId}/lineage")
     public ResponseEntity<LineageResponseDto> getAssetLineage(
             @PathVariable UUID assetId,
-            @RequestParam LineageDirection direction) {
+            @RequestParam LineageDirection direction,
+            @RequestParam(required = false) String asOf,
+            @RequestParam(required = false) UUID asOfRun) {
         try {
             Asset a = assetRepository.findById(assetId).orElse(null);
             if (a == null) return ResponseEntity.notFound().build();
-            LineageResponseDto resp = lineageApiService.getLineage(a.getShortName(), direction);
+            LocalDateTime pointInTime = temporalLineageService.resolveAsOf(asOf, asOfRun);
+            LineageResponseDto resp = lineageApiService.getLineage(a.getShortName(), direction, pointInTime);
             return ResponseEntity.ok(resp);
         } catch (Exception e) {
             logger.error("Failed to get asset lineage {}: {}", assetId, e.getMessage(), e);
             return ResponseEntity.badRequest().build();
         }
     }
-}
\ No newline at end of file
+
+    // Opaque cursor: base64url("<sort key>|<asset id>") of the last row served; the sort key is the
+    // lower-cased short name, or the criticality score when sorting by criticality
+    private static String encodeCursor(String sortKey, Asset last) {
+        String raw = sortKey + "|" + last.getAssetId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean isNumber(String value) {
+        try {
+            Double.parseDouble(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int sep = raw.lastIndexOf('|');
+        if (sep < 0) throw new IllegalArgumentException("Invalid cursor");
+        String id = raw.substring(sep + 1);
+        UUID.fromString(id);
+        return new String[]{raw.substring(0, sep), id};
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp) return ((Timestamp) value).toLocalDateTime();
+        if (value instanceof LocalDateTime) return (LocalDateTime) value;
+        return null;
+    }
+}
@@ -1,5 +1,6 @@
 package com.lineage.controller;
 
+import com.lineage.dto.FileManifestEntry;
 import com.lineage.dto.RepositoryScanRequest;
 import com.lineage.dto.WebhookEvent;
 import com.lineage.entity.ExtractionRun;
@@ -7,6 +8,8 @@ import com.lineage.entity.ExtractionLog;
 import com.lineage.entity.JobStatus;
 import com.lineage.repository.ExtractionLogRepository;
 import com.lineage.service.ExtractionService;
+import com.lineage.service.IncrementalRunService;
+import com.lineage.service.ShardedRunService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -39,6 +42,12 @@ public class ExtractionController {
     @Autowired
     private ExtractionLogRepository logRepository;
 
+    @Autowired
+    private IncrementalRunService incrementalRunService;
+
+    @Autowired
+    private ShardedRunService shardedRunService;
+
     /**
      * Start a new extraction run
      */
@@ -133,6 +142,28 @@ public class ExtractionController {
         }
     }
 
+    /**
+     * File manifest from an extraction pod: [{filePath, fileHash}, ...] for the whole checkout.
+     * Unchanged files of an INCREMENTAL run are carried forward from its baseline run;
+     * the response lists the paths the pod still has to extract ("extract").
+     * A shard of a sharded run passes its index and gets back only its partition of those paths.
+     */
+    @PostMapping("/runs/{runId}/manifest")
+    public ResponseEntity<Map<String, Object>> submitManifest(
+            @PathVariable UUID runId,
+            @RequestParam(required = false) Integer shard,
+            @RequestBody List<FileManifestEntry> manifest) {
+        try {
+            if (shard != null) {
+                return ResponseEntity.ok(shardedRunService.applyManifest(runId, shard, manifest));
+            }
+            return ResponseEntity.ok(incrementalRunService.applyManifest(runId, manifest));
+        } catch (Exception e) {
+            logger.error("Failed to apply manifest for run {}: {}", runId, e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Get logs for a specific extraction run
      */
@@ -288,4 +319,20 @@ public class ExtractionController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    /**
+     * Get orchestration pool status (active and queued container launches)
+     */
+    @GetMapping("/orchestration")
+    public ResponseEntity<Map<String, Object>> getOrchestrationStatus() {
+        return ResponseEntity.ok(dockerService.getOrchestrationStats());
+    }
+
+    /**
+     * Get the extraction queue: container slots, running runs and queued runs with position and estimated start
+     */
+    @GetMapping("/queue")
+    public ResponseEntity<Map<String, Object>> getQueue() {
+        return ResponseEntity.ok(extractionService.getSchedulerQueue());
+    }
 }
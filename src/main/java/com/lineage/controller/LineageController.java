@@ -1,16 +1,38 @@
 package com.lineage.controller;
 
 import com.lineage.dto.*;
+import com.lineage.entity.ExtractionRun;
+import com.lineage.entity.ImportJob;
+import com.lineage.repository.ExtractionRunRepository;
+import com.lineage.repository.ImportJobRepository;
+import com.lineage.service.AutocompleteService;
+import com.lineage.service.ColumnIndexService;
 import com.lineage.service.LineageApiService;
+import com.lineage.service.LineageComponentService;
+import com.lineage.service.LineageExportService;
+import com.lineage.service.LineageGraphService;
+import com.lineage.service.LineageImportService;
+import com.lineage.service.LineageLayoutService;
+import com.lineage.service.LineagePathService;
+import com.lineage.service.LineageResponseCache;
+import com.lineage.service.TemporalLineageService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.FileNotFoundException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -27,25 +49,84 @@ public class LineageController {
 
     private static final Logger logger = LoggerFactory.getLogger(LineageController.class);
 
+    private static final int MAX_BATCH_REQUESTS = 1000;
+
     @Autowired
     private LineageApiService lineageApiService;
 
+    @Autowired
+    private AutocompleteService autocompleteService;
+
+    @Autowired
+    private ColumnIndexService columnIndexService;
+
+    @Autowired
+    private TemporalLineageService temporalLineageService;
+
+    @Autowired
+    private LineageExportService lineageExportService;
+
+    @Autowired
+    private LineageImportService lineageImportService;
+
+    @Autowired
+    private LineageGraphService lineageGraphService;
+
+    @Autowired
+    private LineagePathService lineagePathService;
+
+    @Autowired
+    private LineageComponentService lineageComponentService;
+
+    @Autowired
+    private LineageLayoutService lineageLayoutService;
+
+    @Autowired
+    private LineageResponseCache lineageResponseCache;
+
+    @Autowired
+    private ExtractionRunRepository extractionRunRepository;
+
+    @Autowired
+    private ImportJobRepository importJobRepository;
+
     // ===============================
     // FRONTEND-COMPATIBLE ENDPOINTS
     // ===============================
 
     /**
-     * Frontend endpoint: GET /lineage?entityId=X&direction=Y
+     * Frontend endpoint: GET /lineage?entityId=X&direction=Y[&asOf=2024-05-01T00:00:00|&asOfRun=<runId>][&include=nodes,columns]
      * Returns upstream or downstream lineage for a given entity, including optional
-     * table-level transformations and fine-grained (column) lineage.
+     * table-level transformations and fine-grained (column) lineage. Without asOf/asOfRun the
+     * current lineage is returned; otherwise the lineage that was valid at that time or run.
+     * include selects the sections (nodes, transformations, columns, schema; default the first three);
+     * the others are available from the paged /entity/{entityId}/... endpoints.
+     * Current lineage is served from the encoded response cache (gzip when the client accepts it).
      */
     @GetMapping("")
-    public ResponseEntity<LineageResponseDto> getLineage(
+    public ResponseEntity<?> getLineage(
             @RequestParam String entityId,
-            @RequestParam LineageDirection direction) {
+            @RequestParam LineageDirection direction,
+            @RequestParam(required = false) String asOf,
+            @RequestParam(required = false) UUID asOfRun,
+            @RequestParam(required = false) String include,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         logger.info("Getting {} lineage for entity: {}", direction, entityId);
+        LocalDateTime pointInTime;
+        Set<LineageSection> sections;
+        try {
+            pointInTime = temporalLineageService.resolveAsOf(asOf, asOfRun);
+            sections = LineageSection.parse(include, LineageApiService.LINEAGE_SECTIONS);
+        } catch (Exception e) {
+            logger.warn("Invalid asOf/asOfRun/include for lineage of {}: {}", entityId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            LineageResponseDto response = lineageApiService.getLineage(entityId, direction);
+            if (pointInTime == null) {
+                return cachedJson(lineageResponseCache.lineage(entityId, direction, sections,
+                        () -> lineageApiService.getLineage(entityId, direction, null, sections)), acceptEncoding);
+            }
+            LineageResponseDto response = lineageApiService.getLineage(entityId, direction, pointInTime, sections);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             logger.error("Failed to get lineage for entity {}: {}", entityId, e.getMessage(), e);
@@ -54,14 +135,17 @@ public class LineageController {
     }
 
     /**
-     * Frontend endpoint: GET /search/entities?q=...
-     * Simple search over processed tables by entity name/id.
+     * Frontend endpoint: GET /search/entities?q=...&limit=50[&sort=relevance|criticality]
+     * Ranked search over processed tables by entity name/id, one result per table across runs.
      */
     @GetMapping("/search/entities")
-    public ResponseEntity<List<SearchResultItem>> searchEntities(@RequestParam("q") String query) {
+    public ResponseEntity<List<SearchResultItem>> searchEntities(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "relevance") String sort) {
         logger.info("Searching entities for query: {}", query);
         try {
-            List<SearchResultItem> results = lineageApiService.searchEntities(query);
+            List<SearchResultItem> results = lineageApiService.searchEntities(query, limit, "criticality".equalsIgnoreCase(sort));
             return ResponseEntity.ok(results);
         } catch (Exception e) {
             logger.error("Search failed for query {}: {}", query, e.getMessage(), e);
@@ -70,14 +154,66 @@ public class LineageController {
     }
 
     /**
-     * Frontend endpoint: POST /lineage { entityId, direction }
+     * Frontend endpoint: GET /search/suggest?q=...&limit=10
+     * Search-as-you-type suggestions (tables and columns) served from the in-memory prefix index.
+     */
+    @GetMapping("/search/suggest")
+    public ResponseEntity<List<SuggestionDto>> suggest(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(autocompleteService.suggest(query, limit));
+        } catch (Exception e) {
+            logger.error("Suggest failed for query {}: {}", query, e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Frontend endpoint: GET /search/columns?q=customer_id&page=0&size=50
+     * Lists the tables containing a column (exact, case-insensitive name match) with the roles it appears in.
+     */
+    @GetMapping("/search/columns")
+    public ResponseEntity<Map<String, Object>> searchColumns(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            int pageSize = Math.max(1, Math.min(size, 500));
+            List<ColumnOccurrenceDto> items = new ArrayList<>();
+            int total = columnIndexService.findTables(query, Math.max(page, 0), pageSize, items);
+            Map<String, Object> resp = new HashMap<>();
+            resp.put("column", query == null ? null : query.trim().toLowerCase());
+            resp.put("items", items);
+            resp.put("totalElements", total);
+            resp.put("totalPages", (int) Math.ceil((double) total / pageSize));
+            resp.put("currentPage", page);
+            resp.put("pageSize", pageSize);
+            return ResponseEntity.ok(resp);
+        } catch (Exception e) {
+            logger.error("Column search failed for query {}: {}", query, e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Frontend endpoint: POST /lineage { entityId, direction, asOf?, asOfRun?, include? }
      * Same as GET /lineage, parameters accepted via JSON body.
      */
     @PostMapping("")
     public ResponseEntity<LineageResponseDto> getLineagePost(@RequestBody LineageRequestDto request) {
         logger.info("Getting {} lineage for entity: {}", request.getDirection(), request.getEntityId());
+        LocalDateTime pointInTime;
+        Set<LineageSection> sections;
         try {
-            LineageResponseDto response = lineageApiService.getLineage(request.getEntityId(), request.getDirection());
+            pointInTime = temporalLineageService.resolveAsOf(request.getAsOf(), request.getAsOfRun());
+            sections = LineageSection.parse(request.getInclude(), LineageApiService.LINEAGE_SECTIONS);
+        } catch (Exception e) {
+            logger.warn("Invalid asOf/asOfRun/include for lineage of {}: {}", request.getEntityId(), e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            LineageResponseDto response = lineageApiService.getLineage(request.getEntityId(), request.getDirection(), pointInTime, sections);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             logger.error("Failed to get lineage for entity {}: {}", request.getEntityId(), e.getMessage(), e);
@@ -85,6 +221,108 @@ public class LineageController {
         }
     }
 
+    /**
+     * Frontend endpoint: POST /batch {"requests": [{"entityId": "X", "direction": "upstream"}, ...], "include": "nodes"}
+     * Current lineage for many (entityId, direction) pairs in one call, built from a single edge
+     * query, so the number of database round trips does not depend on the number of pairs. The response
+     * has one entry per requested pair, in order; unanswerable pairs carry an "error" marker.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<LineageResponseDto>> getLineageBatch(@RequestBody LineageBatchRequestDto request) {
+        List<LineageRequestDto> requests = request.getRequests() == null ? List.of() : request.getRequests();
+        logger.info("Getting batched lineage for {} requests", requests.size());
+        Set<LineageSection> sections;
+        try {
+            if (requests.size() > MAX_BATCH_REQUESTS) return ResponseEntity.badRequest().build();
+            for (LineageRequestDto r : requests) {
+                if (r.getAsOf() != null || r.getAsOfRun() != null) return ResponseEntity.badRequest().build();
+            }
+            sections = LineageSection.parse(request.getInclude(), LineageApiService.LINEAGE_SECTIONS);
+        } catch (Exception e) {
+            logger.warn("Invalid batched lineage request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(lineageApiService.getLineageBatch(requests, sections));
+        } catch (Exception e) {
+            logger.error("Failed to get batched lineage: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Frontend endpoint: POST /subgraph {"seeds": [...], "upstreamDepth": 3, "downstreamDepth": 3, "maxNodes": 2000}
+     * Returns the union of the seeds' upstream and downstream lineage as one deduplicated graph
+     * (table-level nodes and the edges between them), computed in a single traversal.
+     */
+    @PostMapping("/subgraph")
+    public ResponseEntity<LineageGraphDto> getSubgraph(@RequestBody SubgraphRequestDto request) {
+        try {
+            if (request.getSeeds() == null || request.getSeeds().isEmpty()) return ResponseEntity.badRequest().build();
+            LineageGraphDto graph = lineageGraphService.subgraph(request.getSeeds(), request.getUpstreamDepth(),
+                    request.getDownstreamDepth(), request.getMaxNodes());
+            return ResponseEntity.ok(graph);
+        } catch (Exception e) {
+            logger.error("Failed to build subgraph: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Frontend endpoint: POST /layout (same body as POST /subgraph)
+     * Returns the subgraph with a precomputed layered layout: every node carries its layer
+     * (column, sources first) and its order within the layer; nodes are sorted by both.
+     */
+    @PostMapping("/layout")
+    public ResponseEntity<LineageGraphDto> getLayout(@RequestBody SubgraphRequestDto request) {
+        try {
+            if (request.getSeeds() == null || request.getSeeds().isEmpty()) return ResponseEntity.badRequest().build();
+            LineageGraphDto graph = lineageLayoutService.layout(request.getSeeds(), request.getUpstreamDepth(),
+                    request.getDownstreamDepth(), request.getMaxNodes());
+            return ResponseEntity.ok(graph);
+        } catch (Exception e) {
+            logger.error("Failed to lay out subgraph: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Frontend endpoint: GET /path?from=raw_orders&to=revenue[&k=3&maxDepth=10&timeoutMs=2000]
+     * Returns up to k loop-free paths (shortest first) from one table to another, with the
+     * transformations on every edge. The search is bounded by maxDepth hops and a time budget.
+     */
+    @GetMapping("/path")
+    public ResponseEntity<LineagePathsDto> getPaths(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(defaultValue = "1") int k,
+            @RequestParam(required = false) Integer maxDepth,
+            @RequestParam(required = false) Long timeoutMs) {
+        try {
+            LineagePathsDto paths = lineagePathService.findPaths(from, to, k, maxDepth, timeoutMs);
+            if (paths == null) return ResponseEntity.notFound().build();
+            return ResponseEntity.ok(paths);
+        } catch (Exception e) {
+            logger.error("Failed to find paths from {} to {}: {}", from, to, e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Frontend endpoint: GET /cycles[?limit=100]
+     * Returns the cycles (strongly connected components) of the current lineage graph, largest
+     * first, each with its tables and one closed path through them.
+     */
+    @GetMapping("/cycles")
+    public ResponseEntity<Map<String, Object>> getCycles(@RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(lineageComponentService.cycles(limit));
+        } catch (Exception e) {
+            logger.error("Failed to list lineage cycles: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Frontend endpoint: GET /edge/{edgeId}
      * Returns details about a specific lineage edge from normalized schema.
@@ -100,26 +338,184 @@ public class LineageController {
         }
     }
 
+    /**
+     * Frontend endpoint: GET /edge/{edgeId}/snippet?context=3
+     * Returns the SQL lines of an edge's transformation (plus context lines) as plain text.
+     */
+    @GetMapping(value = "/edge/{edgeId}/snippet", produces = "text/plain")
+    public ResponseEntity<String> getEdgeSnippet(
+            @PathVariable String edgeId,
+            @RequestParam(defaultValue = "3") int context) {
+        try {
+            return ResponseEntity.ok(lineageApiService.getEdgeSnippet(edgeId, context));
+        } catch (Exception e) {
+            logger.error("Failed to get snippet for edge {}: {}", edgeId, e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Export endpoint: GET /export?format=ndjson|openlineage[&runId=...]
+     * Streams the current lineage (or the lineage as of a completed run) as newline-delimited JSON:
+     * asset and column records followed by one edge per line, or one OpenLineage DatasetEvent per table
+     * followed by one RunEvent per file and output table.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) UUID runId) {
+        try {
+            String fmt = format.trim().toLowerCase();
+            if (!LineageExportService.FORMAT_NDJSON.equals(fmt) && !LineageExportService.FORMAT_OPENLINEAGE.equals(fmt)) {
+                return ResponseEntity.badRequest().build();
+            }
+            ExtractionRun run = null;
+            if (runId != null) {
+                run = extractionRunRepository.findById(runId).orElse(null);
+                if (run == null) return ResponseEntity.notFound().build();
+                if (run.getPhase() != ExtractionRun.ExtractionPhase.COMPLETED) return ResponseEntity.badRequest().build();
+            }
+            final ExtractionRun asOfRun = run;
+            StreamingResponseBody body = out -> lineageExportService.export(fmt, asOfRun, out);
+            String filename = "lineage-" + (runId != null ? runId : "current") + "." + fmt + ".jsonl";
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                    .body(body);
+        } catch (Exception e) {
+            logger.error("Failed to export lineage: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Import endpoint: POST /import {"path": "dumps/lineage.ndjson.gz"}
+     * Loads an ndjson export (plain, gzip or LZ4) from the import directory in the background.
+     * Returns the import job; poll GET /import/{importId} for progress and rows/sec.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<Map<String, Object>> startImport(@RequestBody Map<String, String> request) {
+        try {
+            ImportJob job = lineageImportService.start(request.get("path"));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(lineageImportService.status(job));
+        } catch (FileNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            logger.error("Failed to start lineage import: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/import/{importId}")
+    public ResponseEntity<Map<String, Object>> getImport(@PathVariable UUID importId) {
+        ImportJob job = importJobRepository.findById(importId).orElse(null);
+        if (job == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(lineageImportService.status(job));
+    }
+
+    /**
+     * Import endpoint: POST /import/{importId}/resume
+     * Restarts an interrupted or failed import from its last checkpoint.
+     */
+    @PostMapping("/import/{importId}/resume")
+    public ResponseEntity<Map<String, Object>> resumeImport(@PathVariable UUID importId) {
+        try {
+            ImportJob job = importJobRepository.findById(importId).orElse(null);
+            if (job == null) return ResponseEntity.notFound().build();
+            job = lineageImportService.resume(job);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(lineageImportService.status(job));
+        } catch (Exception e) {
+            logger.error("Failed to resume lineage import {}: {}", importId, e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // ===============================
     // ENTITY ENDPOINTS
     // ===============================
 
     /**
-     * Frontend endpoint: GET /entity/{entityId}
+     * Frontend endpoint: GET /entity/{entityId}[?include=schema,columns]
      * Returns entity summary (counts, presence flags, schema metadata, fine-grained lineage).
+     * include selects the optional sections (schema, columns; default both).
      */
     @GetMapping("/entity/{entityId}")
-    public ResponseEntity<EntityDto> getEntity(@PathVariable String entityId) {
+    public ResponseEntity<byte[]> getEntity(
+            @PathVariable String entityId,
+            @RequestParam(required = false) String include,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         logger.info("Getting entity details for: {}", entityId);
+        Set<LineageSection> sections;
         try {
-            EntityDto entity = lineageApiService.getEntity(entityId);
-            return ResponseEntity.ok(entity);
+            sections = LineageSection.parse(include, LineageApiService.ENTITY_SECTIONS);
+        } catch (Exception e) {
+            logger.warn("Invalid include for entity {}: {}", entityId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return cachedJson(lineageResponseCache.entity(entityId, sections,
+                    () -> lineageApiService.getEntity(entityId, sections)), acceptEncoding);
         } catch (Exception e) {
             logger.error("Failed to get entity {}: {}", entityId, e.getMessage(), e);
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * Frontend endpoint: GET /entity/{entityId}/schema?page=0&size=100
+     * Pages through the entity's schema fields (the "schema" section).
+     */
+    @GetMapping("/entity/{entityId}/schema")
+    public ResponseEntity<Map<String, Object>> getEntitySchema(
+            @PathVariable String entityId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        try {
+            return ResponseEntity.ok(lineageApiService.getSchemaPage(entityId, page, pageSize(size)));
+        } catch (Exception e) {
+            logger.error("Failed to get schema of {}: {}", entityId, e.getMessage(), e);
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Frontend endpoint: GET /entity/{entityId}/columns?direction=upstream&page=0&size=100
+     * Pages through the entity's current fine-grained (column) lineage in one direction (the "columns" section).
+     */
+    @GetMapping("/entity/{entityId}/columns")
+    public ResponseEntity<Map<String, Object>> getEntityColumnLineage(
+            @PathVariable String entityId,
+            @RequestParam LineageDirection direction,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        try {
+            return ResponseEntity.ok(lineageApiService.getColumnLineagePage(entityId, direction, page, pageSize(size)));
+        } catch (Exception e) {
+            logger.error("Failed to get column lineage of {}: {}", entityId, e.getMessage(), e);
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Frontend endpoint: GET /entity/{entityId}/transformations?direction=upstream&neighbor=Y&page=0&size=100
+     * Pages through the current transformations between the entity and one neighbouring table
+     * (the "transformations" section of that node).
+     */
+    @GetMapping("/entity/{entityId}/transformations")
+    public ResponseEntity<Map<String, Object>> getEntityTransformations(
+            @PathVariable String entityId,
+            @RequestParam LineageDirection direction,
+            @RequestParam String neighbor,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        try {
+            return ResponseEntity.ok(lineageApiService.getTransformationsPage(entityId, direction, neighbor, page, pageSize(size)));
+        } catch (Exception e) {
+            logger.error("Failed to get transformations between {} and {}: {}", entityId, neighbor, e.getMessage(), e);
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     /**
      * Frontend endpoint: POST /entity/bulk [entityId1, entityId2, ...]
      * Returns multiple entity summaries in a single call.
@@ -137,4 +533,22 @@ public class LineageController {
     }
 
     // Legacy admin endpoints removed - using simplified normalized schema
-}
\ No newline at end of file
+
+    private static int pageSize(int size) {
+        return Math.max(1, Math.min(size, 1000));
+    }
+
+    /**
+     * Writes pre-encoded JSON as-is (the byte array converter copies it to the response stream),
+     * using the gzip copy when there is one and the client accepts it
+     */
+    private static ResponseEntity<byte[]> cachedJson(LineageResponseCache.Payload payload, String acceptEncoding) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (payload.gzip() != null && acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip")) {
+            return ok.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.gzip());
+        }
+        return ok.body(payload.json());
+    }
+}
@@ -1,14 +1,21 @@
 package com.lineage.controller;
 
 import com.lineage.entity.ExtractionRun;
+import com.lineage.entity.RunSummary;
 import com.lineage.repository.ExtractionRunRepository;
+import com.lineage.repository.RunSummaryRepository;
 import com.lineage.service.ExtractionService;
+import com.lineage.service.RunDiffService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -18,28 +25,21 @@ import java.util.*;
 public class RunsController {
     private static final Logger logger = LoggerFactory.getLogger(RunsController.class);
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Autowired private ExtractionRunRepository extractionRunRepository;
+    @Autowired private RunSummaryRepository runSummaryRepository;
     @Autowired private ExtractionService extractionService;
+    @Autowired private RunDiffService runDiffService;
 
     @GetMapping("/recent")
     public ResponseEntity<List<Map<String, Object>>> recent() {
         try {
             List<ExtractionRun> runs = extractionRunRepository.findRecentRuns(LocalDateTime.now().minusDays(7));
+            Map<UUID, RunSummary> summaries = loadSummaries(runs);
             List<Map<String, Object>> resp = new ArrayList<>();
             for (ExtractionRun r : runs) {
-                Map<String, Object> row = new HashMap<>();
-                row.put("runId", r.getRunId());
-                row.put("sourceRepo", r.getRepositoryUrl());
-                row.put("branch", r.getBranch());
-                row.put("status", r.getPhase() != null ? r.getPhase().name() : null);
-                row.put("trigger", r.getTriggeredBy());
-                row.put("startedAt", r.getStartedAt());
-                row.put("finishedAt", r.getFinishedAt());
-                // deltas and errors can be filled later in service impl
-                row.put("assetsDelta", 0);
-                row.put("edgesDelta", 0);
-                row.put("errors", 0);
-                resp.add(row);
+                resp.add(toRow(r, summaries.get(r.getRunId())));
             }
             return ResponseEntity.ok(resp);
         } catch (Exception e) {
@@ -48,38 +48,44 @@ public class RunsController {
         }
     }
 
+    /**
+     * GET /runs?repository=&branch=&phase=&size=20&cursor=...
+     * Keyset-paginated run history, newest first. Deltas and error counts come from the
+     * precomputed run summaries, so the cost is proportional to the page size.
+     */
     @GetMapping("")
     public ResponseEntity<Map<String, Object>> list(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String repository,
+            @RequestParam(required = false) String branch,
+            @RequestParam(required = false) ExtractionRun.ExtractionPhase phase) {
         try {
-            List<ExtractionRun> all = extractionRunRepository.findAll();
-            int from = Math.min(page * size, all.size());
-            int to = Math.min(from + size, all.size());
-            List<ExtractionRun> pageItems = all.subList(from, to);
+            int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+            String[] after = cursor != null && !cursor.isBlank() ? decodeCursor(cursor) : new String[]{null, null};
+
+            // Fetch one extra row to know whether another page exists
+            List<ExtractionRun> rows = extractionRunRepository.findPageBefore(
+                    (repository != null && !repository.isBlank()) ? repository.trim() : null,
+                    (branch != null && !branch.isBlank()) ? branch.trim() : null,
+                    phase != null ? phase.name() : null,
+                    after[0], after[1], pageSize + 1);
+            boolean hasMore = rows.size() > pageSize;
+            List<ExtractionRun> pageItems = hasMore ? rows.subList(0, pageSize) : rows;
+
+            Map<UUID, RunSummary> summaries = loadSummaries(pageItems);
             List<Map<String, Object>> items = new ArrayList<>();
             for (ExtractionRun r : pageItems) {
-                Map<String, Object> row = new HashMap<>();
-                row.put("runId", r.getRunId());
-                row.put("sourceRepo", r.getRepositoryUrl());
-                row.put("branch", r.getBranch());
-                row.put("status", r.getPhase() != null ? r.getPhase().name() : null);
-                row.put("trigger", r.getTriggeredBy());
-                row.put("startedAt", r.getStartedAt());
-                row.put("finishedAt", r.getFinishedAt());
-                row.put("assetsDelta", 0);
-                row.put("edgesDelta", 0);
-                row.put("errors", 0);
-                items.add(row);
+                items.add(toRow(r, summaries.get(r.getRunId())));
             }
             Map<String, Object> resp = new HashMap<>();
             resp.put("items", items);
-            resp.put("totalElements", all.size());
-            resp.put("totalPages", (int) Math.ceil((double) all.size() / size));
-            resp.put("currentPage", page);
-            resp.put("pageSize", size);
+            resp.put("pageSize", pageSize);
+            resp.put("hasMore", hasMore);
+            resp.put("nextCursor", hasMore ? encodeCursor(pageItems.get(pageItems.size() - 1)) : null);
             return ResponseEntity.ok(resp);
         } catch (Exception e) {
+            logger.error("Failed to list runs: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().build();
         }
     }
@@ -95,6 +101,73 @@ public class RunsController {
             return ResponseEntity.badRequest().build();
         }
     }
-}
 
+    /**
+     * GET /runs/{a}/diff/{b}
+     * Lineage changes from run a (base) to run b, streamed as NDJSON: one line per added/removed
+     * table, column and edge, then a summary line with the counts. Both runs must be completed; 410 when
+     * the edges of a run are no longer stored.
+     */
+    @GetMapping(value = "/{runA}/diff/{runB}", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> diff(@PathVariable UUID runA, @PathVariable UUID runB) {
+        try {
+            ExtractionRun a = extractionRunRepository.findById(runA).orElse(null);
+            ExtractionRun b = extractionRunRepository.findById(runB).orElse(null);
+            if (a == null || b == null) return ResponseEntity.notFound().build();
+            if (a.getPhase() != ExtractionRun.ExtractionPhase.COMPLETED || b.getPhase() != ExtractionRun.ExtractionPhase.COMPLETED) {
+                return ResponseEntity.badRequest().build();
+            }
+            // a run that was not folded into the temporal store needs its own lineage rows, which may be pruned
+            if (!runDiffService.hasEdges(a) || !runDiffService.hasEdges(b)) {
+                return ResponseEntity.status(HttpStatus.GONE).build();
+            }
+            StreamingResponseBody body = out -> runDiffService.writeDiff(a, b, out);
+            return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+        } catch (Exception e) {
+            logger.error("Failed to diff runs {} and {}: {}", runA, runB, e.getMessage(), e);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private Map<UUID, RunSummary> loadSummaries(List<ExtractionRun> runs) {
+        Map<UUID, RunSummary> summaries = new HashMap<>();
+        if (runs.isEmpty()) return summaries;
+        List<UUID> ids = new ArrayList<>();
+        for (ExtractionRun r : runs) ids.add(r.getRunId());
+        for (RunSummary s : runSummaryRepository.findAllById(ids)) summaries.put(s.getRunId(), s);
+        return summaries;
+    }
+
+    private Map<String, Object> toRow(ExtractionRun r, RunSummary summary) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("runId", r.getRunId());
+        row.put("sourceRepo", r.getRepositoryUrl());
+        row.put("branch", r.getBranch());
+        row.put("status", r.getPhase() != null ? r.getPhase().name() : null);
+        row.put("trigger", r.getTriggeredBy());
+        row.put("startedAt", r.getStartedAt());
+        row.put("finishedAt", r.getFinishedAt());
+        // runs still in progress have no summary yet
+        row.put("assetsDelta", summary != null ? summary.getAssetsDelta() : 0);
+        row.put("edgesDelta", summary != null ? summary.getEdgesDelta() : 0);
+        row.put("errors", summary != null ? summary.getErrors() : 0);
+        return row;
+    }
 
+    // Opaque cursor: base64url("<created_at ISO>|<run id>") of the last row served
+    private static String encodeCursor(ExtractionRun last) {
+        String raw = last.getCreatedAt() + "|" + last.getRunId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int sep = raw.lastIndexOf('|');
+        if (sep < 0) throw new IllegalArgumentException("Invalid cursor");
+        String createdAt = raw.substring(0, sep);
+        String id = raw.substring(sep + 1);
+        LocalDateTime.parse(createdAt);
+        UUID.fromString(id);
+        return new String[]{createdAt, id};
+    }
+}
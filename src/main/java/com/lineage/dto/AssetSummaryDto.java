@@ -15,6 +15,10 @@ public class AssetSummaryDto {
     private LocalDateTime firstSeenAt;
     private LocalDateTime lastSeenAt;
     private List<String> labels;
+    private Double criticality;
+    private Integer downstreamClosure;
+    private Integer fanIn;
+    private Integer fanOut;
 
     public UUID getAssetId() { return assetId; }
     public void setAssetId(UUID assetId) { this.assetId = assetId; }
@@ -45,6 +49,16 @@ public class AssetSummaryDto {
 
     public List<String> getLabels() { return labels; }
     public void setLabels(List<String> labels) { this.labels = labels; }
-}
 
+    public Double getCriticality() { return criticality; }
+    public void setCriticality(Double criticality) { this.criticality = criticality; }
+
+    public Integer getDownstreamClosure() { return downstreamClosure; }
+    public void setDownstreamClosure(Integer downstreamClosure) { this.downstreamClosure = downstreamClosure; }
 
+    public Integer getFanIn() { return fanIn; }
+    public void setFanIn(Integer fanIn) { this.fanIn = fanIn; }
+
+    public Integer getFanOut() { return fanOut; }
+    public void setFanOut(Integer fanOut) { this.fanOut = fanOut; }
+}
@@ -0,0 +1,26 @@
+package com.lineage.dto;
+
+import java.util.List;
+
+public class ColumnOccurrenceDto {
+    private String entityId;
+    private String entityName;
+    private List<String> roles; // SOURCE|TARGET
+
+    public ColumnOccurrenceDto() {}
+
+    public ColumnOccurrenceDto(String entityId, String entityName, List<String> roles) {
+        this.entityId = entityId;
+        this.entityName = entityName;
+        this.roles = roles;
+    }
+
+    public String getEntityId() { return entityId; }
+    public void setEntityId(String entityId) { this.entityId = entityId; }
+
+    public String getEntityName() { return entityName; }
+    public void setEntityName(String entityName) { this.entityName = entityName; }
+
+    public List<String> getRoles() { return roles; }
+    public void setRoles(List<String> roles) { this.roles = roles; }
+}
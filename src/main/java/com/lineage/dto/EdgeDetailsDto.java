@@ -10,6 +10,7 @@ public class EdgeDetailsDto {
     private String fileId;
     private TransformationLinesDto lines;
     private String transformationType;
+    private String sqlSnippet; // source lines of the transformation, when the SQL content was stored
 
     public String getEdgeId() { return edgeId; }
     public void setEdgeId(String edgeId) { this.edgeId = edgeId; }
@@ -29,6 +30,6 @@ public class EdgeDetailsDto {
     public void setLines(TransformationLinesDto lines) { this.lines = lines; }
     public String getTransformationType() { return transformationType; }
     public void setTransformationType(String transformationType) { this.transformationType = transformationType; }
+    public String getSqlSnippet() { return sqlSnippet; }
+    public void setSqlSnippet(String sqlSnippet) { this.sqlSnippet = sqlSnippet; }
 }
-
-
@@ -15,6 +15,10 @@ public class EntityDto {
     private Boolean hasDownstream;
     private List<FineGrainedLineageDto> fineGrainedLineages;
     private SchemaMetadataDto schemaMetadata;
+    private Double criticality;
+    private Integer downstreamClosure;
+    private Integer fanIn;
+    private Integer fanOut;
     
     public EntityDto() {}
     
@@ -113,4 +117,36 @@ public class EntityDto {
     public void setSchemaMetadata(SchemaMetadataDto schemaMetadata) {
         this.schemaMetadata = schemaMetadata;
     }
+
+    public Double getCriticality() {
+        return criticality;
+    }
+
+    public void setCriticality(Double criticality) {
+        this.criticality = criticality;
+    }
+
+    public Integer getDownstreamClosure() {
+        return downstreamClosure;
+    }
+
+    public void setDownstreamClosure(Integer downstreamClosure) {
+        this.downstreamClosure = downstreamClosure;
+    }
+
+    public Integer getFanIn() {
+        return fanIn;
+    }
+
+    public void setFanIn(Integer fanIn) {
+        this.fanIn = fanIn;
+    }
+
+    public Integer getFanOut() {
+        return fanOut;
+    }
+
+    public void setFanOut(Integer fanOut) {
+        this.fanOut = fanOut;
+    }
 }
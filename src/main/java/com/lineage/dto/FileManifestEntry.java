@@ -0,0 +1,19 @@
+package com.lineage.dto;
+
+public class FileManifestEntry {
+    private String filePath;
+    private String fileHash;
+
+    public FileManifestEntry() {}
+
+    public FileManifestEntry(String filePath, String fileHash) {
+        this.filePath = filePath;
+        this.fileHash = fileHash;
+    }
+
+    public String getFilePath() { return filePath; }
+    public void setFilePath(String filePath) { this.filePath = filePath; }
+
+    public String getFileHash() { return fileHash; }
+    public void setFileHash(String fileHash) { this.fileHash = fileHash; }
+}
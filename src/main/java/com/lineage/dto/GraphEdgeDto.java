@@ -0,0 +1,29 @@
+package com.lineage.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GraphEdgeDto {
+    private String from;
+    private String to;
+    private List<String> transformationTypes;
+
+    public GraphEdgeDto() {}
+
+    public GraphEdgeDto(String from, String to, List<String> transformationTypes) {
+        this.from = from;
+        this.to = to;
+        this.transformationTypes = transformationTypes;
+    }
+
+    public String getFrom() { return from; }
+    public void setFrom(String from) { this.from = from; }
+
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+
+    public List<String> getTransformationTypes() { return transformationTypes; }
+    public void setTransformationTypes(List<String> transformationTypes) { this.transformationTypes = transformationTypes; }
+}
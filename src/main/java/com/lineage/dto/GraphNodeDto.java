@@ -0,0 +1,46 @@
+package com.lineage.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A table in a multi-hop lineage graph; optional fields are only set by the endpoints that compute them
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GraphNodeDto {
+    private String entityId;
+    private String entityName;
+    private String entityType;
+    private Boolean seed;
+    private Integer depth; // hops from the nearest seed
+    private Integer layer; // layout column, sources first
+    private Integer order; // layout position within the layer
+
+    public GraphNodeDto() {}
+
+    public GraphNodeDto(String entityId, String entityName, String entityType) {
+        this.entityId = entityId;
+        this.entityName = entityName;
+        this.entityType = entityType;
+    }
+
+    public String getEntityId() { return entityId; }
+    public void setEntityId(String entityId) { this.entityId = entityId; }
+
+    public String getEntityName() { return entityName; }
+    public void setEntityName(String entityName) { this.entityName = entityName; }
+
+    public String getEntityType() { return entityType; }
+    public void setEntityType(String entityType) { this.entityType = entityType; }
+
+    public Boolean getSeed() { return seed; }
+    public void setSeed(Boolean seed) { this.seed = seed; }
+
+    public Integer getDepth() { return depth; }
+    public void setDepth(Integer depth) { this.depth = depth; }
+
+    public Integer getLayer() { return layer; }
+    public void setLayer(Integer layer) { this.layer = layer; }
+
+    public Integer getOrder() { return order; }
+    public void setOrder(Integer order) { this.order = order; }
+}
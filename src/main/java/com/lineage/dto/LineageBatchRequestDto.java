@@ -0,0 +1,19 @@
+package com.lineage.dto;
+
+import java.util.List;
+
+/**
+ * Body of POST /lineage/batch: current lineage for several (entityId, direction) pairs at once
+ */
+public class LineageBatchRequestDto {
+    private List<LineageRequestDto> requests; // entityId + direction; asOf/asOfRun are not supported here
+    private String include;                   // optional sections for every response (see LineageSection)
+
+    public LineageBatchRequestDto() {}
+
+    public List<LineageRequestDto> getRequests() { return requests; }
+    public void setRequests(List<LineageRequestDto> requests) { this.requests = requests; }
+
+    public String getInclude() { return include; }
+    public void setInclude(String include) { this.include = include; }
+}
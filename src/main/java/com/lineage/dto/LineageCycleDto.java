@@ -0,0 +1,34 @@
+package com.lineage.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A strongly connected component of the lineage graph with more than one table (or a table that
+ * reads from itself). cycle is one concrete closed path through it, with the transformations
+ * (files and lines) that create each edge.
+ */
+public class LineageCycleDto {
+    private UUID componentId;
+    private int size;
+    private int internalEdges;
+    private List<GraphNodeDto> tables;
+    private List<PathEdgeDto> cycle;
+
+    public LineageCycleDto() {}
+
+    public UUID getComponentId() { return componentId; }
+    public void setComponentId(UUID componentId) { this.componentId = componentId; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public int getInternalEdges() { return internalEdges; }
+    public void setInternalEdges(int internalEdges) { this.internalEdges = internalEdges; }
+
+    public List<GraphNodeDto> getTables() { return tables; }
+    public void setTables(List<GraphNodeDto> tables) { this.tables = tables; }
+
+    public List<PathEdgeDto> getCycle() { return cycle; }
+    public void setCycle(List<PathEdgeDto> cycle) { this.cycle = cycle; }
+}
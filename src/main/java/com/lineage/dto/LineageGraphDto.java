@@ -0,0 +1,44 @@
+package com.lineage.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Deduplicated nodes and edges of a multi-hop lineage query, computed from graph version graphVersion
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LineageGraphDto {
+    private long graphVersion;
+    private List<GraphNodeDto> nodes;
+    private List<GraphEdgeDto> edges;
+    private boolean truncated; // node budget reached
+    private List<String> missingSeeds;
+    private Integer layerCount; // only set for layouts
+
+    public LineageGraphDto() {}
+
+    public LineageGraphDto(long graphVersion, List<GraphNodeDto> nodes, List<GraphEdgeDto> edges) {
+        this.graphVersion = graphVersion;
+        this.nodes = nodes;
+        this.edges = edges;
+    }
+
+    public long getGraphVersion() { return graphVersion; }
+    public void setGraphVersion(long graphVersion) { this.graphVersion = graphVersion; }
+
+    public List<GraphNodeDto> getNodes() { return nodes; }
+    public void setNodes(List<GraphNodeDto> nodes) { this.nodes = nodes; }
+
+    public List<GraphEdgeDto> getEdges() { return edges; }
+    public void setEdges(List<GraphEdgeDto> edges) { this.edges = edges; }
+
+    public boolean isTruncated() { return truncated; }
+    public void setTruncated(boolean truncated) { this.truncated = truncated; }
+
+    public List<String> getMissingSeeds() { return missingSeeds; }
+    public void setMissingSeeds(List<String> missingSeeds) { this.missingSeeds = missingSeeds; }
+
+    public Integer getLayerCount() { return layerCount; }
+    public void setLayerCount(Integer layerCount) { this.layerCount = layerCount; }
+}
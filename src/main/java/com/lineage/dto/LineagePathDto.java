@@ -0,0 +1,30 @@
+package com.lineage.dto;
+
+import java.util.List;
+
+/**
+ * One path through the lineage graph: nodes in order from source to target, and the edge between
+ * each consecutive pair (edges.size() == hops == nodes.size() - 1)
+ */
+public class LineagePathDto {
+    private int hops;
+    private List<GraphNodeDto> nodes;
+    private List<PathEdgeDto> edges;
+
+    public LineagePathDto() {}
+
+    public LineagePathDto(int hops, List<GraphNodeDto> nodes, List<PathEdgeDto> edges) {
+        this.hops = hops;
+        this.nodes = nodes;
+        this.edges = edges;
+    }
+
+    public int getHops() { return hops; }
+    public void setHops(int hops) { this.hops = hops; }
+
+    public List<GraphNodeDto> getNodes() { return nodes; }
+    public void setNodes(List<GraphNodeDto> nodes) { this.nodes = nodes; }
+
+    public List<PathEdgeDto> getEdges() { return edges; }
+    public void setEdges(List<PathEdgeDto> edges) { this.edges = edges; }
+}
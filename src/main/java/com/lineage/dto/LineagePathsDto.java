@@ -0,0 +1,36 @@
+package com.lineage.dto;
+
+import java.util.List;
+
+/**
+ * Result of a path query: up to k loop-free paths, shortest first. timedOut means the time budget
+ * ran out before k paths were found (the paths listed are still valid).
+ */
+public class LineagePathsDto {
+    private long graphVersion;
+    private String from;
+    private String to;
+    private int maxDepth;
+    private boolean timedOut;
+    private List<LineagePathDto> paths;
+
+    public LineagePathsDto() {}
+
+    public long getGraphVersion() { return graphVersion; }
+    public void setGraphVersion(long graphVersion) { this.graphVersion = graphVersion; }
+
+    public String getFrom() { return from; }
+    public void setFrom(String from) { this.from = from; }
+
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+
+    public int getMaxDepth() { return maxDepth; }
+    public void setMaxDepth(int maxDepth) { this.maxDepth = maxDepth; }
+
+    public boolean isTimedOut() { return timedOut; }
+    public void setTimedOut(boolean timedOut) { this.timedOut = timedOut; }
+
+    public List<LineagePathDto> getPaths() { return paths; }
+    public void setPaths(List<LineagePathDto> paths) { this.paths = paths; }
+}
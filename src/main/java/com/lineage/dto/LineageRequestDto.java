@@ -1,8 +1,13 @@
 package com.lineage.dto;
 
+import java.util.UUID;
+
 public class LineageRequestDto {
     private String entityId;
     private LineageDirection direction;
+    private String asOf;     // optional ISO timestamp
+    private UUID asOfRun;    // optional completed run id (wins over asOf)
+    private String include;  // optional sections, e.g. "nodes,columns" (see LineageSection)
     
     public LineageRequestDto() {}
     
@@ -26,4 +31,28 @@ public class LineageRequestDto {
     public void setDirection(LineageDirection direction) {
         this.direction = direction;
     }
+
+    public String getAsOf() {
+        return asOf;
+    }
+
+    public void setAsOf(String asOf) {
+        this.asOf = asOf;
+    }
+
+    public UUID getAsOfRun() {
+        return asOfRun;
+    }
+
+    public void setAsOfRun(UUID asOfRun) {
+        this.asOfRun = asOfRun;
+    }
+
+    public String getInclude() {
+        return include;
+    }
+
+    public void setInclude(String include) {
+        this.include = include;
+    }
 }
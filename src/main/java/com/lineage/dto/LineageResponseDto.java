@@ -1,5 +1,7 @@
 package com.lineage.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 public class LineageResponseDto {
@@ -10,6 +12,9 @@ public class LineageResponseDto {
     private List<LineageNodeDto> lineage;
     private List<FineGrainedLineageDto> fineGrainedLineages;
     private SchemaMetadataDto schemaMetadata;
+    // set on batch entries that could not be answered ("notFound", "invalidRequest")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
     
     public LineageResponseDto() {}
     
@@ -77,4 +82,12 @@ public class LineageResponseDto {
     public void setSchemaMetadata(SchemaMetadataDto schemaMetadata) {
         this.schemaMetadata = schemaMetadata;
     }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
 }
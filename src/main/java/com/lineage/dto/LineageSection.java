@@ -0,0 +1,32 @@
+package com.lineage.dto;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Optional sections of lineage and entity responses, selected with include=nodes,transformations,...
+ * - nodes: neighbouring tables
+ * - transformations: per-neighbour transformations (implies nodes)
+ * - columns: fine-grained (column) lineage
+ * - schema: schema metadata of the entity
+ */
+public enum LineageSection {
+    nodes, transformations, columns, schema;
+
+    /**
+     * Sections named in a comma-separated list (case-insensitive); the defaults when it is null or blank
+     */
+    public static Set<LineageSection> parse(String include, Set<LineageSection> defaults) {
+        if (include == null || include.isBlank()) return defaults;
+        EnumSet<LineageSection> sections = EnumSet.noneOf(LineageSection.class);
+        for (String name : include.split(",")) {
+            if (name.isBlank()) continue;
+            try {
+                sections.add(valueOf(name.trim().toLowerCase()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown include section: " + name.trim());
+            }
+        }
+        return sections;
+    }
+}
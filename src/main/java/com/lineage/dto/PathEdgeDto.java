@@ -0,0 +1,26 @@
+package com.lineage.dto;
+
+import java.util.List;
+
+public class PathEdgeDto {
+    private String from;
+    private String to;
+    private List<TransformationDto> transformations;
+
+    public PathEdgeDto() {}
+
+    public PathEdgeDto(String from, String to, List<TransformationDto> transformations) {
+        this.from = from;
+        this.to = to;
+        this.transformations = transformations;
+    }
+
+    public String getFrom() { return from; }
+    public void setFrom(String from) { this.from = from; }
+
+    public String getTo() { return to; }
+    public void setTo(String to) { this.to = to; }
+
+    public List<TransformationDto> getTransformations() { return transformations; }
+    public void setTransformations(List<TransformationDto> transformations) { this.transformations = transformations; }
+}
@@ -1,5 +1,7 @@
 package com.lineage.dto;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
@@ -19,6 +21,14 @@ public class RepositoryScanRequest {
     @NotBlank(message = "Triggered by is required")
     private String triggeredBy = "api";
 
+    // Split the files across this many containers (1 = a single container)
+    @Min(value = 1, message = "Shard count must be at least 1")
+    @Max(value = 64, message = "Shard count must be at most 64")
+    private Integer shardCount;
+
+    // MANUAL runs are scheduled ahead of SCHEDULED ones; derived from triggeredBy when not given
+    private RunPriority priority;
+
     @NotBlank(message = "GitHub token is required")
     private String gitHubToken;
 
@@ -71,6 +81,22 @@ public class RepositoryScanRequest {
         this.triggeredBy = triggeredBy;
     }
 
+    public Integer getShardCount() {
+        return shardCount;
+    }
+
+    public void setShardCount(Integer shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    public RunPriority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(RunPriority priority) {
+        this.priority = priority;
+    }
+
     public String getGitHubToken() {
         return gitHubToken;
     }
@@ -83,4 +109,8 @@ public class RepositoryScanRequest {
     public enum RunMode {
         FULL, INCREMENTAL
     }
+
+    public enum RunPriority {
+        MANUAL, SCHEDULED
+    }
 } 
\ No newline at end of file
@@ -5,6 +5,7 @@ public class SearchResultItem {
     private String entityName;
     private String entityType;
     private Integer columnCount;
+    private Double criticality;
 
     public SearchResultItem() {}
 
@@ -26,6 +27,7 @@ public class SearchResultItem {
 
     public Integer getColumnCount() { return columnCount; }
     public void setColumnCount(Integer columnCount) { this.columnCount = columnCount; }
-}
-
 
+    public Double getCriticality() { return criticality; }
+    public void setCriticality(Double criticality) { this.criticality = criticality; }
+}
@@ -0,0 +1,24 @@
+package com.lineage.dto;
+
+import java.util.List;
+
+public class SubgraphRequestDto {
+    private List<String> seeds;       // entity ids
+    private Integer upstreamDepth;    // hops, default 3
+    private Integer downstreamDepth;  // hops, default 3
+    private Integer maxNodes;         // node budget, default 2000
+
+    public SubgraphRequestDto() {}
+
+    public List<String> getSeeds() { return seeds; }
+    public void setSeeds(List<String> seeds) { this.seeds = seeds; }
+
+    public Integer getUpstreamDepth() { return upstreamDepth; }
+    public void setUpstreamDepth(Integer upstreamDepth) { this.upstreamDepth = upstreamDepth; }
+
+    public Integer getDownstreamDepth() { return downstreamDepth; }
+    public void setDownstreamDepth(Integer downstreamDepth) { this.downstreamDepth = downstreamDepth; }
+
+    public Integer getMaxNodes() { return maxNodes; }
+    public void setMaxNodes(Integer maxNodes) { this.maxNodes = maxNodes; }
+}
@@ -0,0 +1,34 @@
+package com.lineage.dto;
+
+public class SuggestionDto {
+    private String text;
+    private String entityId;
+    private String entityName;
+    private String kind; // table|column
+    private int weight;
+
+    public SuggestionDto() {}
+
+    public SuggestionDto(String text, String entityId, String entityName, String kind, int weight) {
+        this.text = text;
+        this.entityId = entityId;
+        this.entityName = entityName;
+        this.kind = kind;
+        this.weight = weight;
+    }
+
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+
+    public String getEntityId() { return entityId; }
+    public void setEntityId(String entityId) { this.entityId = entityId; }
+
+    public String getEntityName() { return entityName; }
+    public void setEntityName(String entityName) { this.entityName = entityName; }
+
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+
+    public int getWeight() { return weight; }
+    public void setWeight(int weight) { this.weight = weight; }
+}
@@ -10,6 +10,8 @@ public class WebhookEvent {
     private String eventType;
     private String runId;
     private String podId;
+    // Set by the containers of a sharded run (EXTRACTOR_SHARD_INDEX)
+    private Integer shardIndex;
     private Object data;
     
     @JsonDeserialize(using = FlexibleLocalDateTimeDeserializer.class)
@@ -26,6 +28,14 @@ public class WebhookEvent {
     }
 
     // Getters and Setters
+    public Integer getShardIndex() {
+        return shardIndex;
+    }
+
+    public void setShardIndex(Integer shardIndex) {
+        this.shardIndex = shardIndex;
+    }
+
     public String getEventType() {
         return eventType;
     }
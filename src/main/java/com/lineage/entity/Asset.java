@@ -8,7 +8,8 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "assets", indexes = {
-        @Index(name = "idx_assets_run_short", columnList = "run_id, short_name")
+        @Index(name = "idx_assets_run_short", columnList = "run_id, short_name"),
+        @Index(name = "idx_assets_catalog", columnList = "catalog_id")
 })
 public class Asset {
 
@@ -21,6 +22,11 @@ public class Asset {
     @JoinColumn(name = "run_id", nullable = false)
     private ExtractionRun extractionRun;
 
+    // Canonical cross-run identity; null only for rows ingested before the catalog existed
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "catalog_id")
+    private CatalogAsset catalogAsset;
+
     @Column(name = "full_name", nullable = false, length = 512)
     private String fullName;
 
@@ -44,6 +50,8 @@ public class Asset {
     public void setAssetId(UUID assetId) { this.assetId = assetId; }
     public ExtractionRun getExtractionRun() { return extractionRun; }
     public void setExtractionRun(ExtractionRun extractionRun) { this.extractionRun = extractionRun; }
+    public CatalogAsset getCatalogAsset() { return catalogAsset; }
+    public void setCatalogAsset(CatalogAsset catalogAsset) { this.catalogAsset = catalogAsset; }
     public String getFullName() { return fullName; }
     public void setFullName(String fullName) { this.fullName = fullName; }
     public String getShortName() { return shortName; }
@@ -0,0 +1,125 @@
+package com.lineage.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Canonical, cross-run identity of a table, keyed by its normalized qualified name.
+ * Run-scoped {@link Asset} rows point at their catalog entry; the catalog keeps the latest
+ * snapshot and precomputed degree counts so lookups do not depend on run history.
+ */
+@Entity
+@Table(name = "catalog_assets", indexes = {
+        @Index(name = "idx_catalog_assets_short_key", columnList = "short_key, last_seen_at"),
+        @Index(name = "idx_catalog_assets_last_run", columnList = "last_seen_run_id"),
+        @Index(name = "idx_catalog_assets_criticality", columnList = "criticality")
+})
+public class CatalogAsset {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "catalog_id")
+    private UUID catalogId;
+
+    // lower(trim(full_name))
+    @Column(name = "qualified_name", nullable = false, length = 512, unique = true)
+    private String qualifiedName;
+
+    // lower(short_name), the key used by the entityId-based APIs
+    @Column(name = "short_key", nullable = false, length = 255)
+    private String shortKey;
+
+    @Column(name = "short_name", nullable = false, length = 255)
+    private String shortName;
+
+    @Column(name = "full_name", nullable = false, length = 512)
+    private String fullName;
+
+    @Column(name = "schema_name", length = 512)
+    private String schemaName;
+
+    // Most recent run-scoped snapshot of this table
+    @Column(name = "latest_asset_id")
+    private UUID latestAssetId;
+
+    @Column(name = "last_seen_run_id")
+    private UUID lastSeenRunId;
+
+    @Column(name = "first_seen_at")
+    private LocalDateTime firstSeenAt;
+
+    @Column(name = "last_seen_at")
+    private LocalDateTime lastSeenAt;
+
+    // Edge counts of the latest snapshot, refreshed when a run completes
+    @Column(name = "upstream_count", nullable = false)
+    private int upstreamCount;
+
+    @Column(name = "downstream_count", nullable = false)
+    private int downstreamCount;
+
+    // Graph scores over the current lineage, recomputed in the background after each completed run
+    // (see GraphAnalyticsService); null until the first computation
+
+    // PageRank over the reversed lineage graph, scaled so the average table scores 1.0
+    @Column(name = "criticality")
+    private Double criticality;
+
+    // Number of tables reachable downstream
+    @Column(name = "downstream_closure")
+    private Integer downstreamClosure;
+
+    // Distinct upstream / downstream tables
+    @Column(name = "fan_in")
+    private Integer fanIn;
+
+    @Column(name = "fan_out")
+    private Integer fanOut;
+
+    @Column(name = "scores_computed_at")
+    private LocalDateTime scoresComputedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public UUID getCatalogId() { return catalogId; }
+    public void setCatalogId(UUID catalogId) { this.catalogId = catalogId; }
+    public String getQualifiedName() { return qualifiedName; }
+    public void setQualifiedName(String qualifiedName) { this.qualifiedName = qualifiedName; }
+    public String getShortKey() { return shortKey; }
+    public void setShortKey(String shortKey) { this.shortKey = shortKey; }
+    public String getShortName() { return shortName; }
+    public void setShortName(String shortName) { this.shortName = shortName; }
+    public String getFullName() { return fullName; }
+    public void setFullName(String fullName) { this.fullName = fullName; }
+    public String getSchemaName() { return schemaName; }
+    public void setSchemaName(String schemaName) { this.schemaName = schemaName; }
+    public UUID getLatestAssetId() { return latestAssetId; }
+    public void setLatestAssetId(UUID latestAssetId) { this.latestAssetId = latestAssetId; }
+    public UUID getLastSeenRunId() { return lastSeenRunId; }
+    public void setLastSeenRunId(UUID lastSeenRunId) { this.lastSeenRunId = lastSeenRunId; }
+    public LocalDateTime getFirstSeenAt() { return firstSeenAt; }
+    public void setFirstSeenAt(LocalDateTime firstSeenAt) { this.firstSeenAt = firstSeenAt; }
+    public LocalDateTime getLastSeenAt() { return lastSeenAt; }
+    public void setLastSeenAt(LocalDateTime lastSeenAt) { this.lastSeenAt = lastSeenAt; }
+    public int getUpstreamCount() { return upstreamCount; }
+    public void setUpstreamCount(int upstreamCount) { this.upstreamCount = upstreamCount; }
+    public int getDownstreamCount() { return downstreamCount; }
+    public void setDownstreamCount(int downstreamCount) { this.downstreamCount = downstreamCount; }
+    public Double getCriticality() { return criticality; }
+    public void setCriticality(Double criticality) { this.criticality = criticality; }
+    public Integer getDownstreamClosure() { return downstreamClosure; }
+    public void setDownstreamClosure(Integer downstreamClosure) { this.downstreamClosure = downstreamClosure; }
+    public Integer getFanIn() { return fanIn; }
+    public void setFanIn(Integer fanIn) { this.fanIn = fanIn; }
+    public Integer getFanOut() { return fanOut; }
+    public void setFanOut(Integer fanOut) { this.fanOut = fanOut; }
+    public LocalDateTime getScoresComputedAt() { return scoresComputedAt; }
+    public void setScoresComputedAt(LocalDateTime scoresComputedAt) { this.scoresComputedAt = scoresComputedAt; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
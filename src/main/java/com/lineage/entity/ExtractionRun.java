@@ -1,6 +1,7 @@
 package com.lineage.entity;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
 import jakarta.persistence.*;
@@ -15,7 +16,10 @@ import java.util.Map;
 import java.util.UUID;
 
 @Entity
-@Table(name = "extraction_runs")
+@Table(name = "extraction_runs", indexes = {
+        @Index(name = "idx_runs_created", columnList = "created_at, run_id"),
+        @Index(name = "idx_runs_repo_branch_created", columnList = "repository_url, branch, created_at")
+})
 public class ExtractionRun {
 
     @Id
@@ -44,6 +48,11 @@ public class ExtractionRun {
     @Column(name = "phase", nullable = false, length = 20)
     private ExtractionPhase phase = ExtractionPhase.STARTED;
 
+    // Queue class of the run in the extraction scheduler (null for runs created before scheduling)
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priority", length = 20)
+    private RunPriority priority;
+
     @Column(name = "triggered_by", nullable = false, length = 100)
     private String triggeredBy;
 
@@ -58,6 +67,25 @@ public class ExtractionRun {
     @JsonDeserialize(using = FlexibleLocalDateTimeDeserializer.class)
     private LocalDateTime finishedAt;
 
+    // INCREMENTAL runs: the completed run whose results are reused for unchanged files
+    @Column(name = "baseline_run_id")
+    private UUID baselineRunId;
+
+    // Container resources chosen for the run (null for runs created before adaptive sizing)
+    @Column(name = "container_cpus")
+    private Integer containerCpus;
+
+    @Column(name = "container_memory_mb")
+    private Integer containerMemoryMb;
+
+    // Number of containers the run's files are split across (null or 1 = not sharded)
+    @Column(name = "shard_count")
+    private Integer shardCount;
+
+    // Worker count passed to the extractor inside the container
+    @Column(name = "parallelism")
+    private Integer parallelism;
+
     @Column(name = "stats", columnDefinition = "jsonb")
     @JdbcTypeCode(SqlTypes.JSON)
     private Map<String, Object> stats;
@@ -171,6 +199,59 @@ public class ExtractionRun {
         this.finishedAt = finishedAt;
     }
 
+    public UUID getBaselineRunId() {
+        return baselineRunId;
+    }
+
+    public void setBaselineRunId(UUID baselineRunId) {
+        this.baselineRunId = baselineRunId;
+    }
+
+    public RunPriority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(RunPriority priority) {
+        this.priority = priority;
+    }
+
+    public Integer getContainerCpus() {
+        return containerCpus;
+    }
+
+    public void setContainerCpus(Integer containerCpus) {
+        this.containerCpus = containerCpus;
+    }
+
+    public Integer getContainerMemoryMb() {
+        return containerMemoryMb;
+    }
+
+    public void setContainerMemoryMb(Integer containerMemoryMb) {
+        this.containerMemoryMb = containerMemoryMb;
+    }
+
+    public Integer getShardCount() {
+        return shardCount;
+    }
+
+    public void setShardCount(Integer shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    @JsonIgnore
+    public boolean isSharded() {
+        return shardCount != null && shardCount > 1;
+    }
+
+    public Integer getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(Integer parallelism) {
+        this.parallelism = parallelism;
+    }
+
     public Map<String, Object> getStats() {
         return stats;
     }
@@ -201,6 +282,10 @@ public class ExtractionRun {
     }
 
     public enum ExtractionPhase {
-        STARTED, COMPLETED, FAILED
+        QUEUED, STARTED, COMPLETED, FAILED
+    }
+
+    public enum RunPriority {
+        MANUAL, SCHEDULED
     }
 } 
\ No newline at end of file
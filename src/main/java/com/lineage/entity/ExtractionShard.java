@@ -0,0 +1,112 @@
+package com.lineage.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One partition of a sharded extraction run: the file paths its container extracts and the state of its
+ * current attempt. Shards share the run id; each container attempt gets its own launch id.
+ */
+@Entity
+@Table(name = "extraction_shards", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_extraction_shards_run_index", columnNames = {"run_id", "shard_index"})
+})
+public class ExtractionShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "shard_id")
+    private UUID shardId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "run_id", nullable = false)
+    @JsonIgnore
+    private ExtractionRun extractionRun;
+
+    @Column(name = "shard_index", nullable = false)
+    private int shardIndex;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private ShardStatus status = ShardStatus.QUEUED;
+
+    // container launches so far, including the current one
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    // key of the current attempt in the scheduler and orchestration pool
+    @Column(name = "launch_id")
+    private UUID launchId;
+
+    // assigned when the first shard posts the run's manifest
+    @Column(name = "paths", columnDefinition = "jsonb")
+    @JdbcTypeCode(SqlTypes.JSON)
+    @JsonIgnore
+    private List<String> paths;
+
+    @Column(name = "stats", columnDefinition = "jsonb")
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<String, Object> stats;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public ExtractionShard() {}
+
+    public ExtractionShard(ExtractionRun extractionRun, int shardIndex) {
+        this.extractionRun = extractionRun;
+        this.shardIndex = shardIndex;
+    }
+
+    public UUID getShardId() { return shardId; }
+    public void setShardId(UUID shardId) { this.shardId = shardId; }
+    public ExtractionRun getExtractionRun() { return extractionRun; }
+    public void setExtractionRun(ExtractionRun extractionRun) { this.extractionRun = extractionRun; }
+    public int getShardIndex() { return shardIndex; }
+    public void setShardIndex(int shardIndex) { this.shardIndex = shardIndex; }
+    public ShardStatus getStatus() { return status; }
+    public void setStatus(ShardStatus status) { this.status = status; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public UUID getLaunchId() { return launchId; }
+    public void setLaunchId(UUID launchId) { this.launchId = launchId; }
+    public List<String> getPaths() { return paths; }
+    public void setPaths(List<String> paths) { this.paths = paths; }
+    public Map<String, Object> getStats() { return stats; }
+    public void setStats(Map<String, Object> stats) { this.stats = stats; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+    public enum ShardStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
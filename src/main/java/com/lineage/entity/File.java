@@ -8,7 +8,9 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "files")
+@Table(name = "files", indexes = {
+        @Index(name = "idx_files_run_path", columnList = "run_id, file_path")
+})
 public class File {
 
     @Id
@@ -45,8 +47,13 @@ public class File {
     @Column(name = "status", nullable = false, length = 20)
     private FileStatus status = FileStatus.SUCCESS;
 
-    @Column(name = "raw_sql_content", columnDefinition = "TEXT")
-    private String rawSqlContent;
+    // Set when the file was unchanged in an INCREMENTAL run and copied from the baseline run
+    @Column(name = "carried_from_file_id")
+    private UUID carriedFromFileId;
+
+    // sha-256 of the raw SQL, stored compressed in sql_blobs (loaded only on demand)
+    @Column(name = "sql_content_hash", length = 64)
+    private String sqlContentHash;
 
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
@@ -112,6 +119,14 @@ public class File {
         this.fileHash = fileHash;
     }
 
+    public UUID getCarriedFromFileId() {
+        return carriedFromFileId;
+    }
+
+    public void setCarriedFromFileId(UUID carriedFromFileId) {
+        this.carriedFromFileId = carriedFromFileId;
+    }
+
     public LocalDateTime getLastModifiedAt() {
         return lastModifiedAt;
     }
@@ -136,12 +151,12 @@ public class File {
         this.status = status;
     }
 
-    public String getRawSqlContent() {
-        return rawSqlContent;
+    public String getSqlContentHash() {
+        return sqlContentHash;
     }
 
-    public void setRawSqlContent(String rawSqlContent) {
-        this.rawSqlContent = rawSqlContent;
+    public void setSqlContentHash(String sqlContentHash) {
+        this.sqlContentHash = sqlContentHash;
     }
 
     public LocalDateTime getCreatedAt() {
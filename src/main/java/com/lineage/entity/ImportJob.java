@@ -0,0 +1,109 @@
+package com.lineage.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A bulk import of a lineage export file. lines_committed is the checkpoint: every line before it
+ * has been written, so an interrupted import resumes by skipping that many lines.
+ */
+@Entity
+@Table(name = "import_jobs")
+public class ImportJob {
+
+    public enum Status { RUNNING, COMPLETED, FAILED, INTERRUPTED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "import_id")
+    private UUID importId;
+
+    // relative to app.import.directory
+    @Column(name = "source_path", nullable = false, length = 1000)
+    private String sourcePath;
+
+    // run holding the snapshots (tables, columns) of imported tables that have none of their own
+    @Column(name = "run_id")
+    private UUID runId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status = Status.RUNNING;
+
+    @Column(name = "lines_committed", nullable = false)
+    private long linesCommitted;
+
+    @Column(name = "rows_imported", nullable = false)
+    private long rowsImported;
+
+    @Column(name = "rows_rejected", nullable = false)
+    private long rowsRejected;
+
+    // throughput of the last finished attempt
+    @Column(name = "rows_per_second")
+    private Long rowsPerSecond;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // start of the current attempt; rows/sec is measured from here
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public ImportJob() {}
+
+    public ImportJob(String sourcePath) {
+        this.sourcePath = sourcePath;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public UUID getImportId() { return importId; }
+    public void setImportId(UUID importId) { this.importId = importId; }
+
+    public String getSourcePath() { return sourcePath; }
+    public void setSourcePath(String sourcePath) { this.sourcePath = sourcePath; }
+
+    public UUID getRunId() { return runId; }
+    public void setRunId(UUID runId) { this.runId = runId; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public long getLinesCommitted() { return linesCommitted; }
+    public void setLinesCommitted(long linesCommitted) { this.linesCommitted = linesCommitted; }
+
+    public long getRowsImported() { return rowsImported; }
+    public void setRowsImported(long rowsImported) { this.rowsImported = rowsImported; }
+
+    public long getRowsRejected() { return rowsRejected; }
+    public void setRowsRejected(long rowsRejected) { this.rowsRejected = rowsRejected; }
+
+    public Long getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(Long rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
@@ -26,6 +26,10 @@ public class JobStatus {
     @Column(name = "pod_id", length = 100)
     private String podId;
 
+    // Shard of a sharded run this status belongs to (null for the run as a whole)
+    @Column(name = "shard_index")
+    private Integer shardIndex;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false, length = 20)
     private JobStatusEnum status = JobStatusEnum.RUNNING;
@@ -181,6 +185,14 @@ public class JobStatus {
         this.errorCount = errorCount;
     }
 
+    public Integer getShardIndex() {
+        return shardIndex;
+    }
+
+    public void setShardIndex(Integer shardIndex) {
+        this.shardIndex = shardIndex;
+    }
+
     public String getLastError() {
         return lastError;
     }
@@ -9,7 +9,10 @@ import java.util.UUID;
 @Entity
 @Table(name = "lineage", indexes = {
         @Index(name = "idx_lineage_run_to", columnList = "run_id, to_asset_id"),
-        @Index(name = "idx_lineage_run_from", columnList = "run_id, from_asset_id")
+        @Index(name = "idx_lineage_run_from", columnList = "run_id, from_asset_id"),
+        @Index(name = "idx_lineage_to", columnList = "to_asset_id"),
+        @Index(name = "idx_lineage_from", columnList = "from_asset_id"),
+        @Index(name = "idx_lineage_file", columnList = "file_id")
 })
 public class Lineage {
 
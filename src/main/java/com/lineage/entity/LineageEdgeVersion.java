@@ -0,0 +1,112 @@
+package com.lineage.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One lineage edge of a repository/branch, stored once for the range of runs in which it exists.
+ * The range is opened by the first completed run that produced the edge and closed by the first
+ * completed run that no longer does (valid_to_* null = still current).
+ */
+@Entity
+@Table(name = "lineage_edge_versions", indexes = {
+        @Index(name = "idx_edge_versions_to", columnList = "to_catalog_id, valid_to_at"),
+        @Index(name = "idx_edge_versions_from", columnList = "from_catalog_id, valid_to_at"),
+        @Index(name = "idx_edge_versions_stream", columnList = "repository_url, branch, edge_fingerprint")
+})
+public class LineageEdgeVersion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "edge_version_id")
+    private UUID edgeVersionId;
+
+    @Column(name = "repository_url", nullable = false, length = 500)
+    private String repositoryUrl;
+
+    @Column(name = "branch", nullable = false, length = 100)
+    private String branch;
+
+    // 128-bit md5 over the normalized endpoints, columns and type (see LineageEdgeVersionRepository)
+    @Column(name = "edge_fingerprint", nullable = false)
+    private UUID edgeFingerprint;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "from_catalog_id", nullable = false)
+    private CatalogAsset fromCatalog;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "to_catalog_id", nullable = false)
+    private CatalogAsset toCatalog;
+
+    @Column(name = "from_column", length = 255)
+    private String fromColumn;
+
+    @Column(name = "to_column", length = 255)
+    private String toColumn;
+
+    @Column(name = "edge_type", length = 32)
+    private String edgeType; // table_edge | column_edge
+
+    @Column(name = "transformation_type", length = 64)
+    private String transformationType;
+
+    // where the edge was last found; not part of the fingerprint, updated in place while the version is open
+    @Column(name = "file_path", length = 500)
+    private String filePath;
+
+    @Column(name = "start_line")
+    private Integer startLine;
+
+    @Column(name = "end_line")
+    private Integer endLine;
+
+    @Column(name = "valid_from_run_id", nullable = false)
+    private UUID validFromRunId;
+
+    @Column(name = "valid_from_at", nullable = false)
+    private LocalDateTime validFromAt;
+
+    @Column(name = "valid_to_run_id")
+    private UUID validToRunId;
+
+    @Column(name = "valid_to_at")
+    private LocalDateTime validToAt;
+
+    public UUID getEdgeVersionId() { return edgeVersionId; }
+    public void setEdgeVersionId(UUID edgeVersionId) { this.edgeVersionId = edgeVersionId; }
+    public String getRepositoryUrl() { return repositoryUrl; }
+    public void setRepositoryUrl(String repositoryUrl) { this.repositoryUrl = repositoryUrl; }
+    public String getBranch() { return branch; }
+    public void setBranch(String branch) { this.branch = branch; }
+    public UUID getEdgeFingerprint() { return edgeFingerprint; }
+    public void setEdgeFingerprint(UUID edgeFingerprint) { this.edgeFingerprint = edgeFingerprint; }
+    public CatalogAsset getFromCatalog() { return fromCatalog; }
+    public void setFromCatalog(CatalogAsset fromCatalog) { this.fromCatalog = fromCatalog; }
+    public CatalogAsset getToCatalog() { return toCatalog; }
+    public void setToCatalog(CatalogAsset toCatalog) { this.toCatalog = toCatalog; }
+    public String getFromColumn() { return fromColumn; }
+    public void setFromColumn(String fromColumn) { this.fromColumn = fromColumn; }
+    public String getToColumn() { return toColumn; }
+    public void setToColumn(String toColumn) { this.toColumn = toColumn; }
+    public String getEdgeType() { return edgeType; }
+    public void setEdgeType(String edgeType) { this.edgeType = edgeType; }
+    public String getTransformationType() { return transformationType; }
+    public void setTransformationType(String transformationType) { this.transformationType = transformationType; }
+    public String getFilePath() { return filePath; }
+    public void setFilePath(String filePath) { this.filePath = filePath; }
+    public Integer getStartLine() { return startLine; }
+    public void setStartLine(Integer startLine) { this.startLine = startLine; }
+    public Integer getEndLine() { return endLine; }
+    public void setEndLine(Integer endLine) { this.endLine = endLine; }
+    public UUID getValidFromRunId() { return validFromRunId; }
+    public void setValidFromRunId(UUID validFromRunId) { this.validFromRunId = validFromRunId; }
+    public LocalDateTime getValidFromAt() { return validFromAt; }
+    public void setValidFromAt(LocalDateTime validFromAt) { this.validFromAt = validFromAt; }
+    public UUID getValidToRunId() { return validToRunId; }
+    public void setValidToRunId(UUID validToRunId) { this.validToRunId = validToRunId; }
+    public LocalDateTime getValidToAt() { return validToAt; }
+    public void setValidToAt(LocalDateTime validToAt) { this.validToAt = validToAt; }
+}
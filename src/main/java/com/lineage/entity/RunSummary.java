@@ -0,0 +1,81 @@
+package com.lineage.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Per-run aggregates computed once when a run finishes, so run listings never have to
+ * count assets/edges/errors on the fly. Deltas are relative to the previous completed
+ * run of the same repository and branch.
+ */
+@Entity
+@Table(name = "run_summaries")
+public class RunSummary {
+
+    @Id
+    @Column(name = "run_id")
+    private UUID runId;
+
+    @Column(name = "previous_run_id")
+    private UUID previousRunId;
+
+    @Column(name = "file_count", nullable = false)
+    private long fileCount;
+
+    @Column(name = "asset_count", nullable = false)
+    private long assetCount;
+
+    @Column(name = "edge_count", nullable = false)
+    private long edgeCount;
+
+    @Column(name = "table_edge_count", nullable = false)
+    private long tableEdgeCount;
+
+    @Column(name = "column_edge_count", nullable = false)
+    private long columnEdgeCount;
+
+    @Column(name = "assets_delta", nullable = false)
+    private long assetsDelta;
+
+    @Column(name = "edges_delta", nullable = false)
+    private long edgesDelta;
+
+    @Column(name = "errors", nullable = false)
+    private long errors;
+
+    @UpdateTimestamp
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+
+    public RunSummary() {}
+
+    public RunSummary(UUID runId) {
+        this.runId = runId;
+    }
+
+    public UUID getRunId() { return runId; }
+    public void setRunId(UUID runId) { this.runId = runId; }
+    public UUID getPreviousRunId() { return previousRunId; }
+    public void setPreviousRunId(UUID previousRunId) { this.previousRunId = previousRunId; }
+    public long getFileCount() { return fileCount; }
+    public void setFileCount(long fileCount) { this.fileCount = fileCount; }
+    public long getAssetCount() { return assetCount; }
+    public void setAssetCount(long assetCount) { this.assetCount = assetCount; }
+    public long getEdgeCount() { return edgeCount; }
+    public void setEdgeCount(long edgeCount) { this.edgeCount = edgeCount; }
+    public long getTableEdgeCount() { return tableEdgeCount; }
+    public void setTableEdgeCount(long tableEdgeCount) { this.tableEdgeCount = tableEdgeCount; }
+    public long getColumnEdgeCount() { return columnEdgeCount; }
+    public void setColumnEdgeCount(long columnEdgeCount) { this.columnEdgeCount = columnEdgeCount; }
+    public long getAssetsDelta() { return assetsDelta; }
+    public void setAssetsDelta(long assetsDelta) { this.assetsDelta = assetsDelta; }
+    public long getEdgesDelta() { return edgesDelta; }
+    public void setEdgesDelta(long edgesDelta) { this.edgesDelta = edgesDelta; }
+    public long getErrors() { return errors; }
+    public void setErrors(long errors) { this.errors = errors; }
+    public LocalDateTime getComputedAt() { return computedAt; }
+    public void setComputedAt(LocalDateTime computedAt) { this.computedAt = computedAt; }
+}
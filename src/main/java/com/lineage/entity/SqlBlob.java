@@ -0,0 +1,48 @@
+package com.lineage.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Content-addressed, compressed SQL source. One row per distinct content (sha-256 of the UTF-8 text),
+ * shared by every file and run that saw the same content.
+ */
+@Entity
+@Table(name = "sql_blobs")
+public class SqlBlob {
+
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "codec", nullable = false, length = 16)
+    private String codec; // lz4 | none
+
+    @Column(name = "raw_size", nullable = false)
+    private int rawSize;
+
+    @Column(name = "stored_size", nullable = false)
+    private int storedSize;
+
+    @Column(name = "content", nullable = false, columnDefinition = "bytea")
+    private byte[] content;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+    public String getCodec() { return codec; }
+    public void setCodec(String codec) { this.codec = codec; }
+    public int getRawSize() { return rawSize; }
+    public void setRawSize(int rawSize) { this.rawSize = rawSize; }
+    public int getStoredSize() { return storedSize; }
+    public void setStoredSize(int storedSize) { this.storedSize = storedSize; }
+    public byte[] getContent() { return content; }
+    public void setContent(byte[] content) { this.content = content; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
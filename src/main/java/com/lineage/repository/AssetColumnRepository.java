@@ -2,15 +2,47 @@ package com.lineage.repository;
 
 import com.lineage.entity.Asset;
 import com.lineage.entity.AssetColumn;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface AssetColumnRepository extends JpaRepository<AssetColumn, UUID> {
     List<AssetColumn> findByAssetAssetId(UUID assetId);
     List<AssetColumn> findByAssetAssetIdAndRole(UUID assetId, Asset.Role role);
+    List<AssetColumn> findByAssetAssetIdInAndRole(Collection<UUID> assetIds, Asset.Role role);
+    Page<AssetColumn> findByAssetAssetIdAndRoleOrderByColumnName(UUID assetId, Asset.Role role, Pageable pageable);
     void deleteByAssetAssetId(UUID assetId);
-}
 
+    // [columnName, occurrences] per distinct column name, used to build the autocomplete index
+    @Query("SELECT c.columnName, COUNT(c) FROM AssetColumn c GROUP BY c.columnName")
+    List<Object[]> countByColumnName();
+
+    // [shortName, fullName, columnName, role] deduplicated across runs (tables by lower-cased short name),
+    // used to build the column reverse index
+    @Query("SELECT max(a.shortName), max(a.fullName), c.columnName, c.role FROM AssetColumn c JOIN c.asset a " +
+           "GROUP BY lower(a.shortName), c.columnName, c.role")
+    List<Object[]> findDistinctColumnUsages();
 
+    /**
+     * Copy the baseline columns of every asset carried forward into the new run
+     */
+    @Modifying
+    @Query(value = "INSERT INTO asset_columns (asset_column_id, asset_id, column_name, role, created_at) " +
+                   "SELECT gen_random_uuid(), n.asset_id, c.column_name, c.role, now() " +
+                   "FROM asset_columns c " +
+                   "JOIN assets a ON a.asset_id = c.asset_id " +
+                   "JOIN assets n ON n.run_id = :runId AND n.short_name = a.short_name " +
+                   "WHERE a.run_id = :baselineRunId " +
+                   "  AND EXISTS (SELECT 1 FROM asset_files naf JOIN files nf ON nf.file_id = naf.file_id " +
+                   "              WHERE naf.run_id = :runId AND naf.asset_id = n.asset_id AND nf.carried_from_file_id IS NOT NULL) " +
+                   "  AND NOT EXISTS (SELECT 1 FROM asset_columns x WHERE x.asset_id = n.asset_id " +
+                   "                  AND x.column_name = c.column_name AND x.role IS NOT DISTINCT FROM c.role)", nativeQuery = true)
+    int carryForward(@Param("baselineRunId") UUID baselineRunId, @Param("runId") UUID runId);
+}
@@ -2,6 +2,9 @@ package com.lineage.repository;
 
 import com.lineage.entity.AssetFile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.UUID;
@@ -9,6 +12,19 @@ import java.util.UUID;
 public interface AssetFileRepository extends JpaRepository<AssetFile, UUID> {
     List<AssetFile> findByExtractionRunRunId(UUID runId);
     List<AssetFile> findByAssetAssetId(UUID assetId);
-}
-
 
+    /**
+     * Re-create the asset/file links of carried-forward files against the new run's assets
+     */
+    @Modifying
+    @Query(value = "INSERT INTO asset_files (asset_file_id, run_id, file_id, asset_id, created_at) " +
+                   "SELECT gen_random_uuid(), :runId, nf.file_id, n.asset_id, now() " +
+                   "FROM files nf " +
+                   "JOIN asset_files af ON af.run_id = :baselineRunId AND af.file_id = nf.carried_from_file_id " +
+                   "JOIN assets a ON a.asset_id = af.asset_id " +
+                   "JOIN assets n ON n.run_id = :runId AND n.short_name = a.short_name " +
+                   "WHERE nf.run_id = :runId AND nf.carried_from_file_id IS NOT NULL " +
+                   "  AND NOT EXISTS (SELECT 1 FROM asset_files x WHERE x.run_id = :runId AND x.file_id = nf.file_id " +
+                   "                  AND x.asset_id = n.asset_id)", nativeQuery = true)
+    int carryForward(@Param("baselineRunId") UUID baselineRunId, @Param("runId") UUID runId);
+}
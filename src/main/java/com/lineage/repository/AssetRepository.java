@@ -3,18 +3,113 @@ package com.lineage.repository;
 import com.lineage.entity.Asset;
 import com.lineage.entity.ExtractionRun;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface AssetRepository extends JpaRepository<Asset, UUID> {
     List<Asset> findByExtractionRunRunId(UUID runId);
+    long countByExtractionRunRunId(UUID runId);
     Asset findFirstByExtractionRunRunIdAndFullName(UUID runId, String fullName);
     Asset findFirstByExtractionRunRunIdAndShortName(UUID runId, String shortName);
 
     // For selecting the most recent asset snapshot when run id is not provided
     List<Asset> findByShortNameIgnoreCase(String shortName);
     Asset findTopByShortNameIgnoreCaseOrderByCreatedAtDesc(String shortName);
-}
 
+    // [lowerShortName, shortName, fullName, occurrences] per distinct table, used to build the autocomplete index
+    @Query("SELECT lower(a.shortName), max(a.shortName), max(a.fullName), COUNT(a) FROM Asset a GROUP BY lower(a.shortName)")
+    List<Object[]> countByShortName();
+
+    /**
+     * Keyset page of assets ordered by (lower(short_name), asset_id); every filter is optional (null = no filter).
+     * Pass the last row of the previous page as afterName/afterId to seek past it.
+     */
+    @Query(value = "SELECT a.* FROM assets a " +
+                   "WHERE (CAST(:contains AS text) IS NULL OR lower(a.short_name) LIKE CAST(:contains AS text) ESCAPE '!' " +
+                   "       OR lower(a.full_name) LIKE CAST(:contains AS text) ESCAPE '!') " +
+                   "  AND (CAST(:schemaName AS text) IS NULL OR lower(a.schema_name) = lower(CAST(:schemaName AS text))) " +
+                   "  AND (CAST(:role AS text) IS NULL OR a.role = CAST(:role AS text)) " +
+                   "  AND (CAST(:runId AS uuid) IS NULL OR a.run_id = CAST(:runId AS uuid)) " +
+                   "  AND (CAST(:afterName AS text) IS NULL " +
+                   "       OR (lower(a.short_name), a.asset_id) > (CAST(:afterName AS text), CAST(:afterId AS uuid))) " +
+                   "ORDER BY lower(a.short_name), a.asset_id " +
+                   "LIMIT :limit", nativeQuery = true)
+    List<Asset> findPageAfter(@Param("contains") String contains,
+                              @Param("schemaName") String schemaName,
+                              @Param("role") String role,
+                              @Param("runId") String runId,
+                              @Param("afterName") String afterName,
+                              @Param("afterId") String afterId,
+                              @Param("limit") int limit);
+
+    /**
+     * Same filters as findPageAfter, ordered by the table's criticality score (highest first, unscored
+     * tables count as 0), then asset_id. Pass the last row's score and id as afterScore/afterId.
+     */
+    @Query(value = "SELECT a.* FROM assets a LEFT JOIN catalog_assets c ON c.catalog_id = a.catalog_id " +
+                   "WHERE (CAST(:contains AS text) IS NULL OR lower(a.short_name) LIKE CAST(:contains AS text) ESCAPE '!' " +
+                   "       OR lower(a.full_name) LIKE CAST(:contains AS text) ESCAPE '!') " +
+                   "  AND (CAST(:schemaName AS text) IS NULL OR lower(a.schema_name) = lower(CAST(:schemaName AS text))) " +
+                   "  AND (CAST(:role AS text) IS NULL OR a.role = CAST(:role AS text)) " +
+                   "  AND (CAST(:runId AS uuid) IS NULL OR a.run_id = CAST(:runId AS uuid)) " +
+                   "  AND (CAST(:afterScore AS text) IS NULL " +
+                   "       OR COALESCE(c.criticality, 0) < CAST(CAST(:afterScore AS text) AS double precision) " +
+                   "       OR (COALESCE(c.criticality, 0) = CAST(CAST(:afterScore AS text) AS double precision) " +
+                   "           AND a.asset_id > CAST(:afterId AS uuid))) " +
+                   "ORDER BY COALESCE(c.criticality, 0) DESC, a.asset_id " +
+                   "LIMIT :limit", nativeQuery = true)
+    List<Asset> findPageByCriticalityAfter(@Param("contains") String contains,
+                                           @Param("schemaName") String schemaName,
+                                           @Param("role") String role,
+                                           @Param("runId") String runId,
+                                           @Param("afterScore") String afterScore,
+                                           @Param("afterId") String afterId,
+                                           @Param("limit") int limit);
+
+    // [assetId, upstreamCount, downstreamCount, firstSeenAt, lastSeenAt, criticality, downstreamClosure, fanIn, fanOut]
+    // for one page of assets (graph scores come from the catalog entry). Edges of an asset of a completed run
+    // are those of its repository/branch valid when the run was folded (its per-run rows may be pruned);
+    // assets of other runs count the run's own rows.
+    String VERSIONS_AT_RUN = "FROM lineage_edge_versions v WHERE v.repository_url = r.repository_url AND v.branch = r.branch " +
+            "AND v.valid_from_at <= COALESCE(r.finished_at, r.created_at) " +
+            "AND (v.valid_to_at IS NULL OR v.valid_to_at > COALESCE(r.finished_at, r.created_at)) ";
 
+    @Query(value = "SELECT a.asset_id, " +
+                   "  CASE WHEN r.phase = 'COMPLETED' " +
+                   "       THEN (SELECT COUNT(*) " + VERSIONS_AT_RUN + "AND v.to_catalog_id = a.catalog_id) " +
+                   "       ELSE (SELECT COUNT(*) FROM lineage l WHERE l.to_asset_id = a.asset_id) END, " +
+                   "  CASE WHEN r.phase = 'COMPLETED' " +
+                   "       THEN (SELECT COUNT(*) " + VERSIONS_AT_RUN + "AND v.from_catalog_id = a.catalog_id) " +
+                   "       ELSE (SELECT COUNT(*) FROM lineage l WHERE l.from_asset_id = a.asset_id) END, " +
+                   "  (SELECT MIN(af.created_at) FROM asset_files af WHERE af.asset_id = a.asset_id), " +
+                   "  (SELECT MAX(af.created_at) FROM asset_files af WHERE af.asset_id = a.asset_id), " +
+                   "  c.criticality, c.downstream_closure, c.fan_in, c.fan_out " +
+                   "FROM assets a JOIN extraction_runs r ON r.run_id = a.run_id " +
+                   "LEFT JOIN catalog_assets c ON c.catalog_id = a.catalog_id " +
+                   "WHERE a.asset_id IN (:assetIds)", nativeQuery = true)
+    List<Object[]> findPageStats(@Param("assetIds") Collection<UUID> assetIds);
+
+    /**
+     * Escape LIKE wildcards so user input is matched literally (pair with ESCAPE '!').
+     */
+    static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    /**
+     * Copy the baseline assets linked to carried-forward files into the new run (one per short name)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO assets (asset_id, run_id, catalog_id, full_name, short_name, schema_name, role, created_at) " +
+                   "SELECT gen_random_uuid(), :runId, a.catalog_id, a.full_name, a.short_name, a.schema_name, a.role, now() " +
+                   "FROM assets a " +
+                   "WHERE a.asset_id IN (SELECT af.asset_id FROM asset_files af JOIN files nf ON nf.carried_from_file_id = af.file_id " +
+                   "                     WHERE af.run_id = :baselineRunId AND nf.run_id = :runId) " +
+                   "  AND NOT EXISTS (SELECT 1 FROM assets n WHERE n.run_id = :runId AND n.short_name = a.short_name)", nativeQuery = true)
+    int carryForward(@Param("baselineRunId") UUID baselineRunId, @Param("runId") UUID runId);
+}
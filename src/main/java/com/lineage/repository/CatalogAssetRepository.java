@@ -0,0 +1,118 @@
+package com.lineage.repository;
+
+import com.lineage.entity.CatalogAsset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CatalogAssetRepository extends JpaRepository<CatalogAsset, UUID> {
+
+    Optional<CatalogAsset> findByQualifiedName(String qualifiedName);
+
+    // Short names are not unique across schemas; the most recently seen table wins
+    CatalogAsset findFirstByShortKeyOrderByLastSeenAtDesc(String shortKey);
+
+    @Query(value = "SELECT DISTINCT ON (c.short_key) c.* FROM catalog_assets c " +
+                   "WHERE c.short_key IN (:shortKeys) ORDER BY c.short_key, c.last_seen_at DESC", nativeQuery = true)
+    List<CatalogAsset> findLatestByShortKeys(@Param("shortKeys") Collection<String> shortKeys);
+
+    /**
+     * Insert or refresh the catalog entry for a newly ingested snapshot (safe under concurrent ingest)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO catalog_assets (catalog_id, qualified_name, short_key, short_name, full_name, schema_name, " +
+                   "  latest_asset_id, last_seen_run_id, first_seen_at, last_seen_at, upstream_count, downstream_count, created_at) " +
+                   "VALUES (gen_random_uuid(), :qualifiedName, lower(:shortName), :shortName, :fullName, :schemaName, " +
+                   "  :assetId, :runId, now(), now(), 0, 0, now()) " +
+                   "ON CONFLICT (qualified_name) DO UPDATE SET short_key = EXCLUDED.short_key, short_name = EXCLUDED.short_name, " +
+                   "  full_name = EXCLUDED.full_name, schema_name = COALESCE(EXCLUDED.schema_name, catalog_assets.schema_name), " +
+                   "  latest_asset_id = EXCLUDED.latest_asset_id, last_seen_run_id = EXCLUDED.last_seen_run_id, " +
+                   "  last_seen_at = EXCLUDED.last_seen_at", nativeQuery = true)
+    int upsertSnapshot(@Param("qualifiedName") String qualifiedName,
+                       @Param("shortName") String shortName,
+                       @Param("fullName") String fullName,
+                       @Param("schemaName") String schemaName,
+                       @Param("assetId") UUID assetId,
+                       @Param("runId") UUID runId);
+
+    /**
+     * Recompute degree counts for the tables whose latest snapshot belongs to the given run
+     */
+    @Modifying
+    @Query(value = "UPDATE catalog_assets c SET " +
+                   "  upstream_count = (SELECT COUNT(*) FROM lineage l WHERE l.to_asset_id = c.latest_asset_id), " +
+                   "  downstream_count = (SELECT COUNT(*) FROM lineage l WHERE l.from_asset_id = c.latest_asset_id) " +
+                   "WHERE c.last_seen_run_id = :runId", nativeQuery = true)
+    int refreshDegreeCountsForRun(@Param("runId") UUID runId);
+
+    /**
+     * Degree counts for tables that only exist through imported lineage (no snapshot, or only the one
+     * created by the import run), taken from the current edges of the temporal store
+     */
+    @Modifying
+    @Query(value = "UPDATE catalog_assets c SET " +
+                   "  upstream_count = (SELECT COUNT(*) FROM lineage_edge_versions v WHERE v.to_catalog_id = c.catalog_id AND v.valid_to_at IS NULL), " +
+                   "  downstream_count = (SELECT COUNT(*) FROM lineage_edge_versions v WHERE v.from_catalog_id = c.catalog_id AND v.valid_to_at IS NULL) " +
+                   "WHERE c.latest_asset_id IS NULL OR c.last_seen_run_id = :importRunId", nativeQuery = true)
+    int refreshDegreeCountsForImported(@Param("importRunId") UUID importRunId);
+
+    /**
+     * Match quality of catalog row x for a name search: 0 exact, 1 short name prefix, 2 full name prefix,
+     * 3 substring. Expects :q and :prefix bound.
+     */
+    String SEARCH_RANK = "CASE WHEN x.short_key = :q THEN 0 " +
+            "WHEN x.short_key LIKE :prefix ESCAPE '!' THEN 1 " +
+            "WHEN lower(x.full_name) LIKE :prefix ESCAPE '!' THEN 2 ELSE 3 END";
+
+    // Final search order within a candidate branch (criticality first when requested, then match quality)
+    String SEARCH_ORDER = "CASE WHEN :byCriticality THEN -COALESCE(x.criticality, 0) ELSE 0 END, " +
+            "rank, length(x.short_name), x.short_key";
+
+    /**
+     * Ranked name search over the catalog (one row per table, no per-run duplicates).
+     * Candidates come from the short_key prefix index and the pg_trgm GIN indexes on
+     * short/full name (see db/indexes.sql), each capped at :candidates rows so short queries stay bounded.
+     * Each candidate branch is ordered by the final ranking before it is capped, so the cap drops the
+     * worst matches rather than arbitrary ones.
+     * Rows are [shortName, fullName, criticality], exact matches first, then prefix matches, then substring
+     * matches; with :byCriticality the criticality score is the primary sort key instead.
+     */
+    @Query(value = "SELECT s.short_name, s.full_name, s.criticality FROM (" +
+                   "  SELECT DISTINCT ON (c.catalog_id) c.* FROM (" +
+                   "    (SELECT x.catalog_id, x.short_key, x.short_name, x.full_name, x.criticality, " + SEARCH_RANK + " AS rank " +
+                   "       FROM catalog_assets x " +
+                   "       WHERE x.short_key LIKE :prefix ESCAPE '!' " +
+                   "       ORDER BY " + SEARCH_ORDER + " LIMIT :candidates)" +
+                   "    UNION ALL " +
+                   "    (SELECT x.catalog_id, x.short_key, x.short_name, x.full_name, x.criticality, " + SEARCH_RANK + " AS rank " +
+                   "       FROM catalog_assets x " +
+                   "       WHERE x.short_key LIKE :contains ESCAPE '!' OR x.qualified_name LIKE :contains ESCAPE '!' " +
+                   "       ORDER BY " + SEARCH_ORDER + " LIMIT :candidates)" +
+                   "  ) c" +
+                   ") s " +
+                   "ORDER BY CASE WHEN :byCriticality THEN -COALESCE(s.criticality, 0) ELSE 0 END, " +
+                   "         s.rank, length(s.short_name), s.short_key " +
+                   "LIMIT :limit", nativeQuery = true)
+    List<Object[]> searchByName(@Param("q") String q,
+                                @Param("prefix") String prefix,
+                                @Param("contains") String contains,
+                                @Param("candidates") int candidates,
+                                @Param("limit") int limit,
+                                @Param("byCriticality") boolean byCriticality);
+
+    /**
+     * Point catalog entries at the snapshots a run created with set-based copies (incremental carry-forward)
+     */
+    @Modifying
+    @Query(value = "UPDATE catalog_assets c SET latest_asset_id = n.asset_id, last_seen_run_id = n.run_id, last_seen_at = now() " +
+                   "FROM assets n WHERE n.run_id = :runId AND n.catalog_id = c.catalog_id", nativeQuery = true)
+    int mergeRunSnapshots(@Param("runId") UUID runId);
+}
@@ -1,13 +1,18 @@
 package com.lineage.repository;
 
 import com.lineage.entity.ExtractionRun;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -28,4 +33,72 @@ public interface ExtractionRunRepository extends JpaRepository<ExtractionRun, UU
 
     @Query("SELECT er FROM ExtractionRun er WHERE er.triggeredBy = :triggeredBy ORDER BY er.createdAt DESC")
     List<ExtractionRun> findByTriggeredBy(@Param("triggeredBy") String triggeredBy);
-} 
\ No newline at end of file
+
+    // Previous run of the same repository/branch in the given phase, created before the given run
+    Optional<ExtractionRun> findFirstByRepositoryUrlAndBranchAndPhaseAndRunIdNotAndCreatedAtBeforeOrderByCreatedAtDesc(
+            String repositoryUrl, String branch, ExtractionRun.ExtractionPhase phase, UUID runId, LocalDateTime createdAt);
+
+    // Latest run of a repository/branch in the given phase
+    Optional<ExtractionRun> findFirstByRepositoryUrlAndBranchAndPhaseOrderByCreatedAtDesc(
+            String repositoryUrl, String branch, ExtractionRun.ExtractionPhase phase);
+
+    // Whether a newer run of the same repository/branch has already reached the given phase
+    boolean existsByRepositoryUrlAndBranchAndPhaseAndCreatedAtAfter(
+            String repositoryUrl, String branch, ExtractionRun.ExtractionPhase phase, LocalDateTime createdAt);
+
+    // Whether a newer run of the same repository/branch completed before the given time (a run finishing
+    // at that time was then not folded into the temporal store)
+    @Query("SELECT COUNT(r) > 0 FROM ExtractionRun r WHERE r.repositoryUrl = :repositoryUrl AND r.branch = :branch " +
+           "AND r.phase = :phase AND r.createdAt > :createdAt AND COALESCE(r.finishedAt, r.createdAt) < :before")
+    boolean existsNewerRunCompletedBefore(@Param("repositoryUrl") String repositoryUrl,
+                                          @Param("branch") String branch,
+                                          @Param("phase") ExtractionRun.ExtractionPhase phase,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("before") LocalDateTime before);
+
+    // Row-locked read; serializes the shards of a sharded run when they report to the backend
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT er FROM ExtractionRun er WHERE er.runId = :runId")
+    Optional<ExtractionRun> findByIdForUpdate(@Param("runId") UUID runId);
+
+    // Recent runs in a phase, newest first; used to estimate run durations for queued runs
+    List<ExtractionRun> findTop20ByRepositoryUrlAndPhaseOrderByCreatedAtDesc(String repositoryUrl, ExtractionRun.ExtractionPhase phase);
+
+    List<ExtractionRun> findTop50ByPhaseOrderByCreatedAtDesc(ExtractionRun.ExtractionPhase phase);
+
+    // Recent runs of a repository/branch in a phase, newest first; history used to size extraction containers
+    List<ExtractionRun> findByRepositoryUrlAndBranchAndPhaseOrderByCreatedAtDesc(
+            String repositoryUrl, String branch, ExtractionRun.ExtractionPhase phase, Pageable pageable);
+
+    // Completed runs oldest first, used to replay history into the temporal lineage store
+    List<ExtractionRun> findByPhaseOrderByCreatedAtAsc(ExtractionRun.ExtractionPhase phase);
+
+    /**
+     * Keyset page of runs ordered by (created_at, run_id) descending; filters are optional (null = no filter).
+     * afterCreatedAt is an ISO-8601 local timestamp taken from the last row of the previous page.
+     */
+    @Query(value = "SELECT r.* FROM extraction_runs r " +
+                   "WHERE (CAST(:repositoryUrl AS text) IS NULL OR r.repository_url = CAST(:repositoryUrl AS text)) " +
+                   "  AND (CAST(:branch AS text) IS NULL OR r.branch = CAST(:branch AS text)) " +
+                   "  AND (CAST(:phase AS text) IS NULL OR r.phase = CAST(:phase AS text)) " +
+                   "  AND (CAST(:afterCreatedAt AS timestamp) IS NULL " +
+                   "       OR (r.created_at, r.run_id) < (CAST(:afterCreatedAt AS timestamp), CAST(:afterId AS uuid))) " +
+                   "ORDER BY r.created_at DESC, r.run_id DESC " +
+                   "LIMIT :limit", nativeQuery = true)
+    List<ExtractionRun> findPageBefore(@Param("repositoryUrl") String repositoryUrl,
+                                       @Param("branch") String branch,
+                                       @Param("phase") String phase,
+                                       @Param("afterCreatedAt") String afterCreatedAt,
+                                       @Param("afterId") String afterId,
+                                       @Param("limit") int limit);
+
+    // Definition of the check constraint Hibernate puts on the phase column when it creates the table
+    @Query(value = "SELECT pg_get_constraintdef(c.oid) FROM pg_constraint c " +
+                   "WHERE c.conname = 'extraction_runs_phase_check' AND c.conrelid = CAST('extraction_runs' AS regclass)",
+           nativeQuery = true)
+    Optional<String> findPhaseCheckConstraint();
+
+    @Modifying
+    @Query(value = "ALTER TABLE extraction_runs DROP CONSTRAINT IF EXISTS extraction_runs_phase_check", nativeQuery = true)
+    void dropPhaseCheckConstraint();
+}
@@ -0,0 +1,14 @@
+package com.lineage.repository;
+
+import com.lineage.entity.ExtractionShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ExtractionShardRepository extends JpaRepository<ExtractionShard, UUID> {
+
+    List<ExtractionShard> findByExtractionRunRunIdOrderByShardIndex(UUID runId);
+}
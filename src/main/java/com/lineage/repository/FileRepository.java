@@ -2,11 +2,14 @@ package com.lineage.repository;
 
 import com.lineage.entity.File;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -25,9 +28,45 @@ public interface FileRepository extends JpaRepository<File, UUID> {
     @Query("SELECT COUNT(f) FROM File f WHERE f.extractionRun.runId = :runId")
     long countByRunId(@Param("runId") UUID runId);
 
+    @Query("SELECT COUNT(f) FROM File f WHERE f.extractionRun.runId = :runId AND f.carriedFromFileId IS NOT NULL")
+    long countCarriedByRunId(@Param("runId") UUID runId);
+
     @Query("SELECT COUNT(f) FROM File f WHERE f.extractionRun.runId = :runId AND f.status = :status")
     long countByRunIdAndStatus(@Param("runId") UUID runId, @Param("status") File.FileStatus status);
 
     @Query("SELECT f FROM File f WHERE f.fileType = :fileType ORDER BY f.createdAt DESC")
     List<File> findByFileType(@Param("fileType") File.FileType fileType);
-} 
\ No newline at end of file
+
+    // [filePath, fileHash] of the successfully extracted files of a run (baseline of an INCREMENTAL run)
+    @Query("SELECT f.filePath, f.fileHash FROM File f WHERE f.extractionRun.runId = :runId AND f.status = :status")
+    List<Object[]> findHashesByRunIdAndStatus(@Param("runId") UUID runId, @Param("status") File.FileStatus status);
+
+    /**
+     * SQL content of a file as stored by the latest completed run of a repository/branch that finished
+     * before the given time (null = latest); used to show the source of edge versions
+     */
+    @Query(value = "SELECT f.sql_content_hash FROM files f JOIN extraction_runs r ON r.run_id = f.run_id " +
+                   "WHERE r.repository_url = :repositoryUrl AND r.branch = :branch AND r.phase = 'COMPLETED' " +
+                   "  AND f.file_path = :filePath AND f.sql_content_hash IS NOT NULL " +
+                   "  AND (CAST(:before AS timestamp) IS NULL OR COALESCE(r.finished_at, r.created_at) < CAST(:before AS timestamp)) " +
+                   "ORDER BY COALESCE(r.finished_at, r.created_at) DESC LIMIT 1", nativeQuery = true)
+    Optional<String> findLatestSqlContentHash(@Param("repositoryUrl") String repositoryUrl,
+                                              @Param("branch") String branch,
+                                              @Param("filePath") String filePath,
+                                              @Param("before") LocalDateTime before);
+
+    /**
+     * Copy the given files of the baseline run into the new run, remembering where each copy came from.
+     * Paths the run already has are skipped, so a repeated manifest does not copy them twice.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO files (file_id, run_id, file_path, file_type, file_url, file_hash, last_modified_at, " +
+                   "  extracted_at, status, sql_content_hash, created_at, carried_from_file_id) " +
+                   "SELECT gen_random_uuid(), :runId, f.file_path, f.file_type, f.file_url, f.file_hash, f.last_modified_at, " +
+                   "  f.extracted_at, f.status, f.sql_content_hash, now(), f.file_id " +
+                   "FROM files f WHERE f.run_id = :baselineRunId AND f.file_path IN (:paths) " +
+                   "  AND NOT EXISTS (SELECT 1 FROM files x WHERE x.run_id = :runId AND x.file_path = f.file_path)", nativeQuery = true)
+    int carryForward(@Param("baselineRunId") UUID baselineRunId,
+                     @Param("runId") UUID runId,
+                     @Param("paths") Collection<String> paths);
+}
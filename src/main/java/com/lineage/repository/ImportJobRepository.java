@@ -0,0 +1,36 @@
+package com.lineage.repository;
+
+import com.lineage.entity.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, UUID> {
+
+    /**
+     * Record progress; the checkpoint only moves forward
+     */
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.linesCommitted = :lines, j.rowsImported = :imported, j.rowsRejected = :rejected, " +
+           "j.updatedAt = :at WHERE j.importId = :importId AND j.linesCommitted <= :lines")
+    int checkpoint(@Param("importId") UUID importId,
+                   @Param("lines") long lines,
+                   @Param("imported") long imported,
+                   @Param("rejected") long rejected,
+                   @Param("at") LocalDateTime at);
+
+    /**
+     * Move every import in one status to another (imports still RUNNING at startup were cut off by a restart)
+     */
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.status = :to, j.updatedAt = :at WHERE j.status = :from")
+    int updateStatus(@Param("from") ImportJob.Status from,
+                     @Param("to") ImportJob.Status to,
+                     @Param("at") LocalDateTime at);
+}
@@ -17,6 +17,9 @@ public interface JobStatusRepository extends JpaRepository<JobStatus, UUID> {
 
     Optional<JobStatus> findFirstByExtractionRunRunIdOrderByLastUpdatedDesc(UUID runId);
 
+    // Latest status reported by one shard of a sharded run
+    Optional<JobStatus> findFirstByExtractionRunRunIdAndShardIndexOrderByLastUpdatedDesc(UUID runId, Integer shardIndex);
+
     List<JobStatus> findByStatus(JobStatus.JobStatusEnum status);
 
     @Query("SELECT js FROM JobStatus js WHERE js.extractionRun.runId = :runId AND js.status = :status")
@@ -30,4 +33,7 @@ public interface JobStatusRepository extends JpaRepository<JobStatus, UUID> {
 
     @Query("SELECT COUNT(js) FROM JobStatus js WHERE js.status = :status")
     long countByStatus(@Param("status") JobStatus.JobStatusEnum status);
+
+    @Query("SELECT COALESCE(MAX(js.errorCount), 0) FROM JobStatus js WHERE js.extractionRun.runId = :runId")
+    int findMaxErrorCountByRunId(@Param("runId") UUID runId);
 } 
\ No newline at end of file
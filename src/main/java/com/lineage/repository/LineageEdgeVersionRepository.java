@@ -0,0 +1,198 @@
+package com.lineage.repository;
+
+import com.lineage.entity.CatalogAsset;
+import com.lineage.entity.LineageEdgeVersion;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface LineageEdgeVersionRepository extends JpaRepository<LineageEdgeVersion, UUID> {
+
+    /**
+     * 128-bit fingerprint of the logical edge: normalized endpoints (catalog qualified names), columns and
+     * type. The location (file, lines) is not part of it, so moving SQL around does not open a new version.
+     * Expects lineage l and assets fa/ta (from/to) in scope.
+     */
+    String EDGE_FINGERPRINT = "CAST(md5(" +
+            "lower(trim(fa.full_name)) || '|' || lower(trim(ta.full_name)) || '|' || " +
+            "lower(trim(coalesce(l.from_column, ''))) || '|' || lower(trim(coalesce(l.to_column, ''))) || '|' || " +
+            "lower(coalesce(l.edge_type, '')) || '|' || lower(coalesce(l.transformation_type, ''))) AS uuid)";
+
+    /**
+     * The run's edges, one row per fingerprint; an edge found at several locations takes the first one
+     */
+    String RUN_EDGES_BY_FINGERPRINT = "SELECT DISTINCT ON (e.fp) e.* FROM (" +
+            "  SELECT " + EDGE_FINGERPRINT + " AS fp, fa.catalog_id AS from_catalog_id, ta.catalog_id AS to_catalog_id, " +
+            "         l.from_column, l.to_column, l.edge_type, l.transformation_type, f.file_path, l.start_line, l.end_line " +
+            "  FROM lineage l " +
+            "  JOIN assets fa ON fa.asset_id = l.from_asset_id " +
+            "  JOIN assets ta ON ta.asset_id = l.to_asset_id " +
+            "  JOIN files f ON f.file_id = l.file_id " +
+            "  WHERE l.run_id = :runId AND fa.catalog_id IS NOT NULL AND ta.catalog_id IS NOT NULL" +
+            ") e ORDER BY e.fp, e.file_path, e.start_line, e.end_line";
+
+    String RUN_EDGES = "FROM lineage l " +
+            "JOIN assets fa ON fa.asset_id = l.from_asset_id " +
+            "JOIN assets ta ON ta.asset_id = l.to_asset_id " +
+            "WHERE l.run_id = :runId AND fa.catalog_id IS NOT NULL AND ta.catalog_id IS NOT NULL";
+
+    boolean existsByRepositoryUrlAndBranch(String repositoryUrl, String branch);
+
+    /**
+     * Take the transaction-scoped lock of a repository/branch stream; folds of the same stream (run
+     * completion, startup backfill) run one after the other
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext(:repositoryUrl || '@' || :branch))", nativeQuery = true)
+    int lockStream(@Param("repositoryUrl") String repositoryUrl, @Param("branch") String branch);
+
+    /**
+     * Close the open versions of the stream whose edge is absent from the given (completed) run
+     */
+    @Modifying
+    @Query(value = "WITH cur AS (SELECT DISTINCT " + EDGE_FINGERPRINT + " AS fp " + RUN_EDGES + ") " +
+                   "UPDATE lineage_edge_versions v SET valid_to_run_id = :runId, valid_to_at = :at " +
+                   "WHERE v.repository_url = :repositoryUrl AND v.branch = :branch AND v.valid_to_at IS NULL " +
+                   "  AND NOT EXISTS (SELECT 1 FROM cur WHERE cur.fp = v.edge_fingerprint)", nativeQuery = true)
+    int closeMissing(@Param("repositoryUrl") String repositoryUrl,
+                     @Param("branch") String branch,
+                     @Param("runId") UUID runId,
+                     @Param("at") LocalDateTime at);
+
+    /**
+     * Open a version for every edge of the given run that has no open version in the stream yet
+     */
+    @Modifying
+    @Query(value = "WITH cur AS (" + RUN_EDGES_BY_FINGERPRINT + ") " +
+                   "INSERT INTO lineage_edge_versions (edge_version_id, repository_url, branch, edge_fingerprint, " +
+                   "  from_catalog_id, to_catalog_id, from_column, to_column, edge_type, transformation_type, " +
+                   "  file_path, start_line, end_line, valid_from_run_id, valid_from_at) " +
+                   "SELECT gen_random_uuid(), :repositoryUrl, :branch, c.fp, c.from_catalog_id, c.to_catalog_id, " +
+                   "  c.from_column, c.to_column, c.edge_type, c.transformation_type, c.file_path, c.start_line, c.end_line, " +
+                   "  :runId, :at " +
+                   "FROM cur c " +
+                   "WHERE NOT EXISTS (SELECT 1 FROM lineage_edge_versions v WHERE v.repository_url = :repositoryUrl " +
+                   "  AND v.branch = :branch AND v.valid_to_at IS NULL AND v.edge_fingerprint = c.fp)", nativeQuery = true)
+    int openNew(@Param("repositoryUrl") String repositoryUrl,
+                @Param("branch") String branch,
+                @Param("runId") UUID runId,
+                @Param("at") LocalDateTime at);
+
+    /**
+     * Move the open versions of the stream to where the given run found their edge; the location is an
+     * attribute of the version, not part of its identity
+     */
+    @Modifying
+    @Query(value = "WITH cur AS (" + RUN_EDGES_BY_FINGERPRINT + ") " +
+                   "UPDATE lineage_edge_versions v SET file_path = c.file_path, start_line = c.start_line, end_line = c.end_line " +
+                   "FROM cur c " +
+                   "WHERE v.repository_url = :repositoryUrl AND v.branch = :branch AND v.valid_to_at IS NULL " +
+                   "  AND v.edge_fingerprint = c.fp " +
+                   "  AND (v.file_path IS DISTINCT FROM c.file_path OR v.start_line IS DISTINCT FROM c.start_line " +
+                   "       OR v.end_line IS DISTINCT FROM c.end_line)", nativeQuery = true)
+    int updateLocations(@Param("repositoryUrl") String repositoryUrl,
+                        @Param("branch") String branch,
+                        @Param("runId") UUID runId);
+
+    @Query("SELECT v FROM LineageEdgeVersion v JOIN FETCH v.fromCatalog JOIN FETCH v.toCatalog WHERE v.edgeVersionId = :id")
+    Optional<LineageEdgeVersion> findWithCatalogsById(@Param("id") UUID id);
+
+    /**
+     * Edges of a stream valid at a point in time; one row [total, tableEdges, columnEdges]
+     */
+    @Query(value = "SELECT COUNT(*), " +
+                   "  COUNT(*) FILTER (WHERE lower(v.edge_type) = 'table_edge'), " +
+                   "  COUNT(*) FILTER (WHERE lower(v.edge_type) = 'column_edge') " +
+                   "FROM lineage_edge_versions v " +
+                   "WHERE v.repository_url = :repositoryUrl AND v.branch = :branch AND v.valid_from_at <= :asOf " +
+                   "  AND (v.valid_to_at IS NULL OR v.valid_to_at > :asOf)", nativeQuery = true)
+    List<Object[]> countEdgesAsOf(@Param("repositoryUrl") String repositoryUrl,
+                                  @Param("branch") String branch,
+                                  @Param("asOf") LocalDateTime asOf);
+
+    // Current edges (open versions) into / out of a catalog table, across all repositories
+    @Query("SELECT v FROM LineageEdgeVersion v JOIN FETCH v.fromCatalog JOIN FETCH v.toCatalog " +
+           "WHERE v.toCatalog.catalogId = :catalogId AND v.validToAt IS NULL")
+    List<LineageEdgeVersion> findCurrentByToCatalogId(@Param("catalogId") UUID catalogId);
+
+    @Query("SELECT v FROM LineageEdgeVersion v JOIN FETCH v.fromCatalog JOIN FETCH v.toCatalog " +
+           "WHERE v.fromCatalog.catalogId = :catalogId AND v.validToAt IS NULL")
+    List<LineageEdgeVersion> findCurrentByFromCatalogId(@Param("catalogId") UUID catalogId);
+
+    // Distinct tables with a current edge into / out of a catalog table (neighbour names only, no edge rows)
+    @Query("SELECT DISTINCT v.fromCatalog FROM LineageEdgeVersion v " +
+           "WHERE v.toCatalog.catalogId = :catalogId AND v.validToAt IS NULL")
+    List<CatalogAsset> findCurrentUpstreamCatalogs(@Param("catalogId") UUID catalogId);
+
+    @Query("SELECT DISTINCT v.toCatalog FROM LineageEdgeVersion v " +
+           "WHERE v.fromCatalog.catalogId = :catalogId AND v.validToAt IS NULL")
+    List<CatalogAsset> findCurrentDownstreamCatalogs(@Param("catalogId") UUID catalogId);
+
+    // Current column edges into / out of a catalog table, one page at a time
+    @Query(value = "SELECT v FROM LineageEdgeVersion v JOIN FETCH v.fromCatalog JOIN FETCH v.toCatalog " +
+                   "WHERE v.toCatalog.catalogId = :catalogId AND v.validToAt IS NULL AND lower(v.edgeType) = 'column_edge' " +
+                   "ORDER BY v.fromCatalog.shortName, v.fromColumn, v.toColumn, v.edgeVersionId",
+           countQuery = "SELECT COUNT(v) FROM LineageEdgeVersion v " +
+                        "WHERE v.toCatalog.catalogId = :catalogId AND v.validToAt IS NULL AND lower(v.edgeType) = 'column_edge'")
+    Page<LineageEdgeVersion> findCurrentColumnEdgesInto(@Param("catalogId") UUID catalogId, Pageable pageable);
+
+    @Query(value = "SELECT v FROM LineageEdgeVersion v JOIN FETCH v.fromCatalog JOIN FETCH v.toCatalog " +
+                   "WHERE v.fromCatalog.catalogId = :catalogId AND v.validToAt IS NULL AND lower(v.edgeType) = 'column_edge' " +
+                   "ORDER BY v.toCatalog.shortName, v.toColumn, v.fromColumn, v.edgeVersionId",
+           countQuery = "SELECT COUNT(v) FROM LineageEdgeVersion v " +
+                        "WHERE v.fromCatalog.catalogId = :catalogId AND v.validToAt IS NULL AND lower(v.edgeType) = 'column_edge'")
+    Page<LineageEdgeVersion> findCurrentColumnEdgesOutOf(@Param("catalogId") UUID catalogId, Pageable pageable);
+
+    /**
+     * Distinct transformations (file, lines, type) of the current edges between two catalog tables, one page
+     * at a time; rows are [filePath, startLine, endLine, transformationType]
+     */
+    @Query(value = "SELECT DISTINCT v.file_path, v.start_line, v.end_line, v.transformation_type " +
+                   "FROM lineage_edge_versions v " +
+                   "WHERE v.from_catalog_id = :fromId AND v.to_catalog_id = :toId AND v.valid_to_at IS NULL " +
+                   "ORDER BY v.file_path, v.start_line, v.end_line, v.transformation_type",
+           countQuery = "SELECT COUNT(*) FROM (SELECT DISTINCT v.file_path, v.start_line, v.end_line, v.transformation_type " +
+                        "FROM lineage_edge_versions v " +
+                        "WHERE v.from_catalog_id = :fromId AND v.to_catalog_id = :toId AND v.valid_to_at IS NULL) t",
+           nativeQuery = true)
+    Page<Object[]> findCurrentTransformationsBetween(@Param("fromId") UUID fromId, @Param("toId") UUID toId, Pageable pageable);
+
+    // Edges that were valid at a point in time
+    @Query("SELECT v FROM LineageEdgeVersion v JOIN FETCH v.fromCatalog JOIN FETCH v.toCatalog " +
+           "WHERE v.toCatalog.catalogId = :catalogId AND v.validFromAt <= :asOf " +
+           "AND (v.validToAt IS NULL OR v.validToAt > :asOf)")
+    List<LineageEdgeVersion> findByToCatalogIdAsOf(@Param("catalogId") UUID catalogId, @Param("asOf") LocalDateTime asOf);
+
+    @Query("SELECT v FROM LineageEdgeVersion v JOIN FETCH v.fromCatalog JOIN FETCH v.toCatalog " +
+           "WHERE v.fromCatalog.catalogId = :catalogId AND v.validFromAt <= :asOf " +
+           "AND (v.validToAt IS NULL OR v.validToAt > :asOf)")
+    List<LineageEdgeVersion> findByFromCatalogIdAsOf(@Param("catalogId") UUID catalogId, @Param("asOf") LocalDateTime asOf);
+
+    // Current edges into any of toIds or out of any of fromIds (batched lineage of several tables)
+    @Query("SELECT v FROM LineageEdgeVersion v JOIN FETCH v.fromCatalog JOIN FETCH v.toCatalog " +
+           "WHERE v.validToAt IS NULL AND (v.toCatalog.catalogId IN :toIds OR v.fromCatalog.catalogId IN :fromIds)")
+    List<LineageEdgeVersion> findCurrentTouching(@Param("toIds") Collection<UUID> toIds,
+                                                 @Param("fromIds") Collection<UUID> fromIds);
+
+    // Current column edges touching any of the given catalog tables, used by the (bulk) entity endpoints
+    @Query("SELECT v FROM LineageEdgeVersion v JOIN FETCH v.fromCatalog JOIN FETCH v.toCatalog " +
+           "WHERE v.validToAt IS NULL AND lower(v.edgeType) = 'column_edge' " +
+           "AND (v.toCatalog.catalogId IN :catalogIds OR v.fromCatalog.catalogId IN :catalogIds)")
+    List<LineageEdgeVersion> findCurrentColumnEdgesTouching(@Param("catalogIds") Collection<UUID> catalogIds);
+
+    // Current edges from any of fromIds to any of toIds (callers pick the exact pairs they need)
+    @Query("SELECT v FROM LineageEdgeVersion v JOIN FETCH v.fromCatalog JOIN FETCH v.toCatalog " +
+           "WHERE v.fromCatalog.catalogId IN :fromIds AND v.toCatalog.catalogId IN :toIds AND v.validToAt IS NULL")
+    List<LineageEdgeVersion> findCurrentBetween(@Param("fromIds") Collection<UUID> fromIds,
+                                                @Param("toIds") Collection<UUID> toIds);
+}
@@ -2,18 +2,62 @@ package com.lineage.repository;
 
 import com.lineage.entity.Lineage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 public interface LineageRepository extends JpaRepository<Lineage, UUID> {
     List<Lineage> findByExtractionRunRunId(UUID runId);
+    long countByExtractionRunRunId(UUID runId);
+    boolean existsByExtractionRunRunId(UUID runId);
+    long countByExtractionRunRunIdAndEdgeTypeIgnoreCase(UUID runId, String edgeType);
     List<Lineage> findByToAssetAssetId(UUID assetId);
     List<Lineage> findByFromAssetAssetId(UUID assetId);
     
     // New methods to find lineage by table name across all runs
     List<Lineage> findByToAssetShortNameIgnoreCase(String shortName);
     List<Lineage> findByFromAssetShortNameIgnoreCase(String shortName);
-}
 
+    /**
+     * Drop the per-run rows of completed runs of a repository/branch older than the given time;
+     * their edges are kept in lineage_edge_versions. Runs that are the baseline of an unfinished
+     * INCREMENTAL run keep their rows until a later fold, the run still carries edges forward from them.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM lineage l USING extraction_runs r " +
+                   "WHERE l.run_id = r.run_id AND r.repository_url = :repositoryUrl AND r.branch = :branch " +
+                   "  AND r.phase = 'COMPLETED' AND r.created_at < :before " +
+                   "  AND NOT EXISTS (SELECT 1 FROM extraction_runs n WHERE n.baseline_run_id = r.run_id " +
+                   "                  AND n.phase IN ('QUEUED', 'STARTED'))", nativeQuery = true)
+    int deleteSupersededRunEdges(@Param("repositoryUrl") String repositoryUrl,
+                                 @Param("branch") String branch,
+                                 @Param("before") LocalDateTime before);
 
+    /**
+     * Copy the edges of carried-forward files into the new run, re-pointed at the new run's files and assets
+     */
+    @Modifying
+    @Query(value = "INSERT INTO lineage (lineage_id, run_id, file_id, from_asset_id, to_asset_id, from_column, to_column, " +
+                   "  edge_type, transformation_type, start_line, end_line, created_at) " +
+                   "SELECT gen_random_uuid(), :runId, nf.file_id, nfa.asset_id, nta.asset_id, l.from_column, l.to_column, " +
+                   "  l.edge_type, l.transformation_type, l.start_line, l.end_line, now() " +
+                   "FROM files nf " +
+                   "JOIN lineage l ON l.file_id = nf.carried_from_file_id " +
+                   "JOIN assets fa ON fa.asset_id = l.from_asset_id " +
+                   "JOIN assets ta ON ta.asset_id = l.to_asset_id " +
+                   "JOIN assets nfa ON nfa.run_id = :runId AND nfa.short_name = fa.short_name " +
+                   "JOIN assets nta ON nta.run_id = :runId AND nta.short_name = ta.short_name " +
+                   "WHERE nf.run_id = :runId AND nf.carried_from_file_id IS NOT NULL " +
+                   "  AND NOT EXISTS (SELECT 1 FROM lineage x WHERE x.run_id = :runId AND x.file_id = nf.file_id " +
+                   "                  AND x.from_asset_id = nfa.asset_id AND x.to_asset_id = nta.asset_id " +
+                   "                  AND x.from_column IS NOT DISTINCT FROM l.from_column AND x.to_column IS NOT DISTINCT FROM l.to_column " +
+                   "                  AND x.edge_type IS NOT DISTINCT FROM l.edge_type " +
+                   "                  AND x.transformation_type IS NOT DISTINCT FROM l.transformation_type " +
+                   "                  AND x.start_line IS NOT DISTINCT FROM l.start_line AND x.end_line IS NOT DISTINCT FROM l.end_line)",
+           nativeQuery = true)
+    int carryForward(@Param("runId") UUID runId);
+}
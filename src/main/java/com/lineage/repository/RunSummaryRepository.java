@@ -0,0 +1,11 @@
+package com.lineage.repository;
+
+import com.lineage.entity.RunSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface RunSummaryRepository extends JpaRepository<RunSummary, UUID> {
+}
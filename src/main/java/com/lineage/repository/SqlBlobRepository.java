@@ -0,0 +1,23 @@
+package com.lineage.repository;
+
+import com.lineage.entity.SqlBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SqlBlobRepository extends JpaRepository<SqlBlob, String> {
+
+    // Content is immutable per hash, so concurrent writers of the same content simply skip
+    @Modifying
+    @Query(value = "INSERT INTO sql_blobs (content_hash, codec, raw_size, stored_size, content, created_at) " +
+                   "VALUES (:contentHash, :codec, :rawSize, :storedSize, :content, now()) " +
+                   "ON CONFLICT (content_hash) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("contentHash") String contentHash,
+                       @Param("codec") String codec,
+                       @Param("rawSize") int rawSize,
+                       @Param("storedSize") int storedSize,
+                       @Param("content") byte[] content);
+}
@@ -0,0 +1,291 @@
+package com.lineage.service;
+
+import com.lineage.dto.SuggestionDto;
+import com.lineage.repository.AssetColumnRepository;
+import com.lineage.repository.AssetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AutocompleteService serves search-as-you-type suggestions from memory.
+ *
+ * Asset short names, full names and column names are kept in a sorted array with a
+ * range-max segment tree over popularity weights, so a prefix maps to a contiguous range
+ * and its top-k entries are extracted in O(k log n) without touching the database.
+ * The index is built from assets/asset_columns at startup; names first seen during ingest
+ * go into a small delta map that is folded into a new index once it grows past a threshold.
+ */
+@Service
+public class AutocompleteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutocompleteService.class);
+
+    private static final byte KIND_TABLE = 0;
+    private static final byte KIND_COLUMN = 1;
+    private static final int DELTA_COMPACT_THRESHOLD = 5000;
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private AssetColumnRepository assetColumnRepository;
+
+    @Autowired
+    private TaskExecutor taskExecutor;
+
+    private volatile PrefixIndex index = PrefixIndex.build(new ArrayList<>());
+    private final ConcurrentHashMap<String, Term> delta = new ConcurrentHashMap<>();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        taskExecutor.execute(this::rebuildFromDatabase);
+    }
+
+    /**
+     * Rebuild the index from the database (one aggregate query per table)
+     */
+    public void rebuildFromDatabase() {
+        if (!rebuilding.compareAndSet(false, true)) return;
+        try {
+            long started = System.currentTimeMillis();
+            Map<String, Term> pendingAtStart = new HashMap<>(delta);
+            List<Term> terms = new ArrayList<>();
+            for (Object[] row : assetRepository.countByShortName()) {
+                addTableTerms(terms, (String) row[1], (String) row[2], ((Number) row[3]).intValue());
+            }
+            for (Object[] row : assetColumnRepository.countByColumnName()) {
+                String name = (String) row[0];
+                if (name != null && !name.isBlank()) {
+                    terms.add(new Term(name.toLowerCase(), KIND_COLUMN, name, null, ((Number) row[1]).intValue()));
+                }
+            }
+            index = PrefixIndex.build(terms);
+            // Everything recorded before the scan started is now covered by the database snapshot
+            pendingAtStart.forEach(delta::remove);
+            logger.info("Autocomplete index built with {} terms in {} ms", index.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("Failed to build autocomplete index: {}", e.getMessage(), e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Record a newly ingested table snapshot
+     */
+    public void recordTable(String shortName, String fullName) {
+        if (shortName == null || shortName.isBlank()) return;
+        List<Term> terms = new ArrayList<>(2);
+        addTableTerms(terms, shortName, fullName, 1);
+        for (Term t : terms) delta.merge(t.id(), t, Term::plus);
+        maybeCompact();
+    }
+
+    /**
+     * Record a newly ingested column
+     */
+    public void recordColumn(String columnName) {
+        if (columnName == null || columnName.isBlank()) return;
+        Term t = new Term(columnName.toLowerCase(), KIND_COLUMN, columnName, null, 1);
+        delta.merge(t.id(), t, Term::plus);
+        maybeCompact();
+    }
+
+    /**
+     * Top-k suggestions whose short name, full name or column name starts with the prefix,
+     * ordered by popularity; a table matched by both its short and full name is returned once.
+     */
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        String p = prefix == null ? "" : prefix.trim().toLowerCase();
+        if (p.isEmpty()) return List.of();
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        Map<String, Term> byKey = new HashMap<>();
+        // Over-fetch to leave room for short/full name duplicates of the same table
+        index.topK(p, k * 2, t -> byKey.put(t.id(), t));
+        for (Term t : delta.values()) {
+            if (t.key.startsWith(p)) byKey.merge(t.id(), t, Term::plus);
+        }
+        Map<String, Term> byIdentity = new HashMap<>();
+        for (Term t : byKey.values()) {
+            byIdentity.merge(t.identity(), t, (a, b) -> a.weight >= b.weight ? a : b);
+        }
+
+        List<Term> ranked = new ArrayList<>(byIdentity.values());
+        ranked.sort(Comparator.comparingInt((Term t) -> -t.weight).thenComparing(t -> t.key));
+        List<SuggestionDto> out = new ArrayList<>(Math.min(k, ranked.size()));
+        for (Term t : ranked) {
+            if (out.size() >= k) break;
+            out.add(t.kind == KIND_TABLE
+                    ? new SuggestionDto(t.display, t.entityId, t.entityName, "table", t.weight)
+                    : new SuggestionDto(t.display, null, null, "column", t.weight));
+        }
+        return out;
+    }
+
+    private void addTableTerms(List<Term> terms, String shortName, String fullName, int weight) {
+        if (shortName == null || shortName.isBlank()) return;
+        terms.add(new Term(shortName.toLowerCase(), KIND_TABLE, shortName, fullName, weight));
+        if (fullName != null && !fullName.equalsIgnoreCase(shortName)) {
+            terms.add(new Term(fullName.toLowerCase(), KIND_TABLE, shortName, fullName, weight, fullName));
+        }
+    }
+
+    private void maybeCompact() {
+        if (delta.size() < DELTA_COMPACT_THRESHOLD || rebuilding.get()) return;
+        taskExecutor.execute(() -> {
+            if (!rebuilding.compareAndSet(false, true)) return;
+            try {
+                Map<String, Term> pending = new HashMap<>(delta);
+                Map<String, Term> merged = new HashMap<>();
+                index.forEach(t -> merged.put(t.id(), t));
+                pending.values().forEach(t -> merged.merge(t.id(), t, Term::plus));
+                index = PrefixIndex.build(new ArrayList<>(merged.values()));
+                pending.forEach(delta::remove);
+                logger.debug("Autocomplete delta of {} terms folded into index ({} terms)", pending.size(), index.size());
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+    }
+
+    /**
+     * One indexed key. For tables entityId is the short name and display is the matched name.
+     */
+    private static final class Term {
+        final String key;
+        final byte kind;
+        final String entityId;
+        final String entityName;
+        final int weight;
+        final String display;
+
+        Term(String key, byte kind, String entityId, String entityName, int weight) {
+            this(key, kind, entityId, entityName, weight, entityId);
+        }
+
+        Term(String key, byte kind, String entityId, String entityName, int weight, String display) {
+            this.key = key;
+            this.kind = kind;
+            this.entityId = entityId;
+            this.entityName = entityName;
+            this.weight = weight;
+            this.display = display;
+        }
+
+        String id() { return kind + ":" + key; }
+
+        String identity() { return kind == KIND_TABLE ? "t:" + entityId.toLowerCase() : "c:" + key; }
+
+        Term plus(Term other) {
+            return new Term(key, kind, entityId, entityName != null ? entityName : other.entityName,
+                    weight + other.weight, display);
+        }
+    }
+
+    /**
+     * Immutable sorted-array index. tree is a bottom-up segment tree of argmax positions:
+     * tree[n + i] = i, tree[p] = heavier of tree[2p], tree[2p + 1].
+     */
+    private static final class PrefixIndex {
+        private final String[] keys;
+        private final int[] weights;
+        private final byte[] kinds;
+        private final String[] entityIds;
+        private final String[] entityNames;
+        private final String[] displays;
+        private final int[] tree;
+        private final int n;
+
+        private PrefixIndex(List<Term> sorted) {
+            n = sorted.size();
+            keys = new String[n];
+            weights = new int[n];
+            kinds = new byte[n];
+            entityIds = new String[n];
+            entityNames = new String[n];
+            displays = new String[n];
+            for (int i = 0; i < n; i++) {
+                Term t = sorted.get(i);
+                keys[i] = t.key;
+                weights[i] = t.weight;
+                kinds[i] = t.kind;
+                entityIds[i] = t.entityId;
+                entityNames[i] = t.entityName;
+                displays[i] = t.display;
+            }
+            tree = new int[Math.max(2 * n, 2)];
+            for (int i = 0; i < n; i++) tree[n + i] = i;
+            for (int p = n - 1; p > 0; p--) tree[p] = heavier(tree[2 * p], tree[2 * p + 1]);
+        }
+
+        static PrefixIndex build(List<Term> terms) {
+            terms.sort(Comparator.comparing((Term t) -> t.key).thenComparingInt(t -> t.kind));
+            return new PrefixIndex(terms);
+        }
+
+        int size() { return n; }
+
+        void forEach(java.util.function.Consumer<Term> consumer) {
+            for (int i = 0; i < n; i++) consumer.accept(term(i));
+        }
+
+        /**
+         * Emit the k heaviest entries whose key starts with prefix, heaviest first
+         */
+        void topK(String prefix, int k, java.util.function.Consumer<Term> consumer) {
+            int lo = lowerBound(prefix);
+            int hi = lowerBound(prefix + Character.MAX_VALUE);
+            if (lo >= hi) return;
+            // Each queue entry is {from, to, argmax} for a half-open sub-range of the prefix range
+            PriorityQueue<int[]> queue = new PriorityQueue<>((a, b) -> Integer.compare(weights[b[2]], weights[a[2]]));
+            queue.add(new int[]{lo, hi, argMax(lo, hi)});
+            int emitted = 0;
+            while (!queue.isEmpty() && emitted < k) {
+                int[] r = queue.poll();
+                int m = r[2];
+                consumer.accept(term(m));
+                emitted++;
+                if (r[0] < m) queue.add(new int[]{r[0], m, argMax(r[0], m)});
+                if (m + 1 < r[1]) queue.add(new int[]{m + 1, r[1], argMax(m + 1, r[1])});
+            }
+        }
+
+        private Term term(int i) {
+            return new Term(keys[i], kinds[i], entityIds[i], entityNames[i], weights[i], displays[i]);
+        }
+
+        private int lowerBound(String key) {
+            int lo = 0, hi = n;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(key) < 0) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        private int argMax(int from, int to) {
+            int best = from;
+            for (int l = from + n, r = to + n; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) best = heavier(best, tree[l++]);
+                if ((r & 1) == 1) best = heavier(best, tree[--r]);
+            }
+            return best;
+        }
+
+        private int heavier(int a, int b) {
+            return weights[b] > weights[a] ? b : a;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.lineage.service;
+
+import com.lineage.entity.Asset;
+import com.lineage.entity.CatalogAsset;
+import com.lineage.repository.CatalogAssetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+/**
+ * CatalogService maintains the canonical cross-run asset catalog.
+ *
+ * Every run-scoped asset snapshot is merged into its catalog entry as it is ingested, so the
+ * catalog always points at the latest snapshot of each table. Degree counts are refreshed in
+ * one set-based statement when a run completes.
+ */
+@Service
+@Transactional
+public class CatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogService.class);
+
+    @Autowired
+    private CatalogAssetRepository catalogAssetRepository;
+
+    /**
+     * Merge a freshly created snapshot into the catalog and link it to its catalog entry
+     */
+    public CatalogAsset merge(Asset snapshot) {
+        String qualifiedName = qualifiedName(snapshot.getFullName());
+        catalogAssetRepository.upsertSnapshot(qualifiedName, snapshot.getShortName(), snapshot.getFullName(),
+                snapshot.getSchemaName(), snapshot.getAssetId(), snapshot.getExtractionRun().getRunId());
+        CatalogAsset catalogAsset = catalogAssetRepository.findByQualifiedName(qualifiedName)
+                .orElseThrow(() -> new IllegalStateException("Catalog entry missing after upsert: " + qualifiedName));
+        snapshot.setCatalogAsset(catalogAsset);
+        return catalogAsset;
+    }
+
+    /**
+     * Recompute degree counts for every table whose latest snapshot came from this run
+     */
+    public void refreshDegreeCounts(UUID runId) {
+        int updated = catalogAssetRepository.refreshDegreeCountsForRun(runId);
+        logger.debug("Refreshed degree counts for {} catalog assets of run {}", updated, runId);
+    }
+
+    /**
+     * Normalized qualified name: the catalog key shared by all snapshots of a table
+     */
+    public static String qualifiedName(String fullName) {
+        return fullName == null ? "" : fullName.trim().toLowerCase();
+    }
+}
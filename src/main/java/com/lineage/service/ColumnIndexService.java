@@ -0,0 +1,243 @@
+package com.lineage.service;
+
+import com.lineage.dto.ColumnOccurrenceDto;
+import com.lineage.entity.Asset;
+import com.lineage.repository.AssetColumnRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ColumnIndexService answers "which tables contain column X?" from an in-memory reverse index.
+ *
+ * Column names and tables are dictionary-encoded to ints, so the index holds each distinct
+ * name once and a posting list per column is a plain int[] of (tableId << 3 | role bits).
+ * Built from asset_columns at startup (deduplicated across runs) and updated on ingest; columns
+ * recorded while a rebuild runs are replayed onto the rebuilt index.
+ */
+@Service
+public class ColumnIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnIndexService.class);
+
+    private static final int ROLE_SOURCE = 1;
+    private static final int ROLE_TARGET = 2;
+    private static final int ROLE_OTHER = 4;
+    private static final int ROLE_BITS = 3;
+
+    @Autowired
+    private AssetColumnRepository assetColumnRepository;
+
+    @Autowired
+    private TaskExecutor taskExecutor;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private StringInterner columns = new StringInterner();
+    private StringInterner tables = new StringInterner();
+    private String[] tableShortNames = new String[16];
+    private String[] tableFullNames = new String[16];
+    private int[][] postings = new int[16][];
+    private int[] postingSizes = new int[16];
+    // columns recorded since the running rebuild started reading asset_columns; null when none runs
+    private List<Object[]> recordedDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        taskExecutor.execute(this::rebuildFromDatabase);
+    }
+
+    /**
+     * Rebuild the whole index from asset_columns
+     */
+    public synchronized void rebuildFromDatabase() {
+        lock.writeLock().lock();
+        try {
+            recordedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            long started = System.currentTimeMillis();
+            List<Object[]> rows = assetColumnRepository.findDistinctColumnUsages();
+            int replayed;
+            lock.writeLock().lock();
+            try {
+                columns = new StringInterner();
+                tables = new StringInterner();
+                tableShortNames = new String[16];
+                tableFullNames = new String[16];
+                postings = new int[16][];
+                postingSizes = new int[16];
+                for (Object[] row : rows) {
+                    addUnlocked((String) row[0], (String) row[1], (String) row[2], (Asset.Role) row[3]);
+                }
+                // the query may not have seen these; adding a column twice is a no-op
+                replayed = recordedDuringRebuild.size();
+                for (Object[] row : recordedDuringRebuild) {
+                    addUnlocked((String) row[0], (String) row[1], (String) row[2], (Asset.Role) row[3]);
+                }
+            } finally {
+                recordedDuringRebuild = null;
+                lock.writeLock().unlock();
+            }
+            logger.info("Column index built: {} columns across {} tables in {} ms ({} recorded during the rebuild)",
+                    columns.size(), tables.size(), System.currentTimeMillis() - started, replayed);
+        } catch (Exception e) {
+            logger.error("Failed to build column index: {}", e.getMessage(), e);
+            lock.writeLock().lock();
+            try {
+                recordedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Record that a table has a column (called on ingest)
+     */
+    public void record(String shortName, String fullName, String columnName, Asset.Role role) {
+        if (shortName == null || columnName == null) return;
+        lock.writeLock().lock();
+        try {
+            addUnlocked(shortName, fullName, columnName, role);
+            if (recordedDuringRebuild != null) recordedDuringRebuild.add(new Object[]{shortName, fullName, columnName, role});
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Page through the tables containing a column, in discovery order.
+     * Returns the total number of tables and fills the page items.
+     */
+    public int findTables(String columnName, int page, int size, List<ColumnOccurrenceDto> pageItems) {
+        String key = normalize(columnName);
+        if (key.isEmpty()) return 0;
+        lock.readLock().lock();
+        try {
+            int columnId = columns.find(key);
+            if (columnId < 0) return 0;
+            int total = postingSizes[columnId];
+            int[] posting = postings[columnId];
+            int from = (int) Math.min((long) page * size, total);
+            int to = Math.min(from + size, total);
+            for (int i = from; i < to; i++) {
+                int tableId = posting[i] >>> ROLE_BITS;
+                int roles = posting[i] & ((1 << ROLE_BITS) - 1);
+                pageItems.add(new ColumnOccurrenceDto(tableShortNames[tableId], tableFullNames[tableId], roleNames(roles)));
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addUnlocked(String shortName, String fullName, String columnName, Asset.Role role) {
+        String columnKey = normalize(columnName);
+        String tableKey = tableKey(shortName);
+        if (columnKey.isEmpty() || tableKey.isEmpty()) return;
+        int columnId = columns.intern(columnKey);
+        int tableId = tables.intern(tableKey);
+        if (tableId >= tableShortNames.length) {
+            tableShortNames = Arrays.copyOf(tableShortNames, tableShortNames.length * 2);
+            tableFullNames = Arrays.copyOf(tableFullNames, tableFullNames.length * 2);
+        }
+        if (tableShortNames[tableId] == null) tableShortNames[tableId] = shortName;
+        if (tableFullNames[tableId] == null && fullName != null) tableFullNames[tableId] = fullName;
+
+        if (columnId >= postings.length) {
+            postings = Arrays.copyOf(postings, postings.length * 2);
+            postingSizes = Arrays.copyOf(postingSizes, postingSizes.length * 2);
+        }
+        int[] posting = postings[columnId];
+        int n = postingSizes[columnId];
+        int bit = role == Asset.Role.SOURCE ? ROLE_SOURCE : role == Asset.Role.TARGET ? ROLE_TARGET : ROLE_OTHER;
+        // Postings are kept sorted by tableId, and table ids are assigned in discovery order
+        int pos = binarySearch(posting, n, tableId);
+        if (pos >= 0) {
+            posting[pos] |= bit;
+            return;
+        }
+        int insertAt = -pos - 1;
+        if (posting == null) {
+            posting = new int[2];
+        } else if (n == posting.length) {
+            posting = Arrays.copyOf(posting, n * 2);
+        }
+        System.arraycopy(posting, insertAt, posting, insertAt + 1, n - insertAt);
+        posting[insertAt] = (tableId << ROLE_BITS) | bit;
+        postings[columnId] = posting;
+        postingSizes[columnId] = n + 1;
+    }
+
+    private static int binarySearch(int[] posting, int n, int tableId) {
+        int lo = 0, hi = n - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int midTable = posting[mid] >>> ROLE_BITS;
+            if (midTable < tableId) lo = mid + 1;
+            else if (midTable > tableId) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    private static List<String> roleNames(int roles) {
+        List<String> out = new ArrayList<>(2);
+        if ((roles & ROLE_SOURCE) != 0) out.add(Asset.Role.SOURCE.name());
+        if ((roles & ROLE_TARGET) != 0) out.add(Asset.Role.TARGET.name());
+        return out;
+    }
+
+    /**
+     * Column names are stored lower-cased; also strip identifier quoting ("col", `col`, [col])
+     */
+    static String normalize(String columnName) {
+        if (columnName == null) return "";
+        String s = columnName.trim();
+        if (s.length() >= 2) {
+            char first = s.charAt(0), last = s.charAt(s.length() - 1);
+            if ((first == '"' && last == '"') || (first == '`' && last == '`') || (first == '[' && last == ']')) {
+                s = s.substring(1, s.length() - 1).trim();
+            }
+        }
+        return s.toLowerCase();
+    }
+
+    /**
+     * Tables are keyed by their trimmed, lower-cased short name, whichever path recorded them
+     */
+    static String tableKey(String shortName) {
+        return shortName == null ? "" : shortName.trim().toLowerCase();
+    }
+
+    /**
+     * Each distinct name gets a dense int id
+     */
+    private static final class StringInterner {
+        private final HashMap<String, Integer> ids = new HashMap<>();
+
+        int intern(String name) {
+            Integer id = ids.get(name);
+            if (id != null) return id;
+            int next = ids.size();
+            ids.put(name, next);
+            return next;
+        }
+
+        int find(String name) {
+            Integer id = ids.get(name);
+            return id == null ? -1 : id;
+        }
+
+        int size() { return ids.size(); }
+    }
+}
@@ -0,0 +1,171 @@
+package com.lineage.service;
+
+import com.lineage.entity.ExtractionRun;
+import com.lineage.repository.ExtractionRunRepository;
+import com.lineage.repository.FileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ContainerSizingService picks CPUs, memory and extractor parallelism for an extraction container from
+ * the history of the same repository/branch, instead of giving every run the same 4 CPUs / 8 GB.
+ *
+ * CPUs: the median throughput of recent completed runs (files per CPU-second, from their file counts,
+ * durations and the CPUs they had) tells how many CPUs the expected file count needs to finish within the
+ * target duration. Memory: the peak reported by the extractor in the run stats plus headroom, or the
+ * default memory per CPU when no peak was reported. Incremental runs are sized from earlier incremental
+ * runs when there are any, since they extract far fewer files. A shard of a sharded run is sized for
+ * its share of the files. Without usable history the defaults apply.
+ */
+@Service
+public class ContainerSizingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContainerSizingService.class);
+
+    // keys the extractor may report in the run stats
+    private static final List<String> FILE_COUNT_KEYS = List.of("total_files", "totalFiles", "files_processed", "filesProcessed");
+    private static final List<String> PEAK_MEMORY_KEYS = List.of("peak_memory_mb", "peakMemoryMb", "max_memory_mb", "maxMemoryMb");
+
+    @Value("${app.sizing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.sizing.default-cpus:4}")
+    private int defaultCpus;
+
+    @Value("${app.sizing.default-memory-mb:8192}")
+    private int defaultMemoryMb;
+
+    @Value("${app.sizing.min-cpus:1}")
+    private int minCpus;
+
+    @Value("${app.sizing.max-cpus:8}")
+    private int maxCpus;
+
+    @Value("${app.sizing.min-memory-mb:1024}")
+    private int minMemoryMb;
+
+    @Value("${app.sizing.max-memory-mb:16384}")
+    private int maxMemoryMb;
+
+    @Value("${app.sizing.target-duration-seconds:900}")
+    private long targetDurationSeconds;
+
+    @Value("${app.sizing.memory-headroom:1.5}")
+    private double memoryHeadroom;
+
+    @Value("${app.sizing.history-runs:10}")
+    private int historyRuns;
+
+    @Value("${app.sizing.workers-per-cpu:2}")
+    private int workersPerCpu;
+
+    @Autowired
+    private ExtractionRunRepository extractionRunRepository;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    /**
+     * Resources for each container of a new run of the repository/branch split into shardCount shards
+     */
+    public ContainerSize size(String repositoryUrl, String branch, ExtractionRun.RunMode runMode, int shardCount) {
+        if (!enabled) return withParallelism(defaultCpus, defaultMemoryMb);
+        List<ExtractionRun> history = extractionRunRepository.findByRepositoryUrlAndBranchAndPhaseOrderByCreatedAtDesc(
+                repositoryUrl, branch, ExtractionRun.ExtractionPhase.COMPLETED, PageRequest.of(0, Math.max(1, historyRuns)));
+        List<ExtractionRun> sameMode = history.stream().filter(r -> r.getRunMode() == runMode).toList();
+        if (!sameMode.isEmpty()) history = sameMode;
+
+        long expectedFiles = -1;
+        List<Double> rates = new ArrayList<>();
+        double peakMemoryMb = 0;
+        for (ExtractionRun run : history) {
+            long files = fileCount(run);
+            // the most recent run is the best guess for the size of the next one
+            if (expectedFiles < 0 && files > 0) expectedFiles = files;
+            Double peak = number(run.getStats(), PEAK_MEMORY_KEYS);
+            // stats of a sharded run are summed over its shards; compare whole-run peaks
+            if (peak != null) peakMemoryMb = Math.max(peakMemoryMb, peak);
+            if (files <= 0 || run.getStartedAt() == null || run.getFinishedAt() == null) continue;
+            long seconds = Duration.between(run.getStartedAt(), run.getFinishedAt()).toSeconds();
+            if (seconds <= 0) continue;
+            int cpus = run.getContainerCpus() != null ? run.getContainerCpus() : ExtractionScheduler.CONTAINER_CPUS;
+            if (run.isSharded()) cpus *= run.getShardCount();
+            rates.add((double) files / (seconds * (double) cpus));
+        }
+
+        if (expectedFiles <= 0 || rates.isEmpty()) {
+            logger.debug("No usable run history for {}@{}, using default container size", repositoryUrl, branch);
+            return withParallelism(defaultCpus, defaultMemoryMb);
+        }
+
+        double filesPerCpuSecond = median(rates);
+        expectedFiles = (expectedFiles + shardCount - 1) / Math.max(1, shardCount);
+        int cpus = (int) Math.ceil(expectedFiles / (filesPerCpuSecond * Math.max(1, targetDurationSeconds)));
+        cpus = clamp(cpus, minCpus, maxCpus);
+
+        // a shard holds its share of the files, so it needs about its share of the whole-run peak
+        int memoryMb = peakMemoryMb > 0
+                ? (int) Math.ceil(peakMemoryMb * memoryHeadroom / Math.max(1, shardCount))
+                : cpus * Math.max(1, defaultMemoryMb / Math.max(1, defaultCpus));
+        // docker memory limits in whole 256 MB steps
+        memoryMb = clamp((memoryMb + 255) / 256 * 256, minMemoryMb, maxMemoryMb);
+
+        ContainerSize size = withParallelism(cpus, memoryMb);
+        logger.info("Sized extraction container for {}@{}: {} CPUs, {} MB, {} workers ({} files expected, {} files/cpu-s)",
+                repositoryUrl, branch, size.cpus(), size.memoryMb(), size.parallelism(), expectedFiles,
+                String.format("%.3f", filesPerCpuSecond));
+        return size;
+    }
+
+    private ContainerSize withParallelism(int cpus, int memoryMb) {
+        return new ContainerSize(cpus, memoryMb, Math.max(1, cpus * workersPerCpu));
+    }
+
+    private long fileCount(ExtractionRun run) {
+        Double reported = number(run.getStats(), FILE_COUNT_KEYS);
+        if (reported != null && reported > 0) return reported.longValue();
+        return fileRepository.countByRunId(run.getRunId());
+    }
+
+    private static Double number(Map<String, Object> stats, List<String> keys) {
+        if (stats == null) return null;
+        for (String key : keys) {
+            Object value = stats.get(key);
+            if (value instanceof Number n) return n.doubleValue();
+            if (value instanceof String s) {
+                try {
+                    return Double.parseDouble(s.trim());
+                } catch (NumberFormatException ignored) {
+                    // not a number, try the next key
+                }
+            }
+        }
+        return null;
+    }
+
+    private static double median(List<Double> values) {
+        List<Double> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int mid = sorted.size() / 2;
+        return sorted.size() % 2 == 1 ? sorted.get(mid) : (sorted.get(mid - 1) + sorted.get(mid)) / 2;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * CPUs and memory (MB) of an extraction container and the number of extractor workers inside it
+     */
+    public record ContainerSize(int cpus, int memoryMb, int parallelism) {}
+}
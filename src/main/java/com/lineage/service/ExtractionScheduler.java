@@ -0,0 +1,535 @@
+package com.lineage.service;
+
+import com.lineage.entity.ExtractionRun;
+import com.lineage.entity.JobStatus;
+import com.lineage.repository.ExtractionRunRepository;
+import com.lineage.repository.JobStatusRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * ExtractionScheduler sits between startExtraction and the container launch so a burst of triggers
+ * cannot oversubscribe the host: containers are only started while their CPUs and memory (sized per run
+ * by ContainerSizingService) fit into the host budget, and the remaining runs wait in the QUEUED phase.
+ *
+ * The budget is the host's CPUs and memory unless configured explicitly. The number of running containers
+ * never exceeds app.orchestration.max-concurrent-launches, the threads OrchestrationExecutor follows
+ * containers on, so an admitted run always gets a thread instead of waiting in (or being rejected by) the
+ * orchestration queue; max-running can lower that cap further. A run larger than the whole budget still
+ * starts once nothing else runs.
+ * MANUAL runs are always dispatched before SCHEDULED ones; within a priority, the next run comes from the
+ * repository with the fewest running containers (oldest request first on ties), so one repository
+ * triggering many runs cannot starve the others. The next run waits for enough free capacity rather than
+ * being overtaken by smaller runs, so large runs are not starved either.
+ *
+ * Queue position and estimated start time of a queued run are derived by replaying the dispatch order
+ * against the expected finish times of the running containers, using the average duration of recent
+ * completed runs of each repository. The queue lives in memory (it holds the launch credentials), so runs
+ * still queued when the application stopped are failed on startup.
+ *
+ * Each queued container is keyed by its launch id: the run id for a regular run, a per-attempt id for
+ * the shards of a sharded run, which are scheduled like independent runs of the same repository.
+ */
+@Service
+public class ExtractionScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExtractionScheduler.class);
+
+    // resources of containers started before sizing was recorded on the run
+    static final int CONTAINER_CPUS = 4;
+    static final int CONTAINER_MEMORY_MB = 8192;
+
+    private static final Duration DEFAULT_RUN_DURATION = Duration.ofMinutes(10);
+
+    @Value("${app.scheduler.max-running:0}")
+    private int maxRunning;
+
+    @Value("${app.orchestration.max-concurrent-launches:8}")
+    private int maxConcurrentLaunches;
+
+    @Value("${app.scheduler.host-cpus:0}")
+    private int hostCpus;
+
+    @Value("${app.scheduler.host-memory-mb:0}")
+    private long hostMemoryMb;
+
+    @Autowired
+    private ExtractionRunRepository extractionRunRepository;
+
+    @Autowired
+    private JobStatusRepository jobStatusRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private int cpuBudget;
+    private long memoryBudgetMb;
+    private int slots;
+
+    // guarded by this
+    private final Map<ExtractionRun.RunPriority, Map<String, Deque<QueuedRun>>> queues = new EnumMap<>(ExtractionRun.RunPriority.class);
+    private final Map<UUID, QueuedRun> queued = new HashMap<>();
+    private final Map<UUID, RunningRun> running = new HashMap<>();
+    private final Map<String, Integer> runningByRepository = new HashMap<>();
+    private int usedCpus;
+    private long usedMemoryMb;
+
+    @PostConstruct
+    public void start() {
+        for (ExtractionRun.RunPriority priority : ExtractionRun.RunPriority.values()) {
+            queues.put(priority, new LinkedHashMap<>());
+        }
+        cpuBudget = hostCpus > 0 ? hostCpus : Runtime.getRuntime().availableProcessors();
+        long memoryMb = hostMemoryMb > 0 ? hostMemoryMb : detectMemoryMb();
+        memoryBudgetMb = memoryMb > 0 ? memoryMb : Long.MAX_VALUE;
+        slots = Math.max(1, maxConcurrentLaunches);
+        if (maxRunning > 0) slots = Math.min(slots, maxRunning);
+        logger.info("Extraction scheduler: budget {} CPUs / {} MB, max running {}", cpuBudget,
+                memoryMb > 0 ? memoryMb : "unlimited", slots);
+        allowQueuedPhase();
+
+        Gauge.builder("extraction.runs.queued", this, s -> s.counts()[0])
+                .description("Extraction runs waiting for a container slot").register(meterRegistry);
+        Gauge.builder("extraction.runs.running", this, s -> s.counts()[1])
+                .description("Extraction runs holding a container slot").register(meterRegistry);
+    }
+
+    /**
+     * Tables created by Hibernate before the QUEUED phase existed carry a check constraint listing only the
+     * older phases; it is dropped once (the entity enum still validates the values)
+     */
+    void allowQueuedPhase() {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    extractionRunRepository.findPhaseCheckConstraint()
+                            .filter(definition -> !definition.contains("'QUEUED'"))
+                            .ifPresent(definition -> {
+                                extractionRunRepository.dropPhaseCheckConstraint();
+                                logger.warn("Dropped extraction_runs_phase_check without the QUEUED phase: {}", definition);
+                            }));
+        } catch (Exception e) {
+            logger.error("Failed to check the extraction run phase constraint: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Runs queued before the last shutdown lost their launch parameters with the in-memory queue
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedRuns() {
+        try {
+            List<ExtractionRun> stale = extractionRunRepository.findByPhaseOrderByCreatedAtDesc(ExtractionRun.ExtractionPhase.QUEUED);
+            for (ExtractionRun run : stale) {
+                markFailed(run.getRunId(), "Queued run interrupted by a restart; start it again");
+            }
+            if (!stale.isEmpty()) logger.warn("Failed {} extraction run(s) left queued by the previous instance", stale.size());
+        } catch (Exception e) {
+            logger.error("Failed to clean up queued extraction runs: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Priority of a request that did not specify one: runs triggered by a scheduler/cron are SCHEDULED
+     */
+    public static ExtractionRun.RunPriority defaultPriority(String triggeredBy) {
+        String trigger = triggeredBy == null ? "" : triggeredBy.toLowerCase();
+        return trigger.contains("schedule") || trigger.contains("cron")
+                ? ExtractionRun.RunPriority.SCHEDULED : ExtractionRun.RunPriority.MANUAL;
+    }
+
+    /**
+     * Queue a run (phase QUEUED) for launch; launch is called once a slot is free and must return a future
+     * that completes when the container exits. Inside a transaction the run is queued after commit.
+     */
+    public void enqueue(ExtractionRun run, Supplier<CompletableFuture<Void>> launch) {
+        enqueue(run, run.getRunId(), null, launch);
+    }
+
+    /**
+     * Queue one shard container of a sharded run under the launch id of its current attempt; the run moves
+     * to STARTED with its first shard
+     */
+    public void enqueueShard(ExtractionRun run, UUID launchId, int shardIndex, Supplier<CompletableFuture<Void>> launch) {
+        enqueue(run, launchId, shardIndex, launch);
+    }
+
+    private void enqueue(ExtractionRun run, UUID launchId, Integer shardIndex, Supplier<CompletableFuture<Void>> launch) {
+        ExtractionRun.RunPriority priority = run.getPriority() != null ? run.getPriority() : ExtractionRun.RunPriority.MANUAL;
+        int cpus = run.getContainerCpus() != null ? run.getContainerCpus() : CONTAINER_CPUS;
+        int memoryMb = run.getContainerMemoryMb() != null ? run.getContainerMemoryMb() : CONTAINER_MEMORY_MB;
+        QueuedRun entry = new QueuedRun(launchId, run.getRunId(), shardIndex, run.getRepositoryUrl(), priority,
+                cpus, memoryMb, LocalDateTime.now(), launch);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(entry);
+                }
+            });
+        } else {
+            add(entry);
+        }
+    }
+
+    /**
+     * Remove the queued containers of a run (all its shards); false if none was queued (e.g. already running)
+     */
+    public synchronized boolean cancel(UUID runId) {
+        List<QueuedRun> entries = queued.values().stream().filter(e -> e.runId().equals(runId)).toList();
+        for (QueuedRun entry : entries) {
+            queued.remove(entry.launchId());
+            remove(queues, entry);
+        }
+        if (entries.isEmpty()) return false;
+        logger.info("Removed {} queued container(s) of extraction run {} from the scheduler", entries.size(), runId);
+        return true;
+    }
+
+    /**
+     * Queue position (1-based) and estimated start of a queued run (its first queued shard for a sharded
+     * run); null if the run has nothing queued
+     */
+    public Map<String, Object> queueEntry(UUID runId) {
+        for (Map<String, Object> item : estimate()) {
+            if (runId.equals(item.get("runId"))) return item;
+        }
+        return null;
+    }
+
+    /**
+     * Budget usage, running runs and all queued runs in dispatch order with their estimated start
+     */
+    public Map<String, Object> queue() {
+        List<Map<String, Object>> items = estimate();
+        List<Map<String, Object>> active = new ArrayList<>();
+        Map<String, Object> budget = new HashMap<>();
+        synchronized (this) {
+            for (Map.Entry<UUID, RunningRun> e : running.entrySet()) {
+                Map<String, Object> item = new HashMap<>();
+                item.put("launchId", e.getKey());
+                item.put("runId", e.getValue().runId());
+                item.put("shardIndex", e.getValue().shardIndex());
+                item.put("repositoryUrl", e.getValue().repositoryUrl());
+                item.put("cpus", e.getValue().cpus());
+                item.put("memoryMb", e.getValue().memoryMb());
+                item.put("startedAt", e.getValue().startedAt());
+                active.add(item);
+            }
+            budget.put("cpus", cpuBudget);
+            budget.put("memoryMb", memoryBudgetMb == Long.MAX_VALUE ? null : memoryBudgetMb);
+            budget.put("maxRunning", slots);
+            budget.put("usedCpus", usedCpus);
+            budget.put("usedMemoryMb", usedMemoryMb);
+        }
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("budget", budget);
+        resp.put("running", active);
+        resp.put("queued", items);
+        resp.put("queuedCount", items.size());
+        return resp;
+    }
+
+    private void add(QueuedRun entry) {
+        synchronized (this) {
+            queues.get(entry.priority()).computeIfAbsent(entry.repositoryUrl(), k -> new ArrayDeque<>()).addLast(entry);
+            queued.put(entry.launchId(), entry);
+        }
+        logger.info("Queued extraction run {}{} ({}, {})", entry.runId(),
+                entry.shardIndex() != null ? " shard " + entry.shardIndex() : "", entry.priority(), entry.repositoryUrl());
+        dispatch();
+    }
+
+    /**
+     * Start queued runs while the next one fits into the free budget; the launches happen outside the lock
+     */
+    private void dispatch() {
+        List<QueuedRun> starting = new ArrayList<>();
+        synchronized (this) {
+            while (true) {
+                QueuedRun next = peekNext(queues, runningByRepository);
+                if (next == null || !fits(next, running.size(), usedCpus, usedMemoryMb)) break;
+                remove(queues, next);
+                queued.remove(next.launchId());
+                running.put(next.launchId(), new RunningRun(next.runId(), next.shardIndex(), next.repositoryUrl(),
+                        next.cpus(), next.memoryMb(), LocalDateTime.now()));
+                runningByRepository.merge(next.repositoryUrl(), 1, Integer::sum);
+                usedCpus += next.cpus();
+                usedMemoryMb += next.memoryMb();
+                starting.add(next);
+            }
+        }
+        for (QueuedRun entry : starting) launch(entry);
+    }
+
+    private void launch(QueuedRun entry) {
+        UUID runId = entry.runId();
+        UUID launchId = entry.launchId();
+        boolean launched = false;
+        try {
+            Boolean stillQueued = newTransaction().execute(s -> {
+                ExtractionRun run = extractionRunRepository.findById(runId).orElse(null);
+                if (run == null) return false;
+                if (run.getPhase() == ExtractionRun.ExtractionPhase.QUEUED) {
+                    run.setPhase(ExtractionRun.ExtractionPhase.STARTED);
+                    run.setStartedAt(LocalDateTime.now());
+                    extractionRunRepository.save(run);
+                } else if (entry.shardIndex() == null || run.getPhase() != ExtractionRun.ExtractionPhase.STARTED) {
+                    // cancelled (or failed) between being picked and being started; later shards join a started run
+                    return false;
+                }
+                JobStatus jobStatus = new JobStatus(run);
+                jobStatus.setStatus(JobStatus.JobStatusEnum.RUNNING);
+                jobStatus.setCurrentPhase("launching");
+                jobStatus.setShardIndex(entry.shardIndex());
+                jobStatusRepository.save(jobStatus);
+                return true;
+            });
+            if (Boolean.TRUE.equals(stillQueued)) {
+                logger.info("Dispatching extraction run {}{} after {} s in queue", runId,
+                        entry.shardIndex() != null ? " shard " + entry.shardIndex() : "",
+                        Duration.between(entry.queuedAt(), LocalDateTime.now()).toSeconds());
+                entry.launch().get().whenComplete((v, t) -> {
+                    if (t != null && !(t instanceof CancellationException)) {
+                        logger.error("Extraction container of run {} failed: {}", runId, t.getMessage());
+                    }
+                    release(launchId);
+                });
+                launched = true;
+            }
+        } catch (Exception e) {
+            logger.error("Failed to launch extraction run {}: {}", runId, e.getMessage(), e);
+            markFailed(runId, "Failed to launch extraction container: " + e.getMessage());
+        } finally {
+            if (!launched) release(launchId);
+        }
+    }
+
+    private void release(UUID launchId) {
+        synchronized (this) {
+            RunningRun run = running.remove(launchId);
+            if (run != null) {
+                runningByRepository.computeIfPresent(run.repositoryUrl(), (k, n) -> n > 1 ? n - 1 : null);
+                usedCpus -= run.cpus();
+                usedMemoryMb -= run.memoryMb();
+            }
+        }
+        dispatch();
+    }
+
+    private void markFailed(UUID runId, String error) {
+        try {
+            newTransaction().executeWithoutResult(s ->
+                    extractionRunRepository.findById(runId).ifPresent(run -> {
+                        run.setPhase(ExtractionRun.ExtractionPhase.FAILED);
+                        run.setFinishedAt(LocalDateTime.now());
+                        extractionRunRepository.save(run);
+                        JobStatus jobStatus = new JobStatus(run);
+                        jobStatus.setStatus(JobStatus.JobStatusEnum.FAILED);
+                        jobStatus.setCurrentPhase("failed");
+                        jobStatus.setLastError(error);
+                        jobStatusRepository.save(jobStatus);
+                    }));
+        } catch (Exception e) {
+            logger.error("Failed to mark extraction run {} as failed: {}", runId, e.getMessage());
+        }
+    }
+
+    // dispatch also runs from afterCommit of the enqueuing transaction, whose resources are still bound
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return tx;
+    }
+
+    // a run larger than the whole budget may still start once nothing else runs
+    private boolean fits(QueuedRun run, int runningCount, int cpusInUse, long memoryInUseMb) {
+        if (runningCount >= slots) return false;
+        return runningCount == 0
+                || (cpusInUse + run.cpus() <= cpuBudget && memoryInUseMb + run.memoryMb() <= memoryBudgetMb);
+    }
+
+    /**
+     * Next run to dispatch: highest priority first, then the repository with the fewest running
+     * containers, then the longest-waiting head
+     */
+    private static QueuedRun peekNext(Map<ExtractionRun.RunPriority, Map<String, Deque<QueuedRun>>> queues,
+                                      Map<String, Integer> runningByRepository) {
+        for (ExtractionRun.RunPriority priority : ExtractionRun.RunPriority.values()) {
+            QueuedRun best = null;
+            for (Deque<QueuedRun> deque : queues.get(priority).values()) {
+                QueuedRun head = deque.peekFirst();
+                if (head == null) continue;
+                if (best == null) {
+                    best = head;
+                    continue;
+                }
+                int share = runningByRepository.getOrDefault(head.repositoryUrl(), 0);
+                int bestShare = runningByRepository.getOrDefault(best.repositoryUrl(), 0);
+                if (share < bestShare || (share == bestShare && head.queuedAt().isBefore(best.queuedAt()))) {
+                    best = head;
+                }
+            }
+            if (best != null) return best;
+        }
+        return null;
+    }
+
+    private static void remove(Map<ExtractionRun.RunPriority, Map<String, Deque<QueuedRun>>> queues, QueuedRun entry) {
+        Map<String, Deque<QueuedRun>> byRepository = queues.get(entry.priority());
+        Deque<QueuedRun> deque = byRepository.get(entry.repositoryUrl());
+        if (deque == null) return;
+        deque.remove(entry);
+        if (deque.isEmpty()) byRepository.remove(entry.repositoryUrl());
+    }
+
+    /**
+     * Queued runs in dispatch order with position and estimated start, from a replay of the scheduler on a
+     * copy of its state: running containers finish at their expected time (earliest first) until the run
+     * peekNext would pick fits into the budget
+     */
+    private List<Map<String, Object>> estimate() {
+        Map<ExtractionRun.RunPriority, Map<String, Deque<QueuedRun>>> pending = new EnumMap<>(ExtractionRun.RunPriority.class);
+        Map<String, Integer> shares;
+        List<RunningRun> active;
+        int total;
+        synchronized (this) {
+            for (Map.Entry<ExtractionRun.RunPriority, Map<String, Deque<QueuedRun>>> e : queues.entrySet()) {
+                Map<String, Deque<QueuedRun>> copy = new LinkedHashMap<>();
+                e.getValue().forEach((repository, deque) -> copy.put(repository, new ArrayDeque<>(deque)));
+                pending.put(e.getKey(), copy);
+            }
+            shares = new HashMap<>(runningByRepository);
+            active = new ArrayList<>(running.values());
+            total = queued.size();
+        }
+        if (total == 0) return List.of();
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Duration> durations = new HashMap<>();
+        PriorityQueue<Finish> finishing = new PriorityQueue<>(Comparator.comparing(Finish::at));
+        int runningCount = 0, cpusInUse = 0;
+        long memoryInUseMb = 0;
+        for (RunningRun run : active) {
+            LocalDateTime finish = run.startedAt().plus(expectedDuration(run.repositoryUrl(), durations));
+            finishing.add(new Finish(run.repositoryUrl(), run.cpus(), run.memoryMb(), finish.isBefore(now) ? now : finish));
+            runningCount++;
+            cpusInUse += run.cpus();
+            memoryInUseMb += run.memoryMb();
+        }
+
+        LocalDateTime time = now;
+        List<Map<String, Object>> items = new ArrayList<>(total);
+        for (int position = 1; position <= total; position++) {
+            QueuedRun next = peekNext(pending, shares);
+            // wait for running containers to finish until the next run fits; who is next may change meanwhile
+            while (next != null && !fits(next, runningCount, cpusInUse, memoryInUseMb) && !finishing.isEmpty()) {
+                Finish done = finishing.poll();
+                if (done.at().isAfter(time)) time = done.at();
+                shares.computeIfPresent(done.repositoryUrl(), (k, n) -> n > 1 ? n - 1 : null);
+                runningCount--;
+                cpusInUse -= done.cpus();
+                memoryInUseMb -= done.memoryMb();
+                next = peekNext(pending, shares);
+            }
+            if (next == null) break;
+            remove(pending, next);
+            LocalDateTime start = time;
+            shares.merge(next.repositoryUrl(), 1, Integer::sum);
+            runningCount++;
+            cpusInUse += next.cpus();
+            memoryInUseMb += next.memoryMb();
+            finishing.add(new Finish(next.repositoryUrl(), next.cpus(), next.memoryMb(),
+                    start.plus(expectedDuration(next.repositoryUrl(), durations))));
+
+            Map<String, Object> item = new HashMap<>();
+            item.put("runId", next.runId());
+            item.put("shardIndex", next.shardIndex());
+            item.put("repositoryUrl", next.repositoryUrl());
+            item.put("priority", next.priority());
+            item.put("cpus", next.cpus());
+            item.put("memoryMb", next.memoryMb());
+            item.put("queuedAt", next.queuedAt());
+            item.put("position", position);
+            item.put("estimatedStartAt", start);
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * Average duration of the repository's recent completed runs, else of all recent completed runs
+     */
+    private Duration expectedDuration(String repositoryUrl, Map<String, Duration> memo) {
+        Duration known = memo.get(repositoryUrl);
+        if (known != null) return known;
+        Duration expected = average(extractionRunRepository
+                .findTop20ByRepositoryUrlAndPhaseOrderByCreatedAtDesc(repositoryUrl, ExtractionRun.ExtractionPhase.COMPLETED));
+        if (expected == null) {
+            expected = memo.get("*");
+            if (expected == null) {
+                expected = average(extractionRunRepository.findTop50ByPhaseOrderByCreatedAtDesc(ExtractionRun.ExtractionPhase.COMPLETED));
+                if (expected == null) expected = DEFAULT_RUN_DURATION;
+                memo.put("*", expected);
+            }
+        }
+        memo.put(repositoryUrl, expected);
+        return expected;
+    }
+
+    private static Duration average(List<ExtractionRun> runs) {
+        long totalSeconds = 0;
+        int count = 0;
+        for (ExtractionRun run : runs) {
+            if (run.getStartedAt() == null || run.getFinishedAt() == null) continue;
+            long seconds = Duration.between(run.getStartedAt(), run.getFinishedAt()).toSeconds();
+            if (seconds <= 0) continue;
+            totalSeconds += seconds;
+            count++;
+        }
+        return count == 0 ? null : Duration.ofSeconds(totalSeconds / count);
+    }
+
+    // total physical memory of the host; 0 when the JVM does not expose it
+    private static long detectMemoryMb() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            return os.getTotalMemorySize() / (1024 * 1024);
+        }
+        return 0;
+    }
+
+    private synchronized int[] counts() {
+        return new int[]{queued.size(), running.size()};
+    }
+
+    private record QueuedRun(UUID launchId, UUID runId, Integer shardIndex, String repositoryUrl, ExtractionRun.RunPriority priority,
+                             int cpus, int memoryMb, LocalDateTime queuedAt, Supplier<CompletableFuture<Void>> launch) {}
+
+    private record RunningRun(UUID runId, Integer shardIndex, String repositoryUrl, int cpus, int memoryMb, LocalDateTime startedAt) {}
+
+    // expected end of a container in the estimate replay
+    private record Finish(String repositoryUrl, int cpus, int memoryMb, LocalDateTime at) {}
+}
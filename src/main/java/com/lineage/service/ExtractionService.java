@@ -65,8 +65,40 @@ public class ExtractionService {
     @Autowired
     private GroqService groqService;
 
-    // Track running processes for control operations
-    private final java.util.concurrent.ConcurrentHashMap<UUID, Process> runningProcesses = new java.util.concurrent.ConcurrentHashMap<>();
+    @Autowired
+    private AutocompleteService autocompleteService;
+
+    @Autowired
+    private ColumnIndexService columnIndexService;
+
+    @Autowired
+    private RunSummaryService runSummaryService;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private TemporalLineageService temporalLineageService;
+
+    @Autowired
+    private IncrementalRunService incrementalRunService;
+
+    @Autowired
+    private SqlContentService sqlContentService;
+
+    // Runs container launches on a dedicated bounded pool and tracks their processes for control operations
+    @Autowired
+    private OrchestrationExecutor orchestrationExecutor;
+
+    // Holds runs in the QUEUED phase until a container slot is free
+    @Autowired
+    private ExtractionScheduler extractionScheduler;
+
+    @Autowired
+    private ContainerSizingService containerSizingService;
+
+    @Autowired
+    private ShardedRunService shardedRunService;
 
     private static final String EXTRACTOR_VERSION = "1.0.0";
 
@@ -85,19 +117,46 @@ public class ExtractionService {
         );
 
         extractionRun.setRunMode(ExtractionRun.RunMode.valueOf(request.getRunMode().name()));
-        extractionRun.setPhase(ExtractionRun.ExtractionPhase.STARTED);
+        extractionRun.setPhase(ExtractionRun.ExtractionPhase.QUEUED);
+        extractionRun.setPriority(request.getPriority() != null
+                ? ExtractionRun.RunPriority.valueOf(request.getPriority().name())
+                : ExtractionScheduler.defaultPriority(request.getTriggeredBy()));
 
         if (request.getCommitHash() != null) {
             extractionRun.setCommitHash(request.getCommitHash());
         }
 
+        // Incremental runs reuse the last completed run of the same repository/branch for unchanged files
+        if (extractionRun.getRunMode() == ExtractionRun.RunMode.INCREMENTAL) {
+            Optional<ExtractionRun> baseline = incrementalRunService.findBaseline(request.getRepositoryUrl(), request.getBranch());
+            if (baseline.isPresent()) {
+                extractionRun.setBaselineRunId(baseline.get().getRunId());
+            } else {
+                logger.info("No completed baseline run for {}@{}, extracting all files",
+                        request.getRepositoryUrl(), request.getBranch());
+            }
+        }
+
+        // Sharded runs split the files across several containers under the same run id
+        int shardCount = request.getShardCount() != null ? request.getShardCount() : 1;
+        if (shardCount > 1) {
+            extractionRun.setShardCount(shardCount);
+        }
+
+        // CPUs, memory and extractor workers (per container) from the history of this repository/branch
+        ContainerSizingService.ContainerSize size = containerSizingService.size(
+                request.getRepositoryUrl(), request.getBranch(), extractionRun.getRunMode(), shardCount);
+        extractionRun.setContainerCpus(size.cpus());
+        extractionRun.setContainerMemoryMb(size.memoryMb());
+        extractionRun.setParallelism(size.parallelism());
+
         extractionRun = extractionRunRepository.save(extractionRun);
         logger.info("Created extraction run with ID: {}", extractionRun.getRunId());
 
         // Create initial job status
         JobStatus jobStatus = new JobStatus(extractionRun);
         jobStatus.setStatus(JobStatus.JobStatusEnum.RUNNING);
-        jobStatus.setCurrentPhase("initialized");
+        jobStatus.setCurrentPhase("queued");
         jobStatusRepository.save(jobStatus);
 
         // Launch Docker container for extraction
@@ -108,22 +167,25 @@ public class ExtractionService {
         }
 
         final UUID runId = extractionRun.getRunId();
-        
-        // Launch the Docker container asynchronously
-        launchExtractionContainer(
-                runId,
+        LaunchParams params = new LaunchParams(
                 request.getRepositoryUrl(),
                 request.getBranch(),
                 request.getGitHubToken(),
                 groqApiKey,
-                request.getRunMode().toString()
-        ).exceptionally(throwable -> {
-            logger.error("Failed to launch Docker container for run {}: {}", 
-                runId, throwable.getMessage(), throwable);
-            return null;
-        });
+                request.getRunMode().toString(),
+                extractionRun.getBaselineRunId(),
+                size);
+
+        // The scheduler launches the Docker container(s) once there is capacity (after this transaction commits)
+        if (extractionRun.isSharded()) {
+            for (ExtractionShard shard : shardedRunService.createShards(extractionRun)) {
+                enqueueShard(extractionRun, shard.getShardId(), shard.getShardIndex(), shard.getLaunchId(), params);
+            }
+        } else {
+            extractionScheduler.enqueue(extractionRun, () -> launchExtractionContainer(runId, params, null));
+        }
 
-        logger.info("Docker container launched for run ID: {}", extractionRun.getRunId());
+        logger.info("Extraction run {} queued with priority {}", runId, extractionRun.getPriority());
 
         return extractionRun;
     }
@@ -132,40 +194,90 @@ public class ExtractionService {
     // Orchestration (moved from DockerService)
     // =============================
 
-    public java.util.concurrent.CompletableFuture<Void> launchExtractionContainer(
-            UUID runId,
-            String repositoryUrl,
-            String branch,
-            String githubToken,
-            String groqApiKey,
-            String runMode) {
+    /**
+     * Queue one attempt of a shard; when its container exits without the shard having completed, the shard
+     * is queued again under a new launch id or, out of retries, the run fails and its other shards are stopped
+     */
+    private void enqueueShard(ExtractionRun run, UUID shardId, int shardIndex, UUID launchId, LaunchParams params) {
+        UUID runId = run.getRunId();
+        ShardLaunch shard = new ShardLaunch(launchId, shardIndex, run.getShardCount());
+        extractionScheduler.enqueueShard(run, launchId, shardIndex, () -> {
+            if (!shardedRunService.markLaunched(shardId, launchId)) {
+                return java.util.concurrent.CompletableFuture.completedFuture(null);
+            }
+            return launchExtractionContainer(runId, params, shard).handle((v, t) -> {
+                // a cancelled launch belongs to a run that is being stopped: no retry
+                if (t instanceof java.util.concurrent.CancellationException
+                        || t != null && t.getCause() instanceof java.util.concurrent.CancellationException) {
+                    return null;
+                }
+                try {
+                    ShardedRunService.ShardExit exit = shardedRunService.onContainerExit(runId, shardId, launchId);
+                    if (exit.outcome() == ShardedRunService.ShardExit.Outcome.RETRY) {
+                        saveLog(runId, "Shard " + shardIndex + " did not complete, retrying", "WARN");
+                        enqueueShard(run, shardId, shardIndex, exit.nextLaunchId(), params);
+                    } else if (exit.outcome() == ShardedRunService.ShardExit.Outcome.RUN_FAILED) {
+                        saveLog(runId, "Shard " + shardIndex + " failed with no retries left, stopping the run", "ERROR");
+                        extractionScheduler.cancel(runId);
+                        cancelLaunches(runId);
+                    }
+                } catch (Exception e) {
+                    logger.error("Failed to handle exit of run {} shard {}: {}", runId, shardIndex, e.getMessage(), e);
+                }
+                return null;
+            });
+        });
+    }
+
+    public java.util.concurrent.CompletableFuture<Void> launchExtractionContainer(UUID runId, LaunchParams params, ShardLaunch shard) {
+        ContainerSizingService.ContainerSize size = params.size();
+        UUID launchId = shard != null ? shard.launchId() : runId;
 
-        return java.util.concurrent.CompletableFuture.runAsync(() -> {
+        return orchestrationExecutor.submit(launchId, launch -> {
+            String containerName = containerName(runId, shard != null ? shard.shardIndex() : null);
             try {
-                String containerName = "extraction-" + runId.toString().substring(0, 8);
-                String[] command = {
+                List<String> command = new ArrayList<>(List.of(
                         "docker", "run", "--rm",
-                        // Increase container resources
-                        "--cpus", "4",
-                        "--memory", "8g",
-                        "-e", "GROQ_API_KEY=" + groqApiKey,
-                        "-e", "GITHUB_TOKEN=" + githubToken,
+                        // Resources sized per run from earlier runs of the repository
+                        "--cpus", String.valueOf(size.cpus()),
+                        "--memory", size.memoryMb() + "m",
+                        "-e", "EXTRACTOR_WORKERS=" + size.parallelism(),
+                        "-e", "GROQ_API_KEY=" + params.groqApiKey(),
+                        "-e", "GITHUB_TOKEN=" + params.githubToken(),
                         "-v", System.getProperty("user.dir") + "/lineage_output:/app/lineage_output",
-                        "--name", containerName,
+                        "--name", containerName
+                ));
+                if (shard != null) {
+                    // Shards report their index with every webhook event
+                    command.addAll(List.of(
+                            "-e", "EXTRACTOR_SHARD_INDEX=" + shard.shardIndex(),
+                            "-e", "EXTRACTOR_SHARD_COUNT=" + shard.shardCount()));
+                }
+                command.addAll(List.of(
                         dockerImageName,
-                        "--repo-url", repositoryUrl,
-                        "--github-token", githubToken,
-                        "--branch", branch,
+                        "--repo-url", params.repositoryUrl(),
+                        "--github-token", params.githubToken(),
+                        "--branch", params.branch(),
                         "--backend-url", backendUrl,
                         "--run-id", runId.toString(),
-                        "--run-mode", runMode
-                };
+                        "--run-mode", params.runMode()
+                ));
+                if (params.baselineRunId() != null) {
+                    command.addAll(List.of("--baseline-run-id", params.baselineRunId().toString()));
+                }
+                if (params.baselineRunId() != null || shard != null) {
+                    // The extractor posts its file manifest here and only extracts the paths returned
+                    String manifestUrl = backendUrl + "/extraction/runs/" + runId + "/manifest";
+                    command.addAll(List.of("--manifest-url", shard != null ? manifestUrl + "?shard=" + shard.shardIndex() : manifestUrl));
+                }
 
                 logger.info("Launching Docker container for run {}: {}", runId, String.join(" ", command));
                 ProcessBuilder processBuilder = new ProcessBuilder(command);
                 processBuilder.redirectErrorStream(true);
+                // killing the docker client does not stop an attached container, so cancellation also kills it by name
+                launch.onCancel(() -> killContainer(containerName));
                 Process process = processBuilder.start();
-                runningProcesses.put(runId, process);
+                launch.attach(process);
                 saveLog(runId, "Docker container started: " + containerName, "INFO");
 
                 try (java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.InputStreamReader(process.getInputStream()))) {
@@ -178,35 +290,71 @@ public class ExtractionService {
 
                 int exitCode = process.waitFor();
                 logger.info("Docker container for run {} exited with code: {}", runId, exitCode);
-                saveLog(runId, "Docker container exited with code: " + exitCode, exitCode == 0 ? "INFO" : "ERROR");
-                runningProcesses.remove(runId);
+                saveLog(runId, launch.isCancelled() ? "Docker container cancelled (exit code " + exitCode + ")"
+                        : "Docker container exited with code: " + exitCode, exitCode == 0 ? "INFO" : "ERROR");
+            } catch (InterruptedException e) {
+                logger.info("Stopped following Docker container for run {}", runId);
+                saveLog(runId, "Docker container launch cancelled", "INFO");
+                Thread.currentThread().interrupt();
             } catch (Exception e) {
                 logger.error("Error launching Docker container for run {}: {}", runId, e.getMessage(), e);
                 saveLog(runId, "Error launching Docker container: " + e.getMessage(), "ERROR");
-                runningProcesses.remove(runId);
-                Thread.currentThread().interrupt();
+                throw e;
+            }
+            if (launch.isCancelled()) {
+                throw new java.util.concurrent.CancellationException("Launch " + launchId + " of run " + runId + " cancelled");
             }
         });
     }
 
+    private void killContainer(String containerName) {
+        try {
+            int exitCode = new ProcessBuilder("docker", "kill", containerName).start().waitFor();
+            logger.info("Killed Docker container {} with exit code: {}", containerName, exitCode);
+        } catch (Exception e) {
+            logger.warn("Failed to kill Docker container {}: {}", containerName, e.getMessage());
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Active/queued container launches and totals of the orchestration pool
+     */
+    public Map<String, Object> getOrchestrationStats() {
+        return orchestrationExecutor.stats();
+    }
+
+    /**
+     * Host budget usage, running containers and queued runs in dispatch order with their estimated start
+     */
+    public Map<String, Object> getSchedulerQueue() {
+        return extractionScheduler.queue();
+    }
+
     public boolean stopContainer(UUID runId) {
         try {
-            Process process = runningProcesses.get(runId);
-            if (process != null && process.isAlive()) {
+            boolean dequeued = extractionScheduler.cancel(runId);
+            if (dequeued) {
+                saveLog(runId, "Queued container(s) removed before being launched", "INFO");
+            }
+            if (launchIds(runId).stream().anyMatch(orchestrationExecutor::hasLaunch)) {
                 saveLog(runId, "Force killing Docker container process...", "INFO");
-                process.destroyForcibly();
-                runningProcesses.remove(runId);
+                cancelLaunches(runId);
                 saveLog(runId, "Docker container killed by admin", "INFO");
                 return true;
             }
-            String containerName = "extraction-" + runId.toString().substring(0, 8);
-            String[] command = {"docker", "kill", containerName};
-            ProcessBuilder pb = new ProcessBuilder(command);
-            Process killProcess = pb.start();
-            int exitCode = killProcess.waitFor();
-            logger.info("Killed Docker container {} with exit code: {}", containerName, exitCode);
+            if (dequeued) return true;
+            boolean killed = true;
+            for (String containerName : containerNames(runId)) {
+                String[] command = {"docker", "kill", containerName};
+                ProcessBuilder pb = new ProcessBuilder(command);
+                Process killProcess = pb.start();
+                int exitCode = killProcess.waitFor();
+                logger.info("Killed Docker container {} with exit code: {}", containerName, exitCode);
+                killed &= exitCode == 0;
+            }
             saveLog(runId, "Docker container killed via docker command", "INFO");
-            return exitCode == 0;
+            return killed;
         } catch (Exception e) {
             logger.error("Error killing Docker container for run {}: {}", runId, e.getMessage(), e);
             saveLog(runId, "Error killing Docker container: " + e.getMessage(), "ERROR");
@@ -217,13 +365,16 @@ public class ExtractionService {
 
     public boolean pauseContainer(UUID runId) {
         try {
-            String containerName = "extraction-" + runId.toString().substring(0, 8);
-            String[] command = {"docker", "pause", containerName};
-            Process process = new ProcessBuilder(command).start();
-            int exitCode = process.waitFor();
-            logger.info("Paused Docker container {} with exit code: {}", containerName, exitCode);
+            boolean paused = true;
+            for (String containerName : containerNames(runId)) {
+                String[] command = {"docker", "pause", containerName};
+                Process process = new ProcessBuilder(command).start();
+                int exitCode = process.waitFor();
+                logger.info("Paused Docker container {} with exit code: {}", containerName, exitCode);
+                paused &= exitCode == 0;
+            }
             saveLog(runId, "Docker container paused by admin", "INFO");
-            return exitCode == 0;
+            return paused;
         } catch (Exception e) {
             logger.error("Error pausing Docker container for run {}: {}", runId, e.getMessage(), e);
             saveLog(runId, "Error pausing Docker container: " + e.getMessage(), "ERROR");
@@ -234,13 +385,16 @@ public class ExtractionService {
 
     public boolean resumeContainer(UUID runId) {
         try {
-            String containerName = "extraction-" + runId.toString().substring(0, 8);
-            String[] command = {"docker", "unpause", containerName};
-            Process process = new ProcessBuilder(command).start();
-            int exitCode = process.waitFor();
-            logger.info("Resumed Docker container {} with exit code: {}", containerName, exitCode);
+            boolean resumed = true;
+            for (String containerName : containerNames(runId)) {
+                String[] command = {"docker", "unpause", containerName};
+                Process process = new ProcessBuilder(command).start();
+                int exitCode = process.waitFor();
+                logger.info("Resumed Docker container {} with exit code: {}", containerName, exitCode);
+                resumed &= exitCode == 0;
+            }
             saveLog(runId, "Docker container resumed by admin", "INFO");
-            return exitCode == 0;
+            return resumed;
         } catch (Exception e) {
             logger.error("Error resuming Docker container for run {}: {}", runId, e.getMessage(), e);
             saveLog(runId, "Error resuming Docker container: " + e.getMessage(), "ERROR");
@@ -250,8 +404,37 @@ public class ExtractionService {
     }
 
     public boolean isContainerRunning(UUID runId) {
-        Process process = runningProcesses.get(runId);
-        return process != null && process.isAlive();
+        for (UUID launchId : launchIds(runId)) {
+            Process process = orchestrationExecutor.process(launchId);
+            if (process != null && process.isAlive()) return true;
+        }
+        return false;
+    }
+
+    private static String containerName(UUID runId, Integer shardIndex) {
+        String name = "extraction-" + runId.toString().substring(0, 8);
+        return shardIndex == null ? name : name + "-" + shardIndex;
+    }
+
+    // Docker containers of the run: one per shard for a sharded run
+    private List<String> containerNames(UUID runId) {
+        List<ExtractionShard> shards = shardedRunService.shards(runId);
+        if (shards.isEmpty()) return List.of(containerName(runId, null));
+        return shards.stream().map(shard -> containerName(runId, shard.getShardIndex())).toList();
+    }
+
+    // Orchestration keys of the run's launches: the run id, or the current attempt of every shard
+    private List<UUID> launchIds(UUID runId) {
+        List<UUID> ids = new ArrayList<>();
+        ids.add(runId);
+        for (ExtractionShard shard : shardedRunService.shards(runId)) {
+            if (shard.getLaunchId() != null) ids.add(shard.getLaunchId());
+        }
+        return ids;
+    }
+
+    private void cancelLaunches(UUID runId) {
+        for (UUID launchId : launchIds(runId)) orchestrationExecutor.cancel(launchId);
     }
 
     private void saveLog(UUID runId, String message, String logLevel) {
@@ -280,10 +463,8 @@ public class ExtractionService {
         long succeededFiles = fileRepository.countByRunIdAndStatus(runId, File.FileStatus.SUCCESS);
         long failedFiles = fileRepository.countByRunIdAndStatus(runId, File.FileStatus.FAILED);
 
-        // Lineage statistics from normalized schema
-        long totalEdges = lineageRepository.findByExtractionRunRunId(runId).size();
-        long tableEdges = lineageRepository.findByExtractionRunRunId(runId).stream().filter(l -> "table_edge".equalsIgnoreCase(l.getEdgeType())).count();
-        long columnEdges = lineageRepository.findByExtractionRunRunId(runId).stream().filter(l -> "column_edge".equalsIgnoreCase(l.getEdgeType())).count();
+        // Lineage statistics (completed runs read their summary, their per-run rows may be pruned)
+        RunSummaryService.EdgeCounts edgeCounts = runSummaryService.edgeCounts(extractionRun);
 
         Map<String, Object> status = new HashMap<>();
         status.put("runId", extractionRun.getRunId());
@@ -294,6 +475,23 @@ public class ExtractionService {
         status.put("finishedAt", extractionRun.getFinishedAt());
         status.put("triggeredBy", extractionRun.getTriggeredBy());
         status.put("extractorVersion", extractionRun.getExtractorVersion());
+        status.put("priority", extractionRun.getPriority());
+        status.put("containerCpus", extractionRun.getContainerCpus());
+        status.put("containerMemoryMb", extractionRun.getContainerMemoryMb());
+        status.put("parallelism", extractionRun.getParallelism());
+
+        if (extractionRun.isSharded()) {
+            status.put("shardCount", extractionRun.getShardCount());
+            status.put("shards", shardedRunService.progress(runId));
+        }
+
+        if (extractionRun.getPhase() == ExtractionRun.ExtractionPhase.QUEUED) {
+            Map<String, Object> entry = extractionScheduler.queueEntry(runId);
+            if (entry != null) {
+                status.put("queuePosition", entry.get("position"));
+                status.put("estimatedStartAt", entry.get("estimatedStartAt"));
+            }
+        }
 
         // Job status
         if (latestJobStatus.isPresent()) {
@@ -312,9 +510,9 @@ public class ExtractionService {
         stats.put("totalFiles", totalFiles);
         stats.put("succeededFiles", succeededFiles);
         stats.put("failedFiles", failedFiles);
-        stats.put("totalEdges", totalEdges);
-        stats.put("tableEdges", tableEdges);
-        stats.put("columnEdges", columnEdges);
+        stats.put("totalEdges", edgeCounts.total());
+        stats.put("tableEdges", edgeCounts.tableEdges());
+        stats.put("columnEdges", edgeCounts.columnEdges());
         status.put("statistics", stats);
 
         return status;
@@ -386,6 +584,8 @@ public class ExtractionService {
         extractionRun.setPhase(ExtractionRun.ExtractionPhase.FAILED);
         extractionRun.setFinishedAt(LocalDateTime.now());
         extractionRunRepository.save(extractionRun);
+        extractionScheduler.cancel(runId);
+        cancelLaunches(runId);
 
         // Update job status
         JobStatus jobStatus = new JobStatus(extractionRun);
@@ -419,11 +619,17 @@ public class ExtractionService {
                 return extractionRunRepository.save(newRun);
             });
 
+        Integer shardIndex = shardIndex(event);
+        if (extractionRun.isSharded() && shardIndex != null) {
+            shardedRunService.shardStarted(extractionRun.getRunId(), shardIndex);
+        }
+
         // Create initial job status
         JobStatus jobStatus = new JobStatus(extractionRun);
         jobStatus.setStatus(JobStatus.JobStatusEnum.RUNNING);
         jobStatus.setCurrentPhase("started");
         jobStatus.setPodId(event.getPodId());
+        jobStatus.setShardIndex(shardIndex);
         jobStatusRepository.save(jobStatus);
 
         logger.info("Extraction run started: {}", event.getRunId());
@@ -445,21 +651,49 @@ public class ExtractionService {
                     return extractionRunRepository.save(newRun);
                 });
 
-            extractionRun.setPhase(ExtractionRun.ExtractionPhase.COMPLETED);
-            extractionRun.setFinishedAt(LocalDateTime.now());
-            
-            // Update stats if provided
+            Map<String, Object> stats = null;
             if (event.getData() != null && event.getData() instanceof Map) {
                 @SuppressWarnings("unchecked")
                 Map<String, Object> data = (Map<String, Object>) event.getData();
             if (data.get("stats") instanceof Map) {
                 @SuppressWarnings("unchecked")
-                Map<String, Object> stats = (Map<String, Object>) data.get("stats");
-                extractionRun.setStats(stats);
+                Map<String, Object> reported = (Map<String, Object>) data.get("stats");
+                stats = reported;
+            }
             }
+
+            // A shard finishing only completes a sharded run once every shard has finished
+            if (extractionRun.isSharded()) {
+                Integer shardIndex = shardIndex(event);
+                if (shardIndex == null) {
+                    logger.warn("Completion event without shard index for sharded run {}, ignoring", event.getRunId());
+                    return;
+                }
+                if (!shardedRunService.shardCompleted(extractionRun.getRunId(), shardIndex, stats)) {
+                    JobStatus shardJobStatus = new JobStatus(extractionRun);
+                    shardJobStatus.setStatus(JobStatus.JobStatusEnum.RUNNING);
+                    shardJobStatus.setCurrentPhase("shard_completed");
+                    shardJobStatus.setPodId(event.getPodId());
+                    shardJobStatus.setShardIndex(shardIndex);
+                    jobStatusRepository.save(shardJobStatus);
+                    logger.info("Shard {} of extraction run {} completed", shardIndex, event.getRunId());
+                    return;
+                }
+                stats = shardedRunService.aggregateStats(extractionRun.getRunId());
+            }
+
+            extractionRun.setPhase(ExtractionRun.ExtractionPhase.COMPLETED);
+            extractionRun.setFinishedAt(LocalDateTime.now());
+            
+            // Update stats if provided
+            if (stats != null) {
+                extractionRun.setStats(stats);
             }
             
-            extractionRunRepository.save(extractionRun);
+            extractionRun = extractionRunRepository.save(extractionRun);
+            catalogService.refreshDegreeCounts(extractionRun.getRunId());
+            runSummaryService.summarize(extractionRun);
+            temporalLineageService.onRunCompleted(extractionRun);
 
             // Update job status to processing lineage
             JobStatus processingJobStatus = new JobStatus(extractionRun);
@@ -501,21 +735,39 @@ public class ExtractionService {
                     return extractionRunRepository.save(newRun);
                 });
 
+            String error = null;
+            if (event.getData() instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> data = (Map<String, Object>) event.getData();
+                error = (String) data.get("error");
+            }
+
+            // A failed shard is retried when its container exits; the run only fails once it is out of retries
+            Integer shardIndex = shardIndex(event);
+            if (extractionRun.isSharded() && shardIndex != null) {
+                shardedRunService.shardFailed(extractionRun.getRunId(), shardIndex, error);
+                JobStatus shardJobStatus = new JobStatus(extractionRun);
+                shardJobStatus.setStatus(JobStatus.JobStatusEnum.RUNNING);
+                shardJobStatus.setCurrentPhase("shard_failed");
+                shardJobStatus.setPodId(event.getPodId());
+                shardJobStatus.setShardIndex(shardIndex);
+                shardJobStatus.setLastError(error);
+                jobStatusRepository.save(shardJobStatus);
+                logger.info("Shard {} of extraction run {} failed: {}", shardIndex, event.getRunId(), error);
+                return;
+            }
+
             extractionRun.setPhase(ExtractionRun.ExtractionPhase.FAILED);
             extractionRun.setFinishedAt(LocalDateTime.now());
-            extractionRunRepository.save(extractionRun);
+            extractionRun = extractionRunRepository.save(extractionRun);
+            runSummaryService.summarize(extractionRun);
 
             // Update job status
             JobStatus jobStatus = new JobStatus(extractionRun);
             jobStatus.setStatus(JobStatus.JobStatusEnum.FAILED);
             jobStatus.setCurrentPhase("failed");
             jobStatus.setPodId(event.getPodId());
-            
-            if (event.getData() instanceof Map) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> data = (Map<String, Object>) event.getData();
-                jobStatus.setLastError((String) data.get("error"));
-            }
+            jobStatus.setLastError(error);
             
             jobStatusRepository.save(jobStatus);
 
@@ -526,6 +778,15 @@ public class ExtractionService {
         }
     }
 
+    // Shard that sent the event: the top-level field, or data.shardIndex from older extractors
+    private static Integer shardIndex(WebhookEvent event) {
+        if (event.getShardIndex() != null) return event.getShardIndex();
+        if (event.getData() instanceof Map<?, ?> data && data.get("shardIndex") instanceof Number n) {
+            return n.intValue();
+        }
+        return null;
+    }
+
     private void handleFileExtraction(WebhookEvent event) {
         try {
             ExtractionRun extractionRun = extractionRunRepository.findById(UUID.fromString(event.getRunId()))
@@ -572,6 +833,12 @@ public class ExtractionService {
             }
             
             file.setExtractedAt(LocalDateTime.now());
+
+            // Raw SQL is stored once per distinct content, compressed; the file keeps only the hash
+            Object rawSql = data.containsKey("rawSqlContent") ? data.get("rawSqlContent") : data.get("rawSql");
+            if (rawSql instanceof String) {
+                file.setSqlContentHash(sqlContentService.store((String) rawSql));
+            }
             
             // Set status based on event data
             String status = (String) data.get("status");
@@ -680,6 +947,7 @@ public class ExtractionService {
             JobStatus jobStatus = new JobStatus(extractionRun);
             jobStatus.setStatus(JobStatus.JobStatusEnum.RUNNING);
             jobStatus.setPodId(event.getPodId());
+            jobStatus.setShardIndex(shardIndex(event));
             
             if (event.getData() instanceof Map) {
                 @SuppressWarnings("unchecked")
@@ -729,6 +997,7 @@ public class ExtractionService {
             JobStatus jobStatus = new JobStatus(extractionRun);
             jobStatus.setStatus(JobStatus.JobStatusEnum.RUNNING);
             jobStatus.setPodId(event.getPodId());
+            jobStatus.setShardIndex(shardIndex(event));
             
             if (event.getData() instanceof Map) {
                 @SuppressWarnings("unchecked")
@@ -828,7 +1097,10 @@ public class ExtractionService {
         a.setShortName(shortName);
         a.setSchemaName(schemaName);
         a.setRole(role);
-        return assetRepository.save(a);
+        Asset saved = assetRepository.save(a);
+        catalogService.merge(saved);
+        autocompleteService.recordTable(shortName, fullName);
+        return saved;
     }
 
     private void linkAssetToFile(Asset asset, File file) {
@@ -865,6 +1137,8 @@ public class ExtractionService {
                 ac.setColumnName(name);
                 ac.setRole(role); // Store the role with the column
                 assetColumnRepository.save(ac);
+                autocompleteService.recordColumn(name);
+                columnIndexService.record(asset.getShortName(), asset.getFullName(), name, role);
             }
         } catch (Exception e) {
             logger.warn("Failed to upsert columns for asset {} with role {}: {}", asset.getShortName(), role, e.getMessage());
@@ -1016,6 +1290,8 @@ public class ExtractionService {
         extractionRun.setPhase(ExtractionRun.ExtractionPhase.FAILED);
         extractionRun.setFinishedAt(LocalDateTime.now());
         extractionRunRepository.save(extractionRun);
+        extractionScheduler.cancel(runId);
+        cancelLaunches(runId);
         
         // Update job status
         JobStatus jobStatus = new JobStatus(extractionRun);
@@ -1026,4 +1302,15 @@ public class ExtractionService {
         
         logger.info("Successfully cancelled extraction run: {}", runId);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Everything needed to (re)launch a container of a run; kept in memory only, since it holds the tokens
+     */
+    public record LaunchParams(String repositoryUrl, String branch, String githubToken, String groqApiKey,
+                               String runMode, UUID baselineRunId, ContainerSizingService.ContainerSize size) {}
+
+    /**
+     * Attempt of one shard of a sharded run
+     */
+    public record ShardLaunch(UUID launchId, int shardIndex, int shardCount) {}
+}
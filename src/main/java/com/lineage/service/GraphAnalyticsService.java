@@ -0,0 +1,222 @@
+package com.lineage.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * GraphAnalyticsService scores every catalog table by how much of the lineage depends on it.
+ *
+ * Runs on the graph reload thread each time a new lineage graph snapshot is loaded (i.e. after each
+ * completed run) and stores per table:
+ * - criticality: PageRank over the reversed graph, so rank flows from consumers to the tables they
+ *   read from; scaled by the table count so the average table scores 1.0
+ * - downstream closure: number of tables reachable downstream, memoized over the strongly connected
+ *   components of the snapshot (LineageComponentService) instead of one BFS per table
+ * - fan-in / fan-out: distinct upstream / downstream tables
+ * All passes work on the snapshot's CSR arrays; PageRank is split over the common fork-join pool.
+ */
+@Service
+public class GraphAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GraphAnalyticsService.class);
+
+    private static final double DAMPING = 0.85;
+    private static final int MAX_ITERATIONS = 100;
+    private static final double TOLERANCE = 1e-10;
+    private static final int SPLIT_THRESHOLD = 2048;
+    private static final int WRITE_BATCH = 1000;
+
+    private static final String UPDATE_SCORES =
+            "UPDATE catalog_assets SET criticality = ?, downstream_closure = ?, fan_in = ?, fan_out = ?, scores_computed_at = now() " +
+            "WHERE catalog_id = ? AND (criticality IS DISTINCT FROM ? OR downstream_closure IS DISTINCT FROM ? " +
+            "  OR fan_in IS DISTINCT FROM ? OR fan_out IS DISTINCT FROM ?)";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LineageComponentService lineageComponentService;
+
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    @EventListener
+    @Order(0)
+    public void onGraphLoaded(LineageGraphLoadedEvent event) {
+        LineageGraph g = event.graph();
+        if (g.nodeCount == 0) return;
+        try {
+            long started = System.currentTimeMillis();
+            double[] rank = pageRank(g);
+            int[] closure = downstreamClosure(g, lineageComponentService.components(g));
+            int written = store(g, rank, closure);
+            logger.info("Graph scores for lineage graph v{} computed in {} ms ({} tables updated)",
+                    g.version, System.currentTimeMillis() - started, written);
+        } catch (Exception e) {
+            logger.error("Failed to compute graph scores: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Power iteration, pull style: each table sums the contributions of its downstream tables
+     * (their rank split over their upstream tables). Tables without upstream spread their rank evenly.
+     */
+    double[] pageRank(LineageGraph g) {
+        int n = g.nodeCount;
+        double[] rank = new double[n];
+        double[] next = new double[n];
+        double[] contribution = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            final double[] current = rank;
+            double dangling = sum(n, u -> {
+                int upstream = g.inDegree(u);
+                if (upstream == 0) return current[u];
+                contribution[u] = current[u] / upstream;
+                return 0;
+            });
+            double base = (1 - DAMPING) / n + DAMPING * dangling / n;
+            final double[] target = next;
+            double delta = sum(n, v -> {
+                double r = base;
+                for (int e = g.outOffsets[v]; e < g.outOffsets[v + 1]; e++) {
+                    int w = g.outTargets[e];
+                    if (g.inDegree(w) > 0) r += DAMPING * contribution[w];
+                }
+                target[v] = r;
+                return Math.abs(r - current[v]);
+            });
+            next = rank;
+            rank = target;
+            if (delta < TOLERANCE) break;
+        }
+        for (int u = 0; u < n; u++) rank[u] *= n;
+        return rank;
+    }
+
+    /**
+     * Downstream closure size of every table, memoized over the condensed graph. Tarjan numbers the
+     * components sinks first, so every component a component reads into has a smaller number and its
+     * reach set is final by the time it is needed. Reach sets are bit sets over component numbers and
+     * are dropped once the last component reading them is done, so memory follows the width of the
+     * graph rather than its size. A table reaches the other members of its own component plus
+     * everything its component reaches.
+     */
+    int[] downstreamClosure(LineageGraph g, LineageComponentService.Components c) {
+        int components = c.count;
+        int[] succOffsets = new int[components + 1];
+        int[] pending = new int[components];
+        for (int i = 0; i < c.dagFrom.length; i++) {
+            succOffsets[c.dagFrom[i] + 1]++;
+            pending[c.dagTo[i]]++;
+        }
+        for (int k = 0; k < components; k++) succOffsets[k + 1] += succOffsets[k];
+        int[] succ = new int[c.dagFrom.length];
+        int[] cursor = Arrays.copyOf(succOffsets, components);
+        for (int i = 0; i < c.dagFrom.length; i++) succ[cursor[c.dagFrom[i]]++] = c.dagTo[i];
+
+        // most components are single tables; only the others need their size added separately
+        BitSet multi = new BitSet(components);
+        for (int k = 0; k < components; k++) if (c.size(k) > 1) multi.set(k);
+
+        BitSet[] reach = new BitSet[components];
+        int[] reached = new int[components];
+        for (int k = 0; k < components; k++) {
+            BitSet r = new BitSet(k);
+            for (int e = succOffsets[k]; e < succOffsets[k + 1]; e++) {
+                int s = succ[e];
+                r.set(s);
+                r.or(reach[s]);
+                if (--pending[s] == 0) reach[s] = null;
+            }
+            long total = r.cardinality();
+            if (!multi.isEmpty()) {
+                BitSet cycles = (BitSet) r.clone();
+                cycles.and(multi);
+                for (int b = cycles.nextSetBit(0); b >= 0; b = cycles.nextSetBit(b + 1)) total += c.size(b) - 1;
+            }
+            reached[k] = (int) total;
+            if (pending[k] > 0) reach[k] = r;
+        }
+
+        int[] closure = new int[g.nodeCount];
+        for (int u = 0; u < g.nodeCount; u++) {
+            int k = c.comp[u];
+            closure[u] = c.size(k) - 1 + reached[k];
+        }
+        return closure;
+    }
+
+    private int store(LineageGraph g, double[] rank, int[] closure) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int written = 0;
+        for (int from = 0; from < g.nodeCount; from += WRITE_BATCH) {
+            int to = Math.min(from + WRITE_BATCH, g.nodeCount);
+            List<Object[]> args = new ArrayList<>(to - from);
+            for (int u = from; u < to; u++) {
+                // rounded so that unchanged tables compare equal and are not rewritten
+                double score = Math.round(rank[u] * 1e6) / 1e6;
+                int fanIn = g.inDegree(u);
+                int fanOut = g.outDegree(u);
+                args.add(new Object[]{score, closure[u], fanIn, fanOut, g.catalogIds[u], score, closure[u], fanIn, fanOut});
+            }
+            int[] counts = tx.execute(s -> jdbcTemplate.batchUpdate(UPDATE_SCORES, args));
+            for (int c : counts) if (c > 0) written += c;
+        }
+        return written;
+    }
+
+    private double sum(int n, IntToDoubleFunction f) {
+        return pool.invoke(new RangeSum(0, n, f));
+    }
+
+    /**
+     * Applies f to every index of [from, to) and sums the results, splitting in halves down to SPLIT_THRESHOLD
+     */
+    private static final class RangeSum extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntToDoubleFunction f;
+
+        RangeSum(int from, int to, IntToDoubleFunction f) {
+            this.from = from;
+            this.to = to;
+            this.f = f;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                double total = 0;
+                for (int i = from; i < to; i++) total += f.applyAsDouble(i);
+                return total;
+            }
+            int mid = (from + to) >>> 1;
+            RangeSum left = new RangeSum(from, mid, f);
+            left.fork();
+            double right = new RangeSum(mid, to, f).compute();
+            return left.join() + right;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.lineage.service;
+
+import com.lineage.dto.FileManifestEntry;
+import com.lineage.entity.ExtractionRun;
+import com.lineage.entity.File;
+import com.lineage.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * IncrementalRunService reuses the results of the last completed run for files that did not change.
+ *
+ * The extractor posts the manifest (path + content hash) of the checkout before extracting. Files whose
+ * hash matches a successfully extracted file of the baseline run are carried forward with set-based
+ * copies of their file, asset, column and edge rows; only the remaining paths are returned to the
+ * extractor to be processed.
+ *
+ * The extractor may post the manifest more than once (retries). The run row is locked while the manifest
+ * is applied and every copy skips rows the run already has, so a repeat returns the same paths and
+ * carries nothing forward twice.
+ */
+@Service
+@Transactional
+public class IncrementalRunService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalRunService.class);
+
+    // Bounded IN lists for the file copy
+    private static final int COPY_CHUNK = 1000;
+    private static final String UNKNOWN_HASH = "unknown";
+
+    @Autowired private ExtractionRunRepository extractionRunRepository;
+    @Autowired private FileRepository fileRepository;
+    @Autowired private AssetRepository assetRepository;
+    @Autowired private AssetFileRepository assetFileRepository;
+    @Autowired private AssetColumnRepository assetColumnRepository;
+    @Autowired private LineageRepository lineageRepository;
+    @Autowired private CatalogAssetRepository catalogAssetRepository;
+
+    /**
+     * Last completed run of the same repository/branch, used as the baseline of a new INCREMENTAL run
+     */
+    @Transactional(readOnly = true)
+    public Optional<ExtractionRun> findBaseline(String repositoryUrl, String branch) {
+        return extractionRunRepository.findFirstByRepositoryUrlAndBranchAndPhaseOrderByCreatedAtDesc(
+                repositoryUrl, branch, ExtractionRun.ExtractionPhase.COMPLETED);
+    }
+
+    /**
+     * Compare the run's manifest with its baseline, carry forward the unchanged files and
+     * return the response for the extractor: the paths it still has to extract.
+     */
+    public Map<String, Object> applyManifest(UUID runId, List<FileManifestEntry> manifest) {
+        ExtractionRun run = extractionRunRepository.findByIdForUpdate(runId)
+                .orElseThrow(() -> new RuntimeException("Extraction run not found: " + runId));
+        if (run.getPhase() != ExtractionRun.ExtractionPhase.STARTED) {
+            throw new IllegalStateException("Run is not in progress: " + runId);
+        }
+
+        List<String> extract = new ArrayList<>();
+        List<String> unchanged = new ArrayList<>();
+        UUID baselineRunId = run.getRunMode() == ExtractionRun.RunMode.INCREMENTAL ? run.getBaselineRunId() : null;
+        if (baselineRunId == null) {
+            for (FileManifestEntry e : manifest) extract.add(e.getFilePath());
+        } else {
+            Map<String, String> baselineHashes = new HashMap<>();
+            for (Object[] row : fileRepository.findHashesByRunIdAndStatus(baselineRunId, File.FileStatus.SUCCESS)) {
+                baselineHashes.put((String) row[0], (String) row[1]);
+            }
+            for (FileManifestEntry e : manifest) {
+                String hash = e.getFileHash();
+                boolean same = hash != null && !hash.isBlank() && !UNKNOWN_HASH.equals(hash)
+                        && hash.equals(baselineHashes.get(e.getFilePath()));
+                (same ? unchanged : extract).add(e.getFilePath());
+            }
+        }
+
+        if (!unchanged.isEmpty()) carryForward(baselineRunId, runId, unchanged);
+        // all files carried into the run so far, including those of an earlier post of the manifest
+        long carried = fileRepository.countCarriedByRunId(runId);
+
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("runId", runId);
+        resp.put("baselineRunId", baselineRunId);
+        resp.put("extract", extract);
+        resp.put("carriedForward", carried);
+        logger.info("Manifest for run {}: {} files, {} carried forward from {}, {} to extract",
+                runId, manifest.size(), carried, baselineRunId, extract.size());
+        return resp;
+    }
+
+    private int carryForward(UUID baselineRunId, UUID runId, List<String> paths) {
+        long started = System.currentTimeMillis();
+        int files = 0;
+        for (int i = 0; i < paths.size(); i += COPY_CHUNK) {
+            files += fileRepository.carryForward(baselineRunId, runId, paths.subList(i, Math.min(i + COPY_CHUNK, paths.size())));
+        }
+        int assets = assetRepository.carryForward(baselineRunId, runId);
+        int links = assetFileRepository.carryForward(baselineRunId, runId);
+        int columns = assetColumnRepository.carryForward(baselineRunId, runId);
+        int edges = lineageRepository.carryForward(runId);
+        catalogAssetRepository.mergeRunSnapshots(runId);
+        logger.info("Carried forward into run {}: {} files, {} assets, {} asset links, {} columns, {} edges in {} ms",
+                runId, files, assets, links, columns, edges, System.currentTimeMillis() - started);
+        return files;
+    }
+}
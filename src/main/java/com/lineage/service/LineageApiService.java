@@ -2,15 +2,25 @@ package com.lineage.service;
 
 import com.lineage.dto.*;
 import com.lineage.entity.Asset;
+import com.lineage.entity.AssetColumn;
+import com.lineage.entity.CatalogAsset;
 import com.lineage.entity.Lineage;
+import com.lineage.entity.LineageEdgeVersion;
 import com.lineage.repository.AssetRepository;
 import com.lineage.repository.AssetColumnRepository;
+import com.lineage.repository.CatalogAssetRepository;
+import com.lineage.repository.FileRepository;
+import com.lineage.repository.LineageEdgeVersionRepository;
 import com.lineage.repository.LineageRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -23,8 +33,16 @@ public class LineageApiService {
 
     private static final Logger logger = LoggerFactory.getLogger(LineageApiService.class);
 
-    @Autowired
-    private AssetRepository assetRepository;
+    private static final int DEFAULT_SEARCH_LIMIT = 50;
+    private static final int MAX_SEARCH_LIMIT = 200;
+    // Upper bound on index matches considered per search branch before dedup and ranking
+    private static final int SEARCH_CANDIDATES = 2000;
+
+    // Sections returned when the caller does not pass include=
+    public static final Set<LineageSection> LINEAGE_SECTIONS =
+            Collections.unmodifiableSet(EnumSet.of(LineageSection.nodes, LineageSection.transformations, LineageSection.columns));
+    public static final Set<LineageSection> ENTITY_SECTIONS =
+            Collections.unmodifiableSet(EnumSet.of(LineageSection.schema, LineageSection.columns));
 
     @Autowired
     private LineageRepository lineageRepository;
@@ -32,85 +50,321 @@ public class LineageApiService {
     @Autowired
     private AssetColumnRepository assetColumnRepository;
 
+    @Autowired
+    private CatalogAssetRepository catalogAssetRepository;
+
+    @Autowired
+    private LineageEdgeVersionRepository edgeVersionRepository;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private SqlContentService sqlContentService;
+
+    /**
+     * Details of an edge. Edge ids name an edge version of the temporal store; ids of per-run lineage rows
+     * (runs not folded into it) are still resolved while those rows exist.
+     */
     public EdgeDetailsDto getEdgeDetails(String edgeId) {
-        try {
-            java.util.UUID id = java.util.UUID.fromString(edgeId);
-            var opt = lineageRepository.findById(id);
-            if (opt.isEmpty()) throw new RuntimeException("Edge not found: " + edgeId);
-            var e = opt.get();
+        UUID id = parseEdgeId(edgeId);
+        Optional<LineageEdgeVersion> version = edgeVersionRepository.findWithCatalogsById(id);
+        if (version.isPresent()) {
+            LineageEdgeVersion v = version.get();
             EdgeDetailsDto dto = new EdgeDetailsDto();
             dto.setEdgeId(edgeId);
-            dto.setEdgeType(e.getEdgeType());
-            dto.setFromEntity(e.getFromAsset() != null ? e.getFromAsset().getShortName() : null);
-            dto.setToEntity(e.getToAsset() != null ? e.getToAsset().getShortName() : null);
-            dto.setFromColumn(e.getFromColumn());
-            dto.setToColumn(e.getToColumn());
-            dto.setTransformationType(e.getTransformationType());
-            dto.setFileId(e.getFile() != null ? e.getFile().getFilePath() : null);
-            if (e.getStartLine() != null || e.getEndLine() != null) {
-                dto.setLines(new TransformationLinesDto(e.getStartLine(), e.getEndLine()));
+            dto.setEdgeType(v.getEdgeType());
+            dto.setFromEntity(v.getFromCatalog().getShortName());
+            dto.setToEntity(v.getToCatalog().getShortName());
+            dto.setFromColumn(v.getFromColumn());
+            dto.setToColumn(v.getToColumn());
+            dto.setTransformationType(v.getTransformationType());
+            dto.setFileId(v.getFilePath());
+            if (v.getStartLine() != null || v.getEndLine() != null) {
+                dto.setLines(new TransformationLinesDto(v.getStartLine(), v.getEndLine()));
+                sqlContentHash(v).flatMap(hash -> sqlContentService.snippet(hash, v.getStartLine(), v.getEndLine(), 0))
+                        .ifPresent(dto::setSqlSnippet);
             }
             return dto;
+        }
+        Lineage e = lineageRepository.findById(id).orElseThrow(() -> new RuntimeException("Edge not found: " + edgeId));
+        EdgeDetailsDto dto = new EdgeDetailsDto();
+        dto.setEdgeId(edgeId);
+        dto.setEdgeType(e.getEdgeType());
+        dto.setFromEntity(e.getFromAsset() != null ? e.getFromAsset().getShortName() : null);
+        dto.setToEntity(e.getToAsset() != null ? e.getToAsset().getShortName() : null);
+        dto.setFromColumn(e.getFromColumn());
+        dto.setToColumn(e.getToColumn());
+        dto.setTransformationType(e.getTransformationType());
+        dto.setFileId(e.getFile() != null ? e.getFile().getFilePath() : null);
+        if (e.getStartLine() != null || e.getEndLine() != null) {
+            dto.setLines(new TransformationLinesDto(e.getStartLine(), e.getEndLine()));
+            if (e.getFile() != null) {
+                sqlContentService.snippet(e.getFile().getSqlContentHash(), e.getStartLine(), e.getEndLine(), 0)
+                        .ifPresent(dto::setSqlSnippet);
+            }
+        }
+        return dto;
+    }
+
+    /**
+     * SQL source of an edge's transformation with the given number of context lines around it
+     * (the whole file when the edge has no line range)
+     */
+    public String getEdgeSnippet(String edgeId, int context) {
+        UUID id = parseEdgeId(edgeId);
+        String contentHash;
+        Integer startLine;
+        Integer endLine;
+        Optional<LineageEdgeVersion> version = edgeVersionRepository.findById(id);
+        if (version.isPresent()) {
+            LineageEdgeVersion v = version.get();
+            if (v.getFilePath() == null) throw new RuntimeException("No file recorded for edge: " + edgeId);
+            contentHash = sqlContentHash(v).orElse(null);
+            startLine = v.getStartLine();
+            endLine = v.getEndLine();
+        } else {
+            Lineage e = lineageRepository.findById(id).orElseThrow(() -> new RuntimeException("Edge not found: " + edgeId));
+            if (e.getFile() == null) throw new RuntimeException("No file recorded for edge: " + edgeId);
+            contentHash = e.getFile().getSqlContentHash();
+            startLine = e.getStartLine();
+            endLine = e.getEndLine();
+        }
+        return sqlContentService.snippet(contentHash, startLine, endLine, Math.max(0, context))
+                .orElseThrow(() -> new RuntimeException("No SQL content stored for edge: " + edgeId));
+    }
+
+    private static UUID parseEdgeId(String edgeId) {
+        try {
+            return UUID.fromString(edgeId);
         } catch (IllegalArgumentException ex) {
             throw new RuntimeException("Invalid edgeId: " + edgeId);
         }
     }
 
+    // The version keeps the file path only; its SQL is the one stored by the last run the edge was found in
+    private Optional<String> sqlContentHash(LineageEdgeVersion v) {
+        if (v.getFilePath() == null) return Optional.empty();
+        return fileRepository.findLatestSqlContentHash(v.getRepositoryUrl(), v.getBranch(), v.getFilePath(), v.getValidToAt());
+    }
+
     /**
-     * Get lineage (upstream/downstream) for a specific entity
-     * Uses table name-based queries to find all relationships across extraction runs
+     * Get current lineage (upstream/downstream) for a specific entity
      */
     public LineageResponseDto getLineage(String entityId, LineageDirection direction) {
-        logger.info("Getting {} lineage for entity: {}", direction, entityId);
-        Asset center = assetRepository.findTopByShortNameIgnoreCaseOrderByCreatedAtDesc(entityId);
+        return getLineage(entityId, direction, null);
+    }
+
+    public LineageResponseDto getLineage(String entityId, LineageDirection direction, LocalDateTime asOf) {
+        return getLineage(entityId, direction, asOf, LINEAGE_SECTIONS);
+    }
+
+    /**
+     * Get lineage (upstream/downstream) for a specific entity as of a point in time (null = current).
+     * Resolves the entity through the asset catalog and reads the temporal edge store, which holds
+     * each edge once per repository/branch with the range of runs it was valid in.
+     * Only the requested sections are loaded and built; current lineage with neighbour names only
+     * reads the distinct neighbouring tables instead of the edge rows.
+     */
+    public LineageResponseDto getLineage(String entityId, LineageDirection direction, LocalDateTime asOf,
+                                         Set<LineageSection> include) {
+        logger.info("Getting {} lineage for entity: {} (asOf {}, include {})", direction, entityId, asOf, include);
+        CatalogAsset center = resolve(entityId);
         if (center == null) throw new RuntimeException("Entity not found: " + entityId);
 
-        // Fetch edges for direction by table name across all runs to ensure complete lineage
-        List<Lineage> edges = (direction == LineageDirection.upstream)
-                ? lineageRepository.findByToAssetShortNameIgnoreCase(entityId)
-                : lineageRepository.findByFromAssetShortNameIgnoreCase(entityId);
+        boolean withTransformations = include.contains(LineageSection.transformations);
+        boolean withNodes = withTransformations || include.contains(LineageSection.nodes);
+        boolean withColumns = include.contains(LineageSection.columns);
+
+        UUID centerId = center.getCatalogId();
+        List<LineageNodeDto> nodes = null;
+        List<FineGrainedLineageDto> fine = List.of();
+        if (withTransformations || withColumns || (withNodes && asOf != null)) {
+            List<LineageEdgeVersion> edges;
+            if (direction == LineageDirection.upstream) {
+                edges = asOf == null ? edgeVersionRepository.findCurrentByToCatalogId(centerId)
+                        : edgeVersionRepository.findByToCatalogIdAsOf(centerId, asOf);
+            } else {
+                edges = asOf == null ? edgeVersionRepository.findCurrentByFromCatalogId(centerId)
+                        : edgeVersionRepository.findByFromCatalogIdAsOf(centerId, asOf);
+            }
+            if (withNodes) nodes = buildLineageNodes(edges, direction, withTransformations);
+            if (withColumns) fine = buildLineageFineGrained(edges, center, direction);
+        } else if (withNodes) {
+            List<CatalogAsset> neighbours = direction == LineageDirection.upstream
+                    ? edgeVersionRepository.findCurrentUpstreamCatalogs(centerId)
+                    : edgeVersionRepository.findCurrentDownstreamCatalogs(centerId);
+            nodes = new ArrayList<>(neighbours.size());
+            for (CatalogAsset n : neighbours) nodes.add(new LineageNodeDto(n.getShortName(), n.getFullName(), "table"));
+        }
+
+        LineageResponseDto resp = new LineageResponseDto(center.getShortName(), center.getFullName(), "table", direction, nodes);
+        if (!fine.isEmpty()) resp.setFineGrainedLineages(fine);
+        if (include.contains(LineageSection.schema)) resp.setSchemaMetadata(new SchemaMetadataDto(targetFields(center)));
+        return resp;
+    }
+
+    /**
+     * Current lineage for several (entityId, direction) pairs with a fixed number of queries: one for
+     * the catalog entries, one for every edge touching them and, for the schema section, one for the
+     * columns. There is exactly one response per request, in request order, so results line up by index:
+     * repeated pairs share one response, and requests without an entity id or direction or for an unknown
+     * entity get an entry carrying only the requested id, direction and an error ("invalidRequest",
+     * "notFound").
+     */
+    public List<LineageResponseDto> getLineageBatch(List<LineageRequestDto> requests, Set<LineageSection> include) {
+        logger.info("Getting batched lineage for {} requests", requests == null ? 0 : requests.size());
+        if (requests == null || requests.isEmpty()) return List.of();
+
+        Set<String> keys = new LinkedHashSet<>();
+        for (LineageRequestDto r : requests) {
+            if (r.getEntityId() != null && !r.getEntityId().isBlank()) keys.add(r.getEntityId().trim().toLowerCase());
+        }
+        Map<String, CatalogAsset> byKey = new HashMap<>();
+        if (!keys.isEmpty()) {
+            for (CatalogAsset c : catalogAssetRepository.findLatestByShortKeys(keys)) byKey.put(c.getShortKey(), c);
+        }
+
+        boolean withTransformations = include.contains(LineageSection.transformations);
+        boolean withNodes = withTransformations || include.contains(LineageSection.nodes);
+        boolean withColumns = include.contains(LineageSection.columns);
+
+        Set<UUID> upstreamOf = new HashSet<>();
+        Set<UUID> downstreamOf = new HashSet<>();
+        for (LineageRequestDto r : requests) {
+            CatalogAsset c = r.getEntityId() == null ? null : byKey.get(r.getEntityId().trim().toLowerCase());
+            if (c == null || r.getDirection() == null) continue;
+            (r.getDirection() == LineageDirection.upstream ? upstreamOf : downstreamOf).add(c.getCatalogId());
+        }
 
-        Map<String, List<Lineage>> grouped = new LinkedHashMap<>();
-        for (Lineage e : edges) {
+        Map<UUID, List<LineageEdgeVersion>> into = new HashMap<>();
+        Map<UUID, List<LineageEdgeVersion>> outOf = new HashMap<>();
+        if ((withNodes || withColumns) && (!upstreamOf.isEmpty() || !downstreamOf.isEmpty())) {
+            // an empty IN list is replaced by an id that matches nothing
+            Set<UUID> none = Set.of(new UUID(0, 0));
+            for (LineageEdgeVersion e : edgeVersionRepository.findCurrentTouching(
+                    upstreamOf.isEmpty() ? none : upstreamOf, downstreamOf.isEmpty() ? none : downstreamOf)) {
+                UUID to = e.getToCatalog().getCatalogId();
+                UUID from = e.getFromCatalog().getCatalogId();
+                if (upstreamOf.contains(to)) into.computeIfAbsent(to, k -> new ArrayList<>()).add(e);
+                if (downstreamOf.contains(from)) outOf.computeIfAbsent(from, k -> new ArrayList<>()).add(e);
+            }
+        }
+
+        Map<UUID, List<SchemaFieldDto>> fieldsByAsset = new HashMap<>();
+        if (include.contains(LineageSection.schema)) {
+            Set<UUID> assetIds = new HashSet<>();
+            for (CatalogAsset c : byKey.values()) {
+                if (c.getLatestAssetId() != null) assetIds.add(c.getLatestAssetId());
+            }
+            if (!assetIds.isEmpty()) {
+                for (AssetColumn c : assetColumnRepository.findByAssetAssetIdInAndRole(assetIds, Asset.Role.TARGET)) {
+                    fieldsByAsset.computeIfAbsent(c.getAsset().getAssetId(), k -> new ArrayList<>())
+                            .add(new SchemaFieldDto(c.getColumnName(), "varchar"));
+                }
+            }
+        }
+
+        List<LineageResponseDto> out = new ArrayList<>(requests.size());
+        Map<String, LineageResponseDto> done = new HashMap<>();
+        for (LineageRequestDto r : requests) {
+            if (r.getEntityId() == null || r.getEntityId().isBlank() || r.getDirection() == null) {
+                out.add(batchError(r, "invalidRequest"));
+                continue;
+            }
+            CatalogAsset center = byKey.get(r.getEntityId().trim().toLowerCase());
+            if (center == null) {
+                out.add(batchError(r, "notFound"));
+                continue;
+            }
+            LineageResponseDto seen = done.get(center.getCatalogId() + "|" + r.getDirection());
+            if (seen != null) {
+                out.add(seen);
+                continue;
+            }
+            LineageDirection direction = r.getDirection();
+            List<LineageEdgeVersion> edges = (direction == LineageDirection.upstream ? into : outOf)
+                    .getOrDefault(center.getCatalogId(), List.of());
+
+            List<LineageNodeDto> nodes = withNodes ? buildLineageNodes(edges, direction, withTransformations) : null;
+            LineageResponseDto resp = new LineageResponseDto(center.getShortName(), center.getFullName(), "table", direction, nodes);
+            if (withColumns) {
+                List<FineGrainedLineageDto> fine = buildLineageFineGrained(edges, center, direction);
+                if (!fine.isEmpty()) resp.setFineGrainedLineages(fine);
+            }
+            if (include.contains(LineageSection.schema)) {
+                resp.setSchemaMetadata(new SchemaMetadataDto(fieldsByAsset.getOrDefault(center.getLatestAssetId(), new ArrayList<>())));
+            }
+            done.put(center.getCatalogId() + "|" + direction, resp);
+            out.add(resp);
+        }
+        return out;
+    }
+
+    private static LineageResponseDto batchError(LineageRequestDto r, String error) {
+        LineageResponseDto resp = new LineageResponseDto(r.getEntityId(), null, null, r.getDirection(), null);
+        resp.setError(error);
+        return resp;
+    }
+
+    /**
+     * One node per neighbouring table, in edge order, optionally with its deduplicated transformations
+     */
+    private List<LineageNodeDto> buildLineageNodes(List<LineageEdgeVersion> edges, LineageDirection direction,
+                                                   boolean withTransformations) {
+        Map<String, List<LineageEdgeVersion>> grouped = new LinkedHashMap<>();
+        for (LineageEdgeVersion e : edges) {
             String neighborShort = (direction == LineageDirection.upstream)
-                    ? e.getFromAsset().getShortName()
-                    : e.getToAsset().getShortName();
+                    ? e.getFromCatalog().getShortName()
+                    : e.getToCatalog().getShortName();
             grouped.computeIfAbsent(neighborShort, k -> new ArrayList<>()).add(e);
         }
 
         List<LineageNodeDto> nodes = new ArrayList<>();
-        for (Map.Entry<String, List<Lineage>> entry : grouped.entrySet()) {
+        for (Map.Entry<String, List<LineageEdgeVersion>> entry : grouped.entrySet()) {
             String shortName = entry.getKey();
-            List<Lineage> groupEdges = entry.getValue();
+            List<LineageEdgeVersion> groupEdges = entry.getValue();
             // Use the first edge to get full name
             String fullName = (direction == LineageDirection.upstream)
-                    ? groupEdges.get(0).getFromAsset().getFullName()
-                    : groupEdges.get(0).getToAsset().getFullName();
+                    ? groupEdges.get(0).getFromCatalog().getFullName()
+                    : groupEdges.get(0).getToCatalog().getFullName();
 
             LineageNodeDto node = new LineageNodeDto(shortName, fullName, "table");
-
-            // Aggregate transformations per neighbor, dedup by file + line range + type
-            List<TransformationDto> transformations = new ArrayList<>();
-            Set<String> seen = new HashSet<>();
-            for (Lineage e : groupEdges) {
-                String fileId = e.getFile() != null ? e.getFile().getFilePath() : null;
-                Integer s = e.getStartLine();
-                Integer en = e.getEndLine();
-                String t = e.getTransformationType();
-                String key = (fileId == null ? "" : fileId) + "|" + (s == null ? "" : s) + "|" + (en == null ? "" : en) + "|" + (t == null ? "" : t);
-                if (seen.contains(key)) continue;
-                seen.add(key);
-                TransformationLinesDto lines = (s != null || en != null) ? new TransformationLinesDto(s, en) : null;
-                transformations.add(new TransformationDto(fileId, t, lines));
+            if (withTransformations) {
+                List<TransformationDto> transformations = dedupTransformations(groupEdges);
+                node.setTransformations(transformations.isEmpty() ? null : transformations);
             }
-            node.setTransformations(transformations.isEmpty() ? null : transformations);
             nodes.add(node);
         }
+        return nodes;
+    }
+
+    // Dedup by file + line range + type
+    private static List<TransformationDto> dedupTransformations(List<LineageEdgeVersion> edges) {
+        List<TransformationDto> transformations = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (LineageEdgeVersion e : edges) {
+            String fileId = e.getFilePath();
+            Integer s = e.getStartLine();
+            Integer en = e.getEndLine();
+            String t = e.getTransformationType();
+            String key = (fileId == null ? "" : fileId) + "|" + (s == null ? "" : s) + "|" + (en == null ? "" : en) + "|" + (t == null ? "" : t);
+            if (seen.contains(key)) continue;
+            seen.add(key);
+            TransformationLinesDto lines = (s != null || en != null) ? new TransformationLinesDto(s, en) : null;
+            transformations.add(new TransformationDto(fileId, t, lines));
+        }
+        return transformations;
+    }
 
-        // Build fine-grained (column) lineage
+    /**
+     * Fine-grained (column) lineage of the center table from its edges in one direction
+     */
+    private List<FineGrainedLineageDto> buildLineageFineGrained(List<LineageEdgeVersion> edges, CatalogAsset center,
+                                                                LineageDirection direction) {
         List<FineGrainedLineageDto> fine = new ArrayList<>();
         Set<String> fgSeen = new HashSet<>();
-        for (Lineage e : edges) {
+        for (LineageEdgeVersion e : edges) {
             if (e.getEdgeType() == null || !"column_edge".equalsIgnoreCase(e.getEdgeType())) continue;
             String fromCol = e.getFromColumn();
             String toCol = e.getToColumn();
@@ -119,15 +373,14 @@ public class LineageApiService {
             List<FieldRefDto> upstreams = new ArrayList<>();
             List<FieldRefDto> downstreams = new ArrayList<>();
 
-            String fileId = e.getFile() != null ? e.getFile().getFilePath() : null;
             Integer s = e.getStartLine();
             Integer en = e.getEndLine();
             TransformationLinesDto linesDto = (s != null || en != null) ? new TransformationLinesDto(s, en) : null;
-            TransformationDto tDto = new TransformationDto(fileId, e.getTransformationType(), linesDto);
+            TransformationDto tDto = new TransformationDto(e.getFilePath(), e.getTransformationType(), linesDto);
 
             if (direction == LineageDirection.upstream) {
                 // center is target; show upstream columns feeding center
-                FieldRefDto up = new FieldRefDto(e.getFromAsset().getShortName(), fromCol);
+                FieldRefDto up = new FieldRefDto(e.getFromCatalog().getShortName(), fromCol);
                 up.setTransformation(tDto);
                 upstreams.add(up);
                 downstreams.add(new FieldRefDto(center.getShortName(), toCol));
@@ -136,7 +389,7 @@ public class LineageApiService {
                 FieldRefDto up = new FieldRefDto(center.getShortName(), fromCol);
                 up.setTransformation(tDto);
                 upstreams.add(up);
-                downstreams.add(new FieldRefDto(e.getToAsset().getShortName(), toCol));
+                downstreams.add(new FieldRefDto(e.getToCatalog().getShortName(), toCol));
             }
 
             String key = (upstreams.isEmpty()?"":upstreams.get(0).getUrn()+"|"+upstreams.get(0).getPath())+
@@ -146,43 +399,209 @@ public class LineageApiService {
                 fine.add(new FineGrainedLineageDto(upstreams, downstreams));
             }
         }
+        return fine;
+    }
 
-        LineageResponseDto resp = new LineageResponseDto(center.getShortName(), center.getFullName(), "table", direction, nodes);
-        if (!fine.isEmpty()) resp.setFineGrainedLineages(fine);
-        return resp;
+    /**
+     * Page of the current fine-grained (column) lineage of an entity in one direction
+     */
+    public Map<String, Object> getColumnLineagePage(String entityId, LineageDirection direction, int page, int size) {
+        CatalogAsset center = resolve(entityId);
+        if (center == null) throw new RuntimeException("Entity not found: " + entityId);
+        Pageable pageable = PageRequest.of(Math.max(page, 0), size);
+        Page<LineageEdgeVersion> edges = direction == LineageDirection.upstream
+                ? edgeVersionRepository.findCurrentColumnEdgesInto(center.getCatalogId(), pageable)
+                : edgeVersionRepository.findCurrentColumnEdgesOutOf(center.getCatalogId(), pageable);
+        return pageResponse(buildLineageFineGrained(edges.getContent(), center, direction), edges, page, size);
+    }
+
+    /**
+     * Page of the current transformations between an entity and one of its neighbours; deduplicated in
+     * the query, so pages are full and the totals count transformations rather than edges
+     */
+    public Map<String, Object> getTransformationsPage(String entityId, LineageDirection direction, String neighborId,
+                                                      int page, int size) {
+        CatalogAsset center = resolve(entityId);
+        if (center == null) throw new RuntimeException("Entity not found: " + entityId);
+        CatalogAsset neighbor = resolve(neighborId);
+        if (neighbor == null) throw new RuntimeException("Entity not found: " + neighborId);
+        Pageable pageable = PageRequest.of(Math.max(page, 0), size);
+        Page<Object[]> rows = direction == LineageDirection.upstream
+                ? edgeVersionRepository.findCurrentTransformationsBetween(neighbor.getCatalogId(), center.getCatalogId(), pageable)
+                : edgeVersionRepository.findCurrentTransformationsBetween(center.getCatalogId(), neighbor.getCatalogId(), pageable);
+        List<TransformationDto> transformations = new ArrayList<>(rows.getNumberOfElements());
+        for (Object[] row : rows) {
+            Integer s = row[1] != null ? ((Number) row[1]).intValue() : null;
+            Integer en = row[2] != null ? ((Number) row[2]).intValue() : null;
+            TransformationLinesDto lines = (s != null || en != null) ? new TransformationLinesDto(s, en) : null;
+            transformations.add(new TransformationDto((String) row[0], (String) row[3], lines));
+        }
+        return pageResponse(transformations, rows, page, size);
+    }
+
+    /**
+     * Page of the schema fields (target columns of the latest snapshot) of an entity
+     */
+    public Map<String, Object> getSchemaPage(String entityId, int page, int size) {
+        CatalogAsset center = resolve(entityId);
+        if (center == null) throw new RuntimeException("Entity not found: " + entityId);
+        if (center.getLatestAssetId() == null) return pageResponse(List.of(), Page.empty(), page, size);
+        Page<AssetColumn> columns = assetColumnRepository.findByAssetAssetIdAndRoleOrderByColumnName(
+                center.getLatestAssetId(), Asset.Role.TARGET, PageRequest.of(Math.max(page, 0), size));
+        List<SchemaFieldDto> fields = new ArrayList<>(columns.getNumberOfElements());
+        for (AssetColumn c : columns) fields.add(new SchemaFieldDto(c.getColumnName(), "varchar"));
+        return pageResponse(fields, columns, page, size);
+    }
+
+    private static Map<String, Object> pageResponse(List<?> items, Page<?> source, int page, int size) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", items);
+        response.put("totalElements", source.getTotalElements());
+        response.put("totalPages", source.getTotalPages());
+        response.put("currentPage", page);
+        response.put("pageSize", size);
+        return response;
+    }
+
+    private List<SchemaFieldDto> targetFields(CatalogAsset catalogAsset) {
+        if (catalogAsset.getLatestAssetId() == null) return new ArrayList<>();
+        List<SchemaFieldDto> fields = new ArrayList<>();
+        for (AssetColumn c : assetColumnRepository.findByAssetAssetIdAndRole(catalogAsset.getLatestAssetId(), Asset.Role.TARGET)) {
+            fields.add(new SchemaFieldDto(c.getColumnName(), "varchar"));
+        }
+        return fields;
     }
 
     /**
      * Get entity details from normalized schema
      */
     public EntityDto getEntity(String entityId) {
-        logger.info("Getting entity details for: {}", entityId);
-        Asset asset = assetRepository.findTopByShortNameIgnoreCaseOrderByCreatedAtDesc(entityId);
-        if (asset == null) throw new RuntimeException("Entity not found: " + entityId);
+        return getEntity(entityId, ENTITY_SECTIONS);
+    }
 
-        int upstream = lineageRepository.findByToAssetAssetId(asset.getAssetId()).size();
-        int downstream = lineageRepository.findByFromAssetAssetId(asset.getAssetId()).size();
+    /**
+     * Get entity details with only the requested sections (schema, columns); counts and scores are always set
+     */
+    public EntityDto getEntity(String entityId, Set<LineageSection> include) {
+        logger.info("Getting entity details for: {} (include {})", entityId, include);
+        CatalogAsset catalogAsset = resolve(entityId);
+        if (catalogAsset == null) throw new RuntimeException("Entity not found: " + entityId);
+        return buildEntities(List.of(catalogAsset), include).get(0);
+    }
 
-        int colCount = 0;
-        List<SchemaFieldDto> fields = new ArrayList<>();
-        try {
-            // Only retrieve TARGET columns for display, but keep SOURCE columns in database
-            var cols = assetColumnRepository.findByAssetAssetIdAndRole(asset.getAssetId(), Asset.Role.TARGET);
-            colCount = cols.size();
-            for (var c : cols) fields.add(new SchemaFieldDto(c.getColumnName(), "varchar"));
-        } catch (Exception ignore) {}
+    /**
+     * Get multiple entity details.
+     * Resolves catalog entries, target columns and column edges for the whole id set
+     * with a fixed number of set-based queries; unknown ids are skipped.
+     */
+    public List<EntityDto> getBulkEntities(List<String> entityIds) {
+        logger.info("Getting bulk entity details for {} entities", entityIds == null ? 0 : entityIds.size());
+        if (entityIds == null || entityIds.isEmpty()) return List.of();
+
+        Set<String> keys = new LinkedHashSet<>();
+        for (String id : entityIds) {
+            if (id != null && !id.isBlank()) keys.add(id.toLowerCase());
+        }
+        if (keys.isEmpty()) return List.of();
+
+        List<CatalogAsset> catalogAssets = catalogAssetRepository.findLatestByShortKeys(keys);
+        Map<String, EntityDto> byKey = new HashMap<>();
+        List<EntityDto> built = buildEntities(catalogAssets, ENTITY_SECTIONS);
+        for (int i = 0; i < catalogAssets.size(); i++) {
+            byKey.put(catalogAssets.get(i).getShortKey(), built.get(i));
+        }
 
-        // Build fine-grained (column) lineage for this entity (both directions)
+        // Preserve the caller's order (and duplicates), as the per-id loop did
+        List<EntityDto> out = new ArrayList<>();
+        for (String id : entityIds) {
+            EntityDto dto = id == null ? null : byKey.get(id.toLowerCase());
+            if (dto != null) out.add(dto);
+        }
+        return out;
+    }
+
+    private CatalogAsset resolve(String entityId) {
+        if (entityId == null || entityId.isBlank()) return null;
+        return catalogAssetRepository.findFirstByShortKeyOrderByLastSeenAtDesc(entityId.trim().toLowerCase());
+    }
+
+    /**
+     * Build entity DTOs for the given catalog entries (result is index-aligned with the input).
+     * Degree counts come precomputed from the catalog; columns are those of each table's latest snapshot,
+     * column edges the table's current edge versions. Both are only queried when the schema / columns
+     * sections are requested.
+     */
+    private List<EntityDto> buildEntities(List<CatalogAsset> catalogAssets, Set<LineageSection> include) {
+        if (catalogAssets.isEmpty()) return List.of();
+        Set<UUID> assetIds = new HashSet<>();
+        for (CatalogAsset c : catalogAssets) {
+            if (c.getLatestAssetId() != null) assetIds.add(c.getLatestAssetId());
+        }
+
+        // Only retrieve TARGET columns for display, but keep SOURCE columns in database
+        Map<UUID, List<SchemaFieldDto>> fieldsByAsset = new HashMap<>();
+        Map<UUID, List<LineageEdgeVersion>> edgesByCatalog = new HashMap<>();
+        boolean withSchema = include.contains(LineageSection.schema);
+        boolean withColumns = include.contains(LineageSection.columns);
+        if (!assetIds.isEmpty() && withSchema) {
+            for (AssetColumn c : assetColumnRepository.findByAssetAssetIdInAndRole(assetIds, Asset.Role.TARGET)) {
+                fieldsByAsset.computeIfAbsent(c.getAsset().getAssetId(), k -> new ArrayList<>())
+                        .add(new SchemaFieldDto(c.getColumnName(), "varchar"));
+            }
+        }
+        if (withColumns) {
+            // Column edges touching any table of the set; an edge between two requested tables belongs to both
+            Set<UUID> catalogIds = new HashSet<>();
+            for (CatalogAsset c : catalogAssets) catalogIds.add(c.getCatalogId());
+            for (LineageEdgeVersion e : edgeVersionRepository.findCurrentColumnEdgesTouching(catalogIds)) {
+                UUID toId = e.getToCatalog().getCatalogId();
+                UUID fromId = e.getFromCatalog().getCatalogId();
+                if (catalogIds.contains(toId)) edgesByCatalog.computeIfAbsent(toId, k -> new ArrayList<>()).add(e);
+                if (catalogIds.contains(fromId) && !fromId.equals(toId)) {
+                    edgesByCatalog.computeIfAbsent(fromId, k -> new ArrayList<>()).add(e);
+                }
+            }
+        }
+
+        List<EntityDto> out = new ArrayList<>(catalogAssets.size());
+        for (CatalogAsset catalogAsset : catalogAssets) {
+            UUID assetId = catalogAsset.getLatestAssetId();
+            int upstream = catalogAsset.getUpstreamCount();
+            int downstream = catalogAsset.getDownstreamCount();
+            List<SchemaFieldDto> fields = fieldsByAsset.getOrDefault(assetId, new ArrayList<>());
+            List<FineGrainedLineageDto> fine = withColumns
+                    ? buildEntityFineGrained(catalogAsset.getCatalogId(), catalogAsset.getShortName(),
+                                             edgesByCatalog.getOrDefault(catalogAsset.getCatalogId(), List.of()))
+                    : List.of();
+
+            EntityDto dto = new EntityDto();
+            dto.setEntityId(catalogAsset.getShortName());
+            dto.setEntityName(catalogAsset.getFullName());
+            dto.setEntityType("table");
+            if (withSchema) dto.setColumnCount(fields.size());
+            dto.setSource(catalogAsset.getSchemaName());
+            dto.setUpstreamCount(upstream);
+            dto.setDownstreamCount(downstream);
+            dto.setHasUpstream(upstream > 0);
+            dto.setHasDownstream(downstream > 0);
+            if (withSchema) dto.setSchemaMetadata(new SchemaMetadataDto(fields));
+            dto.setCriticality(catalogAsset.getCriticality());
+            dto.setDownstreamClosure(catalogAsset.getDownstreamClosure());
+            dto.setFanIn(catalogAsset.getFanIn());
+            dto.setFanOut(catalogAsset.getFanOut());
+            if (!fine.isEmpty()) dto.setFineGrainedLineages(fine);
+            out.add(dto);
+        }
+        return out;
+    }
+
+    /**
+     * Build fine-grained (column) lineage for an entity (both directions) from its column edges
+     */
+    private List<FineGrainedLineageDto> buildEntityFineGrained(UUID catalogId, String shortName, List<LineageEdgeVersion> edges) {
         List<FineGrainedLineageDto> fine = new ArrayList<>();
         Set<String> fgSeen = new HashSet<>();
-        List<Lineage> allEdges = new ArrayList<>();
-        try {
-            allEdges.addAll(lineageRepository.findByToAssetAssetId(asset.getAssetId()));
-            allEdges.addAll(lineageRepository.findByFromAssetAssetId(asset.getAssetId()));
-        } catch (Exception ignore) {}
-
-        for (Lineage e : allEdges) {
-            if (e.getEdgeType() == null || !"column_edge".equalsIgnoreCase(e.getEdgeType())) continue;
+        for (LineageEdgeVersion e : edges) {
             String fromCol = e.getFromColumn();
             String toCol = e.getToColumn();
             if ((fromCol == null || fromCol.isBlank()) && (toCol == null || toCol.isBlank())) continue;
@@ -190,24 +609,24 @@ public class LineageApiService {
             List<FieldRefDto> upstreams = new ArrayList<>();
             List<FieldRefDto> downstreams = new ArrayList<>();
 
-            String fileId = e.getFile() != null ? e.getFile().getFilePath() : null;
+            String fileId = e.getFilePath();
             Integer s = e.getStartLine();
             Integer en = e.getEndLine();
             TransformationLinesDto linesDto = (s != null || en != null) ? new TransformationLinesDto(s, en) : null;
             TransformationDto tDto = new TransformationDto(fileId, e.getTransformationType(), linesDto);
 
-            if (e.getToAsset() != null && e.getToAsset().getAssetId().equals(asset.getAssetId())) {
-                // upstream into this asset
-                FieldRefDto up = new FieldRefDto(e.getFromAsset().getShortName(), fromCol);
+            if (e.getToCatalog().getCatalogId().equals(catalogId)) {
+                // upstream into this table
+                FieldRefDto up = new FieldRefDto(e.getFromCatalog().getShortName(), fromCol);
                 up.setTransformation(tDto);
                 upstreams.add(up);
-                downstreams.add(new FieldRefDto(asset.getShortName(), toCol));
+                downstreams.add(new FieldRefDto(shortName, toCol));
             } else {
-                // downstream from this asset
-                FieldRefDto up = new FieldRefDto(asset.getShortName(), fromCol);
+                // downstream from this table
+                FieldRefDto up = new FieldRefDto(shortName, fromCol);
                 up.setTransformation(tDto);
                 upstreams.add(up);
-                downstreams.add(new FieldRefDto(e.getToAsset().getShortName(), toCol));
+                downstreams.add(new FieldRefDto(e.getToCatalog().getShortName(), toCol));
             }
 
             String key = (upstreams.isEmpty()?"":upstreams.get(0).getUrn()+"|"+upstreams.get(0).getPath())+
@@ -217,52 +636,43 @@ public class LineageApiService {
                 fine.add(new FineGrainedLineageDto(upstreams, downstreams));
             }
         }
+        return fine;
+    }
 
-        EntityDto dto = new EntityDto();
-        dto.setEntityId(asset.getShortName());
-        dto.setEntityName(asset.getFullName());
-        dto.setEntityType("table");
-        dto.setColumnCount(colCount);
-        dto.setSource(asset.getSchemaName());
-        dto.setUpstreamCount(upstream);
-        dto.setDownstreamCount(downstream);
-        dto.setHasUpstream(upstream > 0);
-        dto.setHasDownstream(downstream > 0);
-        dto.setSchemaMetadata(new SchemaMetadataDto(fields));
-        if (!fine.isEmpty()) dto.setFineGrainedLineages(fine);
-        return dto;
+    /**
+     * Search entities by name or id (case-insensitive, contains)
+     */
+    public List<SearchResultItem> searchEntities(String query) {
+        return searchEntities(query, DEFAULT_SEARCH_LIMIT);
     }
 
     /**
-     * Get multiple entity details
+     * Search entities by name or id (case-insensitive, contains), ranked, one result per catalog table.
+     * Filtering, ranking and the limit are pushed into the trigram-indexed catalog query.
      */
-    public List<EntityDto> getBulkEntities(List<String> entityIds) {
-        logger.info("Getting bulk entity details for {} entities", entityIds == null ? 0 : entityIds.size());
-        if (entityIds == null || entityIds.isEmpty()) return List.of();
-        List<EntityDto> out = new ArrayList<>();
-        for (String id : entityIds) {
-            try { out.add(getEntity(id)); } catch (Exception ignore) {}
-        }
-        return out;
+    public List<SearchResultItem> searchEntities(String query, int limit) {
+        return searchEntities(query, limit, false);
     }
 
     /**
-     * Search entities by name or id (case-insensitive, contains)
+     * Ranked search; with byCriticality the most critical matches come first and match quality
+     * only breaks ties
      */
-    public List<SearchResultItem> searchEntities(String query) {
+    public List<SearchResultItem> searchEntities(String query, int limit, boolean byCriticality) {
         String q = query == null ? "" : query.trim().toLowerCase();
         if (q.isEmpty()) {
             return Collections.emptyList();
         }
-        // Use new normalized schema
-        return assetRepository.findAll().stream()
-            .filter(a -> {
-                String id = Optional.ofNullable(a.getShortName()).orElse("").toLowerCase();
-                String name = Optional.ofNullable(a.getFullName()).orElse("").toLowerCase();
-                return id.contains(q) || name.contains(q);
+        int capped = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        String escaped = AssetRepository.escapeLike(q);
+        List<Object[]> rows = catalogAssetRepository.searchByName(q, escaped + "%", "%" + escaped + "%",
+                SEARCH_CANDIDATES, capped, byCriticality);
+        return rows.stream()
+            .map(r -> {
+                SearchResultItem item = new SearchResultItem((String) r[0], (String) r[1], "table", null);
+                item.setCriticality(r[2] != null ? ((Number) r[2]).doubleValue() : null);
+                return item;
             })
-            .limit(50)
-            .map(a -> new SearchResultItem(a.getShortName(), a.getFullName(), "table", null))
             .collect(Collectors.toList());
     }
 
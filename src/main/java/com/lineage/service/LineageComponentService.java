@@ -0,0 +1,274 @@
+package com.lineage.service;
+
+import com.lineage.dto.GraphNodeDto;
+import com.lineage.dto.LineageCycleDto;
+import com.lineage.dto.PathEdgeDto;
+import com.lineage.dto.TransformationDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * LineageComponentService finds the cycles in the lineage graph (recursive macros, self-referencing
+ * incremental models) with Tarjan's strongly connected components algorithm.
+ *
+ * Recomputed in memory whenever a new graph snapshot is loaded. Every table gets a component, identified
+ * by its smallest member catalog id (stable while the component does not change), and the condensed
+ * graph - one edge per pair of connected components - is built alongside. Tarjan numbers the components
+ * in reverse topological order, so the condensed DAG can be swept sinks-first in one pass without visited
+ * sets; GraphAnalyticsService computes the downstream closures that way. Components with more than one
+ * table, or a table reading from itself, are cycles.
+ */
+@Service
+public class LineageComponentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LineageComponentService.class);
+
+    private static final int MAX_CYCLES = 500;
+
+    @Autowired
+    private LineageGraphService lineageGraphService;
+
+    private volatile Components latest;
+
+    @EventListener
+    public void onGraphLoaded(LineageGraphLoadedEvent event) {
+        LineageGraph g = event.graph();
+        try {
+            long started = System.currentTimeMillis();
+            Components c = compute(g);
+            latest = c;
+            logger.info("Lineage graph v{}: {} components, {} cycles, {} condensed edges in {} ms",
+                    g.version, c.count, c.cycles.size(), c.dagFrom.length, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("Failed to compute lineage components: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Cycles of the current graph, largest first, each with one concrete closed path and the
+     * transformations along it
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> cycles(int limit) {
+        LineageGraph g = lineageGraphService.graph();
+        Components c = components(g);
+
+        int capped = Math.max(1, Math.min(limit, MAX_CYCLES));
+        List<Integer> ordered = new ArrayList<>(c.cycles);
+        ordered.sort(Comparator.comparingInt((Integer k) -> -c.size(k)).thenComparingInt(k -> k));
+        List<Integer> page = ordered.subList(0, Math.min(capped, ordered.size()));
+
+        List<int[]> closedPaths = new ArrayList<>(page.size());
+        List<int[]> hops = new ArrayList<>();
+        for (int k : page) {
+            int[] closed = closedPath(g, c, k);
+            closedPaths.add(closed);
+            for (int i = 0; i + 1 < closed.length; i++) hops.add(new int[]{closed[i], closed[i + 1]});
+        }
+        Map<String, List<TransformationDto>> byPair = lineageGraphService.transformationsBetween(g, hops);
+
+        List<LineageCycleDto> cycles = new ArrayList<>(page.size());
+        for (int i = 0; i < page.size(); i++) {
+            int k = page.get(i);
+            LineageCycleDto dto = new LineageCycleDto();
+            dto.setComponentId(c.representative[k]);
+            dto.setSize(c.size(k));
+            dto.setInternalEdges(c.internalEdges[k]);
+            List<GraphNodeDto> tables = new ArrayList<>(c.size(k));
+            for (int m = c.memberOffsets[k]; m < c.memberOffsets[k + 1]; m++) {
+                tables.add(LineageGraphService.node(g, c.members[m]));
+            }
+            dto.setTables(tables);
+            int[] closed = closedPaths.get(i);
+            List<PathEdgeDto> edges = new ArrayList<>(closed.length - 1);
+            for (int h = 0; h + 1 < closed.length; h++) {
+                int u = closed[h], v = closed[h + 1];
+                edges.add(new PathEdgeDto(g.shortNames[u], g.shortNames[v],
+                        byPair.getOrDefault(LineageGraphService.pairKey(g, u, v), List.of())));
+            }
+            dto.setCycle(edges);
+            cycles.add(dto);
+        }
+
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("graphVersion", g.version);
+        resp.put("componentCount", c.count);
+        resp.put("cycleCount", c.cycles.size());
+        resp.put("cycles", cycles);
+        return resp;
+    }
+
+    /**
+     * Components of the given graph snapshot, computed once per snapshot
+     */
+    Components components(LineageGraph g) {
+        Components current = latest;
+        if (current != null && current.graph == g) return current;
+        Components c = compute(g);
+        latest = c;
+        return c;
+    }
+
+    /**
+     * Iterative Tarjan (explicit call stack, so deep chains cannot overflow the thread stack).
+     * Components come out in reverse topological order of the condensed graph.
+     */
+    Components compute(LineageGraph g) {
+        int n = g.nodeCount;
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] comp = new int[n];
+        int[] nextEdge = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] callStack = new int[n];
+        Arrays.fill(index, -1);
+        int counter = 0, sp = 0, count = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) continue;
+            int csp = 0;
+            index[root] = low[root] = counter++;
+            stack[sp++] = root;
+            onStack[root] = true;
+            nextEdge[root] = g.outOffsets[root];
+            callStack[csp++] = root;
+            while (csp > 0) {
+                int u = callStack[csp - 1];
+                if (nextEdge[u] < g.outOffsets[u + 1]) {
+                    int v = g.outTargets[nextEdge[u]++];
+                    if (index[v] < 0) {
+                        index[v] = low[v] = counter++;
+                        stack[sp++] = v;
+                        onStack[v] = true;
+                        nextEdge[v] = g.outOffsets[v];
+                        callStack[csp++] = v;
+                    } else if (onStack[v]) {
+                        low[u] = Math.min(low[u], index[v]);
+                    }
+                } else {
+                    csp--;
+                    if (csp > 0) {
+                        int parent = callStack[csp - 1];
+                        low[parent] = Math.min(low[parent], low[u]);
+                    }
+                    if (low[u] == index[u]) {
+                        int w;
+                        do {
+                            w = stack[--sp];
+                            onStack[w] = false;
+                            comp[w] = count;
+                        } while (w != u);
+                        count++;
+                    }
+                }
+            }
+        }
+        return new Components(g, comp, count);
+    }
+
+    /**
+     * One closed path through component k as a node sequence starting and ending at the same table:
+     * BFS inside the component from its first member until a table with an edge back to it is reached
+     */
+    private static int[] closedPath(LineageGraph g, Components c, int k) {
+        int start = c.members[c.memberOffsets[k]];
+        if (g.edgeIndex(start, start) >= 0) return new int[]{start, start};
+        Map<Integer, Integer> parent = new HashMap<>();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        parent.put(start, -1);
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (int e = g.outOffsets[u]; e < g.outOffsets[u + 1]; e++) {
+                int v = g.outTargets[e];
+                if (c.comp[v] != k) continue;
+                if (v == start) {
+                    List<Integer> path = new ArrayList<>();
+                    for (int x = u; x != -1; x = parent.get(x)) path.add(x);
+                    Collections.reverse(path);
+                    int[] closed = new int[path.size() + 1];
+                    for (int i = 0; i < path.size(); i++) closed[i] = path.get(i);
+                    closed[path.size()] = start;
+                    return closed;
+                }
+                if (parent.containsKey(v)) continue;
+                parent.put(v, u);
+                queue.add(v);
+            }
+        }
+        // unreachable for a real component of size > 1
+        return new int[]{start};
+    }
+
+    /**
+     * SCC result for one graph snapshot: comp[u] is the component of node u, members of component k
+     * are members[memberOffsets[k] .. memberOffsets[k + 1])
+     */
+    static final class Components {
+        final LineageGraph graph;
+        final int[] comp;
+        final int count;
+        final int[] memberOffsets;
+        final int[] members;
+        final UUID[] representative;
+        final int[] internalEdges;
+        final List<Integer> cycles = new ArrayList<>();
+        final int[] dagFrom;
+        final int[] dagTo;
+        final int[] dagCount;
+
+        Components(LineageGraph g, int[] comp, int count) {
+            this.graph = g;
+            this.comp = comp;
+            this.count = count;
+            int n = g.nodeCount;
+
+            memberOffsets = new int[count + 1];
+            for (int u = 0; u < n; u++) memberOffsets[comp[u] + 1]++;
+            for (int k = 0; k < count; k++) memberOffsets[k + 1] += memberOffsets[k];
+            members = new int[n];
+            int[] cursor = Arrays.copyOf(memberOffsets, count);
+            for (int u = 0; u < n; u++) members[cursor[comp[u]]++] = u;
+
+            representative = new UUID[count];
+            for (int u = 0; u < n; u++) {
+                UUID id = g.catalogIds[u];
+                int k = comp[u];
+                if (representative[k] == null || id.compareTo(representative[k]) < 0) representative[k] = id;
+            }
+
+            internalEdges = new int[count];
+            Map<Long, Integer> dag = new HashMap<>();
+            for (int u = 0; u < n; u++) {
+                for (int e = g.outOffsets[u]; e < g.outOffsets[u + 1]; e++) {
+                    int v = g.outTargets[e];
+                    if (comp[u] == comp[v]) internalEdges[comp[u]]++;
+                    else dag.merge(((long) comp[u] << 32) | comp[v], 1, Integer::sum);
+                }
+            }
+            for (int k = 0; k < count; k++) {
+                // a single table is only a cycle if it reads from itself
+                if (size(k) > 1 || internalEdges[k] > 0) cycles.add(k);
+            }
+            dagFrom = new int[dag.size()];
+            dagTo = new int[dag.size()];
+            dagCount = new int[dag.size()];
+            int i = 0;
+            for (Map.Entry<Long, Integer> e : dag.entrySet()) {
+                dagFrom[i] = (int) (e.getKey() >>> 32);
+                dagTo[i] = (int) (long) e.getKey();
+                dagCount[i] = e.getValue();
+                i++;
+            }
+        }
+
+        int size(int k) { return memberOffsets[k + 1] - memberOffsets[k]; }
+    }
+}
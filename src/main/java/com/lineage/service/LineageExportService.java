@@ -0,0 +1,347 @@
+package com.lineage.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lineage.entity.ExtractionRun;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.*;
+
+/**
+ * LineageExportService streams the tables, their columns and the lineage edges of the temporal edge store.
+ *
+ * Rows are read through a server-side cursor with a fixed fetch size and written to the output as
+ * they arrive, so memory stays constant regardless of graph size. The tables (with their columns) come
+ * first, then the edges. Two formats are supported:
+ * - ndjson: one record per line, tagged by "kind": an "asset" line per table followed by a "column"
+ *   line per column, then one "edge" line per edge; LineageImportService reads this format back
+ * - openlineage: one OpenLineage DatasetEvent per table with the schema facet, then one RunEvent per
+ *   (file, output table) with the columnLineage facet; rows are ordered by those keys so only one
+ *   group is held at a time
+ */
+@Service
+public class LineageExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LineageExportService.class);
+
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_OPENLINEAGE = "openlineage";
+
+    private static final int FETCH_SIZE = 2000;
+    private static final String PRODUCER = "https://github.com/SAM007-n/qupid-lineage-backend";
+    private static final String RUN_EVENT_SCHEMA = "https://openlineage.io/spec/2-0-2/OpenLineage.json#/$defs/RunEvent";
+    private static final String DATASET_EVENT_SCHEMA = "https://openlineage.io/spec/2-0-2/OpenLineage.json#/$defs/DatasetEvent";
+    private static final String COLUMN_LINEAGE_SCHEMA = "https://openlineage.io/spec/facets/1-0-1/ColumnLineageDatasetFacet.json";
+    private static final String SCHEMA_FACET_SCHEMA = "https://openlineage.io/spec/facets/1-1-1/SchemaDatasetFacet.json";
+
+    // Tables with their columns (one row per column, or one row with null column), ordered by table
+    private static final String SELECT_CURRENT_ASSETS =
+            "SELECT DISTINCT c.qualified_name, c.short_name, c.full_name, c.schema_name, ac.column_name, ac.role " +
+            "FROM catalog_assets c " +
+            "LEFT JOIN asset_columns ac ON ac.asset_id = c.latest_asset_id " +
+            "ORDER BY c.qualified_name, ac.column_name, ac.role";
+    private static final String SELECT_RUN_ASSETS =
+            "SELECT DISTINCT c.qualified_name, c.short_name, c.full_name, c.schema_name, ac.column_name, ac.role " +
+            "FROM assets a " +
+            "JOIN catalog_assets c ON c.catalog_id = a.catalog_id " +
+            "LEFT JOIN asset_columns ac ON ac.asset_id = a.asset_id " +
+            "WHERE a.run_id = ? " +
+            "ORDER BY c.qualified_name, ac.column_name, ac.role";
+
+    private static final String SELECT_EDGES =
+            "SELECT v.edge_fingerprint, fc.short_name, fc.full_name, tc.short_name, tc.full_name, v.from_column, v.to_column, " +
+            "       v.edge_type, v.transformation_type, v.file_path, v.start_line, v.end_line, v.repository_url, v.branch, " +
+            "       v.valid_from_run_id, v.to_catalog_id, v.valid_from_at " +
+            "FROM lineage_edge_versions v " +
+            "JOIN catalog_assets fc ON fc.catalog_id = v.from_catalog_id " +
+            "JOIN catalog_assets tc ON tc.catalog_id = v.to_catalog_id ";
+
+    private static final String WHERE_CURRENT = "WHERE v.valid_to_at IS NULL ";
+    private static final String WHERE_AS_OF_RUN =
+            "WHERE v.repository_url = ? AND v.branch = ? AND v.valid_from_at <= ? AND (v.valid_to_at IS NULL OR v.valid_to_at > ?) ";
+    private static final String ORDER_BY_JOB = "ORDER BY v.repository_url, v.branch, v.file_path, v.to_catalog_id";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.export.openlineage.namespace:qupid}")
+    private String datasetNamespace;
+
+    /**
+     * Stream the current lineage (run == null) or the lineage as of a completed run
+     */
+    @Transactional(readOnly = true)
+    public void export(String format, ExtractionRun run, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        boolean openLineage = FORMAT_OPENLINEAGE.equals(format);
+        String sql = SELECT_EDGES + (run == null ? WHERE_CURRENT : WHERE_AS_OF_RUN) + (openLineage ? ORDER_BY_JOB : "");
+        Object[] args = run == null ? new Object[0] : new Object[]{run.getRepositoryUrl(), run.getBranch(),
+                Timestamp.valueOf(TemporalLineageService.foldedAt(run)), Timestamp.valueOf(TemporalLineageService.foldedAt(run))};
+
+        // Runs inside the read-only transaction, so the driver uses a cursor and honours the fetch size
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(FETCH_SIZE);
+        long[] rows = {0};
+        long[] tables = {0};
+        try {
+            String assetSql = run == null ? SELECT_CURRENT_ASSETS : SELECT_RUN_ASSETS;
+            Object[] assetArgs = run == null ? new Object[0] : new Object[]{run.getRunId()};
+            if (openLineage) {
+                DatasetWriter writer = new DatasetWriter(out);
+                jdbcTemplate.query(assetSql, (RowCallbackHandler) rs -> {
+                    if (writer.accept(rs)) tables[0]++;
+                }, assetArgs);
+                writer.flushGroup();
+            } else {
+                String[] table = {null};
+                jdbcTemplate.query(assetSql, (RowCallbackHandler) rs -> {
+                    if (!rs.getString(1).equals(table[0])) {
+                        table[0] = rs.getString(1);
+                        writeLine(out, assetRow(rs));
+                        tables[0]++;
+                    }
+                    if (rs.getString(5) != null) writeLine(out, columnRow(rs));
+                }, assetArgs);
+            }
+
+            if (openLineage) {
+                OpenLineageWriter writer = new OpenLineageWriter(out);
+                jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                    writer.accept(rs);
+                    rows[0]++;
+                }, args);
+                writer.flushGroup();
+            } else {
+                jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                    writeLine(out, edgeRow(rs));
+                    rows[0]++;
+                }, args);
+            }
+        } catch (UncheckedIOException e) {
+            // client went away; nothing left to write to
+            throw e.getCause();
+        }
+        out.flush();
+        logger.info("Exported {} tables and {} edges as {} in {} ms", tables[0], rows[0], format,
+                System.currentTimeMillis() - started);
+    }
+
+    private Map<String, Object> assetRow(ResultSet rs) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("kind", "asset");
+        row.put("entity", rs.getString(2));
+        row.put("name", rs.getString(3));
+        row.put("schema", rs.getString(4));
+        return row;
+    }
+
+    private Map<String, Object> columnRow(ResultSet rs) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("kind", "column");
+        row.put("entity", rs.getString(2));
+        row.put("name", rs.getString(3));
+        row.put("column", rs.getString(5));
+        row.put("role", rs.getString(6));
+        return row;
+    }
+
+    private Map<String, Object> edgeRow(ResultSet rs) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("kind", "edge");
+        row.put("fingerprint", rs.getString(1));
+        row.put("fromEntity", rs.getString(2));
+        row.put("fromName", rs.getString(3));
+        row.put("toEntity", rs.getString(4));
+        row.put("toName", rs.getString(5));
+        row.put("fromColumn", rs.getString(6));
+        row.put("toColumn", rs.getString(7));
+        row.put("edgeType", rs.getString(8));
+        row.put("transformationType", rs.getString(9));
+        row.put("filePath", rs.getString(10));
+        row.put("startLine", rs.getObject(11));
+        row.put("endLine", rs.getObject(12));
+        row.put("repositoryUrl", rs.getString(13));
+        row.put("branch", rs.getString(14));
+        row.put("validFromRunId", rs.getString(15));
+        Timestamp validFromAt = rs.getTimestamp(17);
+        row.put("validFromAt", validFromAt != null ? validFromAt.toLocalDateTime().toString() : null);
+        return row;
+    }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Folds consecutive rows of one table into a DatasetEvent carrying its columns in the schema facet
+     */
+    private final class DatasetWriter {
+        private final OutputStream out;
+        private final String eventTime = OffsetDateTime.now().toString();
+        private String qualifiedName;
+        private String name;
+        private final Set<String> fields = new LinkedHashSet<>();
+
+        DatasetWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        /**
+         * Add a row; true when it starts a new table
+         */
+        boolean accept(ResultSet rs) throws SQLException {
+            boolean next = !rs.getString(1).equals(qualifiedName);
+            if (next) {
+                flushGroup();
+                qualifiedName = rs.getString(1);
+                name = rs.getString(3);
+            }
+            if (rs.getString(5) != null) fields.add(rs.getString(5));
+            return next;
+        }
+
+        void flushGroup() {
+            if (qualifiedName == null) return;
+            Map<String, Object> dataset = new LinkedHashMap<>();
+            dataset.put("namespace", datasetNamespace);
+            dataset.put("name", name);
+            if (!fields.isEmpty()) {
+                List<Map<String, Object>> schemaFields = new ArrayList<>();
+                for (String field : fields) schemaFields.add(Map.of("name", field));
+                Map<String, Object> facet = new LinkedHashMap<>();
+                facet.put("_producer", PRODUCER);
+                facet.put("_schemaURL", SCHEMA_FACET_SCHEMA);
+                facet.put("fields", schemaFields);
+                dataset.put("facets", Map.of("schema", facet));
+            }
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("eventTime", eventTime);
+            event.put("producer", PRODUCER);
+            event.put("schemaURL", DATASET_EVENT_SCHEMA);
+            event.put("dataset", dataset);
+            writeLine(out, event);
+
+            qualifiedName = null;
+            fields.clear();
+        }
+    }
+
+    /**
+     * Folds consecutive rows of one (repository, branch, file, output table) into a RunEvent
+     */
+    private final class OpenLineageWriter {
+        private final OutputStream out;
+        private final String eventTime = OffsetDateTime.now().toString();
+        private String groupKey;
+        private String repositoryUrl;
+        private String filePath;
+        private String runId;
+        private String outputName;
+        private final Set<String> inputs = new LinkedHashSet<>();
+        private final Set<String> transformationTypes = new LinkedHashSet<>();
+        private final Map<String, Set<List<String>>> columnInputs = new LinkedHashMap<>();
+
+        OpenLineageWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        void accept(ResultSet rs) throws SQLException {
+            String key = rs.getString(13) + "|" + rs.getString(14) + "|" + rs.getString(10) + "|" + rs.getString(16);
+            if (!key.equals(groupKey)) {
+                flushGroup();
+                groupKey = key;
+                repositoryUrl = rs.getString(13);
+                filePath = rs.getString(10);
+                runId = rs.getString(15);
+                outputName = rs.getString(5);
+            }
+            String inputName = rs.getString(3);
+            inputs.add(inputName);
+            if (rs.getString(9) != null) transformationTypes.add(rs.getString(9));
+            String toColumn = rs.getString(7);
+            String fromColumn = rs.getString(6);
+            if ("column_edge".equalsIgnoreCase(rs.getString(8)) && toColumn != null && !toColumn.isBlank()) {
+                Set<List<String>> fields = columnInputs.computeIfAbsent(toColumn, k -> new LinkedHashSet<>());
+                if (fromColumn != null && !fromColumn.isBlank()) fields.add(List.of(inputName, fromColumn));
+            }
+        }
+
+        void flushGroup() {
+            if (groupKey == null) return;
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("eventType", "COMPLETE");
+            event.put("eventTime", eventTime);
+            event.put("producer", PRODUCER);
+            event.put("schemaURL", RUN_EVENT_SCHEMA);
+            event.put("run", Map.of("runId", runId));
+            Map<String, Object> job = new LinkedHashMap<>();
+            job.put("namespace", repositoryUrl);
+            job.put("name", filePath != null ? filePath : outputName);
+            event.put("job", job);
+
+            List<Map<String, Object>> inputList = new ArrayList<>();
+            for (String name : inputs) inputList.add(dataset(name));
+            event.put("inputs", inputList);
+
+            Map<String, Object> output = dataset(outputName);
+            if (!columnInputs.isEmpty()) {
+                Map<String, Object> fields = new LinkedHashMap<>();
+                for (Map.Entry<String, Set<List<String>>> e : columnInputs.entrySet()) {
+                    List<Map<String, Object>> inputFields = new ArrayList<>();
+                    for (List<String> in : e.getValue()) {
+                        Map<String, Object> field = new LinkedHashMap<>();
+                        field.put("namespace", datasetNamespace);
+                        field.put("name", in.get(0));
+                        field.put("field", in.get(1));
+                        inputFields.add(field);
+                    }
+                    Map<String, Object> lineage = new LinkedHashMap<>();
+                    lineage.put("inputFields", inputFields);
+                    if (!transformationTypes.isEmpty()) lineage.put("transformationDescription", String.join(",", transformationTypes));
+                    fields.put(e.getKey(), lineage);
+                }
+                Map<String, Object> facet = new LinkedHashMap<>();
+                facet.put("_producer", PRODUCER);
+                facet.put("_schemaURL", COLUMN_LINEAGE_SCHEMA);
+                facet.put("fields", fields);
+                output.put("facets", Map.of("columnLineage", facet));
+            }
+            event.put("outputs", List.of(output));
+            writeLine(out, event);
+
+            groupKey = null;
+            inputs.clear();
+            transformationTypes.clear();
+            columnInputs.clear();
+        }
+
+        private Map<String, Object> dataset(String name) {
+            Map<String, Object> ds = new LinkedHashMap<>();
+            ds.put("namespace", datasetNamespace);
+            ds.put("name", name);
+            return ds;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.lineage.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable table-level snapshot of the current lineage graph.
+ *
+ * Catalog entries are numbered 0..n-1 and edges (one per distinct from/to table pair) are held in
+ * compressed sparse row form in both directions: the out-edges of node u are
+ * outTargets[outOffsets[u] .. outOffsets[u + 1]), the in-edges of v are inSources[inOffsets[v] ..
+ * inOffsets[v + 1]), and inEdges maps an in-edge back to its out-edge index so per-edge data
+ * (transformation types) is stored once.
+ */
+final class LineageGraph {
+
+    static final LineageGraph EMPTY = new Builder(0).build(0);
+
+    final long version;
+    final int nodeCount;
+    final UUID[] catalogIds;
+    final String[] shortNames;
+    final String[] fullNames;
+    final int[] outOffsets;
+    final int[] outTargets;
+    final int[] inOffsets;
+    final int[] inSources;
+    final int[] inEdges;
+    final String[][] edgeTransformations;
+
+    private final Map<String, Integer> byShortKey;
+    private final Map<UUID, Integer> byCatalogId;
+
+    private LineageGraph(long version, Builder b, int[] outOffsets, int[] outTargets, String[][] edgeTransformations,
+                         int[] inOffsets, int[] inSources, int[] inEdges) {
+        this.version = version;
+        this.nodeCount = b.nodeCount;
+        this.catalogIds = Arrays.copyOf(b.catalogIds, b.nodeCount);
+        this.shortNames = Arrays.copyOf(b.shortNames, b.nodeCount);
+        this.fullNames = Arrays.copyOf(b.fullNames, b.nodeCount);
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.edgeTransformations = edgeTransformations;
+        this.inOffsets = inOffsets;
+        this.inSources = inSources;
+        this.inEdges = inEdges;
+        this.byShortKey = b.byShortKey;
+        this.byCatalogId = b.byCatalogId;
+    }
+
+    int edgeCount() { return outTargets.length; }
+
+    /**
+     * Node of an entity id (short name, case-insensitive; the most recently seen table wins), or -1
+     */
+    int find(String entityId) {
+        if (entityId == null || entityId.isBlank()) return -1;
+        Integer id = byShortKey.get(entityId.trim().toLowerCase());
+        return id == null ? -1 : id;
+    }
+
+    int indexOf(UUID catalogId) {
+        Integer id = byCatalogId.get(catalogId);
+        return id == null ? -1 : id;
+    }
+
+    int outDegree(int u) { return outOffsets[u + 1] - outOffsets[u]; }
+
+    int inDegree(int v) { return inOffsets[v + 1] - inOffsets[v]; }
+
+    /**
+     * Out-edge index of u -> v, or -1
+     */
+    int edgeIndex(int u, int v) {
+        for (int e = outOffsets[u]; e < outOffsets[u + 1]; e++) {
+            if (outTargets[e] == v) return e;
+        }
+        return -1;
+    }
+
+    /**
+     * Collects nodes and edges (in any order) and lays them out in CSR form
+     */
+    static final class Builder {
+        private int nodeCount;
+        private UUID[] catalogIds;
+        private String[] shortNames;
+        private String[] fullNames;
+        private final Map<String, Integer> byShortKey = new HashMap<>();
+        private final Map<UUID, Integer> byCatalogId = new HashMap<>();
+
+        private int edgeCount;
+        private int[] from = new int[16];
+        private int[] to = new int[16];
+        private String[][] types = new String[16][];
+        // transformation type lists repeat a lot; share one array per distinct list
+        private final Map<String, String[]> typeLists = new HashMap<>();
+
+        Builder(int expectedNodes) {
+            int cap = Math.max(16, expectedNodes);
+            catalogIds = new UUID[cap];
+            shortNames = new String[cap];
+            fullNames = new String[cap];
+        }
+
+        /**
+         * Add a catalog entry; callers add entries oldest-seen first so the latest wins a short-name clash
+         */
+        void addNode(UUID catalogId, String shortName, String fullName) {
+            if (byCatalogId.containsKey(catalogId)) return;
+            if (nodeCount == catalogIds.length) {
+                catalogIds = Arrays.copyOf(catalogIds, nodeCount * 2);
+                shortNames = Arrays.copyOf(shortNames, nodeCount * 2);
+                fullNames = Arrays.copyOf(fullNames, nodeCount * 2);
+            }
+            catalogIds[nodeCount] = catalogId;
+            shortNames[nodeCount] = shortName;
+            fullNames[nodeCount] = fullName;
+            byCatalogId.put(catalogId, nodeCount);
+            if (shortName != null) byShortKey.put(shortName.toLowerCase(), nodeCount);
+            nodeCount++;
+        }
+
+        /**
+         * Add an edge between known catalog entries; transformationTypes is a comma-separated list or null
+         */
+        void addEdge(UUID fromCatalogId, UUID toCatalogId, String transformationTypes) {
+            Integer u = byCatalogId.get(fromCatalogId);
+            Integer v = byCatalogId.get(toCatalogId);
+            if (u == null || v == null) return;
+            if (edgeCount == from.length) {
+                from = Arrays.copyOf(from, edgeCount * 2);
+                to = Arrays.copyOf(to, edgeCount * 2);
+                types = Arrays.copyOf(types, edgeCount * 2);
+            }
+            from[edgeCount] = u;
+            to[edgeCount] = v;
+            types[edgeCount] = transformationTypes == null || transformationTypes.isBlank() ? null
+                    : typeLists.computeIfAbsent(transformationTypes, s -> s.split(","));
+            edgeCount++;
+        }
+
+        LineageGraph build(long version) {
+            int n = nodeCount;
+            int m = edgeCount;
+            int[] outOffsets = new int[n + 1];
+            int[] inOffsets = new int[n + 1];
+            for (int i = 0; i < m; i++) {
+                outOffsets[from[i] + 1]++;
+                inOffsets[to[i] + 1]++;
+            }
+            for (int i = 0; i < n; i++) {
+                outOffsets[i + 1] += outOffsets[i];
+                inOffsets[i + 1] += inOffsets[i];
+            }
+            int[] outTargets = new int[m];
+            String[][] edgeTransformations = new String[m][];
+            int[] outEdgeOf = new int[m];
+            int[] cursor = Arrays.copyOf(outOffsets, n);
+            for (int i = 0; i < m; i++) {
+                int e = cursor[from[i]]++;
+                outTargets[e] = to[i];
+                edgeTransformations[e] = types[i];
+                outEdgeOf[i] = e;
+            }
+            int[] inSources = new int[m];
+            int[] inEdges = new int[m];
+            cursor = Arrays.copyOf(inOffsets, n);
+            for (int i = 0; i < m; i++) {
+                int e = cursor[to[i]]++;
+                inSources[e] = from[i];
+                inEdges[e] = outEdgeOf[i];
+            }
+            return new LineageGraph(version, this, outOffsets, outTargets, edgeTransformations, inOffsets, inSources, inEdges);
+        }
+    }
+}
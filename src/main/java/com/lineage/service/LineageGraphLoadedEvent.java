@@ -0,0 +1,7 @@
+package com.lineage.service;
+
+/**
+ * Published by LineageGraphService on its reload thread whenever a new graph snapshot is in place
+ */
+record LineageGraphLoadedEvent(LineageGraph graph) {
+}
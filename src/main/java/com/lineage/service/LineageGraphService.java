@@ -0,0 +1,306 @@
+package com.lineage.service;
+
+import com.lineage.dto.GraphEdgeDto;
+import com.lineage.dto.GraphNodeDto;
+import com.lineage.dto.LineageGraphDto;
+import com.lineage.dto.TransformationDto;
+import com.lineage.dto.TransformationLinesDto;
+import com.lineage.entity.LineageEdgeVersion;
+import com.lineage.repository.LineageEdgeVersionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LineageGraphService keeps the current table-level lineage graph in memory and answers
+ * multi-hop questions (subgraphs, paths) from it without touching the database.
+ *
+ * The graph is loaded from catalog_assets and the open lineage_edge_versions at startup and
+ * reloaded in the background whenever the current lineage changes (a run is folded, an import
+ * finishes). Every change bumps the graph version right after commit, so caches keyed by the
+ * version stop matching immediately, even before the reload has finished. Each new snapshot is
+ * announced with a LineageGraphLoadedEvent for services that derive data from the graph.
+ */
+@Service
+public class LineageGraphService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LineageGraphService.class);
+
+    private static final int FETCH_SIZE = 5000;
+    static final int DEFAULT_DEPTH = 3;
+    static final int MAX_DEPTH = 50;
+    static final int DEFAULT_MAX_NODES = 2000;
+    static final int MAX_NODES = 20000;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TaskExecutor taskExecutor;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private LineageEdgeVersionRepository edgeVersionRepository;
+
+    private volatile LineageGraph graph = LineageGraph.EMPTY;
+    private final AtomicLong version = new AtomicLong(1);
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleReload();
+    }
+
+    /**
+     * Version of the current lineage; changes whenever a committed write changes it
+     */
+    public long graphVersion() {
+        return version.get();
+    }
+
+    LineageGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Called by writers of lineage_edge_versions. Inside a transaction the version bump and
+     * reload wait for the commit, so readers never see a version whose data is not visible yet.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                    scheduleReload();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+            scheduleReload();
+        }
+    }
+
+    private void scheduleReload() {
+        dirty.set(true);
+        if (!reloading.compareAndSet(false, true)) return;
+        taskExecutor.execute(() -> {
+            try {
+                while (dirty.getAndSet(false)) reload();
+            } finally {
+                reloading.set(false);
+            }
+            // an invalidation may have slipped in between the last check and the flag reset
+            if (dirty.get()) scheduleReload();
+        });
+    }
+
+    private void reload() {
+        try {
+            long started = System.currentTimeMillis();
+            long loadedVersion = version.get();
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+            LineageGraph loaded = tx.execute(s -> load(loadedVersion));
+            graph = loaded;
+            logger.info("Lineage graph v{} loaded: {} tables, {} edges in {} ms",
+                    loadedVersion, loaded.nodeCount, loaded.edgeCount(), System.currentTimeMillis() - started);
+            // derived data (scores, components, layouts) is recomputed here, off the request path
+            eventPublisher.publishEvent(new LineageGraphLoadedEvent(loaded));
+        } catch (Exception e) {
+            logger.error("Failed to load lineage graph: {}", e.getMessage(), e);
+        }
+    }
+
+    private LineageGraph load(long loadedVersion) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(FETCH_SIZE);
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM catalog_assets", Integer.class);
+        LineageGraph.Builder builder = new LineageGraph.Builder(count == null ? 0 : count);
+        // oldest first, so the most recently seen table wins a short-name clash (same rule as the lineage APIs)
+        jdbcTemplate.query("SELECT catalog_id, short_name, full_name FROM catalog_assets ORDER BY last_seen_at NULLS FIRST",
+                (RowCallbackHandler) rs -> builder.addNode(rs.getObject(1, UUID.class), rs.getString(2), rs.getString(3)));
+        jdbcTemplate.query("SELECT from_catalog_id, to_catalog_id, string_agg(DISTINCT transformation_type, ',') " +
+                        "FROM lineage_edge_versions WHERE valid_to_at IS NULL GROUP BY from_catalog_id, to_catalog_id",
+                (RowCallbackHandler) rs -> builder.addEdge(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class), rs.getString(3)));
+        return builder.build(loadedVersion);
+    }
+
+    /**
+     * Union of the upstream and downstream neighbourhoods of the seeds, as an induced subgraph.
+     *
+     * One level-synchronous BFS runs from all seeds at once; a node is expanded at most once per
+     * direction no matter how many seeds reach it. Once maxNodes tables are included no new ones are
+     * added and the result is marked truncated.
+     */
+    public LineageGraphDto subgraph(List<String> seeds, Integer upstreamDepth, Integer downstreamDepth, Integer maxNodes) {
+        return toDto(collect(graph, seeds, upstreamDepth, downstreamDepth, maxNodes));
+    }
+
+    static Subgraph collect(LineageGraph g, List<String> seeds, Integer upstreamDepth, Integer downstreamDepth, Integer maxNodes) {
+        int upLimit = clamp(upstreamDepth, DEFAULT_DEPTH, 0, MAX_DEPTH);
+        int downLimit = clamp(downstreamDepth, DEFAULT_DEPTH, 0, MAX_DEPTH);
+        int budget = clamp(maxNodes, DEFAULT_MAX_NODES, 1, MAX_NODES);
+
+        // node -> hops from the nearest seed; also the included set
+        Map<Integer, Integer> depth = new LinkedHashMap<>();
+        Set<Integer> expandedUp = new HashSet<>();
+        Set<Integer> expandedDown = new HashSet<>();
+        List<String> missing = new ArrayList<>();
+        Set<Integer> seedNodes = new LinkedHashSet<>();
+        boolean truncated = false;
+
+        // frontier entries are node << 1 | direction (0 = upstream, 1 = downstream)
+        List<Integer> frontier = new ArrayList<>();
+        for (String seed : seeds == null ? List.<String>of() : seeds) {
+            int u = g.find(seed);
+            if (u < 0) {
+                missing.add(seed);
+                continue;
+            }
+            if (!seedNodes.add(u)) continue;
+            if (depth.size() >= budget) {
+                truncated = true;
+                continue;
+            }
+            depth.put(u, 0);
+            if (upLimit > 0 && expandedUp.add(u)) frontier.add(u << 1);
+            if (downLimit > 0 && expandedDown.add(u)) frontier.add(u << 1 | 1);
+        }
+
+        for (int level = 1; !frontier.isEmpty(); level++) {
+            List<Integer> next = new ArrayList<>();
+            for (int entry : frontier) {
+                int u = entry >>> 1;
+                boolean down = (entry & 1) == 1;
+                int limit = down ? downLimit : upLimit;
+                int from = down ? g.outOffsets[u] : g.inOffsets[u];
+                int to = down ? g.outOffsets[u + 1] : g.inOffsets[u + 1];
+                for (int e = from; e < to; e++) {
+                    int v = down ? g.outTargets[e] : g.inSources[e];
+                    if (!depth.containsKey(v)) {
+                        if (depth.size() >= budget) {
+                            truncated = true;
+                            continue;
+                        }
+                        depth.put(v, level);
+                    }
+                    if (level < limit && (down ? expandedDown : expandedUp).add(v)) {
+                        next.add(v << 1 | (down ? 1 : 0));
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return new Subgraph(g, depth, seedNodes, missing, truncated);
+    }
+
+    /**
+     * Nodes in the order of subgraph.depth, followed by the induced edges
+     */
+    static LineageGraphDto toDto(Subgraph subgraph) {
+        LineageGraph g = subgraph.graph();
+        List<GraphNodeDto> nodes = new ArrayList<>(subgraph.depth().size());
+        for (Map.Entry<Integer, Integer> n : subgraph.depth().entrySet()) {
+            GraphNodeDto node = node(g, n.getKey());
+            node.setSeed(subgraph.seedNodes().contains(n.getKey()));
+            node.setDepth(n.getValue());
+            nodes.add(node);
+        }
+        List<GraphEdgeDto> edges = inducedEdges(g, subgraph.depth().keySet());
+        LineageGraphDto resp = new LineageGraphDto(g.version, nodes, edges);
+        resp.setTruncated(subgraph.truncated());
+        resp.setMissingSeeds(subgraph.missing().isEmpty() ? null : subgraph.missing());
+        return resp;
+    }
+
+    /**
+     * Result of a multi-seed traversal: included node -> hops from the nearest seed, in discovery order
+     */
+    record Subgraph(LineageGraph graph, Map<Integer, Integer> depth, Set<Integer> seedNodes,
+                    List<String> missing, boolean truncated) {
+    }
+
+    /**
+     * All edges of the graph between the given nodes, each once
+     */
+    static List<GraphEdgeDto> inducedEdges(LineageGraph g, Set<Integer> included) {
+        List<GraphEdgeDto> edges = new ArrayList<>();
+        for (int u : included) {
+            for (int e = g.outOffsets[u]; e < g.outOffsets[u + 1]; e++) {
+                int v = g.outTargets[e];
+                if (included.contains(v)) edges.add(edge(g, u, e));
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Transformations (file, type, lines; deduplicated) of the current edges between the given
+     * {from, to} node pairs, in one query, keyed by pairKey
+     */
+    Map<String, List<TransformationDto>> transformationsBetween(LineageGraph g, Collection<int[]> pairs) {
+        Set<UUID> fromIds = new HashSet<>();
+        Set<UUID> toIds = new HashSet<>();
+        Set<String> wanted = new HashSet<>();
+        for (int[] pair : pairs) {
+            fromIds.add(g.catalogIds[pair[0]]);
+            toIds.add(g.catalogIds[pair[1]]);
+            wanted.add(pairKey(g, pair[0], pair[1]));
+        }
+        Map<String, List<TransformationDto>> byPair = new HashMap<>();
+        if (wanted.isEmpty()) return byPair;
+        Map<String, Set<String>> seen = new HashMap<>();
+        for (LineageEdgeVersion e : edgeVersionRepository.findCurrentBetween(fromIds, toIds)) {
+            String pair = e.getFromCatalog().getCatalogId() + "|" + e.getToCatalog().getCatalogId();
+            if (!wanted.contains(pair)) continue;
+            Integer s = e.getStartLine();
+            Integer en = e.getEndLine();
+            String key = e.getFilePath() + "|" + s + "|" + en + "|" + e.getTransformationType();
+            if (!seen.computeIfAbsent(pair, x -> new HashSet<>()).add(key)) continue;
+            TransformationLinesDto lines = (s != null || en != null) ? new TransformationLinesDto(s, en) : null;
+            byPair.computeIfAbsent(pair, x -> new ArrayList<>())
+                    .add(new TransformationDto(e.getFilePath(), e.getTransformationType(), lines));
+        }
+        return byPair;
+    }
+
+    static String pairKey(LineageGraph g, int u, int v) {
+        return g.catalogIds[u] + "|" + g.catalogIds[v];
+    }
+
+    static GraphNodeDto node(LineageGraph g, int u) {
+        return new GraphNodeDto(g.shortNames[u], g.fullNames[u], "table");
+    }
+
+    static GraphEdgeDto edge(LineageGraph g, int u, int e) {
+        String[] types = g.edgeTransformations[e];
+        return new GraphEdgeDto(g.shortNames[u], g.shortNames[g.outTargets[e]], types == null ? null : Arrays.asList(types));
+    }
+
+    static int clamp(Integer value, int defaultValue, int min, int max) {
+        return value == null ? defaultValue : Math.max(min, Math.min(value, max));
+    }
+}
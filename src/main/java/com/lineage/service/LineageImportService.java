@@ -0,0 +1,586 @@
+package com.lineage.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lineage.entity.ExtractionRun;
+import com.lineage.entity.ImportJob;
+import com.lineage.repository.CatalogAssetRepository;
+import com.lineage.repository.ExtractionRunRepository;
+import com.lineage.repository.ImportJobRepository;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * LineageImportService loads a lineage export (see LineageExportService, ndjson format) back into
+ * the temporal edge store.
+ *
+ * Asset and column records give imported tables a snapshot with their columns. The snapshots belong to
+ * a run created for the import job (repository "import:<path>"), and only tables without a snapshot of
+ * their own get one, so locally extracted tables are never overwritten. Edge lines of exports written
+ * before records were tagged with a kind are still accepted.
+ *
+ * The file is read by one thread and cut into fixed-size line batches that a bounded worker pool
+ * parses and writes: catalog entries are resolved through an in-memory qualified name -> catalog id
+ * dictionary (misses are inserted set-wise), and edges go in with JDBC batch inserts, one transaction
+ * per batch. Batches may finish out of order, so the checkpoint is the end of the longest prefix of
+ * finished batches; inserts are idempotent on the open-edge key, so batches replayed after a resume
+ * are harmless. Plain, gzip and LZ4-framed files are detected from their magic bytes.
+ */
+@Service
+public class LineageImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LineageImportService.class);
+
+    private static final int BATCH_LINES = 5000;
+    private static final int CATALOG_CHUNK = 1000;
+    private static final int FETCH_SIZE = 5000;
+    private static final long CHECKPOINT_INTERVAL_MS = 2000;
+
+    private static final String INSERT_CATALOG =
+            "INSERT INTO catalog_assets (catalog_id, qualified_name, short_key, short_name, full_name, schema_name, " +
+            "  upstream_count, downstream_count, first_seen_at, last_seen_at, created_at) " +
+            "VALUES (gen_random_uuid(), ?, lower(?), ?, ?, ?, 0, 0, now(), now(), now()) " +
+            "ON CONFLICT (qualified_name) DO NOTHING";
+
+    private static final String INSERT_EDGE =
+            "INSERT INTO lineage_edge_versions (edge_version_id, repository_url, branch, edge_fingerprint, " +
+            "  from_catalog_id, to_catalog_id, from_column, to_column, edge_type, transformation_type, file_path, " +
+            "  start_line, end_line, valid_from_run_id, valid_from_at) " +
+            "VALUES (gen_random_uuid(), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (repository_url, branch, edge_fingerprint) WHERE valid_to_at IS NULL DO NOTHING";
+
+    // Snapshot in the import run for a table that has none yet; the lock makes concurrent batches create one at most
+    private static final String INSERT_SNAPSHOT =
+            "WITH c AS (SELECT catalog_id, full_name, short_name, schema_name FROM catalog_assets " +
+            "           WHERE qualified_name = ? AND latest_asset_id IS NULL FOR UPDATE), " +
+            "     ins AS (INSERT INTO assets (asset_id, run_id, catalog_id, full_name, short_name, schema_name, created_at) " +
+            "             SELECT gen_random_uuid(), ?, c.catalog_id, c.full_name, c.short_name, c.schema_name, now() FROM c " +
+            "             RETURNING asset_id, catalog_id) " +
+            "UPDATE catalog_assets x SET latest_asset_id = ins.asset_id, last_seen_run_id = ?, last_seen_at = now() " +
+            "FROM ins WHERE x.catalog_id = ins.catalog_id";
+
+    // Column of a table whose snapshot belongs to the import run (skipped when already there)
+    private static final String INSERT_COLUMN =
+            "INSERT INTO asset_columns (asset_column_id, asset_id, column_name, role, created_at) " +
+            "SELECT gen_random_uuid(), a.asset_id, ?, ?, now() " +
+            "FROM catalog_assets c JOIN assets a ON a.asset_id = c.latest_asset_id AND a.run_id = ? " +
+            "WHERE c.qualified_name = ? " +
+            "  AND NOT EXISTS (SELECT 1 FROM asset_columns x WHERE x.asset_id = a.asset_id " +
+            "                  AND x.column_name = ? AND x.role IS NOT DISTINCT FROM ?)";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ImportJobRepository importJobRepository;
+
+    @Autowired
+    private CatalogAssetRepository catalogAssetRepository;
+
+    @Autowired
+    private ExtractionRunRepository extractionRunRepository;
+
+    @Autowired
+    private RunSummaryService runSummaryService;
+
+    @Autowired
+    private LineageGraphService lineageGraphService;
+
+    @Autowired
+    private TaskExecutor taskExecutor;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // imports may only read files under this directory
+    @Value("${app.import.directory:./imports}")
+    private String importDirectory;
+
+    // 0 = one worker per available processor
+    @Value("${app.import.workers:0}")
+    private int workers;
+
+    private final Map<UUID, Progress> active = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        int interrupted = transactionTemplate.execute(s -> importJobRepository.updateStatus(
+                ImportJob.Status.RUNNING, ImportJob.Status.INTERRUPTED, LocalDateTime.now()));
+        if (interrupted > 0) logger.warn("{} lineage import(s) were interrupted by a restart and can be resumed", interrupted);
+    }
+
+    /**
+     * Start importing a file (path relative to the import directory)
+     */
+    public ImportJob start(String path) throws IOException {
+        resolveSource(path);
+        ImportJob job = new ImportJob(path.trim());
+        job.setStartedAt(LocalDateTime.now());
+        job.setRunId(createImportRun(job.getSourcePath()));
+        job = importJobRepository.save(job);
+        launch(job);
+        return job;
+    }
+
+    /**
+     * Continue an interrupted or failed import from its checkpoint
+     */
+    public ImportJob resume(ImportJob job) throws IOException {
+        if (job.getStatus() == ImportJob.Status.COMPLETED || active.containsKey(job.getImportId())) {
+            throw new IllegalStateException("Import " + job.getImportId() + " is " +
+                    (active.containsKey(job.getImportId()) ? "already running" : "already completed"));
+        }
+        resolveSource(job.getSourcePath());
+        job.setStatus(ImportJob.Status.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        job.setFinishedAt(null);
+        job.setLastError(null);
+        if (job.getRunId() == null) job.setRunId(createImportRun(job.getSourcePath()));
+        job = importJobRepository.save(job);
+        launch(job);
+        return job;
+    }
+
+    private UUID createImportRun(String sourcePath) {
+        ExtractionRun run = new ExtractionRun("import:" + sourcePath, "import", "import", "import");
+        run.setRunMode(ExtractionRun.RunMode.FULL);
+        run.setPhase(ExtractionRun.ExtractionPhase.COMPLETED);
+        run.setStartedAt(LocalDateTime.now());
+        return extractionRunRepository.save(run).getRunId();
+    }
+
+    /**
+     * Job state plus live throughput for imports running in this instance
+     */
+    public Map<String, Object> status(ImportJob job) {
+        Progress progress = active.get(job.getImportId());
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("importId", job.getImportId());
+        resp.put("sourcePath", job.getSourcePath());
+        resp.put("runId", job.getRunId());
+        resp.put("status", job.getStatus().name());
+        resp.put("linesCommitted", progress != null ? progress.committedLines() : job.getLinesCommitted());
+        resp.put("rowsImported", progress != null ? progress.imported.get() : job.getRowsImported());
+        resp.put("rowsRejected", progress != null ? progress.rejected.get() : job.getRowsRejected());
+        resp.put("rowsPerSecond", progress != null ? progress.rowsPerSecond() : job.getRowsPerSecond());
+        resp.put("startedAt", job.getStartedAt());
+        resp.put("updatedAt", job.getUpdatedAt());
+        resp.put("finishedAt", job.getFinishedAt());
+        resp.put("lastError", job.getLastError());
+        return resp;
+    }
+
+    private void launch(ImportJob job) {
+        Progress progress = new Progress(job);
+        active.put(job.getImportId(), progress);
+        taskExecutor.execute(() -> {
+            try {
+                run(job.getImportId(), job.getSourcePath(), job.getRunId(), progress);
+            } finally {
+                active.remove(job.getImportId());
+            }
+        });
+    }
+
+    private void run(UUID importId, String sourcePath, UUID runId, Progress progress) {
+        int poolSize = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIds = new AtomicInteger();
+        // Bounded queue + caller-runs: the reader slows down to the writers' pace instead of buffering the file
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(poolSize * 2),
+                r -> new Thread(r, "lineage-import-" + threadIds.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            Path source = resolveSource(sourcePath);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            Map<String, UUID> dictionary = loadDictionary();
+            logger.info("Import {}: {} catalog entries preloaded, resuming after line {}", importId, dictionary.size(),
+                    progress.committedLines());
+
+            try (BufferedReader reader = open(source)) {
+                long lineNo = 0;
+                long skip = progress.committedLines();
+                while (lineNo < skip && reader.readLine() != null) lineNo++;
+
+                List<String> batch = new ArrayList<>(BATCH_LINES);
+                long batchStart = lineNo;
+                String line;
+                while ((line = reader.readLine()) != null && progress.failure.get() == null) {
+                    batch.add(line);
+                    lineNo++;
+                    if (batch.size() == BATCH_LINES) {
+                        submit(pool, jdbcTemplate, dictionary, runId, progress, batchStart, lineNo, batch);
+                        batch = new ArrayList<>(BATCH_LINES);
+                        batchStart = lineNo;
+                    }
+                }
+                if (!batch.isEmpty()) submit(pool, jdbcTemplate, dictionary, runId, progress, batchStart, lineNo, batch);
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            if (progress.failure.get() != null) throw progress.failure.get();
+
+            transactionTemplate.executeWithoutResult(s -> {
+                catalogAssetRepository.refreshDegreeCountsForImported(runId);
+                extractionRunRepository.findById(runId).ifPresent(run -> {
+                    run.setFinishedAt(LocalDateTime.now());
+                    runSummaryService.summarize(extractionRunRepository.save(run));
+                });
+            });
+            lineageGraphService.invalidate();
+            checkpoint(importId, progress);
+            finish(importId, ImportJob.Status.COMPLETED, null, progress);
+            logger.info("Import {} completed: {} rows imported, {} lines rejected, {} rows/sec",
+                    importId, progress.imported.get(), progress.rejected.get(), progress.rowsPerSecond());
+        } catch (Throwable e) {
+            pool.shutdownNow();
+            logger.error("Import {} failed after line {}: {}", importId, progress.committedLines(), e.getMessage(), e);
+            try {
+                checkpoint(importId, progress);
+                finish(importId, ImportJob.Status.FAILED, e.getMessage(), progress);
+            } catch (Exception inner) {
+                logger.error("Failed to record import {} failure: {}", importId, inner.getMessage());
+            }
+        }
+    }
+
+    private void submit(ThreadPoolExecutor pool, JdbcTemplate jdbcTemplate, Map<String, UUID> dictionary, UUID runId,
+                        Progress progress, long from, long to, List<String> lines) {
+        pool.execute(() -> {
+            if (progress.failure.get() != null) return;
+            try {
+                long rejected = writeBatch(jdbcTemplate, dictionary, runId, progress, lines);
+                if (progress.complete(from, to, rejected)) checkpoint(progress.importId, progress);
+            } catch (Exception e) {
+                progress.failure.compareAndSet(null, e);
+            }
+        });
+    }
+
+    /**
+     * Write one batch in a transaction; returns the number of lines it rejected
+     */
+    private long writeBatch(JdbcTemplate jdbcTemplate, Map<String, UUID> dictionary, UUID runId, Progress progress,
+                            List<String> lines) {
+        List<EdgeRow> rows = new ArrayList<>(lines.size());
+        List<TableRow> tables = new ArrayList<>();
+        long rejected = 0;
+        for (String line : lines) {
+            if (line.isBlank()) continue;
+            Object row = parse(line);
+            if (row instanceof EdgeRow edge) rows.add(edge);
+            else if (row instanceof TableRow table) tables.add(table);
+            else rejected++;
+        }
+
+        Map<String, String[]> missing = new LinkedHashMap<>();
+        for (EdgeRow row : rows) {
+            if (!dictionary.containsKey(row.fromQualified)) missing.putIfAbsent(row.fromQualified, new String[]{row.fromShort, row.fromFull, null});
+            if (!dictionary.containsKey(row.toQualified)) missing.putIfAbsent(row.toQualified, new String[]{row.toShort, row.toFull, null});
+        }
+        for (TableRow table : tables) {
+            if (!dictionary.containsKey(table.qualified)) missing.putIfAbsent(table.qualified, new String[]{table.shortName, table.fullName, table.schema});
+        }
+
+        transactionTemplate.executeWithoutResult(s -> {
+            if (!missing.isEmpty()) resolveMissing(jdbcTemplate, dictionary, missing);
+            if (!tables.isEmpty()) progress.imported.addAndGet(writeTables(jdbcTemplate, runId, tables));
+            int[][] counts = jdbcTemplate.batchUpdate(INSERT_EDGE, rows, rows.size(), (ps, row) -> {
+                ps.setString(1, row.repositoryUrl);
+                ps.setString(2, row.branch);
+                ps.setObject(3, row.fingerprint);
+                ps.setObject(4, dictionary.get(row.fromQualified));
+                ps.setObject(5, dictionary.get(row.toQualified));
+                ps.setString(6, row.fromColumn);
+                ps.setString(7, row.toColumn);
+                ps.setString(8, row.edgeType);
+                ps.setString(9, row.transformationType);
+                ps.setString(10, row.filePath);
+                ps.setObject(11, row.startLine, Types.INTEGER);
+                ps.setObject(12, row.endLine, Types.INTEGER);
+                ps.setObject(13, row.validFromRunId);
+                ps.setTimestamp(14, Timestamp.valueOf(row.validFromAt));
+            });
+            progress.imported.addAndGet(inserted(counts));
+        });
+        progress.rejected.addAndGet(rejected);
+        progress.processed.addAndGet(lines.size());
+        return rejected;
+    }
+
+    /**
+     * Give the batch's tables a snapshot in the import run when they have none, then add their columns;
+     * returns the number of snapshots and columns created
+     */
+    private long writeTables(JdbcTemplate jdbcTemplate, UUID runId, List<TableRow> tables) {
+        List<String> names = tables.stream().map(t -> t.qualified).distinct().toList();
+        long created = inserted(jdbcTemplate.batchUpdate(INSERT_SNAPSHOT, names, names.size(), (ps, qualified) -> {
+            ps.setString(1, qualified);
+            ps.setObject(2, runId);
+            ps.setObject(3, runId);
+        }));
+        List<TableRow> columns = tables.stream().filter(t -> t.column != null).toList();
+        if (!columns.isEmpty()) {
+            created += inserted(jdbcTemplate.batchUpdate(INSERT_COLUMN, columns, columns.size(), (ps, c) -> {
+                ps.setString(1, c.column);
+                ps.setString(2, c.role);
+                ps.setObject(3, runId);
+                ps.setString(4, c.qualified);
+                ps.setString(5, c.column);
+                ps.setString(6, c.role);
+            }));
+        }
+        return created;
+    }
+
+    private static long inserted(int[][] counts) {
+        long inserted = 0;
+        for (int[] chunk : counts) {
+            for (int c : chunk) if (c > 0 || c == Statement.SUCCESS_NO_INFO) inserted++;
+        }
+        return inserted;
+    }
+
+    /**
+     * Insert catalog entries for names not yet in the dictionary, then read their ids back
+     * (another worker or a concurrent ingest may have created some of them first)
+     */
+    private void resolveMissing(JdbcTemplate jdbcTemplate, Map<String, UUID> dictionary, Map<String, String[]> missing) {
+        List<String> names = new ArrayList<>(missing.keySet());
+        jdbcTemplate.batchUpdate(INSERT_CATALOG, names, CATALOG_CHUNK, (ps, qualified) -> {
+            String[] n = missing.get(qualified);
+            int dot = n[1].lastIndexOf('.');
+            ps.setString(1, qualified);
+            ps.setString(2, n[0]);
+            ps.setString(3, n[0]);
+            ps.setString(4, n[1]);
+            ps.setString(5, n[2] != null ? n[2] : dot > 0 ? n[1].substring(0, dot) : null);
+        });
+        for (int i = 0; i < names.size(); i += CATALOG_CHUNK) {
+            List<String> chunk = names.subList(i, Math.min(i + CATALOG_CHUNK, names.size()));
+            String sql = "SELECT qualified_name, catalog_id FROM catalog_assets WHERE qualified_name IN (" +
+                    String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> dictionary.put(rs.getString(1), rs.getObject(2, UUID.class)),
+                    chunk.toArray());
+        }
+    }
+
+    private Map<String, UUID> loadDictionary() {
+        Map<String, UUID> dictionary = new ConcurrentHashMap<>();
+        transactionTemplate.executeWithoutResult(s -> {
+            // inside a transaction so the driver streams with the fetch size instead of loading everything
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.setFetchSize(FETCH_SIZE);
+            jdbcTemplate.query("SELECT qualified_name, catalog_id FROM catalog_assets",
+                    (RowCallbackHandler) rs -> dictionary.put(rs.getString(1), rs.getObject(2, UUID.class)));
+        });
+        return dictionary;
+    }
+
+    /**
+     * One exported line as an EdgeRow or TableRow, or null when it is not a usable ndjson record
+     * (e.g. an OpenLineage event)
+     */
+    private Object parse(String line) {
+        try {
+            JsonNode n = objectMapper.readTree(line);
+            String kind = text(n, "kind");
+            if ("asset".equals(kind) || "column".equals(kind)) return parseTable(n, kind);
+            // edge lines of older exports have no kind
+            if (kind != null && !"edge".equals(kind)) return null;
+            EdgeRow row = new EdgeRow();
+            row.fingerprint = UUID.fromString(n.path("fingerprint").asText());
+            row.fromShort = text(n, "fromEntity");
+            row.fromFull = text(n, "fromName") != null ? text(n, "fromName") : row.fromShort;
+            row.toShort = text(n, "toEntity");
+            row.toFull = text(n, "toName") != null ? text(n, "toName") : row.toShort;
+            row.repositoryUrl = text(n, "repositoryUrl");
+            row.branch = text(n, "branch");
+            row.validFromRunId = UUID.fromString(n.path("validFromRunId").asText());
+            if (row.fromShort == null || row.toShort == null || row.repositoryUrl == null || row.branch == null) return null;
+            row.fromQualified = CatalogService.qualifiedName(row.fromFull);
+            row.toQualified = CatalogService.qualifiedName(row.toFull);
+            row.fromColumn = text(n, "fromColumn");
+            row.toColumn = text(n, "toColumn");
+            row.edgeType = text(n, "edgeType");
+            row.transformationType = text(n, "transformationType");
+            // exports written before filePath was named correctly carry the path as fileId
+            row.filePath = text(n, "filePath") != null ? text(n, "filePath") : text(n, "fileId");
+            row.startLine = n.hasNonNull("startLine") ? n.get("startLine").asInt() : null;
+            row.endLine = n.hasNonNull("endLine") ? n.get("endLine").asInt() : null;
+            // exports written before validFromAt was included start their history at import time
+            row.validFromAt = text(n, "validFromAt") != null ? LocalDateTime.parse(text(n, "validFromAt")) : LocalDateTime.now();
+            return row;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static TableRow parseTable(JsonNode n, String kind) {
+        TableRow row = new TableRow();
+        row.shortName = text(n, "entity");
+        row.fullName = text(n, "name") != null ? text(n, "name") : row.shortName;
+        if (row.shortName == null) return null;
+        row.qualified = CatalogService.qualifiedName(row.fullName);
+        row.schema = text(n, "schema");
+        if ("column".equals(kind)) {
+            row.column = text(n, "column");
+            row.role = text(n, "role");
+            if (row.column == null || row.column.isBlank()) return null;
+        }
+        return row;
+    }
+
+    private static String text(JsonNode n, String field) {
+        JsonNode v = n.get(field);
+        return v == null || v.isNull() ? null : v.asText();
+    }
+
+    private Path resolveSource(String path) throws IOException {
+        if (path == null || path.isBlank()) throw new IllegalArgumentException("path is required");
+        Path root = Paths.get(importDirectory).toAbsolutePath().normalize();
+        Path source = root.resolve(path).normalize();
+        if (!source.startsWith(root)) throw new IllegalArgumentException("path must be inside the import directory");
+        if (!Files.isRegularFile(source)) throw new FileNotFoundException("No such import file: " + path);
+        return source;
+    }
+
+    private static BufferedReader open(Path source) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(Files.newInputStream(source), 1 << 16);
+        in.mark(4);
+        byte[] magic = in.readNBytes(4);
+        in.reset();
+        InputStream decoded = in;
+        if (magic.length >= 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b) {
+            decoded = new GZIPInputStream(in, 1 << 16);
+        } else if (magic.length == 4 && (magic[0] & 0xff) == 0x04 && (magic[1] & 0xff) == 0x22
+                && (magic[2] & 0xff) == 0x4d && (magic[3] & 0xff) == 0x18) {
+            decoded = new LZ4FrameInputStream(in);
+        }
+        return new BufferedReader(new InputStreamReader(decoded, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    private void checkpoint(UUID importId, Progress progress) {
+        long[] committed = progress.committed();
+        transactionTemplate.execute(s -> importJobRepository.checkpoint(importId, committed[0],
+                progress.imported.get(), committed[1], LocalDateTime.now()));
+    }
+
+    private void finish(UUID importId, ImportJob.Status status, String error, Progress progress) {
+        transactionTemplate.executeWithoutResult(s -> importJobRepository.findById(importId).ifPresent(job -> {
+            job.setStatus(status);
+            job.setRowsPerSecond(progress.rowsPerSecond());
+            job.setLastError(error);
+            job.setFinishedAt(LocalDateTime.now());
+            job.setUpdatedAt(LocalDateTime.now());
+            importJobRepository.save(job);
+        }));
+    }
+
+    private static final class EdgeRow {
+        UUID fingerprint;
+        String fromShort, fromFull, fromQualified;
+        String toShort, toFull, toQualified;
+        String fromColumn, toColumn, edgeType, transformationType, filePath;
+        Integer startLine, endLine;
+        String repositoryUrl, branch;
+        UUID validFromRunId;
+        LocalDateTime validFromAt;
+    }
+
+    /**
+     * An asset line (column == null) or a column line
+     */
+    private static final class TableRow {
+        String shortName, fullName, qualified, schema;
+        String column, role;
+    }
+
+    /**
+     * Counters and checkpoint state of a running import. Finished batches are kept as
+     * [start line -> end line, rejected lines] until the batches before them are done as well.
+     *
+     * Batches past the checkpoint are replayed on resume, so the persisted rejected count only covers
+     * the batches before the checkpoint; the live counter also includes batches finished out of order.
+     * Imported rows need no such care: a replayed batch inserts nothing that is already there.
+     */
+    private static final class Progress {
+        final UUID importId;
+        final AtomicLong imported;
+        final AtomicLong rejected;
+        final AtomicLong processed = new AtomicLong();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final long startedNanos = System.nanoTime();
+        private final TreeMap<Long, long[]> finished = new TreeMap<>();
+        private long committed;
+        private long committedRejected;
+        private long lastCheckpointMs = System.currentTimeMillis();
+
+        Progress(ImportJob job) {
+            this.importId = job.getImportId();
+            this.imported = new AtomicLong(job.getRowsImported());
+            this.rejected = new AtomicLong(job.getRowsRejected());
+            this.committed = job.getLinesCommitted();
+            this.committedRejected = job.getRowsRejected();
+        }
+
+        synchronized long committedLines() { return committed; }
+
+        /**
+         * Checkpoint line and the lines rejected before it, read together
+         */
+        synchronized long[] committed() { return new long[]{committed, committedRejected}; }
+
+        /**
+         * Mark a batch as written; true when the checkpoint moved and is due to be persisted
+         */
+        synchronized boolean complete(long from, long to, long rejectedLines) {
+            finished.put(from, new long[]{to, rejectedLines});
+            long before = committed;
+            long[] next;
+            while ((next = finished.remove(committed)) != null) {
+                committed = next[0];
+                committedRejected += next[1];
+            }
+            long now = System.currentTimeMillis();
+            if (committed == before || now - lastCheckpointMs < CHECKPOINT_INTERVAL_MS) return false;
+            lastCheckpointMs = now;
+            return true;
+        }
+
+        long rowsPerSecond() {
+            double seconds = (System.nanoTime() - startedNanos) / 1e9;
+            return seconds <= 0 ? 0 : Math.round(processed.get() / seconds);
+        }
+    }
+}
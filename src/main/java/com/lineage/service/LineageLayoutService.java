@@ -0,0 +1,228 @@
+package com.lineage.service;
+
+import com.lineage.dto.GraphNodeDto;
+import com.lineage.dto.LineageGraphDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * LineageLayoutService lays out lineage subgraphs as layered (left-to-right) diagrams so large
+ * graphs can be drawn without a client-side layout pass.
+ *
+ * Layering: edges closing a cycle (back edges of a DFS) are ignored, then every table is placed one
+ * layer right of its furthest upstream table (longest path from the sources). Ordering: tables
+ * start in discovery order and are re-sorted by the barycenter of their neighbours' positions in
+ * alternating downstream/upstream sweeps until the order settles.
+ *
+ * Layouts are cached per graph snapshot and request; the cache is dropped whenever a new graph is
+ * loaded, i.e. after every ingest.
+ */
+@Service
+public class LineageLayoutService {
+
+    private static final int MAX_SWEEPS = 12;
+    private static final int MAX_CACHED = 64;
+
+    @Autowired
+    private LineageGraphService lineageGraphService;
+
+    private final Map<String, LineageGraphDto> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, LineageGraphDto> eldest) {
+                    return size() > MAX_CACHED;
+                }
+            });
+
+    @EventListener
+    public void onGraphLoaded(LineageGraphLoadedEvent event) {
+        cache.clear();
+    }
+
+    /**
+     * Subgraph of the seeds (same parameters as LineageGraphService.subgraph) with layer and order set on every node
+     */
+    public LineageGraphDto layout(List<String> seeds, Integer upstreamDepth, Integer downstreamDepth, Integer maxNodes) {
+        LineageGraph g = lineageGraphService.graph();
+        int up = LineageGraphService.clamp(upstreamDepth, LineageGraphService.DEFAULT_DEPTH, 0, LineageGraphService.MAX_DEPTH);
+        int down = LineageGraphService.clamp(downstreamDepth, LineageGraphService.DEFAULT_DEPTH, 0, LineageGraphService.MAX_DEPTH);
+        int budget = LineageGraphService.clamp(maxNodes, LineageGraphService.DEFAULT_MAX_NODES, 1, LineageGraphService.MAX_NODES);
+        // seed order does not change the result, so equivalent requests share a cache entry
+        List<String> normalized = new ArrayList<>(new TreeSet<>(
+                (seeds == null ? List.<String>of() : seeds).stream().filter(Objects::nonNull).map(String::trim).toList()));
+        String key = g.version + "|" + up + "|" + down + "|" + budget + "|" + String.join(",", normalized);
+
+        LineageGraphDto cached = cache.get(key);
+        if (cached != null) return cached;
+
+        LineageGraphService.Subgraph subgraph = LineageGraphService.collect(g, normalized, up, down, budget);
+        LineageGraphDto dto = LineageGraphService.toDto(subgraph);
+        int[][] placement = place(g, new ArrayList<>(subgraph.depth().keySet()));
+        int layers = 0;
+        for (int i = 0; i < dto.getNodes().size(); i++) {
+            GraphNodeDto node = dto.getNodes().get(i);
+            node.setLayer(placement[0][i]);
+            node.setOrder(placement[1][i]);
+            layers = Math.max(layers, placement[0][i] + 1);
+        }
+        dto.getNodes().sort(Comparator.comparing(GraphNodeDto::getLayer).thenComparing(GraphNodeDto::getOrder));
+        dto.setLayerCount(layers);
+        cache.put(key, dto);
+        return dto;
+    }
+
+    /**
+     * {layer, order} of each given node (by position in the list)
+     */
+    static int[][] place(LineageGraph g, List<Integer> included) {
+        int n = included.size();
+        Map<Integer, Integer> local = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) local.put(included.get(i), i);
+        List<List<Integer>> succ = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            List<Integer> out = new ArrayList<>();
+            int u = included.get(i);
+            for (int e = g.outOffsets[u]; e < g.outOffsets[u + 1]; e++) {
+                Integer j = local.get(g.outTargets[e]);
+                if (j != null && j != i) out.add(j);
+            }
+            succ.add(out);
+        }
+
+        int[][] dag = acyclic(succ);
+        int[][] pred = reverse(dag);
+        int[] layer = longestPathLayers(dag, pred);
+        int[] order = orderLayers(layer, dag, pred);
+        return new int[][]{layer, order};
+    }
+
+    /**
+     * Successor lists without the back edges of an iterative DFS, i.e. without the edges that close cycles
+     */
+    private static int[][] acyclic(List<List<Integer>> succ) {
+        int n = succ.size();
+        int[] state = new int[n]; // 0 unvisited, 1 on the DFS stack, 2 done
+        int[] next = new int[n];
+        int[] stack = new int[n];
+        List<List<Integer>> kept = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) kept.add(new ArrayList<>());
+        for (int root = 0; root < n; root++) {
+            if (state[root] != 0) continue;
+            int sp = 0;
+            stack[sp++] = root;
+            state[root] = 1;
+            while (sp > 0) {
+                int u = stack[sp - 1];
+                List<Integer> out = succ.get(u);
+                if (next[u] < out.size()) {
+                    int v = out.get(next[u]++);
+                    if (state[v] == 1) continue;
+                    kept.get(u).add(v);
+                    if (state[v] == 0) {
+                        state[v] = 1;
+                        stack[sp++] = v;
+                    }
+                } else {
+                    state[u] = 2;
+                    sp--;
+                }
+            }
+        }
+        int[][] dag = new int[n][];
+        for (int i = 0; i < n; i++) dag[i] = kept.get(i).stream().mapToInt(Integer::intValue).toArray();
+        return dag;
+    }
+
+    private static int[][] reverse(int[][] adj) {
+        int n = adj.length;
+        int[] count = new int[n];
+        for (int[] out : adj) for (int v : out) count[v]++;
+        int[][] rev = new int[n][];
+        for (int i = 0; i < n; i++) rev[i] = new int[count[i]];
+        int[] fill = new int[n];
+        for (int u = 0; u < n; u++) for (int v : adj[u]) rev[v][fill[v]++] = u;
+        return rev;
+    }
+
+    // Kahn's order; each table lands one layer after its furthest upstream table
+    private static int[] longestPathLayers(int[][] dag, int[][] pred) {
+        int n = dag.length;
+        int[] layer = new int[n];
+        int[] remaining = new int[n];
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        for (int i = 0; i < n; i++) {
+            remaining[i] = pred[i].length;
+            if (remaining[i] == 0) queue[tail++] = i;
+        }
+        while (head < tail) {
+            int u = queue[head++];
+            for (int v : dag[u]) {
+                layer[v] = Math.max(layer[v], layer[u] + 1);
+                if (--remaining[v] == 0) queue[tail++] = v;
+            }
+        }
+        return layer;
+    }
+
+    /**
+     * Barycenter crossing reduction. Positions are compared as fractions of the layer width, since
+     * edges may span several layers of different sizes.
+     */
+    private static int[] orderLayers(int[] layer, int[][] dag, int[][] pred) {
+        int n = layer.length;
+        int layerCount = 0;
+        for (int l : layer) layerCount = Math.max(layerCount, l + 1);
+        List<List<Integer>> layers = new ArrayList<>(layerCount);
+        for (int l = 0; l < layerCount; l++) layers.add(new ArrayList<>());
+        for (int i = 0; i < n; i++) layers.get(layer[i]).add(i);
+
+        double[] position = new double[n];
+        for (List<Integer> members : layers) normalize(members, position);
+
+        double[] key = new double[n];
+        int quietSweeps = 0;
+        for (int sweep = 0; sweep < MAX_SWEEPS && quietSweeps < 2; sweep++) {
+            boolean changed = false;
+            // even sweeps pull each layer towards its upstream neighbours, odd sweeps towards downstream
+            boolean downward = sweep % 2 == 0;
+            int[][] neighbours = downward ? pred : dag;
+            for (int step = 1; step < layerCount; step++) {
+                List<Integer> members = layers.get(downward ? step : layerCount - 1 - step);
+                for (int u : members) {
+                    int[] adj = neighbours[u];
+                    if (adj.length == 0) {
+                        key[u] = position[u];
+                        continue;
+                    }
+                    double sum = 0;
+                    for (int v : adj) sum += position[v];
+                    key[u] = sum / adj.length;
+                }
+                List<Integer> sorted = new ArrayList<>(members);
+                sorted.sort(Comparator.comparingDouble(u -> key[u]));
+                if (!sorted.equals(members)) {
+                    changed = true;
+                    members.clear();
+                    members.addAll(sorted);
+                    normalize(members, position);
+                }
+            }
+            // one quiet sweep in each direction means the order has settled
+            quietSweeps = changed ? 0 : quietSweeps + 1;
+        }
+
+        int[] order = new int[n];
+        for (List<Integer> members : layers) {
+            for (int i = 0; i < members.size(); i++) order[members.get(i)] = i;
+        }
+        return order;
+    }
+
+    private static void normalize(List<Integer> members, double[] position) {
+        for (int i = 0; i < members.size(); i++) position[members.get(i)] = (i + 0.5) / members.size();
+    }
+}
@@ -0,0 +1,249 @@
+package com.lineage.service;
+
+import com.lineage.dto.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * LineagePathService answers "how does table A reach table B?" over the in-memory lineage graph.
+ *
+ * The shortest path comes from a bidirectional BFS (the smaller frontier is expanded one level at a
+ * time). For k > 1, Yen's algorithm derives further loop-free paths by re-running that search
+ * from every spur node of the last accepted path with the root's nodes and already-used edges removed.
+ * Searches are bounded by a hop limit and a wall-clock budget; whatever was found when the budget
+ * runs out is returned. Transformations are loaded from the database for the path edges only.
+ */
+@Service
+public class LineagePathService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LineagePathService.class);
+
+    static final int DEFAULT_MAX_HOPS = 10;
+    static final int MAX_K = 10;
+    static final long DEFAULT_TIME_BUDGET_MS = 2000;
+    static final long MAX_TIME_BUDGET_MS = 10000;
+
+    @Autowired
+    private LineageGraphService lineageGraphService;
+
+    /**
+     * Up to k shortest paths from one entity to another, or null if either entity is unknown
+     */
+    @Transactional(readOnly = true)
+    public LineagePathsDto findPaths(String fromEntityId, String toEntityId, Integer k, Integer maxDepth, Long timeBudgetMs) {
+        LineageGraph g = lineageGraphService.graph();
+        int s = g.find(fromEntityId);
+        int t = g.find(toEntityId);
+        if (s < 0 || t < 0) return null;
+
+        int wanted = LineageGraphService.clamp(k, 1, 1, MAX_K);
+        int maxHops = LineageGraphService.clamp(maxDepth, DEFAULT_MAX_HOPS, 1, LineageGraphService.MAX_DEPTH);
+        long budget = timeBudgetMs == null ? DEFAULT_TIME_BUDGET_MS : Math.max(1, Math.min(timeBudgetMs, MAX_TIME_BUDGET_MS));
+        Search search = new Search(g, System.nanoTime() + budget * 1_000_000L);
+
+        List<Path> paths = wanted == 1 ? single(search, s, t, maxHops) : yen(search, s, t, wanted, maxHops);
+        if (search.timedOut) {
+            logger.debug("Path search {} -> {} hit its {} ms budget with {} path(s)", fromEntityId, toEntityId, budget, paths.size());
+        }
+
+        LineagePathsDto resp = new LineagePathsDto();
+        resp.setGraphVersion(g.version);
+        resp.setFrom(g.shortNames[s]);
+        resp.setTo(g.shortNames[t]);
+        resp.setMaxDepth(maxHops);
+        resp.setTimedOut(search.timedOut);
+        resp.setPaths(toDtos(g, paths));
+        return resp;
+    }
+
+    private List<Path> single(Search search, int s, int t, int maxHops) {
+        Path p = search.shortest(s, t, maxHops, Set.of(), Set.of());
+        return p == null ? List.of() : List.of(p);
+    }
+
+    private List<Path> yen(Search search, int s, int t, int k, int maxHops) {
+        List<Path> accepted = new ArrayList<>();
+        Path first = search.shortest(s, t, maxHops, Set.of(), Set.of());
+        if (first == null) return accepted;
+        accepted.add(first);
+
+        PriorityQueue<Path> candidates = new PriorityQueue<>(Comparator.comparingInt(Path::hops));
+        Set<List<Integer>> seen = new HashSet<>();
+        seen.add(first.key());
+        while (accepted.size() < k && !search.timedOut) {
+            Path last = accepted.get(accepted.size() - 1);
+            for (int i = 0; i < last.hops() && !search.timedOut; i++) {
+                int spur = last.nodes[i];
+                // Edges leaving the spur node that an accepted path with the same root already uses
+                Set<Integer> bannedEdges = new HashSet<>();
+                for (Path p : accepted) {
+                    if (p.hops() > i && p.sharesRoot(last, i)) bannedEdges.add(p.edges[i]);
+                }
+                Set<Integer> bannedNodes = new HashSet<>();
+                for (int j = 0; j < i; j++) bannedNodes.add(last.nodes[j]);
+
+                Path spurPath = search.shortest(spur, t, maxHops - i, bannedNodes, bannedEdges);
+                if (spurPath == null) continue;
+                Path candidate = last.root(i).concat(spurPath);
+                if (seen.add(candidate.key())) candidates.add(candidate);
+            }
+            if (candidates.isEmpty()) break;
+            accepted.add(candidates.poll());
+        }
+        return accepted;
+    }
+
+    private List<LineagePathDto> toDtos(LineageGraph g, List<Path> paths) {
+        List<int[]> hops = new ArrayList<>();
+        for (Path p : paths) {
+            for (int i = 0; i < p.hops(); i++) hops.add(new int[]{p.nodes[i], p.nodes[i + 1]});
+        }
+        Map<String, List<TransformationDto>> byPair = lineageGraphService.transformationsBetween(g, hops);
+
+        List<LineagePathDto> out = new ArrayList<>(paths.size());
+        for (Path p : paths) {
+            List<GraphNodeDto> nodes = new ArrayList<>(p.nodes.length);
+            for (int u : p.nodes) nodes.add(LineageGraphService.node(g, u));
+            List<PathEdgeDto> edges = new ArrayList<>(p.hops());
+            for (int i = 0; i < p.hops(); i++) {
+                int u = p.nodes[i], v = p.nodes[i + 1];
+                edges.add(new PathEdgeDto(g.shortNames[u], g.shortNames[v],
+                        byPair.getOrDefault(LineageGraphService.pairKey(g, u, v), List.of())));
+            }
+            out.add(new LineagePathDto(p.hops(), nodes, edges));
+        }
+        return out;
+    }
+
+    /**
+     * Path as node ids and the out-edge index of each hop (edges[i] goes nodes[i] -> nodes[i + 1])
+     */
+    private record Path(int[] nodes, int[] edges) {
+        int hops() { return edges.length; }
+
+        List<Integer> key() {
+            List<Integer> key = new ArrayList<>(nodes.length);
+            for (int u : nodes) key.add(u);
+            return key;
+        }
+
+        boolean sharesRoot(Path other, int spurIndex) {
+            return Arrays.equals(nodes, 0, spurIndex + 1, other.nodes, 0, spurIndex + 1);
+        }
+
+        Path root(int spurIndex) {
+            return new Path(Arrays.copyOf(nodes, spurIndex + 1), Arrays.copyOf(edges, spurIndex));
+        }
+
+        // this path ends where the other one starts
+        Path concat(Path other) {
+            int[] n = Arrays.copyOf(nodes, nodes.length + other.nodes.length - 1);
+            System.arraycopy(other.nodes, 1, n, nodes.length, other.nodes.length - 1);
+            int[] e = Arrays.copyOf(edges, edges.length + other.edges.length);
+            System.arraycopy(other.edges, 0, e, edges.length, other.edges.length);
+            return new Path(n, e);
+        }
+    }
+
+    /**
+     * One path query: graph snapshot, deadline and whether it was hit
+     */
+    private static final class Search {
+        private final LineageGraph g;
+        private final long deadline;
+        boolean timedOut;
+
+        Search(LineageGraph g, long deadline) {
+            this.g = g;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Bidirectional BFS from s to t with at most maxHops hops, avoiding the banned nodes and
+         * out-edge indexes. Null if there is no such path or the deadline passed.
+         */
+        Path shortest(int s, int t, int maxHops, Set<Integer> bannedNodes, Set<Integer> bannedEdges) {
+            if (s == t) return new Path(new int[]{s}, new int[0]);
+            // node -> {neighbour towards s (fwd) or t (bwd), out-edge index, distance}
+            Map<Integer, int[]> fwd = new HashMap<>();
+            Map<Integer, int[]> bwd = new HashMap<>();
+            fwd.put(s, new int[]{-1, -1, 0});
+            bwd.put(t, new int[]{-1, -1, 0});
+            List<Integer> frontF = List.of(s);
+            List<Integer> frontB = List.of(t);
+            int depthF = 0, depthB = 0;
+
+            while (!frontF.isEmpty() && !frontB.isEmpty() && depthF + depthB < maxHops) {
+                if (System.nanoTime() > deadline) {
+                    timedOut = true;
+                    return null;
+                }
+                boolean forward = frontF.size() <= frontB.size();
+                List<Integer> next = new ArrayList<>();
+                int meet = -1, meetLength = Integer.MAX_VALUE;
+                if (forward) {
+                    for (int u : frontF) {
+                        for (int e = g.outOffsets[u]; e < g.outOffsets[u + 1]; e++) {
+                            int v = g.outTargets[e];
+                            if (fwd.containsKey(v) || bannedNodes.contains(v) || bannedEdges.contains(e)) continue;
+                            fwd.put(v, new int[]{u, e, depthF + 1});
+                            next.add(v);
+                            int[] b = bwd.get(v);
+                            if (b != null && depthF + 1 + b[2] < meetLength) {
+                                meet = v;
+                                meetLength = depthF + 1 + b[2];
+                            }
+                        }
+                    }
+                    depthF++;
+                    frontF = next;
+                } else {
+                    for (int v : frontB) {
+                        for (int i = g.inOffsets[v]; i < g.inOffsets[v + 1]; i++) {
+                            int u = g.inSources[i];
+                            int e = g.inEdges[i];
+                            if (bwd.containsKey(u) || bannedNodes.contains(u) || bannedEdges.contains(e)) continue;
+                            bwd.put(u, new int[]{v, e, depthB + 1});
+                            next.add(u);
+                            int[] f = fwd.get(u);
+                            if (f != null && depthB + 1 + f[2] < meetLength) {
+                                meet = u;
+                                meetLength = depthB + 1 + f[2];
+                            }
+                        }
+                    }
+                    depthB++;
+                    frontB = next;
+                }
+                // The whole level was expanded, so the best meeting point of this level is a shortest path
+                if (meet >= 0) return assemble(fwd, bwd, meet, meetLength);
+            }
+            return null;
+        }
+
+        private static Path assemble(Map<Integer, int[]> fwd, Map<Integer, int[]> bwd, int meet, int length) {
+            int[] nodes = new int[length + 1];
+            int[] edges = new int[length];
+            int pos = fwd.get(meet)[2];
+            nodes[pos] = meet;
+            for (int u = meet, i = pos; i > 0; i--) {
+                int[] f = fwd.get(u);
+                edges[i - 1] = f[1];
+                nodes[i - 1] = f[0];
+                u = f[0];
+            }
+            for (int v = meet, i = pos; i < length; i++) {
+                int[] b = bwd.get(v);
+                edges[i] = b[1];
+                nodes[i + 1] = b[0];
+                v = b[0];
+            }
+            return new Path(nodes, edges);
+        }
+    }
+}
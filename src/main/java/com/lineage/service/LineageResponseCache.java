@@ -0,0 +1,140 @@
+package com.lineage.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lineage.dto.LineageDirection;
+import com.lineage.dto.LineageSection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * LineageResponseCache keeps the encoded JSON of hot lineage responses (current lineage per entity and
+ * direction, entity details) so repeated requests skip both the queries and Jackson serialization.
+ *
+ * Entries are keyed by the graph version, so any committed lineage change makes them unreachable; the
+ * cache is also emptied when a new graph snapshot has been loaded and its derived scores written.
+ * Payloads above a size threshold are gzip-compressed once on insert and served as-is to clients that
+ * accept gzip. Memory is bounded by the total size of the stored bytes (least recently used first out).
+ */
+@Service
+public class LineageResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(LineageResponseCache.class);
+
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LineageGraphService lineageGraphService;
+
+    @Value("${app.response-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${app.response-cache.gzip:true}")
+    private boolean gzipEnabled;
+
+    private final LinkedHashMap<String, Payload> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    /**
+     * Encoded current lineage of an entity with the given sections; build is only called on a miss
+     */
+    public Payload lineage(String entityId, LineageDirection direction, Set<LineageSection> include, Supplier<?> build) {
+        return get("lineage|" + direction + "|" + sections(include) + "|" + normalize(entityId), build);
+    }
+
+    /**
+     * Encoded entity details with the given sections; build is only called on a miss
+     */
+    public Payload entity(String entityId, Set<LineageSection> include, Supplier<?> build) {
+        return get("entity|" + sections(include) + "|" + normalize(entityId), build);
+    }
+
+    // runs after the listeners that write derived columns (scores) for the new snapshot
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onGraphLoaded(LineageGraphLoadedEvent event) {
+        synchronized (entries) {
+            entries.clear();
+            totalBytes = 0;
+        }
+    }
+
+    private Payload get(String key, Supplier<?> build) {
+        // the version is read before the data, so an entry can only be older than its key, never newer
+        String versioned = lineageGraphService.graphVersion() + "|" + key;
+        synchronized (entries) {
+            Payload cached = entries.get(versioned);
+            if (cached != null) return cached;
+        }
+        Payload payload = encode(build.get());
+        // a single payload larger than an eighth of the budget would evict too much to be worth keeping
+        if (payload.size() > maxBytes / 8) return payload;
+        synchronized (entries) {
+            Payload previous = entries.put(versioned, payload);
+            if (previous != null) totalBytes -= previous.size();
+            totalBytes += payload.size();
+            Iterator<Payload> eldest = entries.values().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                totalBytes -= eldest.next().size();
+                eldest.remove();
+            }
+        }
+        return payload;
+    }
+
+    private Payload encode(Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            byte[] gzip = null;
+            if (gzipEnabled && json.length >= GZIP_MIN_BYTES) {
+                ByteArrayOutputStream buf = new ByteArrayOutputStream(json.length / 4);
+                try (GZIPOutputStream out = new GZIPOutputStream(buf)) {
+                    out.write(json);
+                }
+                gzip = buf.toByteArray();
+            }
+            return new Payload(json, gzip);
+        } catch (IOException e) {
+            logger.error("Failed to encode cached response: {}", e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String sections(Set<LineageSection> include) {
+        StringBuilder key = new StringBuilder();
+        for (LineageSection section : LineageSection.values()) {
+            if (include.contains(section)) key.append(section.name()).append(',');
+        }
+        return key.toString();
+    }
+
+    private static String normalize(String entityId) {
+        return entityId == null ? "" : entityId.trim().toLowerCase();
+    }
+
+    /**
+     * JSON bytes of a response and, for larger ones, the same bytes gzip-compressed (null otherwise)
+     */
+    public record Payload(byte[] json, byte[] gzip) {
+        long size() {
+            return json.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+}
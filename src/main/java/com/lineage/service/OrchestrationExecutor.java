@@ -0,0 +1,219 @@
+package com.lineage.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OrchestrationExecutor runs extraction container launches on their own bounded pool of named
+ * platform threads ("orchestration-N"), so the blocking log-reading / waitFor loop of every running
+ * container stays off the common fork-join pool.
+ *
+ * At most app.orchestration.max-concurrent-launches containers are followed at once; further launches
+ * wait in a bounded queue and are rejected when it is full. Each launch is tracked by its launch id (the
+ * run id, or the id of one attempt of a shard of a sharded run) and can be
+ * cancelled while queued or running (the container process is destroyed and the launch's cancel hook,
+ * e.g. docker kill, runs). On shutdown no new launches are accepted and the remaining ones are cancelled.
+ * Active/queued launches and rejections/cancellations are published as metrics.
+ */
+@Service
+public class OrchestrationExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrchestrationExecutor.class);
+
+    @Value("${app.orchestration.max-concurrent-launches:8}")
+    private int maxConcurrentLaunches;
+
+    @Value("${app.orchestration.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${app.orchestration.shutdown-timeout-seconds:30}")
+    private long shutdownTimeoutSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor pool;
+    private final ConcurrentHashMap<UUID, Launch> launches = new ConcurrentHashMap<>();
+    private final AtomicInteger threadIds = new AtomicInteger();
+    private Counter rejected;
+    private Counter cancelled;
+
+    @PostConstruct
+    public void start() {
+        int threads = Math.max(1, maxConcurrentLaunches);
+        pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> new Thread(r, "orchestration-" + threadIds.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        pool.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("extraction.launches.active", pool, ThreadPoolExecutor::getActiveCount)
+                .description("Container launches currently being followed").register(meterRegistry);
+        Gauge.builder("extraction.launches.queued", pool, p -> p.getQueue().size())
+                .description("Container launches waiting for an orchestration thread").register(meterRegistry);
+        rejected = Counter.builder("extraction.launches.rejected")
+                .description("Container launches rejected because the queue was full").register(meterRegistry);
+        cancelled = Counter.builder("extraction.launches.cancelled")
+                .description("Container launches cancelled while queued or running").register(meterRegistry);
+    }
+
+    /**
+     * Queue a launch for the run. The returned future completes when the task finishes, or exceptionally
+     * when it fails or is cancelled. Throws RejectedExecutionException when the queue is full or the
+     * run already has a launch.
+     */
+    public CompletableFuture<Void> submit(UUID runId, LaunchTask task) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        Launch launch = new Launch(runId);
+        launch.future = new FutureTask<Void>(() -> {
+            try {
+                task.run(launch);
+                result.complete(null);
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                launches.remove(runId, launch);
+            }
+            return null;
+        }) {
+            @Override
+            protected void done() {
+                // cancelled while still queued: the callable never runs, so finish the launch here
+                if (isCancelled() && launches.remove(runId, launch)) {
+                    result.completeExceptionally(new CancellationException("Launch of run " + runId + " cancelled"));
+                }
+            }
+        };
+        if (launches.putIfAbsent(runId, launch) != null) {
+            throw new RejectedExecutionException("Run " + runId + " already has a container launch");
+        }
+        try {
+            pool.execute(launch.future);
+        } catch (RejectedExecutionException e) {
+            launches.remove(runId, launch);
+            rejected.increment();
+            throw new RejectedExecutionException("Orchestration queue is full (" + pool.getQueue().size() + " launches waiting)", e);
+        }
+        return result;
+    }
+
+    /**
+     * Cancel the launch of a run: removed from the queue if it has not started, otherwise its process is
+     * destroyed and its cancel hook runs. False if the run has no launch.
+     */
+    public boolean cancel(UUID runId) {
+        Launch launch = launches.get(runId);
+        if (launch == null) return false;
+        cancelled.increment();
+        launch.cancelled = true;
+        launch.future.cancel(true);
+        pool.remove(launch.future);
+        Process process = launch.process;
+        if (process != null && process.isAlive()) process.destroyForcibly();
+        Runnable hook = launch.onCancel;
+        if (hook != null) {
+            try {
+                hook.run();
+            } catch (Exception e) {
+                logger.warn("Cancel hook of run {} failed: {}", runId, e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Container process of the run's launch, if it has started one
+     */
+    public Process process(UUID runId) {
+        Launch launch = launches.get(runId);
+        return launch == null ? null : launch.process;
+    }
+
+    public boolean hasLaunch(UUID runId) {
+        return launches.containsKey(runId);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("maxConcurrentLaunches", pool.getMaximumPoolSize());
+        stats.put("queueCapacity", pool.getQueue().size() + pool.getQueue().remainingCapacity());
+        stats.put("active", pool.getActiveCount());
+        stats.put("queued", pool.getQueue().size());
+        stats.put("completed", pool.getCompletedTaskCount());
+        stats.put("rejected", (long) rejected.count());
+        stats.put("cancelled", (long) cancelled.count());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+        if (!launches.isEmpty()) {
+            logger.info("Shutting down orchestration: cancelling {} container launch(es)", launches.size());
+            for (UUID runId : launches.keySet()) cancel(runId);
+        }
+        try {
+            // give the launch threads time to record the container exit
+            if (!pool.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) pool.shutdownNow();
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Body of a launch; runs on an orchestration thread
+     */
+    @FunctionalInterface
+    public interface LaunchTask {
+        void run(Launch launch) throws Exception;
+    }
+
+    /**
+     * One queued or running container launch
+     */
+    public static final class Launch {
+        private final UUID runId;
+        private volatile FutureTask<Void> future;
+        private volatile Process process;
+        private volatile Runnable onCancel;
+        private volatile boolean cancelled;
+
+        Launch(UUID runId) {
+            this.runId = runId;
+        }
+
+        public UUID getRunId() { return runId; }
+
+        /**
+         * Record the started container process; it is destroyed if the launch is cancelled
+         */
+        public void attach(Process process) {
+            this.process = process;
+            if (cancelled) process.destroyForcibly();
+        }
+
+        /**
+         * Extra clean-up to run on cancellation (e.g. killing the container by name)
+         */
+        public void onCancel(Runnable hook) {
+            this.onCancel = hook;
+        }
+
+        public boolean isCancelled() { return cancelled; }
+    }
+}
@@ -0,0 +1,213 @@
+package com.lineage.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lineage.entity.ExtractionRun;
+import com.lineage.repository.LineageEdgeVersionRepository;
+import com.lineage.repository.LineageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RunDiffService computes what changed in lineage between two completed runs.
+ *
+ * Edge sets are compared by their 128-bit fingerprints (LineageEdgeVersionRepository.EDGE_FINGERPRINT),
+ * which cover normalized endpoints, columns and type but not the location, so reformatting a SQL file
+ * does not show its edges as removed and re-added. A run folded into lineage_edge_versions is read as
+ * the versions valid when it was folded (the file and lines are where the edge was last found); a run
+ * that was not folded (it completed after a newer run) is read from its own lineage rows. Tables and columns are
+ * compared by normalized qualified name; each comparison is a single FULL OUTER JOIN that Postgres
+ * executes as a hash join. Rows are streamed from a server-side cursor straight into the response
+ * as newline-delimited JSON, so memory does not depend on the size of either run.
+ */
+@Service
+public class RunDiffService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RunDiffService.class);
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String TABLES_DIFF =
+            "WITH ta AS (SELECT lower(trim(full_name)) AS qn, max(full_name) AS name FROM assets WHERE run_id = ? GROUP BY 1), " +
+            "     tb AS (SELECT lower(trim(full_name)) AS qn, max(full_name) AS name FROM assets WHERE run_id = ? GROUP BY 1) " +
+            "SELECT CASE WHEN ta.qn IS NULL THEN 'added' ELSE 'removed' END, coalesce(tb.name, ta.name) " +
+            "FROM ta FULL OUTER JOIN tb ON ta.qn = tb.qn " +
+            "WHERE ta.qn IS NULL OR tb.qn IS NULL";
+
+    private static final String COLUMNS_DIFF =
+            "WITH ca AS (SELECT lower(trim(a.full_name)) AS qn, lower(trim(c.column_name)) AS col, " +
+            "                   max(a.full_name) AS name, max(c.column_name) AS column_name " +
+            "            FROM asset_columns c JOIN assets a ON a.asset_id = c.asset_id WHERE a.run_id = ? GROUP BY 1, 2), " +
+            "     cb AS (SELECT lower(trim(a.full_name)) AS qn, lower(trim(c.column_name)) AS col, " +
+            "                   max(a.full_name) AS name, max(c.column_name) AS column_name " +
+            "            FROM asset_columns c JOIN assets a ON a.asset_id = c.asset_id WHERE a.run_id = ? GROUP BY 1, 2) " +
+            "SELECT CASE WHEN ca.qn IS NULL THEN 'added' ELSE 'removed' END, coalesce(cb.name, ca.name), " +
+            "       coalesce(cb.column_name, ca.column_name) " +
+            "FROM ca FULL OUTER JOIN cb ON ca.qn = cb.qn AND ca.col = cb.col " +
+            "WHERE ca.qn IS NULL OR cb.qn IS NULL";
+
+    // Edge set of a folded run as of the moment it was folded into the temporal store
+    private static final String EDGES_AS_OF =
+            "SELECT v.edge_fingerprint, v.from_catalog_id, v.to_catalog_id, v.from_column, v.to_column, " +
+            "       v.edge_type, v.transformation_type, v.file_path, v.start_line, v.end_line " +
+            "FROM lineage_edge_versions v " +
+            "WHERE v.repository_url = ? AND v.branch = ? AND v.valid_from_at <= ? " +
+            "  AND (v.valid_to_at IS NULL OR v.valid_to_at > ?)";
+
+    // Edge set of a run that was not folded, from its per-run rows (same columns as EDGES_AS_OF)
+    private static final String RUN_EDGES =
+            "SELECT e.fp AS edge_fingerprint, e.from_catalog_id, e.to_catalog_id, e.from_column, e.to_column, " +
+            "       e.edge_type, e.transformation_type, e.file_path, e.start_line, e.end_line " +
+            "FROM (" + LineageEdgeVersionRepository.RUN_EDGES_BY_FINGERPRINT.replace(":runId", "?") + ") e";
+
+    private static final String EDGES_DIFF =
+            "WITH ea AS (%s), eb AS (%s) " +
+            "SELECT CASE WHEN ea.edge_fingerprint IS NULL THEN 'added' ELSE 'removed' END, " +
+            "       coalesce(ea.edge_fingerprint, eb.edge_fingerprint), fc.full_name, tc.full_name, " +
+            "       coalesce(ea.from_column, eb.from_column), coalesce(ea.to_column, eb.to_column), " +
+            "       coalesce(ea.edge_type, eb.edge_type), coalesce(ea.transformation_type, eb.transformation_type), " +
+            "       coalesce(ea.file_path, eb.file_path), coalesce(ea.start_line, eb.start_line), " +
+            "       coalesce(ea.end_line, eb.end_line) " +
+            "FROM ea FULL OUTER JOIN eb ON ea.edge_fingerprint = eb.edge_fingerprint " +
+            "JOIN catalog_assets fc ON fc.catalog_id = coalesce(ea.from_catalog_id, eb.from_catalog_id) " +
+            "JOIN catalog_assets tc ON tc.catalog_id = coalesce(ea.to_catalog_id, eb.to_catalog_id) " +
+            "WHERE ea.edge_fingerprint IS NULL OR eb.edge_fingerprint IS NULL";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TemporalLineageService temporalLineageService;
+
+    @Autowired
+    private LineageRepository lineageRepository;
+
+    @Autowired
+    private RunSummaryService runSummaryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Whether the diff can read the run's edges: from the temporal store when the run was folded,
+     * otherwise from its lineage rows as long as they have not been pruned
+     */
+    @Transactional(readOnly = true)
+    public boolean hasEdges(ExtractionRun run) {
+        return temporalLineageService.isFolded(run)
+                || lineageRepository.existsByExtractionRunRunId(run.getRunId())
+                || runSummaryService.edgeCounts(run).total() == 0;
+    }
+
+    /**
+     * Stream the diff from run a (base) to run b as NDJSON: one line per added/removed table,
+     * column and edge, followed by a summary line with the counts.
+     */
+    @Transactional(readOnly = true)
+    public void writeDiff(ExtractionRun a, ExtractionRun b, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        try {
+            query(TABLES_DIFF, (RowCallbackHandler) rs -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("kind", "table");
+                row.put("change", rs.getString(1));
+                row.put("table", rs.getString(2));
+                emit(out, row, counts);
+            }, a.getRunId(), b.getRunId());
+
+            query(COLUMNS_DIFF, (RowCallbackHandler) rs -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("kind", "column");
+                row.put("change", rs.getString(1));
+                row.put("table", rs.getString(2));
+                row.put("column", rs.getString(3));
+                emit(out, row, counts);
+            }, a.getRunId(), b.getRunId());
+
+            List<Object> args = new ArrayList<>();
+            String edgesA = edges(a, args);
+            String edgesB = edges(b, args);
+            query(String.format(EDGES_DIFF, edgesA, edgesB), (RowCallbackHandler) rs -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("kind", "edge");
+                row.put("change", rs.getString(1));
+                row.put("fingerprint", rs.getString(2));
+                row.put("from", rs.getString(3));
+                row.put("to", rs.getString(4));
+                row.put("fromColumn", rs.getString(5));
+                row.put("toColumn", rs.getString(6));
+                row.put("edgeType", rs.getString(7));
+                row.put("transformationType", rs.getString(8));
+                row.put("filePath", rs.getString(9));
+                row.put("startLine", rs.getObject(10));
+                row.put("endLine", rs.getObject(11));
+                emit(out, row, counts);
+            }, args.toArray());
+        } catch (UncheckedIOException e) {
+            // client went away; nothing left to write to
+            throw e.getCause();
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("kind", "summary");
+        summary.put("baseRunId", a.getRunId());
+        summary.put("runId", b.getRunId());
+        summary.put("counts", counts);
+        out.write(objectMapper.writeValueAsBytes(summary));
+        out.write('\n');
+        out.flush();
+        logger.info("Diff {} -> {} streamed in {} ms: {}", a.getRunId(), b.getRunId(),
+                System.currentTimeMillis() - started, counts);
+    }
+
+    // Edge set query of a run, appending its arguments
+    private String edges(ExtractionRun run, List<Object> args) {
+        if (!temporalLineageService.isFolded(run)) {
+            args.add(run.getRunId());
+            return RUN_EDGES;
+        }
+        Timestamp at = Timestamp.valueOf(TemporalLineageService.foldedAt(run));
+        args.addAll(List.of(run.getRepositoryUrl(), run.getBranch(), at, at));
+        return EDGES_AS_OF;
+    }
+
+    // Runs inside the read-only transaction, so the driver uses a cursor and honours the fetch size
+    private void query(String sql, RowCallbackHandler handler, Object... args) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            new ArgumentPreparedStatementSetter(args).setValues(ps);
+            return ps;
+        }, handler);
+    }
+
+    private void emit(OutputStream out, Map<String, Object> row, Map<String, Long> counts) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(row));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        counts.merge(row.get("kind") + "s" + capitalize((String) row.get("change")), 1L, Long::sum);
+    }
+
+    private static String capitalize(String s) {
+        return s == null || s.isEmpty() ? "" : Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+}
@@ -0,0 +1,113 @@
+package com.lineage.service;
+
+import com.lineage.entity.ExtractionRun;
+import com.lineage.entity.File;
+import com.lineage.entity.RunSummary;
+import com.lineage.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * RunSummaryService precomputes per-run counts and deltas when a run finishes.
+ */
+@Service
+@Transactional
+public class RunSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RunSummaryService.class);
+
+    @Autowired
+    private RunSummaryRepository runSummaryRepository;
+
+    @Autowired
+    private ExtractionRunRepository extractionRunRepository;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private LineageRepository lineageRepository;
+
+    @Autowired
+    private JobStatusRepository jobStatusRepository;
+
+    @Autowired
+    private LineageEdgeVersionRepository edgeVersionRepository;
+
+    // Edge counts of a run: all edges, table edges, column edges
+    public record EdgeCounts(long total, long tableEdges, long columnEdges) {}
+
+    /**
+     * Compute (or recompute) the summary of a finished run
+     */
+    public RunSummary summarize(ExtractionRun run) {
+        UUID runId = run.getRunId();
+        RunSummary summary = runSummaryRepository.findById(runId).orElseGet(() -> new RunSummary(runId));
+
+        summary.setFileCount(fileRepository.countByRunId(runId));
+        summary.setAssetCount(assetRepository.countByExtractionRunRunId(runId));
+        summary.setEdgeCount(lineageRepository.countByExtractionRunRunId(runId));
+        summary.setTableEdgeCount(lineageRepository.countByExtractionRunRunIdAndEdgeTypeIgnoreCase(runId, "table_edge"));
+        summary.setColumnEdgeCount(lineageRepository.countByExtractionRunRunIdAndEdgeTypeIgnoreCase(runId, "column_edge"));
+
+        long failedFiles = fileRepository.countByRunIdAndStatus(runId, File.FileStatus.FAILED);
+        summary.setErrors(Math.max(failedFiles, jobStatusRepository.findMaxErrorCountByRunId(runId)));
+
+        // Deltas against the previous completed run of the same repository and branch
+        LocalDateTime before = run.getCreatedAt() != null ? run.getCreatedAt() : LocalDateTime.now();
+        Optional<ExtractionRun> previous = extractionRunRepository
+                .findFirstByRepositoryUrlAndBranchAndPhaseAndRunIdNotAndCreatedAtBeforeOrderByCreatedAtDesc(
+                        run.getRepositoryUrl(), run.getBranch(), ExtractionRun.ExtractionPhase.COMPLETED, runId, before);
+        if (previous.isPresent()) {
+            UUID previousId = previous.get().getRunId();
+            long previousAssets = runSummaryRepository.findById(previousId).map(RunSummary::getAssetCount)
+                    .orElseGet(() -> assetRepository.countByExtractionRunRunId(previousId));
+            long previousEdges = edgeCounts(previous.get()).total();
+            summary.setPreviousRunId(previousId);
+            summary.setAssetsDelta(summary.getAssetCount() - previousAssets);
+            summary.setEdgesDelta(summary.getEdgeCount() - previousEdges);
+        } else {
+            summary.setPreviousRunId(null);
+            summary.setAssetsDelta(summary.getAssetCount());
+            summary.setEdgesDelta(summary.getEdgeCount());
+        }
+
+        summary = runSummaryRepository.save(summary);
+        logger.info("Run summary for {}: {} assets ({}), {} edges ({}), {} errors", runId,
+                summary.getAssetCount(), summary.getAssetsDelta(), summary.getEdgeCount(), summary.getEdgesDelta(), summary.getErrors());
+        return summary;
+    }
+
+    /**
+     * Edge counts of a run. Completed runs may have had their per-run lineage rows pruned once folded
+     * into lineage_edge_versions, so they read their summary (counted when the run finished) or, without
+     * one, the stream's edge versions valid when the run was folded. Other runs count their own rows.
+     */
+    @Transactional(readOnly = true)
+    public EdgeCounts edgeCounts(ExtractionRun run) {
+        UUID runId = run.getRunId();
+        if (run.getPhase() != ExtractionRun.ExtractionPhase.COMPLETED) {
+            return new EdgeCounts(lineageRepository.countByExtractionRunRunId(runId),
+                    lineageRepository.countByExtractionRunRunIdAndEdgeTypeIgnoreCase(runId, "table_edge"),
+                    lineageRepository.countByExtractionRunRunIdAndEdgeTypeIgnoreCase(runId, "column_edge"));
+        }
+        Optional<RunSummary> summary = runSummaryRepository.findById(runId);
+        if (summary.isPresent()) {
+            return new EdgeCounts(summary.get().getEdgeCount(), summary.get().getTableEdgeCount(),
+                    summary.get().getColumnEdgeCount());
+        }
+        Object[] row = edgeVersionRepository.countEdgesAsOf(run.getRepositoryUrl(), run.getBranch(),
+                TemporalLineageService.foldedAt(run)).get(0);
+        return new EdgeCounts(((Number) row[0]).longValue(), ((Number) row[1]).longValue(), ((Number) row[2]).longValue());
+    }
+}
@@ -0,0 +1,296 @@
+package com.lineage.service;
+
+import com.lineage.dto.FileManifestEntry;
+import com.lineage.entity.ExtractionRun;
+import com.lineage.entity.ExtractionShard;
+import com.lineage.entity.File;
+import com.lineage.entity.JobStatus;
+import com.lineage.repository.ExtractionRunRepository;
+import com.lineage.repository.ExtractionShardRepository;
+import com.lineage.repository.FileRepository;
+import com.lineage.repository.JobStatusRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * ShardedRunService splits the files of a sharded extraction run across several containers that share
+ * the run id, and decides when the run is complete.
+ *
+ * Every shard container posts the checkout manifest with its shard index. The first one plans the run:
+ * unchanged files of an INCREMENTAL run are carried forward once, and the paths left to extract are dealt
+ * round-robin (in path order) into one partition per shard. Each shard is answered with its partition.
+ * The run completes when every shard reported completion; the stats of the shards are summed.
+ *
+ * A shard whose container exits without reporting completion is retried on its own, up to
+ * app.extraction.max-retries times, with a new launch id; a retry skips the paths already extracted
+ * successfully by earlier attempts. When a shard runs out of retries the run fails.
+ *
+ * All state changes lock the run row, so concurrent reports of different shards are serialized.
+ */
+@Service
+@Transactional
+public class ShardedRunService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedRunService.class);
+
+    @Value("${app.extraction.max-retries:3}")
+    private int maxRetries;
+
+    @Autowired
+    private ExtractionRunRepository extractionRunRepository;
+
+    @Autowired
+    private ExtractionShardRepository shardRepository;
+
+    @Autowired
+    private JobStatusRepository jobStatusRepository;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private IncrementalRunService incrementalRunService;
+
+    @Autowired
+    private RunSummaryService runSummaryService;
+
+    /**
+     * Create the shards of a new run, each with the launch id of its first attempt
+     */
+    public List<ExtractionShard> createShards(ExtractionRun run) {
+        List<ExtractionShard> shards = new ArrayList<>(run.getShardCount());
+        for (int i = 0; i < run.getShardCount(); i++) {
+            ExtractionShard shard = new ExtractionShard(run, i);
+            shard.setLaunchId(UUID.randomUUID());
+            shards.add(shard);
+        }
+        return shardRepository.saveAll(shards);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ExtractionShard> shards(UUID runId) {
+        return shardRepository.findByExtractionRunRunIdOrderByShardIndex(runId);
+    }
+
+    /**
+     * Record that the current attempt's container is being started; false if the launch is stale
+     */
+    public boolean markLaunched(UUID shardId, UUID launchId) {
+        ExtractionShard shard = shardRepository.findById(shardId).orElse(null);
+        if (shard == null || !launchId.equals(shard.getLaunchId())) return false;
+        shard.setStatus(ExtractionShard.ShardStatus.RUNNING);
+        shard.setAttempts(shard.getAttempts() + 1);
+        shard.setStartedAt(LocalDateTime.now());
+        shard.setFinishedAt(null);
+        shard.setLastError(null);
+        shardRepository.save(shard);
+        return true;
+    }
+
+    /**
+     * Manifest posted by one shard: plans the run on the first call, then returns the shard's paths
+     */
+    public Map<String, Object> applyManifest(UUID runId, int shardIndex, List<FileManifestEntry> manifest) {
+        ExtractionRun run = extractionRunRepository.findByIdForUpdate(runId)
+                .orElseThrow(() -> new RuntimeException("Extraction run not found: " + runId));
+        if (!run.isSharded()) throw new IllegalStateException("Run is not sharded: " + runId);
+        List<ExtractionShard> shards = shardRepository.findByExtractionRunRunIdOrderByShardIndex(runId);
+        if (shardIndex < 0 || shardIndex >= shards.size()) {
+            throw new IllegalArgumentException("Shard " + shardIndex + " out of range for run " + runId + " (" + shards.size() + " shards)");
+        }
+
+        Object carriedForward = 0;
+        if (shards.get(0).getPaths() == null) {
+            Map<String, Object> plan = incrementalRunService.applyManifest(runId, manifest);
+            carriedForward = plan.get("carriedForward");
+            @SuppressWarnings("unchecked")
+            List<String> extract = new ArrayList<>((List<String>) plan.get("extract"));
+            Collections.sort(extract);
+            List<List<String>> partitions = new ArrayList<>(shards.size());
+            for (int i = 0; i < shards.size(); i++) partitions.add(new ArrayList<>());
+            for (int i = 0; i < extract.size(); i++) partitions.get(i % shards.size()).add(extract.get(i));
+            for (ExtractionShard shard : shards) shard.setPaths(partitions.get(shard.getShardIndex()));
+            shardRepository.saveAll(shards);
+            logger.info("Planned sharded run {}: {} paths to extract across {} shards", runId, extract.size(), shards.size());
+        }
+
+        ExtractionShard shard = shards.get(shardIndex);
+        List<String> paths = shard.getPaths();
+        if (shard.getAttempts() > 1) {
+            // a retry only extracts what earlier attempts did not finish
+            Set<String> done = new HashSet<>();
+            for (Object[] row : fileRepository.findHashesByRunIdAndStatus(runId, File.FileStatus.SUCCESS)) done.add((String) row[0]);
+            paths = paths.stream().filter(p -> !done.contains(p)).toList();
+        }
+
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("runId", runId);
+        resp.put("baselineRunId", run.getBaselineRunId());
+        resp.put("shardIndex", shardIndex);
+        resp.put("shardCount", shards.size());
+        resp.put("extract", paths);
+        resp.put("carriedForward", carriedForward);
+        logger.info("Manifest for run {} shard {} (attempt {}): {} paths to extract", runId, shardIndex, shard.getAttempts(), paths.size());
+        return resp;
+    }
+
+    public void shardStarted(UUID runId, int shardIndex) {
+        ExtractionShard shard = lockedShard(runId, shardIndex);
+        if (shard != null && shard.getStatus() == ExtractionShard.ShardStatus.QUEUED) {
+            shard.setStatus(ExtractionShard.ShardStatus.RUNNING);
+            shardRepository.save(shard);
+        }
+    }
+
+    /**
+     * Record a shard's completion; true when it was the last shard, i.e. the run is complete
+     */
+    public boolean shardCompleted(UUID runId, int shardIndex, Map<String, Object> stats) {
+        ExtractionShard shard = lockedShard(runId, shardIndex);
+        if (shard == null) return false;
+        shard.setStatus(ExtractionShard.ShardStatus.COMPLETED);
+        shard.setFinishedAt(LocalDateTime.now());
+        if (stats != null) shard.setStats(stats);
+        shardRepository.save(shard);
+        List<ExtractionShard> shards = shardRepository.findByExtractionRunRunIdOrderByShardIndex(runId);
+        long completed = shards.stream().filter(s -> s.getStatus() == ExtractionShard.ShardStatus.COMPLETED).count();
+        logger.info("Run {} shard {} completed ({}/{})", runId, shardIndex, completed, shards.size());
+        return completed == shards.size();
+    }
+
+    /**
+     * Record a failure reported by a shard; the retry decision is taken when its container exits
+     */
+    public void shardFailed(UUID runId, int shardIndex, String error) {
+        ExtractionShard shard = lockedShard(runId, shardIndex);
+        if (shard == null || shard.getStatus() == ExtractionShard.ShardStatus.COMPLETED) return;
+        shard.setStatus(ExtractionShard.ShardStatus.FAILED);
+        shard.setLastError(error);
+        shardRepository.save(shard);
+    }
+
+    /**
+     * The container of a shard attempt exited: retry the shard (new launch id), fail the run when the
+     * shard has no retries left, or nothing to do (completed, stale attempt, run already finished)
+     */
+    public ShardExit onContainerExit(UUID runId, UUID shardId, UUID launchId) {
+        // lock before reading the shard so a concurrent completion report is either fully seen or not at all
+        ExtractionRun run = extractionRunRepository.findByIdForUpdate(runId).orElse(null);
+        ExtractionShard shard = shardRepository.findById(shardId).orElse(null);
+        if (run == null || shard == null || run.getPhase() != ExtractionRun.ExtractionPhase.STARTED
+                || !launchId.equals(shard.getLaunchId())
+                || shard.getStatus() == ExtractionShard.ShardStatus.COMPLETED) {
+            return new ShardExit(ShardExit.Outcome.DONE, null);
+        }
+
+        String error = shard.getLastError() != null ? shard.getLastError() : "Container exited without reporting completion";
+        JobStatus jobStatus = new JobStatus(run);
+        jobStatus.setShardIndex(shard.getShardIndex());
+        jobStatus.setLastError(error);
+
+        if (shard.getAttempts() <= maxRetries) {
+            shard.setStatus(ExtractionShard.ShardStatus.QUEUED);
+            shard.setLaunchId(UUID.randomUUID());
+            shard.setFinishedAt(LocalDateTime.now());
+            shardRepository.save(shard);
+            jobStatus.setStatus(JobStatus.JobStatusEnum.RUNNING);
+            jobStatus.setCurrentPhase("retrying");
+            jobStatusRepository.save(jobStatus);
+            logger.warn("Run {} shard {} failed on attempt {} ({}), retrying", run.getRunId(), shard.getShardIndex(), shard.getAttempts(), error);
+            return new ShardExit(ShardExit.Outcome.RETRY, shard.getLaunchId());
+        }
+
+        shard.setStatus(ExtractionShard.ShardStatus.FAILED);
+        shard.setFinishedAt(LocalDateTime.now());
+        shardRepository.save(shard);
+        run.setPhase(ExtractionRun.ExtractionPhase.FAILED);
+        run.setFinishedAt(LocalDateTime.now());
+        extractionRunRepository.save(run);
+        runSummaryService.summarize(run);
+        jobStatus.setStatus(JobStatus.JobStatusEnum.FAILED);
+        jobStatus.setCurrentPhase("failed");
+        jobStatus.setLastError("Shard " + shard.getShardIndex() + " failed after " + shard.getAttempts() + " attempts: " + error);
+        jobStatusRepository.save(jobStatus);
+        logger.error("Run {} failed: shard {} failed after {} attempts ({})", run.getRunId(), shard.getShardIndex(), shard.getAttempts(), error);
+        return new ShardExit(ShardExit.Outcome.RUN_FAILED, null);
+    }
+
+    /**
+     * Stats of a completed sharded run: numeric values summed over the shards, others from the first shard
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> aggregateStats(UUID runId) {
+        Map<String, Object> total = new LinkedHashMap<>();
+        List<ExtractionShard> shards = shardRepository.findByExtractionRunRunIdOrderByShardIndex(runId);
+        for (ExtractionShard shard : shards) {
+            if (shard.getStats() == null) continue;
+            for (Map.Entry<String, Object> e : shard.getStats().entrySet()) {
+                Object current = total.get(e.getKey());
+                if (current instanceof Number a && e.getValue() instanceof Number b) {
+                    // not a conditional expression: it would promote the long sum to double
+                    if (a instanceof Double || b instanceof Double || a instanceof Float || b instanceof Float) {
+                        total.put(e.getKey(), a.doubleValue() + b.doubleValue());
+                    } else {
+                        total.put(e.getKey(), a.longValue() + b.longValue());
+                    }
+                } else {
+                    total.putIfAbsent(e.getKey(), e.getValue());
+                }
+            }
+        }
+        total.put("shards", shards.size());
+        return total;
+    }
+
+    /**
+     * Per-shard state and latest reported progress of a sharded run
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> progress(UUID runId) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (ExtractionShard shard : shardRepository.findByExtractionRunRunIdOrderByShardIndex(runId)) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("shardIndex", shard.getShardIndex());
+            item.put("status", shard.getStatus());
+            item.put("attempts", shard.getAttempts());
+            item.put("assignedFiles", shard.getPaths() == null ? null : shard.getPaths().size());
+            item.put("startedAt", shard.getStartedAt());
+            item.put("finishedAt", shard.getFinishedAt());
+            item.put("lastError", shard.getLastError());
+            jobStatusRepository.findFirstByExtractionRunRunIdAndShardIndexOrderByLastUpdatedDesc(runId, shard.getShardIndex())
+                    .ifPresent(js -> {
+                        item.put("currentPhase", js.getCurrentPhase());
+                        item.put("totalFiles", js.getTotalFiles());
+                        item.put("processedFiles", js.getProcessedFiles());
+                        item.put("errorCount", js.getErrorCount());
+                        item.put("lastUpdated", js.getLastUpdated());
+                    });
+            result.add(item);
+        }
+        return result;
+    }
+
+    private ExtractionShard lockedShard(UUID runId, int shardIndex) {
+        extractionRunRepository.findByIdForUpdate(runId)
+                .orElseThrow(() -> new RuntimeException("Extraction run not found: " + runId));
+        for (ExtractionShard shard : shardRepository.findByExtractionRunRunIdOrderByShardIndex(runId)) {
+            if (shard.getShardIndex() == shardIndex) return shard;
+        }
+        logger.warn("Run {} has no shard {}", runId, shardIndex);
+        return null;
+    }
+
+    /**
+     * Decision after a shard container exited; nextLaunchId is set for RETRY
+     */
+    public record ShardExit(Outcome outcome, UUID nextLaunchId) {
+        public enum Outcome { DONE, RETRY, RUN_FAILED }
+    }
+}
@@ -0,0 +1,100 @@
+package com.lineage.service;
+
+import com.lineage.entity.SqlBlob;
+import com.lineage.repository.SqlBlobRepository;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * SqlContentService stores raw SQL once per distinct content, LZ4-compressed, in sql_blobs.
+ *
+ * Files only keep the content hash; the text is decompressed on demand for edge details and
+ * snippet requests, never when files or lineage are listed.
+ */
+@Service
+@Transactional
+public class SqlContentService {
+
+    static final String CODEC_LZ4 = "lz4";
+    static final String CODEC_NONE = "none";
+
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    @Autowired
+    private SqlBlobRepository sqlBlobRepository;
+
+    /**
+     * Store SQL content (if not already stored) and return its content hash; null for empty content
+     */
+    public String store(String sql) {
+        if (sql == null || sql.isEmpty()) return null;
+        byte[] raw = sql.getBytes(StandardCharsets.UTF_8);
+        String hash = sha256(raw);
+        if (sqlBlobRepository.existsById(hash)) return hash;
+
+        LZ4Compressor compressor = LZ4.fastCompressor();
+        byte[] buffer = new byte[compressor.maxCompressedLength(raw.length)];
+        int compressedLength = compressor.compress(raw, 0, raw.length, buffer, 0, buffer.length);
+        // Tiny or incompressible content is stored as is
+        if (compressedLength < raw.length) {
+            byte[] compressed = java.util.Arrays.copyOf(buffer, compressedLength);
+            sqlBlobRepository.insertIfAbsent(hash, CODEC_LZ4, raw.length, compressedLength, compressed);
+        } else {
+            sqlBlobRepository.insertIfAbsent(hash, CODEC_NONE, raw.length, raw.length, raw);
+        }
+        return hash;
+    }
+
+    /**
+     * Load and decompress the content for a hash
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> load(String contentHash) {
+        if (contentHash == null) return Optional.empty();
+        return sqlBlobRepository.findById(contentHash).map(SqlContentService::decode);
+    }
+
+    /**
+     * Lines [startLine - context, endLine + context] (1-based, inclusive) of the stored content
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> snippet(String contentHash, Integer startLine, Integer endLine, int context) {
+        return load(contentHash).map(sql -> {
+            if (startLine == null && endLine == null) return sql;
+            String[] lines = sql.split("\\r?\\n", -1);
+            int start = Math.max(1, (startLine != null ? startLine : endLine) - context);
+            int end = Math.min(lines.length, (endLine != null ? endLine : startLine) + context);
+            if (start > end) return "";
+            return String.join("\n", java.util.Arrays.copyOfRange(lines, start - 1, end));
+        });
+    }
+
+    private static String decode(SqlBlob blob) {
+        byte[] raw;
+        if (CODEC_LZ4.equals(blob.getCodec())) {
+            LZ4FastDecompressor decompressor = LZ4.fastDecompressor();
+            raw = decompressor.decompress(blob.getContent(), blob.getRawSize());
+        } else {
+            raw = blob.getContent();
+        }
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.lineage.service;
+
+import com.lineage.entity.ExtractionRun;
+import com.lineage.repository.ExtractionRunRepository;
+import com.lineage.repository.LineageEdgeVersionRepository;
+import com.lineage.repository.LineageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * TemporalLineageService folds each completed run into lineage_edge_versions.
+ *
+ * Edges are stored once per repository/branch with a validity range: the run's edge set is
+ * diffed against the open versions by fingerprint, versions whose edge disappeared are closed
+ * and new edges are opened. The fingerprint covers the logical edge only; where the edge was found
+ * (file, lines) is updated in place on the open version.
+ *
+ * Once folded, the per-run lineage rows of older completed runs are dropped (app.lineage.prune-superseded-runs,
+ * on by default); readers of completed runs go through the versions or the run summary instead.
+ * Folds of one repository/branch hold its stream lock, so a run completing during the startup backfill
+ * folds after the replay instead of interleaving with it.
+ */
+@Service
+@Transactional
+public class TemporalLineageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TemporalLineageService.class);
+
+    @Autowired
+    private LineageEdgeVersionRepository edgeVersionRepository;
+
+    @Autowired
+    private LineageRepository lineageRepository;
+
+    @Autowired
+    private ExtractionRunRepository extractionRunRepository;
+
+    @Autowired
+    private LineageGraphService lineageGraphService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.lineage.prune-superseded-runs:true}")
+    private boolean pruneSupersededRuns;
+
+    /**
+     * Fold a just-completed run into the temporal store
+     */
+    public void onRunCompleted(ExtractionRun run) {
+        edgeVersionRepository.lockStream(run.getRepositoryUrl(), run.getBranch());
+        // A run that finishes after a newer run of the same stream must not roll its edges back
+        if (extractionRunRepository.existsByRepositoryUrlAndBranchAndPhaseAndCreatedAtAfter(
+                run.getRepositoryUrl(), run.getBranch(), ExtractionRun.ExtractionPhase.COMPLETED, run.getCreatedAt())) {
+            logger.warn("Run {} completed after a newer run of {}@{}; not folded into temporal lineage",
+                    run.getRunId(), run.getRepositoryUrl(), run.getBranch());
+            return;
+        }
+        fold(run);
+        lineageGraphService.invalidate();
+        if (pruneSupersededRuns) {
+            int pruned = lineageRepository.deleteSupersededRunEdges(run.getRepositoryUrl(), run.getBranch(), run.getCreatedAt());
+            logger.debug("Pruned {} per-run lineage rows superseded by run {}", pruned, run.getRunId());
+        }
+    }
+
+    /**
+     * Replay completed runs (oldest first) for repositories/branches that have no temporal history yet,
+     * e.g. data ingested before lineage_edge_versions existed. Each stream is replayed in its own transaction
+     * under its stream lock. Per-run rows are left in place.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void backfill() {
+        try {
+            Map<String, List<ExtractionRun>> streams = new LinkedHashMap<>();
+            for (ExtractionRun run : extractionRunRepository.findByPhaseOrderByCreatedAtAsc(ExtractionRun.ExtractionPhase.COMPLETED)) {
+                streams.computeIfAbsent(run.getRepositoryUrl() + "@" + run.getBranch(), k -> new ArrayList<>()).add(run);
+            }
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            int folded = 0;
+            int replayed = 0;
+            for (List<ExtractionRun> runs : streams.values()) {
+                ExtractionRun first = runs.get(0);
+                Integer count = tx.execute(status -> {
+                    edgeVersionRepository.lockStream(first.getRepositoryUrl(), first.getBranch());
+                    // a run of the stream may have been folded since the runs were listed
+                    if (edgeVersionRepository.existsByRepositoryUrlAndBranch(first.getRepositoryUrl(), first.getBranch())) return 0;
+                    runs.forEach(this::fold);
+                    return runs.size();
+                });
+                if (count != null && count > 0) {
+                    folded += count;
+                    replayed++;
+                }
+            }
+            if (folded > 0) {
+                lineageGraphService.invalidate();
+                logger.info("Temporal lineage backfilled from {} runs of {} repositories", folded, replayed);
+            }
+        } catch (Exception e) {
+            logger.error("Temporal lineage backfill failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Resolve the asOf parameters of the lineage APIs to a point in time (null = current).
+     * asOfRun wins over asOf; a run resolves to the moment it was folded.
+     */
+    @Transactional(readOnly = true)
+    public LocalDateTime resolveAsOf(String asOf, UUID asOfRun) {
+        if (asOfRun != null) {
+            ExtractionRun run = extractionRunRepository.findById(asOfRun)
+                    .orElseThrow(() -> new IllegalArgumentException("Run not found: " + asOfRun));
+            if (run.getPhase() != ExtractionRun.ExtractionPhase.COMPLETED) {
+                throw new IllegalArgumentException("Run is not completed: " + asOfRun);
+            }
+            return foldedAt(run);
+        }
+        if (asOf == null || asOf.isBlank()) return null;
+        try {
+            return LocalDateTime.parse(asOf.trim());
+        } catch (DateTimeParseException e) {
+            return OffsetDateTime.parse(asOf.trim()).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        }
+    }
+
+    /**
+     * Whether a completed run's edge set is in the temporal store, i.e. the stream has history and no
+     * newer run had completed before it (such a run is skipped by onRunCompleted)
+     */
+    @Transactional(readOnly = true)
+    public boolean isFolded(ExtractionRun run) {
+        return run.getPhase() == ExtractionRun.ExtractionPhase.COMPLETED
+                && edgeVersionRepository.existsByRepositoryUrlAndBranch(run.getRepositoryUrl(), run.getBranch())
+                && !extractionRunRepository.existsNewerRunCompletedBefore(run.getRepositoryUrl(), run.getBranch(),
+                        ExtractionRun.ExtractionPhase.COMPLETED, run.getCreatedAt(), foldedAt(run));
+    }
+
+    private void fold(ExtractionRun run) {
+        LocalDateTime at = foldedAt(run);
+        int closed = edgeVersionRepository.closeMissing(run.getRepositoryUrl(), run.getBranch(), run.getRunId(), at);
+        int opened = edgeVersionRepository.openNew(run.getRepositoryUrl(), run.getBranch(), run.getRunId(), at);
+        int moved = edgeVersionRepository.updateLocations(run.getRepositoryUrl(), run.getBranch(), run.getRunId());
+        logger.info("Temporal lineage for run {}: {} edges opened, {} closed, {} moved", run.getRunId(), opened, closed, moved);
+    }
+
+    // Point in time at which a completed run opened/closed its edge versions
+    static LocalDateTime foldedAt(ExtractionRun run) {
+        return run.getFinishedAt() != null ? run.getFinishedAt() : run.getCreatedAt();
+    }
+}
@@ -0,0 +1,25 @@
+-- Merge asset snapshots that are not yet linked to the catalog (rows ingested before the
+-- catalog existed). Executed on every startup after db/indexes.sql; a no-op once all rows are linked.
+
+INSERT INTO catalog_assets (catalog_id, qualified_name, short_key, short_name, full_name, schema_name,
+                            latest_asset_id, last_seen_run_id, first_seen_at, last_seen_at,
+                            upstream_count, downstream_count, created_at)
+SELECT gen_random_uuid(), l.qualified_name, lower(l.short_name), l.short_name, l.full_name, l.schema_name,
+       l.asset_id, l.run_id, l.first_seen_at, l.created_at,
+       (SELECT COUNT(*) FROM lineage x WHERE x.to_asset_id = l.asset_id),
+       (SELECT COUNT(*) FROM lineage x WHERE x.from_asset_id = l.asset_id),
+       now()
+FROM (
+    SELECT DISTINCT ON (lower(trim(a.full_name)))
+           lower(trim(a.full_name)) AS qualified_name, a.short_name, a.full_name, a.schema_name,
+           a.asset_id, a.run_id, a.created_at,
+           MIN(a.created_at) OVER (PARTITION BY lower(trim(a.full_name))) AS first_seen_at
+    FROM assets a
+    WHERE a.catalog_id IS NULL
+    ORDER BY lower(trim(a.full_name)), a.created_at DESC
+) l
+ON CONFLICT (qualified_name) DO NOTHING;
+
+UPDATE assets a SET catalog_id = c.catalog_id
+FROM catalog_assets c
+WHERE a.catalog_id IS NULL AND c.qualified_name = lower(trim(a.full_name));
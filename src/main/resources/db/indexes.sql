@@ -0,0 +1,23 @@
+-- Indexes that cannot be expressed with JPA @Index (expression / operator-class indexes).
+-- Executed on every startup after the Hibernate schema update, so every statement must be idempotent.
+
+-- Case-insensitive short name lookups (latest snapshot per name, bulk entity resolution)
+CREATE INDEX IF NOT EXISTS idx_assets_short_lower_created ON assets (lower(short_name), created_at DESC);
+
+-- Substring search on asset names (/lineage/search/entities, /assets?q=). pg_trgm may require a
+-- privileged role; if the extension is unavailable the GIN indexes are skipped and search falls back to scans.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_assets_short_trgm ON assets USING gin (lower(short_name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_assets_full_trgm ON assets USING gin (lower(full_name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_assets_short_prefix ON assets (lower(short_name) text_pattern_ops);
+
+-- Keyset pagination for /assets: ORDER BY lower(short_name), asset_id
+CREATE INDEX IF NOT EXISTS idx_assets_short_lower_id ON assets (lower(short_name), asset_id);
+
+-- Asset catalog search: prefix on short_key, substring on short_key / qualified_name
+CREATE INDEX IF NOT EXISTS idx_catalog_assets_short_prefix ON catalog_assets (short_key text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_catalog_assets_short_trgm ON catalog_assets USING gin (short_key gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_catalog_assets_qualified_trgm ON catalog_assets USING gin (qualified_name gin_trgm_ops);
+
+-- At most one open version per edge fingerprint and repository/branch (temporal lineage folding)
+CREATE UNIQUE INDEX IF NOT EXISTS idx_edge_versions_open ON lineage_edge_versions (repository_url, branch, edge_fingerprint) WHERE valid_to_at IS NULL;
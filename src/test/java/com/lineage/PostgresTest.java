@@ -0,0 +1,31 @@
+package com.lineage;
+
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks tests of native PostgreSQL queries (DISTINCT ON, jsonb, pg_trgm, partial unique indexes) that an
+ * embedded database cannot run. They need an empty PostgreSQL database and only run when
+ * TEST_DATABASE_URL points at one (TEST_DATABASE_USERNAME / TEST_DATABASE_PASSWORD, default postgres and
+ * no password). The schema comes from the entities and db/*.sql as on application startup; every test
+ * rolls back.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+@TestPropertySource(properties = {
+        "spring.datasource.url=${TEST_DATABASE_URL}",
+        "spring.datasource.username=${TEST_DATABASE_USERNAME:postgres}",
+        "spring.datasource.password=${TEST_DATABASE_PASSWORD:}"
+})
+public @interface PostgresTest {
+}
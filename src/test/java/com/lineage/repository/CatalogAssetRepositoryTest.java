@@ -0,0 +1,75 @@
+package com.lineage.repository;
+
+import com.lineage.PostgresTest;
+import com.lineage.entity.CatalogAsset;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@PostgresTest
+class CatalogAssetRepositoryTest {
+
+    @Autowired
+    private CatalogAssetRepository catalogAssetRepository;
+
+    private void table(String shortName) {
+        table(shortName, null);
+    }
+
+    private void table(String shortName, Double criticality) {
+        CatalogAsset c = new CatalogAsset();
+        c.setQualifiedName("db.sales." + shortName);
+        c.setShortKey(shortName.toLowerCase());
+        c.setShortName(shortName);
+        c.setFullName("db.sales." + shortName);
+        c.setCriticality(criticality);
+        catalogAssetRepository.save(c);
+    }
+
+    private List<String> search(String q, int candidates, int limit) {
+        return search(q, candidates, limit, false);
+    }
+
+    private List<String> search(String q, int candidates, int limit, boolean byCriticality) {
+        String escaped = AssetRepository.escapeLike(q);
+        return catalogAssetRepository.searchByName(q, escaped + "%", "%" + escaped + "%", candidates, limit, byCriticality)
+                .stream().map(r -> (String) r[0]).toList();
+    }
+
+    @Test
+    void bestMatchesSurviveTheCandidateCap() {
+        // many worse matches are stored before the exact one; a cap applied before ranking would lose it
+        for (int i = 0; i < 20; i++) table("orders_archive_" + i);
+        for (int i = 0; i < 20; i++) table("old_orders_" + i);
+        table("orders_v2");
+        table("orders");
+        catalogAssetRepository.flush();
+
+        assertEquals(List.of("orders", "orders_v2"), search("orders", 2, 2));
+    }
+
+    @Test
+    void exactThenPrefixThenSubstringMatches() {
+        table("stg_customers");
+        table("customers_daily");
+        table("customers");
+        catalogAssetRepository.flush();
+
+        assertEquals(List.of("customers", "customers_daily", "stg_customers"), search("customers", 100, 10));
+    }
+
+    @Test
+    void mostCriticalMatchesSurviveTheCandidateCap() {
+        // the critical table is only a substring match; ranking the candidates by match quality would cap it away
+        for (int i = 0; i < 20; i++) table("orders_" + i, 0.1);
+        table("old_orders", 0.9);
+        table("orders_daily", 0.5);
+        catalogAssetRepository.flush();
+
+        assertEquals(List.of("old_orders", "orders_daily"), search("orders", 2, 2, true));
+        assertEquals(List.of("orders_0", "orders_1"), search("orders", 2, 2, false));
+    }
+}
@@ -0,0 +1,35 @@
+package com.lineage.repository;
+
+import com.lineage.PostgresTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@PostgresTest
+class ExtractionRunRepositoryTest {
+
+    @Autowired
+    private ExtractionRunRepository extractionRunRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void phaseCheckConstraintIsFoundAndDropped() {
+        // as created by Hibernate before the QUEUED phase existed
+        jdbcTemplate.execute("ALTER TABLE extraction_runs DROP CONSTRAINT IF EXISTS extraction_runs_phase_check");
+        jdbcTemplate.execute("ALTER TABLE extraction_runs ADD CONSTRAINT extraction_runs_phase_check " +
+                "CHECK (phase IN ('STARTED', 'COMPLETED', 'FAILED'))");
+
+        String definition = extractionRunRepository.findPhaseCheckConstraint().orElseThrow();
+        assertTrue(definition.contains("'COMPLETED'"), definition);
+        assertFalse(definition.contains("'QUEUED'"), definition);
+
+        extractionRunRepository.dropPhaseCheckConstraint();
+        assertEquals(Optional.empty(), extractionRunRepository.findPhaseCheckConstraint());
+    }
+}
@@ -0,0 +1,64 @@
+package com.lineage.service;
+
+import com.lineage.dto.ColumnOccurrenceDto;
+import com.lineage.entity.Asset;
+import com.lineage.repository.AssetColumnRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ColumnIndexServiceTest {
+
+    @Mock
+    private AssetColumnRepository assetColumnRepository;
+
+    @InjectMocks
+    private ColumnIndexService columnIndexService;
+
+    private List<ColumnOccurrenceDto> tablesWith(String column) {
+        List<ColumnOccurrenceDto> items = new ArrayList<>();
+        columnIndexService.findTables(column, 0, 50, items);
+        return items;
+    }
+
+    @Test
+    void rebuildAndIngestKeyTablesTheSameWay() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"Orders", "db.sales.Orders", "customer_id", Asset.Role.SOURCE});
+        when(assetColumnRepository.findDistinctColumnUsages()).thenReturn(rows);
+        columnIndexService.rebuildFromDatabase();
+
+        columnIndexService.record("ORDERS ", "db.sales.ORDERS", "\"Customer_ID\"", Asset.Role.TARGET);
+
+        List<ColumnOccurrenceDto> tables = tablesWith("customer_id");
+        assertEquals(1, tables.size());
+        assertEquals("Orders", tables.get(0).getEntityId());
+        assertEquals(List.of("SOURCE", "TARGET"), tables.get(0).getRoles());
+    }
+
+    @Test
+    void columnsRecordedDuringARebuildSurviveTheSwap() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"orders", "db.sales.orders", "order_id", Asset.Role.SOURCE});
+        when(assetColumnRepository.findDistinctColumnUsages()).thenAnswer(inv -> {
+            // an ingest lands while the rebuild is still reading asset_columns
+            columnIndexService.record("payments", "db.sales.payments", "payment_id", Asset.Role.TARGET);
+            return rows;
+        });
+
+        columnIndexService.rebuildFromDatabase();
+
+        assertEquals(1, tablesWith("order_id").size());
+        assertEquals(1, tablesWith("payment_id").size());
+        assertEquals("payments", tablesWith("payment_id").get(0).getEntityId());
+    }
+}
@@ -0,0 +1,201 @@
+package com.lineage.service;
+
+import com.lineage.entity.ExtractionRun;
+import com.lineage.repository.ExtractionRunRepository;
+import com.lineage.repository.JobStatusRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExtractionSchedulerTest {
+
+    private final Map<UUID, ExtractionRun> runs = new HashMap<>();
+    // containers started by the scheduler, in launch order; completing one frees its resources
+    private final Map<UUID, CompletableFuture<Void>> launched = new LinkedHashMap<>();
+
+    private ExtractionRunRepository extractionRunRepository;
+
+    @BeforeEach
+    void setUp() {
+        extractionRunRepository = mock(ExtractionRunRepository.class);
+        when(extractionRunRepository.findById(any())).thenAnswer(inv -> Optional.ofNullable(runs.get(inv.<UUID>getArgument(0))));
+    }
+
+    private ExtractionScheduler scheduler(int hostCpus, long hostMemoryMb, int maxConcurrentLaunches, int maxRunning) {
+        ExtractionScheduler scheduler = new ExtractionScheduler();
+        ReflectionTestUtils.setField(scheduler, "extractionRunRepository", extractionRunRepository);
+        ReflectionTestUtils.setField(scheduler, "jobStatusRepository", mock(JobStatusRepository.class));
+        ReflectionTestUtils.setField(scheduler, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(scheduler, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(scheduler, "hostCpus", hostCpus);
+        ReflectionTestUtils.setField(scheduler, "hostMemoryMb", hostMemoryMb);
+        ReflectionTestUtils.setField(scheduler, "maxConcurrentLaunches", maxConcurrentLaunches);
+        ReflectionTestUtils.setField(scheduler, "maxRunning", maxRunning);
+        scheduler.start();
+        return scheduler;
+    }
+
+    private ExtractionRun enqueue(ExtractionScheduler scheduler, String repositoryUrl, ExtractionRun.RunPriority priority,
+                                  int cpus, int memoryMb) {
+        ExtractionRun run = new ExtractionRun(repositoryUrl, "main", "test", "1.0");
+        run.setRunId(UUID.randomUUID());
+        run.setPhase(ExtractionRun.ExtractionPhase.QUEUED);
+        run.setPriority(priority);
+        run.setContainerCpus(cpus);
+        run.setContainerMemoryMb(memoryMb);
+        runs.put(run.getRunId(), run);
+        scheduler.enqueue(run, () -> {
+            CompletableFuture<Void> exit = new CompletableFuture<>();
+            launched.put(run.getRunId(), exit);
+            return exit;
+        });
+        return run;
+    }
+
+    @Test
+    void runsStartWhileTheyFitTheCpuBudget() {
+        ExtractionScheduler scheduler = scheduler(8, 65536, 8, 0);
+        ExtractionRun first = enqueue(scheduler, "repo-a", ExtractionRun.RunPriority.MANUAL, 4, 4096);
+        ExtractionRun second = enqueue(scheduler, "repo-b", ExtractionRun.RunPriority.MANUAL, 4, 4096);
+        ExtractionRun third = enqueue(scheduler, "repo-c", ExtractionRun.RunPriority.MANUAL, 4, 4096);
+
+        assertEquals(List.of(first.getRunId(), second.getRunId()), new ArrayList<>(launched.keySet()));
+        assertEquals(ExtractionRun.ExtractionPhase.STARTED, first.getPhase());
+        assertEquals(ExtractionRun.ExtractionPhase.QUEUED, third.getPhase());
+        assertEquals(1, scheduler.queueEntry(third.getRunId()).get("position"));
+
+        launched.get(first.getRunId()).complete(null);
+
+        assertTrue(launched.containsKey(third.getRunId()));
+        assertEquals(ExtractionRun.ExtractionPhase.STARTED, third.getPhase());
+        assertNull(scheduler.queueEntry(third.getRunId()));
+    }
+
+    @Test
+    void memoryBudgetIsRespected() {
+        ExtractionScheduler scheduler = scheduler(64, 16384, 8, 0);
+        enqueue(scheduler, "repo-a", ExtractionRun.RunPriority.MANUAL, 1, 10240);
+        ExtractionRun second = enqueue(scheduler, "repo-b", ExtractionRun.RunPriority.MANUAL, 1, 10240);
+
+        assertEquals(1, launched.size());
+        assertFalse(launched.containsKey(second.getRunId()));
+    }
+
+    @Test
+    void runningContainersNeverExceedTheOrchestrationPool() {
+        // the budget would admit 16 containers, the orchestration pool only follows 2
+        ExtractionScheduler scheduler = scheduler(16, 65536, 2, 0);
+        List<ExtractionRun> queued = new ArrayList<>();
+        for (int i = 0; i < 5; i++) queued.add(enqueue(scheduler, "repo-" + i, ExtractionRun.RunPriority.MANUAL, 1, 1024));
+
+        assertEquals(2, launched.size());
+        Map<String, Object> queue = scheduler.queue();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> budget = (Map<String, Object>) queue.get("budget");
+        assertEquals(2, budget.get("maxRunning"));
+        assertEquals(3, queue.get("queuedCount"));
+
+        // the estimate replays the same cap: queued runs start one finish apart, not all at once
+        Map<String, Object> firstQueued = scheduler.queueEntry(queued.get(2).getRunId());
+        Map<String, Object> lastQueued = scheduler.queueEntry(queued.get(4).getRunId());
+        assertTrue(((LocalDateTime) lastQueued.get("estimatedStartAt"))
+                .isAfter((LocalDateTime) firstQueued.get("estimatedStartAt")));
+    }
+
+    @Test
+    void maxRunningCanOnlyLowerTheCap() {
+        ExtractionScheduler lowered = scheduler(16, 65536, 4, 1);
+        for (int i = 0; i < 3; i++) enqueue(lowered, "repo-" + i, ExtractionRun.RunPriority.MANUAL, 1, 1024);
+        assertEquals(1, launched.size());
+
+        launched.clear();
+        ExtractionScheduler raised = scheduler(16, 65536, 2, 10);
+        for (int i = 0; i < 3; i++) enqueue(raised, "repo-" + i, ExtractionRun.RunPriority.MANUAL, 1, 1024);
+        assertEquals(2, launched.size());
+    }
+
+    @Test
+    void runLargerThanTheBudgetStartsOnceNothingElseRuns() {
+        ExtractionScheduler scheduler = scheduler(4, 8192, 8, 0);
+        ExtractionRun small = enqueue(scheduler, "repo-a", ExtractionRun.RunPriority.MANUAL, 2, 2048);
+        ExtractionRun huge = enqueue(scheduler, "repo-b", ExtractionRun.RunPriority.MANUAL, 16, 32768);
+        assertFalse(launched.containsKey(huge.getRunId()));
+
+        launched.get(small.getRunId()).complete(null);
+
+        assertTrue(launched.containsKey(huge.getRunId()));
+    }
+
+    @Test
+    void manualRunsOvertakeScheduledOnes() {
+        ExtractionScheduler scheduler = scheduler(4, 65536, 8, 0);
+        ExtractionRun running = enqueue(scheduler, "repo-a", ExtractionRun.RunPriority.MANUAL, 4, 1024);
+        ExtractionRun scheduled = enqueue(scheduler, "repo-b", ExtractionRun.RunPriority.SCHEDULED, 4, 1024);
+        ExtractionRun manual = enqueue(scheduler, "repo-c", ExtractionRun.RunPriority.MANUAL, 4, 1024);
+        assertEquals(1, scheduler.queueEntry(manual.getRunId()).get("position"));
+        assertEquals(2, scheduler.queueEntry(scheduled.getRunId()).get("position"));
+
+        launched.get(running.getRunId()).complete(null);
+
+        assertTrue(launched.containsKey(manual.getRunId()));
+        assertFalse(launched.containsKey(scheduled.getRunId()));
+    }
+
+    @Test
+    void repositoryWithFewerRunningContainersGoesFirst() {
+        ExtractionScheduler scheduler = scheduler(2, 65536, 8, 0);
+        ExtractionRun busy = enqueue(scheduler, "repo-a", ExtractionRun.RunPriority.MANUAL, 1, 1024);
+        enqueue(scheduler, "repo-b", ExtractionRun.RunPriority.MANUAL, 1, 1024);
+        ExtractionRun again = enqueue(scheduler, "repo-a", ExtractionRun.RunPriority.MANUAL, 1, 1024);
+        ExtractionRun other = enqueue(scheduler, "repo-c", ExtractionRun.RunPriority.MANUAL, 1, 1024);
+
+        // repo-b's container exits; repo-a still runs one, so repo-c's run goes first although queued later
+        launched.values().stream().skip(1).findFirst().orElseThrow().complete(null);
+
+        assertTrue(launched.containsKey(other.getRunId()));
+        assertFalse(launched.containsKey(again.getRunId()));
+        assertTrue(launched.containsKey(busy.getRunId()));
+    }
+
+    @Test
+    void cancelledQueuedRunIsNeverLaunched() {
+        ExtractionScheduler scheduler = scheduler(4, 65536, 8, 0);
+        ExtractionRun running = enqueue(scheduler, "repo-a", ExtractionRun.RunPriority.MANUAL, 4, 1024);
+        ExtractionRun waiting = enqueue(scheduler, "repo-b", ExtractionRun.RunPriority.MANUAL, 4, 1024);
+
+        assertTrue(scheduler.cancel(waiting.getRunId()));
+        assertFalse(scheduler.cancel(running.getRunId()));
+        launched.get(running.getRunId()).complete(null);
+
+        assertFalse(launched.containsKey(waiting.getRunId()));
+    }
+
+    @Test
+    void outdatedPhaseConstraintIsDroppedOnStartup() {
+        when(extractionRunRepository.findPhaseCheckConstraint())
+                .thenReturn(Optional.of("CHECK (((phase)::text = ANY ((ARRAY['STARTED'::character varying, 'COMPLETED'::character varying])::text[])))"));
+        scheduler(4, 65536, 8, 0);
+        verify(extractionRunRepository).dropPhaseCheckConstraint();
+    }
+
+    @Test
+    void currentPhaseConstraintIsKept() {
+        when(extractionRunRepository.findPhaseCheckConstraint())
+                .thenReturn(Optional.of("CHECK (((phase)::text = ANY ((ARRAY['QUEUED'::character varying, 'STARTED'::character varying])::text[])))"));
+        scheduler(4, 65536, 8, 0);
+        verify(extractionRunRepository, never()).dropPhaseCheckConstraint();
+    }
+}
@@ -0,0 +1,91 @@
+package com.lineage.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphAnalyticsServiceTest {
+
+    private final GraphAnalyticsService analytics = new GraphAnalyticsService();
+    private final LineageComponentService componentService = new LineageComponentService();
+
+    @Test
+    void cycleMembersReachEachOtherButNotThemselves() {
+        // x feeds the cycle a > b > c > a, which feeds d > e
+        LineageGraph g = TestGraphs.of("x>a", "a>b", "b>c", "c>a", "c>d", "d>e");
+        int[] closure = closure(g);
+
+        assertEquals(5, closure[g.find("x")]);
+        assertEquals(4, closure[g.find("a")]);
+        assertEquals(4, closure[g.find("b")]);
+        assertEquals(4, closure[g.find("c")]);
+        assertEquals(1, closure[g.find("d")]);
+        assertEquals(0, closure[g.find("e")]);
+    }
+
+    @Test
+    void tablesReachedOverSeveralRoutesCountOnce() {
+        // a reaches d through b and through c; d and e must not be counted twice
+        LineageGraph g = TestGraphs.of("a>b", "a>c", "b>d", "c>d", "d>e");
+        int[] closure = closure(g);
+
+        assertEquals(4, closure[g.find("a")]);
+        assertEquals(2, closure[g.find("b")]);
+        assertEquals(2, closure[g.find("c")]);
+        assertEquals(1, closure[g.find("d")]);
+        assertEquals(0, closure[g.find("e")]);
+    }
+
+    @Test
+    void cycleInsideADiamond() {
+        // both arms of the diamond run into the same cycle c > d > c before reaching e
+        LineageGraph g = TestGraphs.of("a>b", "a>c", "b>d", "c>d", "d>c", "d>e", "t>t", "t>e");
+        int[] closure = closure(g);
+
+        assertEquals(4, closure[g.find("a")]);
+        assertEquals(3, closure[g.find("b")]);
+        assertEquals(2, closure[g.find("c")]);
+        assertEquals(2, closure[g.find("d")]);
+        // a table reading from itself does not count itself
+        assertEquals(1, closure[g.find("t")]);
+    }
+
+    @Test
+    void closureMatchesBreadthFirstSearchOnRandomGraphs() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            int n = 80;
+            int[][] edges = new int[110][];
+            for (int i = 0; i < edges.length; i++) edges[i] = new int[]{random.nextInt(n), random.nextInt(n)};
+            LineageGraph g = TestGraphs.numbered(n, edges);
+            int[] closure = closure(g);
+            for (int u = 0; u < n; u++) assertEquals(bfsCount(g, u), closure[u], "closure of table " + u);
+        }
+    }
+
+    private int[] closure(LineageGraph g) {
+        return analytics.downstreamClosure(g, componentService.compute(g));
+    }
+
+    // tables other than s reachable from s
+    private static int bfsCount(LineageGraph g, int s) {
+        boolean[] seen = new boolean[g.nodeCount];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(s);
+        int count = 0;
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (int e = g.outOffsets[u]; e < g.outOffsets[u + 1]; e++) {
+                int v = g.outTargets[e];
+                if (seen[v]) continue;
+                seen[v] = true;
+                queue.add(v);
+                if (v != s) count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,131 @@
+package com.lineage.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineageComponentServiceTest {
+
+    private final LineageComponentService componentService = new LineageComponentService();
+
+    @Test
+    void cyclesBecomeComponents() {
+        // t0 > t1 > t2 > t0 is one cycle, t4 reads from itself, t5 stands alone
+        LineageGraph g = TestGraphs.numbered(6, new int[][]{{0, 1}, {1, 2}, {2, 0}, {2, 3}, {3, 4}, {4, 4}});
+        LineageComponentService.Components c = componentService.compute(g);
+
+        assertEquals(4, c.count);
+        assertEquals(c.comp[0], c.comp[1]);
+        assertEquals(c.comp[1], c.comp[2]);
+        assertEquals(3, c.size(c.comp[0]));
+        Set<Integer> distinct = new HashSet<>(List.of(c.comp[0], c.comp[3], c.comp[4], c.comp[5]));
+        assertEquals(4, distinct.size());
+
+        // a single table is a cycle only when it has an edge to itself
+        assertEquals(Set.of(c.comp[0], c.comp[4]), new HashSet<>(c.cycles));
+        assertEquals(3, c.internalEdges[c.comp[0]]);
+        assertEquals(1, c.internalEdges[c.comp[4]]);
+        assertEquals(0, c.internalEdges[c.comp[3]]);
+    }
+
+    @Test
+    void condensedEdgesPointToLowerComponentNumbers() {
+        LineageGraph g = TestGraphs.numbered(6, new int[][]{{0, 1}, {1, 2}, {2, 0}, {2, 3}, {0, 3}, {3, 4}, {4, 4}, {5, 0}});
+        LineageComponentService.Components c = componentService.compute(g);
+
+        // both t0 > t3 and t2 > t3 collapse into one condensed edge
+        assertEquals(3, c.dagFrom.length);
+        for (int i = 0; i < c.dagFrom.length; i++) {
+            assertTrue(c.dagTo[i] < c.dagFrom[i], "components must come out sinks first");
+        }
+        int merged = -1;
+        for (int i = 0; i < c.dagFrom.length; i++) {
+            if (c.dagFrom[i] == c.comp[0] && c.dagTo[i] == c.comp[3]) merged = i;
+        }
+        assertTrue(merged >= 0);
+        assertEquals(2, c.dagCount[merged]);
+    }
+
+    @Test
+    void membersListEveryTableOnce() {
+        LineageGraph g = TestGraphs.numbered(7, new int[][]{{0, 1}, {1, 0}, {2, 3}, {3, 4}, {4, 2}, {4, 5}});
+        LineageComponentService.Components c = componentService.compute(g);
+
+        int[] seen = new int[g.nodeCount];
+        for (int k = 0; k < c.count; k++) {
+            for (int i = c.memberOffsets[k]; i < c.memberOffsets[k + 1]; i++) {
+                int u = c.members[i];
+                assertEquals(k, c.comp[u]);
+                seen[u]++;
+            }
+        }
+        for (int u = 0; u < g.nodeCount; u++) assertEquals(1, seen[u]);
+    }
+
+    @Test
+    void deepChainDoesNotOverflowTheStack() {
+        int n = 200_000;
+        int[][] edges = new int[n][];
+        for (int i = 0; i < n - 1; i++) edges[i] = new int[]{i, i + 1};
+        // closing the chain makes it one huge component
+        edges[n - 1] = new int[]{n - 1, 0};
+        LineageComponentService.Components c = componentService.compute(TestGraphs.numbered(n, edges));
+
+        assertEquals(1, c.count);
+        assertEquals(n, c.size(0));
+    }
+
+    @Test
+    void componentsMatchMutualReachabilityOnRandomGraphs() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            int n = 60;
+            LineageGraph g = randomGraph(random, n, 120);
+            LineageComponentService.Components c = componentService.compute(g);
+            boolean[][] reach = reachability(g);
+            for (int u = 0; u < n; u++) {
+                for (int v = 0; v < n; v++) {
+                    boolean mutual = u == v || (reach[u][v] && reach[v][u]);
+                    assertEquals(mutual, c.comp[u] == c.comp[v], "tables " + u + " and " + v);
+                }
+            }
+        }
+    }
+
+    @Test
+    void componentsAreComputedOncePerSnapshot() {
+        LineageGraph g = TestGraphs.numbered(3, new int[][]{{0, 1}, {1, 2}});
+        LineageComponentService.Components first = componentService.components(g);
+
+        assertSame(first, componentService.components(g));
+        assertNotSame(first, componentService.components(TestGraphs.numbered(3, new int[][]{{0, 1}})));
+    }
+
+    private static LineageGraph randomGraph(Random random, int n, int m) {
+        int[][] edges = new int[m][];
+        for (int i = 0; i < m; i++) edges[i] = new int[]{random.nextInt(n), random.nextInt(n)};
+        return TestGraphs.numbered(n, edges);
+    }
+
+    // reach[u][v]: v can be reached from u over at least one edge
+    private static boolean[][] reachability(LineageGraph g) {
+        int n = g.nodeCount;
+        boolean[][] reach = new boolean[n][n];
+        for (int s = 0; s < n; s++) {
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            queue.add(s);
+            while (!queue.isEmpty()) {
+                int u = queue.poll();
+                for (int e = g.outOffsets[u]; e < g.outOffsets[u + 1]; e++) {
+                    int v = g.outTargets[e];
+                    if (reach[s][v]) continue;
+                    reach[s][v] = true;
+                    queue.add(v);
+                }
+            }
+        }
+        return reach;
+    }
+}
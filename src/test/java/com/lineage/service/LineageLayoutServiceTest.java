@@ -0,0 +1,95 @@
+package com.lineage.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineageLayoutServiceTest {
+
+    @Test
+    void chainGetsOneLayerPerTable() {
+        LineageGraph g = TestGraphs.of("a>b", "b>c");
+        int[][] placement = LineageLayoutService.place(g, all(g));
+
+        assertArrayEquals(new int[]{0, 1, 2}, placement[0]);
+        assertArrayEquals(new int[]{0, 0, 0}, placement[1]);
+    }
+
+    @Test
+    void tableIsPlacedAfterItsFurthestUpstreamTable() {
+        // d reads from a directly and through b > c
+        LineageGraph g = TestGraphs.of("a>b", "b>c", "c>d", "a>d");
+        int[][] placement = LineageLayoutService.place(g, all(g));
+
+        assertEquals(0, placement[0][g.find("a")]);
+        assertEquals(3, placement[0][g.find("d")]);
+    }
+
+    @Test
+    void everyEdgeOfAnAcyclicGraphPointsDownwards() {
+        Random random = new Random(3);
+        int n = 50;
+        List<int[]> edges = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            int u = random.nextInt(n - 1);
+            edges.add(new int[]{u, u + 1 + random.nextInt(n - 1 - u)});
+        }
+        LineageGraph g = TestGraphs.numbered(n, edges.toArray(new int[0][]));
+        int[][] placement = LineageLayoutService.place(g, all(g));
+
+        for (int[] e : edges) assertTrue(placement[0][e[0]] < placement[0][e[1]], "edge " + e[0] + " > " + e[1]);
+        assertOrdersArePermutations(placement);
+    }
+
+    @Test
+    void cyclesAreBrokenInsteadOfLooping() {
+        LineageGraph g = TestGraphs.of("a>b", "b>c", "c>a", "c>d");
+        int[][] placement = LineageLayoutService.place(g, all(g));
+
+        Set<Integer> cycleLayers = Set.of(placement[0][g.find("a")], placement[0][g.find("b")], placement[0][g.find("c")]);
+        assertEquals(Set.of(0, 1, 2), cycleLayers);
+        assertEquals(placement[0][g.find("c")] + 1, placement[0][g.find("d")]);
+    }
+
+    @Test
+    void crossingsAreRemovedByBarycenterOrdering() {
+        // listed as a, b, c, d with a > d and b > c: keeping the listed order would cross the edges
+        LineageGraph g = TestGraphs.of("a", "b", "c", "d", "a>d", "b>c");
+        int[][] placement = LineageLayoutService.place(g, all(g));
+
+        int a = g.find("a"), b = g.find("b"), c = g.find("c"), d = g.find("d");
+        assertEquals(placement[0][c], placement[0][d]);
+        assertEquals(placement[1][a] < placement[1][b], placement[1][d] < placement[1][c]);
+    }
+
+    @Test
+    void onlyEdgesBetweenIncludedTablesCount() {
+        // without x, b has no upstream table inside the layout
+        LineageGraph g = TestGraphs.of("x>b", "a>c", "b>c");
+        List<Integer> included = List.of(g.find("a"), g.find("b"), g.find("c"));
+        int[][] placement = LineageLayoutService.place(g, included);
+
+        assertArrayEquals(new int[]{0, 0, 1}, placement[0]);
+        assertOrdersArePermutations(placement);
+    }
+
+    private static List<Integer> all(LineageGraph g) {
+        List<Integer> nodes = new ArrayList<>(g.nodeCount);
+        for (int u = 0; u < g.nodeCount; u++) nodes.add(u);
+        return nodes;
+    }
+
+    // within a layer the orders are 0 .. size-1 without gaps or duplicates
+    private static void assertOrdersArePermutations(int[][] placement) {
+        Map<Integer, List<Integer>> byLayer = new HashMap<>();
+        for (int i = 0; i < placement[0].length; i++) {
+            byLayer.computeIfAbsent(placement[0][i], k -> new ArrayList<>()).add(placement[1][i]);
+        }
+        for (List<Integer> orders : byLayer.values()) {
+            Collections.sort(orders);
+            for (int i = 0; i < orders.size(); i++) assertEquals(i, orders.get(i));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.lineage.service;
+
+import com.lineage.dto.GraphNodeDto;
+import com.lineage.dto.LineagePathDto;
+import com.lineage.dto.LineagePathsDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LineagePathServiceTest {
+
+    @Mock
+    private LineageGraphService lineageGraphService;
+
+    @InjectMocks
+    private LineagePathService lineagePathService;
+
+    // a reaches d in two hops via b or c, and in three hops via b-c or e-f
+    private void diamond() {
+        when(lineageGraphService.graph()).thenReturn(TestGraphs.of("a>b", "a>c", "b>d", "c>d", "b>c", "a>e", "e>f", "f>d", "d>a"));
+    }
+
+    @Test
+    void singlePathIsAShortestOne() {
+        diamond();
+        LineagePathsDto result = lineagePathService.findPaths("a", "d", 1, null, null);
+
+        assertEquals(1, result.getPaths().size());
+        assertEquals(2, result.getPaths().get(0).getHops());
+        assertTrue(Set.of(List.of("a", "b", "d"), List.of("a", "c", "d")).contains(names(result.getPaths().get(0))));
+        assertFalse(result.isTimedOut());
+    }
+
+    @Test
+    void kShortestPathsComeInOrderOfLength() {
+        diamond();
+        LineagePathsDto result = lineagePathService.findPaths("a", "d", 4, null, null);
+
+        List<Integer> hops = result.getPaths().stream().map(LineagePathDto::getHops).toList();
+        assertEquals(List.of(2, 2, 3, 3), hops);
+        Set<List<String>> paths = new HashSet<>();
+        for (LineagePathDto p : result.getPaths()) paths.add(names(p));
+        assertEquals(Set.of(List.of("a", "b", "d"), List.of("a", "c", "d"),
+                List.of("a", "b", "c", "d"), List.of("a", "e", "f", "d")), paths);
+    }
+
+    @Test
+    void onlyLoopFreePathsAreReturned() {
+        diamond();
+        LineagePathsDto result = lineagePathService.findPaths("a", "d", 10, null, null);
+
+        // the d > a edge would allow endless detours; only the four simple paths exist
+        assertEquals(4, result.getPaths().size());
+        for (LineagePathDto p : result.getPaths()) {
+            List<String> nodes = names(p);
+            assertEquals(nodes.size(), new HashSet<>(nodes).size(), "path repeats a table: " + nodes);
+            assertEquals(p.getHops(), p.getEdges().size());
+        }
+    }
+
+    @Test
+    void maxDepthBoundsEveryPath() {
+        diamond();
+        LineagePathsDto result = lineagePathService.findPaths("a", "d", 10, 2, null);
+
+        assertEquals(2, result.getPaths().size());
+        for (LineagePathDto p : result.getPaths()) assertEquals(2, p.getHops());
+    }
+
+    @Test
+    void parallelRoutesOfEqualLengthAreAllFound() {
+        // s fans out to 5 tables that all feed t
+        List<String> specs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            specs.add("s>m" + i);
+            specs.add("m" + i + ">t");
+        }
+        when(lineageGraphService.graph()).thenReturn(TestGraphs.of(specs.toArray(new String[0])));
+
+        LineagePathsDto result = lineagePathService.findPaths("s", "t", 10, null, null);
+
+        assertEquals(5, result.getPaths().size());
+        Set<String> middles = new HashSet<>();
+        for (LineagePathDto p : result.getPaths()) middles.add(names(p).get(1));
+        assertEquals(5, middles.size());
+    }
+
+    @Test
+    void unreachableTargetHasNoPaths() {
+        when(lineageGraphService.graph()).thenReturn(TestGraphs.of("a>b", "c>a"));
+
+        LineagePathsDto result = lineagePathService.findPaths("a", "c", 3, null, null);
+
+        assertTrue(result.getPaths().isEmpty());
+    }
+
+    @Test
+    void unknownEntityIsNull() {
+        diamond();
+        assertNull(lineagePathService.findPaths("a", "missing", 3, null, null));
+    }
+
+    private static List<String> names(LineagePathDto path) {
+        return path.getNodes().stream().map(GraphNodeDto::getEntityId).toList();
+    }
+}
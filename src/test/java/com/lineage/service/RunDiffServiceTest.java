@@ -0,0 +1,136 @@
+package com.lineage.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lineage.PostgresTest;
+import com.lineage.entity.ExtractionRun;
+import com.lineage.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@PostgresTest
+@Import({RunDiffService.class, TemporalLineageService.class, RunSummaryService.class, JacksonAutoConfiguration.class})
+class RunDiffServiceTest {
+
+    @Autowired
+    private RunDiffService runDiffService;
+
+    @Autowired
+    private TemporalLineageService temporalLineageService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ExtractionRunRepository extractionRunRepository;
+
+    @Autowired
+    private CatalogAssetRepository catalogAssetRepository;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private LineageRepository lineageRepository;
+
+    @MockBean
+    private LineageGraphService lineageGraphService;
+
+    private TestRuns runs;
+
+    @BeforeEach
+    void setUp() {
+        runs = new TestRuns(extractionRunRepository, catalogAssetRepository, assetRepository, fileRepository, lineageRepository);
+    }
+
+    private void complete(ExtractionRun run, int hour) {
+        temporalLineageService.onRunCompleted(runs.finish(run, hour));
+    }
+
+    // "added a>b" / "removed a>b" per edge line, in output order
+    private List<String> edgeChanges(ExtractionRun a, ExtractionRun b) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        runDiffService.writeDiff(a, b, out);
+        List<String> changes = new ArrayList<>();
+        for (String line : out.toString().split("\n")) {
+            Map<?, ?> row = objectMapper.readValue(line, Map.class);
+            if (!"edge".equals(row.get("kind"))) continue;
+            changes.add(row.get("change") + " " + shortName(row.get("from")) + ">" + shortName(row.get("to")));
+        }
+        changes.sort(null);
+        return changes;
+    }
+
+    private static String shortName(Object fullName) {
+        String name = (String) fullName;
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    @Test
+    void foldedRunsAreComparedThroughTheirVersions() throws IOException {
+        ExtractionRun first = runs.started();
+        runs.edge(first, "a", "b", "load.sql", 1);
+        runs.edge(first, "b", "c", "load.sql", 10);
+        complete(first, 1);
+
+        ExtractionRun second = runs.started();
+        // a > b only moved to another file: not a change
+        runs.edge(second, "a", "b", "moved.sql", 5);
+        runs.edge(second, "c", "d", "load.sql", 20);
+        complete(second, 2);
+
+        // the first run's rows are pruned by now
+        assertEquals(0, lineageRepository.countByExtractionRunRunId(first.getRunId()));
+        assertTrue(runDiffService.hasEdges(first));
+        assertEquals(List.of("added c>d", "removed b>c"), edgeChanges(first, second));
+    }
+
+    @Test
+    void runThatWasNotFoldedIsReadFromItsRows() throws IOException {
+        ExtractionRun older = runs.started();
+        runs.edge(older, "a", "b", "load.sql", 1);
+        runs.edge(older, "x", "y", "load.sql", 10);
+        ExtractionRun newer = runs.started();
+        runs.edge(newer, "a", "b", "load.sql", 1);
+
+        complete(newer, 1);
+        complete(older, 2);
+
+        // as of its finish the versions hold the newer run's edges; the older run's own rows differ
+        assertFalse(temporalLineageService.isFolded(older));
+        assertEquals(List.of("added x>y"), edgeChanges(newer, older));
+    }
+
+    @Test
+    void runWithoutFoldAndRowsHasNoEdgesToCompare() {
+        ExtractionRun older = runs.started();
+        runs.edge(older, "x", "y", "load.sql", 1);
+        ExtractionRun newer = runs.started();
+        runs.edge(newer, "a", "b", "load.sql", 1);
+        complete(newer, 1);
+        complete(older, 2);
+        assertTrue(runDiffService.hasEdges(older));
+
+        // the next fold prunes the older run's rows
+        ExtractionRun latest = runs.started();
+        runs.edge(latest, "a", "b", "load.sql", 1);
+        complete(latest, 3);
+
+        assertFalse(runDiffService.hasEdges(older));
+        assertTrue(runDiffService.hasEdges(newer));
+    }
+}
@@ -0,0 +1,200 @@
+package com.lineage.service;
+
+import com.lineage.entity.ExtractionRun;
+import com.lineage.entity.ExtractionShard;
+import com.lineage.entity.File;
+import com.lineage.repository.ExtractionRunRepository;
+import com.lineage.repository.ExtractionShardRepository;
+import com.lineage.repository.FileRepository;
+import com.lineage.repository.JobStatusRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedRunServiceTest {
+
+    @Mock
+    private ExtractionRunRepository extractionRunRepository;
+
+    @Mock
+    private ExtractionShardRepository shardRepository;
+
+    @Mock
+    private JobStatusRepository jobStatusRepository;
+
+    @Mock
+    private FileRepository fileRepository;
+
+    @Mock
+    private IncrementalRunService incrementalRunService;
+
+    @Mock
+    private RunSummaryService runSummaryService;
+
+    @InjectMocks
+    private ShardedRunService shardedRunService;
+
+    private ExtractionRun run;
+    private List<ExtractionShard> shards;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(shardedRunService, "maxRetries", 2);
+        run = new ExtractionRun("https://example.com/repo.git", "main", "test", "1.0");
+        run.setRunId(UUID.randomUUID());
+        run.setPhase(ExtractionRun.ExtractionPhase.STARTED);
+        run.setShardCount(3);
+        shards = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ExtractionShard shard = new ExtractionShard(run, i);
+            shard.setShardId(UUID.randomUUID());
+            shard.setLaunchId(UUID.randomUUID());
+            shard.setStatus(ExtractionShard.ShardStatus.RUNNING);
+            shard.setAttempts(1);
+            shards.add(shard);
+        }
+        when(extractionRunRepository.findByIdForUpdate(run.getRunId())).thenReturn(Optional.of(run));
+    }
+
+    private void plan(List<String> extract, int carriedForward) {
+        listShards();
+        Map<String, Object> plan = new HashMap<>();
+        plan.put("extract", extract);
+        plan.put("carriedForward", carriedForward);
+        when(incrementalRunService.applyManifest(eq(run.getRunId()), anyList())).thenReturn(plan);
+    }
+
+    private void listShards() {
+        when(shardRepository.findByExtractionRunRunIdOrderByShardIndex(run.getRunId())).thenReturn(shards);
+    }
+
+    private ShardedRunService.ShardExit exit(ExtractionShard shard, UUID launchId) {
+        when(shardRepository.findById(shard.getShardId())).thenReturn(Optional.of(shard));
+        return shardedRunService.onContainerExit(run.getRunId(), shard.getShardId(), launchId);
+    }
+
+    @Test
+    void pathsAreDealtRoundRobinInPathOrder() {
+        plan(List.of("e.sql", "c.sql", "a.sql", "g.sql", "d.sql", "b.sql", "f.sql"), 4);
+
+        Map<String, Object> resp = shardedRunService.applyManifest(run.getRunId(), 1, List.of());
+
+        assertEquals(List.of("a.sql", "d.sql", "g.sql"), shards.get(0).getPaths());
+        assertEquals(List.of("b.sql", "e.sql"), shards.get(1).getPaths());
+        assertEquals(List.of("c.sql", "f.sql"), shards.get(2).getPaths());
+        assertEquals(List.of("b.sql", "e.sql"), resp.get("extract"));
+        assertEquals(3, resp.get("shardCount"));
+        assertEquals(4, resp.get("carriedForward"));
+    }
+
+    @Test
+    void runIsPlannedOnlyOnce() {
+        plan(List.of("a.sql", "b.sql", "c.sql"), 0);
+
+        shardedRunService.applyManifest(run.getRunId(), 0, List.of());
+        Map<String, Object> second = shardedRunService.applyManifest(run.getRunId(), 2, List.of());
+
+        verify(incrementalRunService, times(1)).applyManifest(any(), anyList());
+        assertEquals(List.of("c.sql"), second.get("extract"));
+        assertEquals(0, second.get("carriedForward"));
+    }
+
+    @Test
+    void moreShardsThanPathsLeavesSomeShardsEmpty() {
+        plan(List.of("only.sql"), 0);
+
+        shardedRunService.applyManifest(run.getRunId(), 0, List.of());
+
+        assertEquals(List.of("only.sql"), shards.get(0).getPaths());
+        assertEquals(List.of(), shards.get(1).getPaths());
+        assertEquals(List.of(), shards.get(2).getPaths());
+    }
+
+    @Test
+    void shardIndexOutOfRangeIsRejected() {
+        listShards();
+        assertThrows(IllegalArgumentException.class, () -> shardedRunService.applyManifest(run.getRunId(), 3, List.of()));
+    }
+
+    @Test
+    void retrySkipsPathsAlreadyExtracted() {
+        shards.get(0).setPaths(List.of("a.sql", "d.sql", "g.sql"));
+        shards.get(1).setPaths(List.of("b.sql", "e.sql"));
+        shards.get(2).setPaths(List.of("c.sql", "f.sql"));
+        shards.get(0).setAttempts(2);
+        listShards();
+        when(fileRepository.findHashesByRunIdAndStatus(run.getRunId(), File.FileStatus.SUCCESS))
+                .thenReturn(List.of(new Object[]{"a.sql", "h1"}, new Object[]{"b.sql", "h2"}));
+
+        Map<String, Object> resp = shardedRunService.applyManifest(run.getRunId(), 0, List.of());
+
+        assertEquals(List.of("d.sql", "g.sql"), resp.get("extract"));
+        verify(incrementalRunService, never()).applyManifest(any(), anyList());
+    }
+
+    @Test
+    void exitWithoutCompletionIsRetriedWithANewLaunchId() {
+        ExtractionShard shard = shards.get(1);
+        UUID attempt = shard.getLaunchId();
+
+        ShardedRunService.ShardExit exit = exit(shard, attempt);
+
+        assertEquals(ShardedRunService.ShardExit.Outcome.RETRY, exit.outcome());
+        assertNotNull(exit.nextLaunchId());
+        assertNotEquals(attempt, exit.nextLaunchId());
+        assertEquals(exit.nextLaunchId(), shard.getLaunchId());
+        assertEquals(ExtractionShard.ShardStatus.QUEUED, shard.getStatus());
+        assertEquals(ExtractionRun.ExtractionPhase.STARTED, run.getPhase());
+    }
+
+    @Test
+    void shardOutOfRetriesFailsTheRun() {
+        ExtractionShard shard = shards.get(2);
+        shard.setAttempts(3);
+        shard.setLastError("boom");
+
+        ShardedRunService.ShardExit exit = exit(shard, shard.getLaunchId());
+
+        assertEquals(ShardedRunService.ShardExit.Outcome.RUN_FAILED, exit.outcome());
+        assertEquals(ExtractionShard.ShardStatus.FAILED, shard.getStatus());
+        assertEquals(ExtractionRun.ExtractionPhase.FAILED, run.getPhase());
+        assertNotNull(run.getFinishedAt());
+        verify(runSummaryService).summarize(run);
+    }
+
+    @Test
+    void staleOrCompletedAttemptsNeedNoAction() {
+        ExtractionShard shard = shards.get(0);
+
+        assertEquals(ShardedRunService.ShardExit.Outcome.DONE, exit(shard, UUID.randomUUID()).outcome());
+
+        shard.setStatus(ExtractionShard.ShardStatus.COMPLETED);
+        assertEquals(ShardedRunService.ShardExit.Outcome.DONE, exit(shard, shard.getLaunchId()).outcome());
+        verify(shardRepository, never()).save(any());
+    }
+
+    @Test
+    void runCompletesWithItsLastShard() {
+        listShards();
+        assertFalse(shardedRunService.shardCompleted(run.getRunId(), 0, Map.of("files", 3)));
+        assertFalse(shardedRunService.shardCompleted(run.getRunId(), 2, Map.of("files", 2)));
+        assertTrue(shardedRunService.shardCompleted(run.getRunId(), 1, Map.of("files", 4)));
+
+        Map<String, Object> stats = shardedRunService.aggregateStats(run.getRunId());
+        assertEquals(9L, stats.get("files"));
+        assertEquals(3, stats.get("shards"));
+    }
+}
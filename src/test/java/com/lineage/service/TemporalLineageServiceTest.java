@@ -0,0 +1,180 @@
+package com.lineage.service;
+
+import com.lineage.PostgresTest;
+import com.lineage.entity.*;
+import com.lineage.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@PostgresTest
+@Import({TemporalLineageService.class, RunSummaryService.class})
+class TemporalLineageServiceTest {
+
+    @Autowired
+    private TemporalLineageService temporalLineageService;
+
+    @Autowired
+    private RunSummaryService runSummaryService;
+
+    @Autowired
+    private ExtractionRunRepository extractionRunRepository;
+
+    @Autowired
+    private CatalogAssetRepository catalogAssetRepository;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private LineageRepository lineageRepository;
+
+    @Autowired
+    private LineageEdgeVersionRepository edgeVersionRepository;
+
+    @MockBean
+    private LineageGraphService lineageGraphService;
+
+    private TestRuns runs;
+
+    @BeforeEach
+    void setUp() {
+        runs = new TestRuns(extractionRunRepository, catalogAssetRepository, assetRepository, fileRepository, lineageRepository);
+    }
+
+    private void complete(ExtractionRun run, int hour) {
+        temporalLineageService.onRunCompleted(runs.finish(run, hour));
+    }
+
+    private LineageEdgeVersion version(String from, String to) {
+        List<LineageEdgeVersion> found = edgeVersionRepository.findAll().stream()
+                .filter(v -> v.getFromCatalog().getShortName().equals(from) && v.getToCatalog().getShortName().equals(to))
+                .toList();
+        assertEquals(1, found.size(), "versions of " + from + " > " + to);
+        return found.get(0);
+    }
+
+    @Test
+    void edgesAreOpenedAndClosedAcrossRuns() {
+        ExtractionRun first = runs.started();
+        runs.edge(first, "a", "b", "load.sql", 1);
+        runs.edge(first, "b", "c", "load.sql", 10);
+        complete(first, 1);
+
+        ExtractionRun second = runs.started();
+        runs.edge(second, "a", "b", "load.sql", 1);
+        runs.edge(second, "c", "d", "load.sql", 20);
+        complete(second, 2);
+
+        assertEquals(3, edgeVersionRepository.count());
+        LineageEdgeVersion kept = version("a", "b");
+        assertEquals(first.getRunId(), kept.getValidFromRunId());
+        assertNull(kept.getValidToAt());
+        LineageEdgeVersion dropped = version("b", "c");
+        assertEquals(second.getRunId(), dropped.getValidToRunId());
+        assertEquals(runs.start.plusHours(2), dropped.getValidToAt());
+        assertEquals(second.getRunId(), version("c", "d").getValidFromRunId());
+    }
+
+    @Test
+    void movedEdgeKeepsItsVersion() {
+        ExtractionRun first = runs.started();
+        runs.edge(first, "a", "b", "old.sql", 1);
+        complete(first, 1);
+
+        ExtractionRun second = runs.started();
+        runs.edge(second, "a", "b", "new.sql", 40);
+        complete(second, 2);
+
+        LineageEdgeVersion v = version("a", "b");
+        assertEquals(first.getRunId(), v.getValidFromRunId());
+        assertNull(v.getValidToAt());
+        assertEquals("new.sql", v.getFilePath());
+        assertEquals(40, v.getStartLine());
+    }
+
+    @Test
+    void runCompletingAfterANewerRunIsNotFolded() {
+        ExtractionRun older = runs.started();
+        runs.edge(older, "a", "b", "load.sql", 1);
+        ExtractionRun newer = runs.started();
+        runs.edge(newer, "c", "d", "load.sql", 1);
+
+        complete(newer, 1);
+        complete(older, 2);
+
+        assertEquals(1, edgeVersionRepository.count());
+        assertNull(version("c", "d").getValidToAt());
+    }
+
+    @Test
+    void supersededRunRowsArePrunedOnceFolded() {
+        ExtractionRun first = runs.started();
+        runs.edge(first, "a", "b", "load.sql", 1);
+        runs.edge(first, "b", "c", "load.sql", 10);
+        complete(first, 1);
+
+        ExtractionRun second = runs.started();
+        runs.edge(second, "a", "b", "load.sql", 1);
+        complete(second, 2);
+
+        assertEquals(0, lineageRepository.countByExtractionRunRunId(first.getRunId()));
+        assertEquals(1, lineageRepository.countByExtractionRunRunId(second.getRunId()));
+        // the pruned run still reports its edges, read from the versions valid when it was folded
+        assertEquals(2, runSummaryService.edgeCounts(first).total());
+        assertEquals(2, runSummaryService.edgeCounts(first).tableEdges());
+    }
+
+    @Test
+    void prunedRunsReadTheirEdgesFromTheVersions() {
+        ExtractionRun first = runs.started();
+        runs.edge(first, "a", "b", "load.sql", 1);
+        runs.edge(first, "b", "c", "load.sql", 10);
+        complete(first, 1);
+
+        ExtractionRun second = runs.started();
+        runs.edge(second, "a", "b", "load.sql", 1);
+        complete(second, 2);
+
+        // a closed version shows the SQL of the last run it was found in, an open one the latest
+        LineageEdgeVersion closed = version("b", "c");
+        assertEquals(Optional.of("sql-" + first.getRunId()), fileRepository.findLatestSqlContentHash(
+                TestRuns.REPO, "main", "load.sql", closed.getValidToAt()));
+        assertEquals(Optional.of("sql-" + second.getRunId()), fileRepository.findLatestSqlContentHash(
+                TestRuns.REPO, "main", "load.sql", null));
+
+        // degree counts of the first run's b, as of its fold: a > b and b > c
+        Asset b = runs.asset(first, "b");
+        Object[] stats = assetRepository.findPageStats(List.of(b.getAssetId())).get(0);
+        assertEquals(1, ((Number) stats[1]).intValue());
+        assertEquals(1, ((Number) stats[2]).intValue());
+    }
+
+    @Test
+    void baselineOfAnUnfinishedIncrementalRunIsNotPruned() {
+        ExtractionRun first = runs.started();
+        runs.edge(first, "a", "b", "load.sql", 1);
+        complete(first, 1);
+
+        ExtractionRun incremental = runs.started();
+        incremental.setRunMode(ExtractionRun.RunMode.INCREMENTAL);
+        incremental.setBaselineRunId(first.getRunId());
+        extractionRunRepository.saveAndFlush(incremental);
+
+        ExtractionRun full = runs.started();
+        runs.edge(full, "a", "b", "load.sql", 1);
+        complete(full, 2);
+
+        assertEquals(1, lineageRepository.countByExtractionRunRunId(first.getRunId()));
+    }
+}
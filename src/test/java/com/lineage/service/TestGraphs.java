@@ -0,0 +1,45 @@
+package com.lineage.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Small in-memory lineage graphs for the graph algorithm tests
+ */
+final class TestGraphs {
+
+    private TestGraphs() {}
+
+    /**
+     * Graph from "from>to" edge specs; a spec without '>' adds an isolated table. Tables are numbered in
+     * order of first appearance.
+     */
+    static LineageGraph of(String... specs) {
+        Map<String, UUID> ids = new LinkedHashMap<>();
+        for (String spec : specs) {
+            for (String name : spec.split(">")) ids.computeIfAbsent(name, TestGraphs::id);
+        }
+        LineageGraph.Builder b = new LineageGraph.Builder(ids.size());
+        ids.forEach((name, id) -> b.addNode(id, name, "db.schema." + name));
+        for (String spec : specs) {
+            String[] ends = spec.split(">");
+            if (ends.length == 2) b.addEdge(ids.get(ends[0]), ids.get(ends[1]), "SELECT");
+        }
+        return b.build(1);
+    }
+
+    /**
+     * Graph of n tables "t0".."t(n-1)" with the given (from, to) edges
+     */
+    static LineageGraph numbered(int n, int[][] edges) {
+        LineageGraph.Builder b = new LineageGraph.Builder(n);
+        for (int i = 0; i < n; i++) b.addNode(id("t" + i), "t" + i, "db.schema.t" + i);
+        for (int[] e : edges) b.addEdge(id("t" + e[0]), id("t" + e[1]), null);
+        return b.build(1);
+    }
+
+    private static UUID id(String name) {
+        return UUID.nameUUIDFromBytes(name.getBytes());
+    }
+}
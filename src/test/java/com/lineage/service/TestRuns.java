@@ -0,0 +1,97 @@
+package com.lineage.service;
+
+import com.lineage.entity.*;
+import com.lineage.repository.*;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Extraction runs with per-run lineage rows for the PostgreSQL-backed tests; one instance per test, runs
+ * finish at whole hours after {@link #start}
+ */
+final class TestRuns {
+
+    static final String REPO = "https://example.com/repo.git";
+
+    final LocalDateTime start = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+    private final ExtractionRunRepository extractionRunRepository;
+    private final CatalogAssetRepository catalogAssetRepository;
+    private final AssetRepository assetRepository;
+    private final FileRepository fileRepository;
+    private final LineageRepository lineageRepository;
+
+    private final Map<String, CatalogAsset> catalog = new HashMap<>();
+    private final Map<String, Asset> assets = new HashMap<>();
+
+    TestRuns(ExtractionRunRepository extractionRunRepository, CatalogAssetRepository catalogAssetRepository,
+             AssetRepository assetRepository, FileRepository fileRepository, LineageRepository lineageRepository) {
+        this.extractionRunRepository = extractionRunRepository;
+        this.catalogAssetRepository = catalogAssetRepository;
+        this.assetRepository = assetRepository;
+        this.fileRepository = fileRepository;
+        this.lineageRepository = lineageRepository;
+    }
+
+    ExtractionRun started() {
+        ExtractionRun run = new ExtractionRun(REPO, "main", "test", "1.0");
+        run.setPhase(ExtractionRun.ExtractionPhase.STARTED);
+        return extractionRunRepository.saveAndFlush(run);
+    }
+
+    ExtractionRun finish(ExtractionRun run, int hour) {
+        run.setPhase(ExtractionRun.ExtractionPhase.COMPLETED);
+        run.setFinishedAt(start.plusHours(hour));
+        return extractionRunRepository.saveAndFlush(run);
+    }
+
+    /**
+     * Table edge from > to found at the given line of a file of the run; the file's SQL content hash
+     * is "sql-" + runId
+     */
+    void edge(ExtractionRun run, String from, String to, String filePath, int line) {
+        File file = fileRepository.findByExtractionRunRunIdAndFilePath(run.getRunId(), filePath)
+                .orElseGet(() -> {
+                    File f = new File(run, filePath, File.FileType.SQL, "hash-" + filePath);
+                    f.setSqlContentHash("sql-" + run.getRunId());
+                    return fileRepository.save(f);
+                });
+        Lineage l = new Lineage();
+        l.setExtractionRun(run);
+        l.setFile(file);
+        l.setFromAsset(asset(run, from));
+        l.setToAsset(asset(run, to));
+        l.setEdgeType("table_edge");
+        l.setTransformationType("INSERT_SELECT");
+        l.setStartLine(line);
+        l.setEndLine(line + 2);
+        lineageRepository.saveAndFlush(l);
+    }
+
+    // The run's snapshot of a table (one per run and name)
+    Asset asset(ExtractionRun run, String name) {
+        return assets.computeIfAbsent(run.getRunId() + "/" + name, k -> {
+            Asset a = new Asset();
+            a.setExtractionRun(run);
+            a.setCatalogAsset(catalog(name));
+            a.setFullName("db.sales." + name);
+            a.setShortName(name);
+            a.setRole(Asset.Role.TARGET);
+            return assetRepository.save(a);
+        });
+    }
+
+    CatalogAsset catalog(String name) {
+        return catalog.computeIfAbsent(name, n -> {
+            CatalogAsset c = new CatalogAsset();
+            c.setQualifiedName("db.sales." + n);
+            c.setShortKey(n);
+            c.setShortName(n);
+            c.setFullName("db.sales." + n);
+            return catalogAssetRepository.save(c);
+        });
+    }
+}